@@ -0,0 +1,79 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frc.robot.subsystems.leds.LEDColor;
+import frc.robot.subsystems.leds.LEDCompositor;
+import frc.robot.subsystems.leds.LEDLayer;
+
+import static frc.robot.Constants.LEDConstants.LED_LENGTH;
+
+/**
+ * Benchmarks compositing the five `LEDSubsystem` layers on a 144-LED strip, mirroring a single
+ * `LEDSubsystem.periodic()` loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LEDCompositorBenchmark {
+    private LEDLayer baseLayer;
+    private LEDLayer manualColorLayer;
+    private LEDLayer heldPieceLayer;
+    private LEDLayer colorSensorLayer;
+    private LEDLayer aprilDetectedLayer;
+    private LEDCompositor compositor;
+
+    private int tick;
+
+    @Setup
+    public void setup() {
+        baseLayer = new LEDLayer(LED_LENGTH);
+        manualColorLayer = new LEDLayer(LED_LENGTH);
+        heldPieceLayer = new LEDLayer(LED_LENGTH);
+        colorSensorLayer = new LEDLayer(LED_LENGTH);
+        aprilDetectedLayer = new LEDLayer(LED_LENGTH);
+
+        compositor = new LEDCompositor(
+            LED_LENGTH,
+            baseLayer, manualColorLayer, heldPieceLayer, colorSensorLayer, aprilDetectedLayer
+        );
+    }
+
+    /**
+     * Composites a frame where every layer is updated, as when the color sensor fault and AprilTag
+     * pulses are both displayed.
+     */
+    @Benchmark
+    public boolean composeAllLayersActive() {
+        tick++;
+        baseLayer.fillColor(LEDColor.rgb(48, 2, 63));
+        manualColorLayer.incrementColors(3, (tick & 1) == 0 ? LEDColor.rgb(63, 25, 0) : LEDColor.TRANSPARENT);
+        colorSensorLayer.fillGrouped(5, 10, LEDColor.lerp(LEDColor.rgb(63, 0, 0), LEDColor.rgb(48, 2, 63), tick & 0xFF));
+        aprilDetectedLayer.incrementColors(3, LEDColor.withAlpha(LEDColor.rgb(63, 63, 59), 128));
+
+        return compositor.compose();
+    }
+
+    /**
+     * Composites a frame where nothing has changed, which is the common case when the robot is idle.
+     */
+    @Benchmark
+    public boolean composeUnchanged() {
+        baseLayer.fillColor(LEDColor.rgb(48, 2, 63));
+        return compositor.compose();
+    }
+}
@@ -0,0 +1,83 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frc.robot.subsystems.leds.LEDColor;
+import frc.robot.subsystems.leds.LEDCompositor;
+import frc.robot.subsystems.leds.LEDLayer;
+
+/**
+ * Benchmarks scrolling an LED layer by a few LEDs per loop (what the manual color and AprilTag layers do each
+ * tick at `LEDS_PER_SEC = 150`) on the current 144-LED strip and on longer strips. `shiftingScroll` is the
+ * original whole-array shift, kept here as the baseline for the ring-buffer `LEDLayer`.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LEDLayerScrollBenchmark {
+    private static final int INC = 3;
+
+    @Param({ "144", "1024", "8192" })
+    public int length;
+
+    private LEDLayer layer;
+    private int[] shiftingArray;
+    private LEDCompositor compositor;
+
+    private int tick;
+
+    @Setup
+    public void setup() {
+        layer = new LEDLayer(length);
+        shiftingArray = new int[length];
+
+        LEDLayer base = new LEDLayer(length);
+        base.fillColor(LEDColor.rgb(48, 2, 63));
+        compositor = new LEDCompositor(length, base, layer);
+    }
+
+    @Benchmark
+    public LEDLayer ringBufferScroll() {
+        layer.incrementColors(INC, nextColor());
+        return layer;
+    }
+
+    @Benchmark
+    public int[] shiftingScroll() {
+        int color = nextColor();
+        System.arraycopy(shiftingArray, INC, shiftingArray, 0, length - INC);
+        for (int i = length - INC; i < length; i++) {
+            shiftingArray[i] = color;
+        }
+        return shiftingArray;
+    }
+
+    /**
+     * Scrolls the layer and composites it over a solid base layer, which includes reading the layer back
+     * through its head offset.
+     */
+    @Benchmark
+    public boolean ringBufferScrollAndCompose() {
+        layer.incrementColors(INC, nextColor());
+        return compositor.compose();
+    }
+
+    private int nextColor() {
+        return (++tick & 8) == 0 ? LEDColor.rgb(63, 63, 59) : LEDColor.TRANSPARENT;
+    }
+}
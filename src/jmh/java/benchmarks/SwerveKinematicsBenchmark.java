@@ -0,0 +1,84 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+import frc.robot.subsystems.drivetrain.FourModuleSwerveKinematics;
+
+import static frc.robot.Constants.SwerveConstants.*;
+
+/**
+ * Benchmarks the closed-form four-module kinematics against WPILib's matrix-based kinematics, for the three calls
+ * made every loop: inverse kinematics in `setDrivePowers()`, forward kinematics for the setpoint limits, and the
+ * odometry twist in the pose estimator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwerveKinematicsBenchmark {
+    private final SwerveDriveKinematics wpilib = new SwerveDriveKinematics(TL_POS, TR_POS, BL_POS, BR_POS);
+    private final SwerveDriveKinematics fourModule = new FourModuleSwerveKinematics(TL_POS, TR_POS, BL_POS, BR_POS);
+
+    private final ChassisSpeeds speeds = new ChassisSpeeds(2.5, -1.0, 3.0);
+    private final SwerveModuleState[] states = {
+        new SwerveModuleState(3.1, Rotation2d.fromDegrees(20)),
+        new SwerveModuleState(2.4, Rotation2d.fromDegrees(-5)),
+        new SwerveModuleState(3.4, Rotation2d.fromDegrees(40)),
+        new SwerveModuleState(2.8, Rotation2d.fromDegrees(10))
+    };
+    private final SwerveModulePosition[] deltas = {
+        new SwerveModulePosition(0.062, Rotation2d.fromDegrees(20)),
+        new SwerveModulePosition(0.048, Rotation2d.fromDegrees(-5)),
+        new SwerveModulePosition(0.068, Rotation2d.fromDegrees(40)),
+        new SwerveModulePosition(0.056, Rotation2d.fromDegrees(10))
+    };
+
+    @Benchmark
+    public SwerveModuleState[] inverseWPILib() {
+        return wpilib.toSwerveModuleStates(speeds);
+    }
+
+    @Benchmark
+    public SwerveModuleState[] inverseFourModule() {
+        return fourModule.toSwerveModuleStates(speeds);
+    }
+
+    @Benchmark
+    public ChassisSpeeds forwardWPILib() {
+        return wpilib.toChassisSpeeds(states);
+    }
+
+    @Benchmark
+    public ChassisSpeeds forwardFourModule() {
+        return fourModule.toChassisSpeeds(states);
+    }
+
+    @Benchmark
+    public Twist2d odometryWPILib() {
+        return wpilib.toTwist2d(deltas);
+    }
+
+    @Benchmark
+    public Twist2d odometryFourModule() {
+        return fourModule.toTwist2d(deltas);
+    }
+}
@@ -0,0 +1,79 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.TimedRobot;
+
+import frc.robot.subsystems.drivetrain.SwerveSetpointGenerator;
+import frc.robot.subsystems.drivetrain.SwerveSubsystem;
+
+import static frc.robot.Constants.SwerveConstants.*;
+
+/**
+ * Benchmarks one call of the swerve setpoint generator, which runs every loop in `setDrivePowers()` and has to fit
+ * well under 1ms of the 20ms loop. `reachable` is the common case where the desired speeds are within one loop of
+ * the previous setpoints; `directionChanges` alternates between perpendicular full-speed commands every call so
+ * that every call bisects for the feasible fraction. `kinematicsOnly` is the previous kinematics and
+ * desaturation, as the baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwerveSetpointGeneratorBenchmark {
+    private static final double DT = TimedRobot.kDefaultPeriod;
+
+    private final SwerveDriveKinematics kinematics = new SwerveDriveKinematics(TL_POS, TR_POS, BL_POS, BR_POS);
+
+    private final ChassisSpeeds forward = new ChassisSpeeds(SwerveSubsystem.MAX_VEL, 0, 0);
+    private final ChassisSpeeds left = new ChassisSpeeds(0, SwerveSubsystem.MAX_VEL, 0);
+
+    private SwerveSetpointGenerator generator;
+    private int tick;
+
+    @Setup
+    public void setup() {
+        generator = new SwerveSetpointGenerator(
+            kinematics,
+            SwerveSubsystem.MAX_VEL, SwerveSubsystem.MAX_OMEGA,
+            MODULE_MAX_DRIVE_ACCEL, MODULE_MAX_STEER_VEL
+        );
+    }
+
+    @Benchmark
+    public SwerveModuleState[] reachable() {
+        return generator.generate(new ChassisSpeeds(0.5, 0.25, 0.1), DT);
+    }
+
+    @Benchmark
+    public SwerveModuleState[] directionChanges() {
+        return generator.generate((++tick & 1) == 0 ? forward : left, DT);
+    }
+
+    @Benchmark
+    public SwerveModuleState[] kinematicsOnly() {
+        ChassisSpeeds speeds = (++tick & 1) == 0 ? forward : left;
+        SwerveModuleState[] states = kinematics.toSwerveModuleStates(speeds);
+        SwerveDriveKinematics.desaturateWheelSpeeds(
+            states, speeds,
+            SwerveSubsystem.MAX_VEL, SwerveSubsystem.MAX_VEL, SwerveSubsystem.MAX_OMEGA
+        );
+        return states;
+    }
+}
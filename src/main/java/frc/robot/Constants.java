@@ -88,6 +88,12 @@ public final class Constants {
             Units.inchesToMeters(-13.625),
             Units.inchesToMeters(-10.25)
         );
+
+        // Per-module limits for the swerve setpoint generator. The drive acceleration is the traction limit,
+        // mu * g for a tread coefficient of friction of ~1.0 on carpet; it hasn't been characterized (e.g. by
+        // logging wheel slip through full power launches), so the generator is disabled in `BaseSwerveSubsystem`.
+        public static final double MODULE_MAX_DRIVE_ACCEL = 10.0; // m/s^2, TODO: measure
+        public static final double MODULE_MAX_STEER_VEL = 9.5; // rads/s, ~80% of a NEO 550's free speed through the 96:1 steer reduction
     }
 
     public static final class SwerveConstants2020 {
@@ -124,6 +130,25 @@ public final class Constants {
         );
     }
 
+    public static final class TipOverConstants {
+        // Center of gravity model of the robot, split into the chassis (everything but the moving elevator stages,
+        // including the battery and bumpers) and the moving stages, which travel along the elevator's tilt.
+        // All masses and positions are estimates; x is forward from the center of the robot. The chassis is about
+        // the weight limit with bumpers and battery less the stages, with its center of gravity at the battery and
+        // drive motors; the stages' stowed position is their center in the stowed elevator. To characterize, weigh
+        // the stages, and find each center of gravity height by weighing the robot level and tilted on one side.
+        // Until then the tip-over limiter is disabled in `BaseSwerveSubsystem`.
+        public static final double CHASSIS_MASS_KG = 46.0; // TODO: measure
+        public static final double CHASSIS_COG_HEIGHT_METERS = Units.inchesToMeters(7.0); // TODO: measure
+
+        public static final double CARRIAGE_MASS_KG = 8.0; // TODO: measure
+        public static final double CARRIAGE_STOWED_COG_X_METERS = Units.inchesToMeters(-4.0);
+        public static final double CARRIAGE_STOWED_COG_HEIGHT_METERS = Units.inchesToMeters(14.0);
+
+        // Fraction of the tipping acceleration the limiter allows
+        public static final double TIP_SAFETY_FACTOR = 0.75;
+    }
+
     public static final class TiltedElevatorConstants {
         public static final int EXTENSION_ID = 7;
         public static final int EXTENSION_FOLLOW_ID = 8;
@@ -132,10 +157,21 @@ public final class Constants {
         public static final float EXTENSION_LIMIT_METERS = (float) Units.inchesToMeters(60.25 + 0.75); // extra 3/4" to account for steady-state error in PID
         public static final double EXTENSION_TOLERANCE_METERS = Units.inchesToMeters(1);
 
+        public static final double EXTENSION_ANGLE_RADIANS = Units.degreesToRadians(55); // from horizontal, TODO: measure
+
+        // Motion profile constraints and feedforward gains (volts) for the extension. kG is the voltage to
+        // hold the carriage against gravity if the elevator were vertical; only sin(angle) of it acts along the tilt.
+        public static final double EXTENSION_MAX_VEL = 1.6; // m/s
+        public static final double EXTENSION_MAX_ACCEL = 8; // m/s^2
+        public static final double EXTENSION_KS = 0;
+        public static final double EXTENSION_KG_VERTICAL = IS_R1 ? 0.44 : 0.235;
+        public static final double EXTENSION_KV = 6.5;
+        public static final double EXTENSION_KA = 0.024;
+
         public static final int ZERO_LIMIT_ID = 1;
         public static final int LEFT_HALL_ID = 4;
         public static final HallEffectSensor.Magnet[] LEFT_MAGNETS = {
-            new HallEffectSensor.Magnet(EXTENSION_LIMIT_METERS) // TODO: find actual location of hall effect!
+            new HallEffectSensor.Magnet(EXTENSION_LIMIT_METERS, Units.inchesToMeters(0.25)) // TODO: find actual location of hall effect and measure detection band!
         };
     }
 
@@ -205,6 +241,9 @@ public final class Constants {
 
         public static final double GRID_X_INCHES = 53.938 + (ROBOT_LENGTH_INCHES / 2.0);
         public static final double ALIGNMENT_OFFSET_INCHES = 12.885;
+        // Distance from the place position within which a held cone would hit the node's pole if the elevator
+        // were not already at height
+        public static final double CONE_KEEP_OUT_INCHES = 8.0;
 
         public static final double C3_Y_INCHES = 196.19;
         public static final double C2_Y_INCHES = 174.19;
@@ -217,5 +256,19 @@ public final class Constants {
         public static final double A3_Y_INCHES = 64.19;
         public static final double A2_Y_INCHES = 42.19;
         public static final double A1_Y_INCHES = 20.19;
+
+        // Blue charging station, from the field drawings; the red one is mirrored
+        public static final double CHARGING_STATION_X_INCHES = 153.19; // Center, at the hinge
+        public static final double CHARGING_STATION_Y_INCHES = B2_Y_INCHES;
+        public static final double CHARGING_STATION_DEPTH_INCHES = 76.125; // Including the ramps
+        public static final double CHARGING_STATION_TOP_DEPTH_INCHES = 48.0;
+        public static final double CHARGING_STATION_WIDTH_INCHES = 97.25;
+        public static final double CHARGING_STATION_HINGE_HEIGHT_INCHES = 9.125;
+        public static final double CHARGING_STATION_MAX_ANGLE_DEGS = 15.0;
+        public static final double CHARGING_STATION_LEVEL_DEGS = 2.5; // Within this of horizontal counts as level
+        // Estimates, to tune against video of the real station
+        public static final double CHARGING_STATION_INERTIA_KG_M2 = 5.0; // The top plate and ramps about the hinge
+        public static final double CHARGING_STATION_DAMPING_NM_PER_RAD_PER_SECOND = 150.0;
+        public static final double CHARGING_STATION_FRICTION_NM = 20.0; // Holds the plate until the load overcomes it
     }
 }
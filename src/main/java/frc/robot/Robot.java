@@ -10,6 +10,13 @@ import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 
 import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
+import frc.robot.util.CANBusBudget;
+import frc.robot.util.HardwareSnapshot;
+import frc.robot.util.JitWarmup;
+import frc.robot.util.MotorUtil;
+import frc.robot.util.SetpointCache;
+import frc.robot.util.ShuffleboardUtil;
+import frc.robot.util.StartupTimeline;
 
 /**
  * The VM is configured to automatically run this class, and to call the functions corresponding to
@@ -18,35 +25,82 @@ import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
  * project.
  */
 public class Robot extends TimedRobot {
+    // While disabled, the JIT warm-up may use the part of each loop up to this long after robotPeriodic() starts
+    private static final double WARMUP_BUDGET_SECONDS = 0.010;
+
     private RobotContainer robotContainer;
+    private JitWarmup jitWarmup;
     private Command autonomousCommand;
     private Command testCommand;
+    private boolean startupReported = false;
 
     @Override
     public void robotInit() {
+        StartupTimeline.mark("Robot init");
+
         // Instantiate our RobotContainer. This will perform all our button bindings, and put our
         // autonomous chooser on the dashboard.
         robotContainer = new RobotContainer();
         LiveWindow.disableAllTelemetry();
+        StartupTimeline.mark("Robot container");
+
+        // Wait for motor controllers still being configured in the background, then report the status frame
+        // rates of every motor controller and the estimated CAN bus utilization
+        MotorUtil.finishConfiguration();
+        CANBusBudget.report();
+        StartupTimeline.mark("Motor configuration");
+
+        // Compile the control code's hot paths before the first enable, instead of during the first seconds of auton
+        if (robotContainer.driveSubsystem instanceof BaseSwerveSubsystem) {
+            jitWarmup = new JitWarmup((BaseSwerveSubsystem) robotContainer.driveSubsystem);
+        }
     }
 
     @Override
     public void robotPeriodic() {
+        long startNanos = System.nanoTime();
+
+        // Read every sensor once, before anything in the loop uses them
+        HardwareSnapshot.update();
+
         // Runs the Scheduler. This is responsible for polling buttons, adding newly-scheduled
         // commands, running already-scheduled commands, removing finished or interrupted commands,
         // and running subsystem periodic() methods. This must be called from the robot's periodic
         // block in order for anything in the Command-based framework to work.
         CommandScheduler.getInstance().run();
+        StartupTimeline.mark("First loop");
+
+        // Build the dashboards deferred at startup, one piece per loop, then report how long startup took
+        boolean dashboardsPending = ShuffleboardUtil.buildNextDeferred();
+        if (!startupReported && !dashboardsPending) {
+            StartupTimeline.mark("Dashboards");
+            StartupTimeline.report();
+            startupReported = true;
+        }
+
+        if (jitWarmup != null && isDisabled()) {
+            jitWarmup.run(WARMUP_BUDGET_SECONDS - (System.nanoTime() - startNanos) / 1e9);
+        }
     }
 
     @Override
-    public void disabledInit() {}
+    public void disabledInit() {
+        // Drop any deceleration still in progress, so the drivetrain doesn't resume it when re-enabled
+        robotContainer.driveSubsystem.stopImmediately();
+
+        // Report how many motor setpoints were sent and how many were suppressed as unchanged so far, and how many
+        // sensor reads were requested per loop and how many were made
+        SetpointCache.report();
+        HardwareSnapshot.report();
+    }
 
     @Override
     public void disabledPeriodic() {}
 
     @Override
     public void autonomousInit() {
+        finishWarmup();
+
         if (robotContainer.driveSubsystem instanceof BaseSwerveSubsystem) {
             BaseSwerveSubsystem swerveSubsystem = (BaseSwerveSubsystem) robotContainer.driveSubsystem;
             swerveSubsystem.setVisionEnabled(false);
@@ -63,6 +117,8 @@ public class Robot extends TimedRobot {
 
     @Override
     public void teleopInit() {
+        finishWarmup();
+
         if (robotContainer.driveSubsystem instanceof BaseSwerveSubsystem) {
             BaseSwerveSubsystem swerveSubsystem = (BaseSwerveSubsystem) robotContainer.driveSubsystem;
             swerveSubsystem.setVisionEnabled(true);
@@ -82,6 +138,8 @@ public class Robot extends TimedRobot {
 
     @Override
     public void testInit() {
+        finishWarmup();
+
         // Schedule the test command and cancel auton
         testCommand = robotContainer.getTestCommand();
         if (autonomousCommand != null) autonomousCommand.cancel();
@@ -90,4 +148,14 @@ public class Robot extends TimedRobot {
 
     @Override
     public void testPeriodic() {}
+
+    /**
+     * Stops the JIT warm-up once the robot is enabled, and reports the compile tiers its hot methods reached.
+     */
+    private void finishWarmup() {
+        if (jitWarmup == null) return;
+
+        jitWarmup.finish();
+        jitWarmup = null;
+    }
 }
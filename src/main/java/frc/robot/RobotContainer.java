@@ -4,6 +4,10 @@
 
 package frc.robot;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.networktables.GenericEntry;
@@ -16,6 +20,7 @@ import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.util.Color;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
+import edu.wpi.first.wpilibj2.command.ProxyCommand;
 import edu.wpi.first.wpilibj2.command.RunCommand;
 import edu.wpi.first.wpilibj2.command.button.JoystickButton;
 
@@ -41,6 +46,7 @@ import frc.robot.commands.balancing.DefaultBalancerCommand;
 import frc.robot.commands.dropping.AutoAlignCommand;
 import frc.robot.commands.balancing.DualPIDBalancerCommand;
 import frc.robot.commands.balancing.GoOverCommand;
+import frc.robot.commands.balancing.MPCBalancerCommand;
 import frc.robot.commands.balancing.PIDSwitchBalancerCommand;
 import frc.robot.commands.dropping.DropperChooserCommand;
 import frc.robot.commands.pretest.MotorTestCommand;
@@ -57,6 +63,7 @@ import frc.robot.subsystems.tiltedelevator.ElevatorState;
 import frc.robot.subsystems.tiltedelevator.TiltedElevatorSubsystem;
 import frc.robot.subsystems.tiltedelevator.ElevatorState.OffsetState;
 import frc.robot.util.ShuffleboardUtil;
+import frc.robot.util.StartupTimeline;
 import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
 import frc.robot.subsystems.drivetrain.MissileShellSwerveSubsystem;
 import frc.robot.subsystems.drivetrain.MissileShellSwerveSweeperSubsystem;
@@ -114,12 +121,13 @@ public class RobotContainer {
     // Commands
     private final ShuffleboardTab shuffleboardTab = Shuffleboard.getTab("Driver");
     private final SendableChooser<AutonFactoryFunction> autonPathChooser;
+    private final Map<String, AutonFactoryFunction> autonRoutines = new LinkedHashMap<>();
     private final SendableChooser<PlacePosition> autonInitialPoseChooser;
     private final GenericEntry isRedEntry;
 
     private final MotorTestCommand testCommand;
 
-    private final BaseBalancerCommand balancerCommand;
+    private final SendableChooser<BaseBalancerCommand> balancerChooser;
     private final GoOverCommand goOverCommand;
     private final AutoAlignCommand autoAlignCommand;
 
@@ -132,28 +140,32 @@ public class RobotContainer {
 
         photonWrapper = new PhotonWrapper();
         switchableCamera = new SwitchableCamera(shuffleboardTab);
+        StartupTimeline.mark("Vision");
 
         signalLEDSubsystem = new LEDSubsystem(); 
 
         // driveSubsystem = new MissileShellSwerveSubsystem();
         driveSubsystem = new SwerveSubsystem(photonWrapper, signalLEDSubsystem);
+        StartupTimeline.mark("Drivetrain");
         rollerSubsystem = new RollerSubsystem();
         tiltedElevatorSubsystem = new TiltedElevatorSubsystem();
+        StartupTimeline.mark("Mechanisms");
 
-        balancerCommand = new DefaultBalancerCommand(driveSubsystem, false);
+        balancerChooser = new SendableChooser<>();
+        balancerChooser.setDefaultOption("Default", new DefaultBalancerCommand(driveSubsystem, false));
         goOverCommand = new GoOverCommand(driveSubsystem, false);
 
         // Initialize auton choosers
         autonPathChooser = new SendableChooser<>();
-        autonPathChooser.setDefaultOption("Preloaded only", PreloadedOnlyAutonSequence::new);
-        autonPathChooser.addOption("Top auton (1-piece)", TopOnePieceAutonSequence::new);
-        // autonPathChooser.addOption("Top auton (2-piece)", TopTwoPieceAutonSequence::new);
-        autonPathChooser.addOption("Balance auton", BalanceAutonSequence::withDeadline);
-        autonPathChooser.addOption("Balance and taxi auton", BalanceAndTaxiAutonSequence::withDeadline);
-        autonPathChooser.addOption("Bottom auton (1-piece)", BottomOnePieceAutonSequence::new);
-        // autonPathChooser.addOption("Bottom auton (2-piece)", BottomTwoPieceAutonSequence::new);
-        // autonPathChooser.addOption("Bottom balance auton", BottomBalanceAutonSequence::withDeadline);
-        autonPathChooser.addOption("10 ft auton", TenFeetStraightLinePath::new);
+        addAutonRoutine("Preloaded only", PreloadedOnlyAutonSequence::new);
+        addAutonRoutine("Top auton (1-piece)", TopOnePieceAutonSequence::new);
+        // addAutonRoutine("Top auton (2-piece)", TopTwoPieceAutonSequence::new);
+        addAutonRoutine("Balance auton", BalanceAutonSequence::withDeadline);
+        addAutonRoutine("Balance and taxi auton", BalanceAndTaxiAutonSequence::withDeadline);
+        addAutonRoutine("Bottom auton (1-piece)", BottomOnePieceAutonSequence::new);
+        // addAutonRoutine("Bottom auton (2-piece)", BottomTwoPieceAutonSequence::new);
+        // addAutonRoutine("Bottom balance auton", BottomBalanceAutonSequence::withDeadline);
+        addAutonRoutine("10 ft auton", TenFeetStraightLinePath::new);
 
         autonInitialPoseChooser = new SendableChooser<>();
         for (PlacePosition position : PlacePosition.values()) {
@@ -166,8 +178,12 @@ public class RobotContainer {
 
         if (driveSubsystem instanceof BaseSwerveSubsystem) {
             final BaseSwerveSubsystem swerveSubsystem = (BaseSwerveSubsystem) driveSubsystem;
+            swerveSubsystem.setExtensionSupplier(tiltedElevatorSubsystem::getExtensionMeters);
             testCommand = new MotorTestCommand(swerveSubsystem, tiltedElevatorSubsystem, rollerSubsystem);
             autoAlignCommand = new AutoAlignCommand(swerveSubsystem, tiltedElevatorSubsystem, false);
+            // Not the default until the MPC balancer has balanced on a real station; it stops on its own if the
+            // NavX's pitch sign disagrees with its model
+            balancerChooser.addOption("MPC", new MPCBalancerCommand(swerveSubsystem));
         } else {
             testCommand = null;
             autoAlignCommand = null;
@@ -186,6 +202,10 @@ public class RobotContainer {
             .withPosition(0, 5)
             .withSize(2, 1);
 
+        shuffleboardTab.add("Balancer", balancerChooser)
+            .withPosition(0, 6)
+            .withSize(2, 1);
+
         isRedEntry = shuffleboardTab.add("Is RED", false)
             .withPosition(2, 5)
             .withWidget(BuiltInWidgets.kToggleSwitch)
@@ -201,13 +221,15 @@ public class RobotContainer {
         // Configure button bindings
         configureDriveBindings();
         configureMechBindings();
+        StartupTimeline.mark("Commands and bindings");
     }
 
     /**
      * Configures button bindings for the drive subsystem and controller.
      */
     private void configureDriveBindings() {
-        driveController.getBalancerButton().whileTrue(balancerCommand);
+        // Proxied so that the balancer selected when the button is pressed is the one scheduled
+        driveController.getBalancerButton().whileTrue(new ProxyCommand(balancerChooser::getSelected));
         driveController.getCameraSwitchButton().onTrue(new InstantCommand(switchableCamera::switchCamera));
 
         if (driveSubsystem instanceof BaseSwerveSubsystem) {
@@ -328,23 +350,70 @@ public class RobotContainer {
         mechRStick.onTrue(new InstantCommand(signalLEDSubsystem::toggleManual));
     }
 
+    /**
+     * Adds an auton routine to the auton chooser. The first routine added is the default.
+     * @param name The name of the routine.
+     * @param factory The function creating the routine.
+     */
+    private void addAutonRoutine(String name, AutonFactoryFunction factory) {
+        if (autonRoutines.isEmpty()) autonPathChooser.setDefaultOption(name, factory);
+        else autonPathChooser.addOption(name, factory);
+
+        autonRoutines.put(name, factory);
+    }
+
+    /**
+     * Gets every auton routine in the auton chooser, in the order they are listed.
+     * @return The routines, by name.
+     */
+    public Map<String, AutonFactoryFunction> getAutonRoutines() {
+        return Collections.unmodifiableMap(autonRoutines);
+    }
+
     /**
      * Use this to pass the autonomous command to the main {@link Robot} class.
      * @return the command to run in autonomous
      */
     public Command getAutonomousCommand() {
         // TODO: find some way to set up listeners such that we can preconstruct this before auton starts
-        if (!(driveSubsystem instanceof BaseSwerveSubsystem)) return null;
-
         PlacePosition initialPose = autonInitialPoseChooser.getSelected();
         if (initialPose == null) return null;
 
-        return autonPathChooser.getSelected().create(
+        return createAutonomousCommand(autonPathChooser.getSelected(), initialPose, isRedEntry.getBoolean(false));
+    }
+
+    /**
+     * Creates an auton routine for this robot's subsystems.
+     * @param factory The function creating the routine.
+     * @param initialPose The place position the robot starts at.
+     * @param isRed Whether the robot is on the red alliance.
+     * @return The command to run in autonomous, or null if the drivetrain can't run autons.
+     */
+    public Command createAutonomousCommand(AutonFactoryFunction factory, PlacePosition initialPose, boolean isRed) {
+        if (!(driveSubsystem instanceof BaseSwerveSubsystem)) return null;
+
+        return factory.create(
             (BaseSwerveSubsystem) driveSubsystem, rollerSubsystem, tiltedElevatorSubsystem,
-            initialPose, isRedEntry.getBoolean(false)
+            initialPose, isRed
         );
     }
 
+    /**
+     * Gets the roller subsystem.
+     * @return The roller subsystem.
+     */
+    public RollerSubsystem getRollerSubsystem() {
+        return rollerSubsystem;
+    }
+
+    /**
+     * Gets the tilted elevator subsystem.
+     * @return The tilted elevator subsystem.
+     */
+    public TiltedElevatorSubsystem getTiltedElevatorSubsystem() {
+        return tiltedElevatorSubsystem;
+    }
+
     /**
      * Use this to pass the test command to the main {@link Robot} class.
      * @return the command to run in test
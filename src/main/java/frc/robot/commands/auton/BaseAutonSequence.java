@@ -4,6 +4,7 @@ import java.util.List;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
@@ -108,11 +109,19 @@ public abstract class BaseAutonSequence extends SequentialCommandGroup {
      * @return The `SequentialCommandGroup` representing running the commands in order.
      */
     protected SequentialCommandGroup goAndPlace(Pose2d initialPose, Pose2d finalPose, ElevatorState elevatorState, boolean startsMoving) {
-        TiltedElevatorCommand elevatorCommand = new TiltedElevatorCommand(tiltedElevatorSubsystem, elevatorState);
+        Trajectory trajectory = FollowPathCommand.createWheelHeadingTrajectory(
+            initialPose, List.of(), finalPose,
+            FollowPathCommand.createConfig(swerveSubsystem, startsMoving, false)
+        );
 
-        Command driveForwardCommand = elevatorState == ElevatorState.CONE_MID || elevatorState == ElevatorState.CONE_HIGH
-            ? elevatorCommand.andThen(FollowPathCommand.from(swerveSubsystem, initialPose, List.of(), finalPose, startsMoving, false))
-            : elevatorCommand.alongWith(FollowPathCommand.from(swerveSubsystem, initialPose, List.of(), finalPose, startsMoving, false));
+        // Raise the elevator while driving, timed so the carriage is at height as the robot reaches the node
+        ElevatorRaiseSchedule schedule = new ElevatorRaiseSchedule(trajectory, elevatorState);
+        Command driveForwardCommand = new WaitCommand(schedule.getDriveDelaySeconds())
+            .andThen(new FollowPathCommand(swerveSubsystem, trajectory, finalPose.getRotation()))
+            .alongWith(
+                new WaitCommand(schedule.getRaiseDelaySeconds())
+                    .andThen(new TiltedElevatorCommand(tiltedElevatorSubsystem, elevatorState))
+            );
 
         return driveForwardCommand
             .andThen(new SwerveIdleCommand(swerveSubsystem))
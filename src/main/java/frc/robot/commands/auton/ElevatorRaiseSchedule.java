@@ -0,0 +1,157 @@
+package frc.robot.commands.auton;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.util.Units;
+
+import frc.robot.subsystems.tiltedelevator.ElevatorState;
+import frc.robot.subsystems.tiltedelevator.ExtensionProfile;
+import frc.robot.subsystems.tiltedelevator.ElevatorState.OffsetState;
+
+import static frc.robot.Constants.FieldConstants.CONE_KEEP_OUT_INCHES;
+import static frc.robot.Constants.TiltedElevatorConstants.EXTENSION_LIMIT_METERS;
+
+/**
+ * Schedules raising the elevator while driving a path to a node, so that the carriage reaches height exactly when
+ * the robot enters the keep-out envelope around the end of the path. For cone nodes the envelope is the region in
+ * which a low cone would hit the pole; for other nodes the carriage only needs to be at height on arrival.
+ *
+ * If the path reaches the envelope before the elevator could be at height, the elevator raises immediately and the
+ * drive waits out the difference.
+ */
+public class ElevatorRaiseSchedule {
+    // Latency between the raise starting and the carriage following the profile: command scheduling, subsystem
+    // periodic, and the SparkMax picking up the new reference.
+    private static final double RAISE_LATENCY_SECONDS = 0.06;
+
+    private static final double SAMPLE_PERIOD_SECONDS = 0.02;
+    private static final int BISECTION_ITERATIONS = 20;
+
+    private final double keepOutEntrySeconds;
+    private final double raiseSeconds;
+    private final double raiseDelaySeconds;
+    private final double driveDelaySeconds;
+
+    /**
+     * Creates a schedule for raising the elevator to a state while following a trajectory. The elevator is assumed
+     * to start fully retracted, which is the longest possible raise.
+     * @param trajectory The trajectory to the node.
+     * @param elevatorState The elevator state to place at.
+     */
+    public ElevatorRaiseSchedule(Trajectory trajectory, ElevatorState elevatorState) {
+        this(trajectory, 0, getTargetExtensionMeters(elevatorState), getKeepOutMeters(elevatorState));
+    }
+
+    /**
+     * Creates a schedule for raising the elevator while following a trajectory.
+     * @param trajectory The trajectory to the node.
+     * @param startExtensionMeters The extension the elevator starts at, in meters.
+     * @param targetExtensionMeters The extension to raise to, in meters.
+     * @param keepOutMeters The distance from the end of the trajectory within which the carriage must be at height.
+     */
+    public ElevatorRaiseSchedule(
+        Trajectory trajectory, double startExtensionMeters, double targetExtensionMeters, double keepOutMeters
+    ) {
+        keepOutEntrySeconds = getKeepOutEntrySeconds(trajectory, keepOutMeters);
+        raiseSeconds = new ExtensionProfile().getTravelTimeSeconds(startExtensionMeters, targetExtensionMeters)
+            + RAISE_LATENCY_SECONDS;
+
+        raiseDelaySeconds = Math.max(keepOutEntrySeconds - raiseSeconds, 0);
+        driveDelaySeconds = Math.max(raiseSeconds - keepOutEntrySeconds, 0);
+    }
+
+    /**
+     * Gets the time to wait, from the start of the schedule, before raising the elevator.
+     * @return The raise delay, in seconds.
+     */
+    public double getRaiseDelaySeconds() {
+        return raiseDelaySeconds;
+    }
+
+    /**
+     * Gets the time to wait, from the start of the schedule, before starting the path.
+     * @return The drive delay, in seconds.
+     */
+    public double getDriveDelaySeconds() {
+        return driveDelaySeconds;
+    }
+
+    /**
+     * Gets the time after the start of the path at which the robot enters the keep-out envelope.
+     * @return The entry time, in seconds.
+     */
+    public double getKeepOutEntrySeconds() {
+        return keepOutEntrySeconds;
+    }
+
+    /**
+     * Gets the time the elevator takes to reach height once it starts raising, including latency.
+     * @return The raise time, in seconds.
+     */
+    public double getRaiseSeconds() {
+        return raiseSeconds;
+    }
+
+    /**
+     * Gets the keep-out distance from the node for an elevator state.
+     * @param elevatorState The elevator state to place at.
+     * @return The keep-out distance, in meters.
+     */
+    public static double getKeepOutMeters(ElevatorState elevatorState) {
+        return elevatorState == ElevatorState.CONE_MID || elevatorState == ElevatorState.CONE_HIGH
+            ? Units.inchesToMeters(CONE_KEEP_OUT_INCHES)
+            : 0;
+    }
+
+    /**
+     * Gets the extension the elevator raises to for an elevator state while holding a piece, clamped to the
+     * extension limit like the subsystem does.
+     * @param elevatorState The elevator state.
+     * @return The target extension, in meters.
+     */
+    public static double getTargetExtensionMeters(ElevatorState elevatorState) {
+        return MathUtil.clamp(elevatorState.getExtension(OffsetState.DEFAULT, true), 0, EXTENSION_LIMIT_METERS);
+    }
+
+    /**
+     * Gets the first time at which a trajectory comes within a distance of its end.
+     * @param trajectory The trajectory.
+     * @param keepOutMeters The distance from the end of the trajectory.
+     * @return The entry time, in seconds.
+     */
+    private static double getKeepOutEntrySeconds(Trajectory trajectory, double keepOutMeters) {
+        double totalSeconds = trajectory.getTotalTimeSeconds();
+        if (keepOutMeters <= 0) return totalSeconds;
+
+        Translation2d end = trajectory.sample(totalSeconds).poseMeters.getTranslation();
+
+        // Find the first sample inside the envelope, then bisect between it and the previous sample
+        double outside = 0;
+        double inside = -1;
+        for (double t = 0; inside < 0; t = Math.min(t + SAMPLE_PERIOD_SECONDS, totalSeconds)) {
+            if (isInside(trajectory, end, keepOutMeters, t)) inside = t;
+            else outside = t;
+        }
+        if (inside == 0) return 0;
+
+        for (int i = 0; i < BISECTION_ITERATIONS; i++) {
+            double mid = (outside + inside) / 2;
+            if (isInside(trajectory, end, keepOutMeters, mid)) inside = mid;
+            else outside = mid;
+        }
+        return inside;
+    }
+
+    /**
+     * Gets whether a trajectory is within a distance of its end at a given time.
+     * @param trajectory The trajectory.
+     * @param end The end of the trajectory.
+     * @param keepOutMeters The distance from the end of the trajectory.
+     * @param timeSeconds The time along the trajectory.
+     * @return Whether the trajectory is inside the envelope.
+     */
+    private static boolean isInside(Trajectory trajectory, Translation2d end, double keepOutMeters, double timeSeconds) {
+        return trajectory.sample(timeSeconds).poseMeters.getTranslation().getDistance(end) <= keepOutMeters;
+    }
+}
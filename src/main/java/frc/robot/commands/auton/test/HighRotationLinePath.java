@@ -4,6 +4,7 @@ import java.util.List;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 
@@ -11,17 +12,16 @@ import frc.robot.commands.swerve.FollowPathCommand;
 import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
 
 public class HighRotationLinePath extends SequentialCommandGroup {
+    public static final Pose2d START = new Pose2d();
+    public static final List<Translation2d> WAYPOINTS = List.of();
+    public static final Pose2d END = new Pose2d(1, 0, Rotation2d.fromDegrees(90));
+
     public HighRotationLinePath(BaseSwerveSubsystem swerveSubsystem) {
         addRequirements(swerveSubsystem);
         addCommands(
             new InstantCommand(swerveSubsystem::resetPose),
             new InstantCommand(() -> swerveSubsystem.setVisionEnabled(false)),
-            FollowPathCommand.from(
-                swerveSubsystem, 
-                new Pose2d(), 
-                List.of(), 
-                new Pose2d(1, 0, Rotation2d.fromDegrees(90))
-            )
+            FollowPathCommand.from(swerveSubsystem, START, WAYPOINTS, END)
         );
     }
 }
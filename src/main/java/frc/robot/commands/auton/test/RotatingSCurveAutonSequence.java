@@ -12,29 +12,26 @@ import frc.robot.commands.swerve.FollowPathCommand;
 import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
 
 public class RotatingSCurveAutonSequence extends SequentialCommandGroup {
+    public static final Pose2d START = new Pose2d();
+    public static final Pose2d TURNAROUND = new Pose2d(3, 0, Rotation2d.fromDegrees(90));
+
+    // The S-curve out to the turnaround, and the same curve back to the start
+    public static final List<Translation2d> OUT_WAYPOINTS = List.of(
+        new Translation2d(1, 1),
+        new Translation2d(2, -1)
+    );
+    public static final List<Translation2d> BACK_WAYPOINTS = List.of(
+        new Translation2d(2, -1),
+        new Translation2d(1, 1)
+    );
+
     public RotatingSCurveAutonSequence(BaseSwerveSubsystem swerveSubsystem) {
         addRequirements(swerveSubsystem);
         addCommands(
             new InstantCommand(swerveSubsystem::resetPose),
             new InstantCommand(() -> swerveSubsystem.setVisionEnabled(false)),
-            FollowPathCommand.from(
-                swerveSubsystem, 
-                new Pose2d(), 
-                List.of(
-                    new Translation2d(1, 1),
-                    new Translation2d(2, -1)
-                ),
-                new Pose2d(3, 0, Rotation2d.fromDegrees(90))
-            ),
-            FollowPathCommand.from(
-                swerveSubsystem,
-                new Pose2d(3, 0, Rotation2d.fromDegrees(90)),
-                List.of(
-                    new Translation2d(2, -1),
-                    new Translation2d(1, 1)
-                ),
-                new Pose2d()
-            )
+            FollowPathCommand.from(swerveSubsystem, START, OUT_WAYPOINTS, TURNAROUND),
+            FollowPathCommand.from(swerveSubsystem, TURNAROUND, BACK_WAYPOINTS, START)
         );
     }
 }
@@ -0,0 +1,408 @@
+package frc.robot.commands.balancing;
+
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.TimedRobot;
+
+import static frc.robot.Constants.FieldConstants.*;
+import static frc.robot.Constants.SwerveConstants.TL_POS;
+import static frc.robot.Constants.TipOverConstants.CARRIAGE_MASS_KG;
+import static frc.robot.Constants.TipOverConstants.CHASSIS_MASS_KG;
+
+/**
+ * Plans the robot's motion across a charging station with a model of the station as a plate tipping about its
+ * hinge. Positions are of the robot's center along the field's x axis from the hinge, and angles are positive with
+ * the +x edge up, as in `ChargingStationSim`.
+ *
+ * The robot loads the plate through its front and back wheels, each carrying half of its weight. A wheel on the plate
+ * pushes down at its distance from the hinge, and a wheel on a ramp pushes down the plate's edge in proportion to how
+ * far up the ramp it is. The plate turns against the damping and friction of its hinge.
+ *
+ * Each candidate plan drives the robot to a stop at a tipping position, where its weight overcomes the hinge's
+ * friction, then back to the hinge, where its weight no longer turns the plate. The planner rolls every candidate out
+ * over a short horizon and keeps the one that levels the plate soonest; replanning each loop from the measured state
+ * closes the loop. The candidates and horizon are fixed, and the search stops early if it runs over its time budget,
+ * keeping the best plan so far.
+ */
+public class BalancePlanner {
+    private static final double GRAVITY = 9.81;
+    private static final double STEP_SECONDS = TimedRobot.kDefaultPeriod;
+
+    private static final double HALF_DEPTH_METERS = Units.inchesToMeters(CHARGING_STATION_DEPTH_INCHES) / 2.0;
+    private static final double HALF_TOP_DEPTH_METERS = Units.inchesToMeters(CHARGING_STATION_TOP_DEPTH_INCHES) / 2.0;
+    private static final double HINGE_HEIGHT_METERS = Units.inchesToMeters(CHARGING_STATION_HINGE_HEIGHT_INCHES);
+    private static final double MAX_ANGLE_RADS = Math.toRadians(CHARGING_STATION_MAX_ANGLE_DEGS);
+
+    private static final double WHEEL_LOAD_NEWTONS = (CHASSIS_MASS_KG + CARRIAGE_MASS_KG) * GRAVITY / 2.0;
+    private static final double WHEEL_X_METERS = Math.abs(TL_POS.getX());
+
+    // Motion profile of the plans, gentle enough for the wheels to hold on the tilted plate
+    public static final double MAX_VEL = 1.5; // m/s
+    public static final double MAX_ACCEL = 2.0; // m/s^2
+    private static final double ARRIVED_METERS = 0.01;
+
+    // Candidate tipping positions, on both sides of the hinge
+    private static final double MAX_TIP_OFFSET_METERS = 0.6;
+    private static final double TIP_SPACING_METERS = 0.04;
+    public static final int CANDIDATES = (int) Math.round(2 * MAX_TIP_OFFSET_METERS / TIP_SPACING_METERS) + 1;
+
+    // Plans are rolled out long enough to see the plate tip from one stop to the other, within a quarter of a loop
+    private static final int HORIZON_STEPS = (int) Math.round(1.5 / STEP_SECONDS);
+    private static final double SOLVE_BUDGET_SECONDS = TimedRobot.kDefaultPeriod / 4.0;
+
+    // Weights of the state at the end of the horizon, relative to the integral of the squared angle
+    private static final double FINAL_ANGLE_WEIGHT = 10.0;
+    private static final double FINAL_ANGULAR_VELOCITY_WEIGHT = 1.0;
+    private static final double FINAL_VELOCITY_WEIGHT = 0.2;
+    private static final double FINAL_POSITION_WEIGHT = 0.5;
+
+    // Angle estimates search this many steps across the plate's travel, then narrow down for this many more
+    private static final int ANGLE_SEARCH_STEPS = 60;
+    private static final int ANGLE_REFINE_STEPS = 20;
+    private static final double PRIOR_WEIGHT = 0.1;
+
+    // Measured pitches are checked against the model's sign only where the model's pitch is at least this steep
+    private static final double SIGN_CHECK_PITCH_RADS = Math.toRadians(5.0);
+
+    private double tipPositionMeters = 0;
+    private int candidatesEvaluated = 0;
+    private double solveSeconds = 0;
+
+    /**
+     * Finds the best plan from a state of the robot and the station, among the candidates evaluated within the
+     * time budget. The last best plan is evaluated first, so that running out of time keeps to it.
+     * @param positionMeters The position of the robot's center from the hinge, in meters.
+     * @param velocityMetersPerSec The velocity of the robot along x, in m/s.
+     * @param angleRads The angle of the plate, in radians.
+     * @param angularVelocityRadsPerSec The angular velocity of the plate, in rad/s.
+     * @return The tipping position of the best plan, in meters from the hinge.
+     */
+    public double solve(
+        double positionMeters, double velocityMetersPerSec, double angleRads, double angularVelocityRadsPerSec
+    ) {
+        long startNanos = System.nanoTime();
+        long budgetNanos = (long) (SOLVE_BUDGET_SECONDS * 1e9);
+
+        double bestTip = tipPositionMeters;
+        double bestCost = rollout(
+            positionMeters, velocityMetersPerSec, angleRads, angularVelocityRadsPerSec, tipPositionMeters
+        );
+        candidatesEvaluated = 1;
+
+        for (int i = 0; i < CANDIDATES && System.nanoTime() - startNanos < budgetNanos; i++) {
+            double tip = -MAX_TIP_OFFSET_METERS + i * TIP_SPACING_METERS;
+            double cost = rollout(positionMeters, velocityMetersPerSec, angleRads, angularVelocityRadsPerSec, tip);
+            candidatesEvaluated++;
+
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestTip = tip;
+            }
+        }
+
+        tipPositionMeters = bestTip;
+        solveSeconds = (System.nanoTime() - startNanos) / 1e9;
+        return bestTip;
+    }
+
+    /**
+     * Forgets the last best plan, e.g. before starting to balance again.
+     */
+    public void reset() {
+        tipPositionMeters = 0;
+    }
+
+    /**
+     * Gets how many plans the last solve evaluated, including the last best plan.
+     * @return The number of plans, at most `CANDIDATES + 1`.
+     */
+    public int getCandidatesEvaluated() {
+        return candidatesEvaluated;
+    }
+
+    /**
+     * Gets how long the last solve took.
+     * @return The time, in seconds.
+     */
+    public double getSolveSeconds() {
+        return solveSeconds;
+    }
+
+    /**
+     * Predicts the cost of a plan over the horizon: the integral of the squared angle of the plate, plus how far
+     * the robot and the plate end from rest, level, at the hinge.
+     * @param positionMeters The position of the robot's center from the hinge, in meters.
+     * @param velocityMetersPerSec The velocity of the robot along x, in m/s.
+     * @param angleRads The angle of the plate, in radians.
+     * @param angularVelocityRadsPerSec The angular velocity of the plate, in rad/s.
+     * @param tipMeters The tipping position of the plan, in meters from the hinge.
+     * @return The cost.
+     */
+    private double rollout(
+        double positionMeters, double velocityMetersPerSec, double angleRads, double angularVelocityRadsPerSec,
+        double tipMeters
+    ) {
+        double position = positionMeters;
+        double velocity = velocityMetersPerSec;
+        double angle = angleRads;
+        double angularVelocity = angularVelocityRadsPerSec;
+
+        double target = tipMeters;
+        double cost = 0;
+        for (int i = 0; i < HORIZON_STEPS; i++) {
+            // Once stopped at the tipping position, head back to the hinge
+            if (position == target && velocity == 0) target = 0;
+
+            double nextVelocity = getNextVelocity(position, velocity, target);
+            if (nextVelocity == 0 && Math.abs(target - position) <= ARRIVED_METERS) {
+                position = target;
+            } else {
+                position += (velocity + nextVelocity) / 2.0 * STEP_SECONDS;
+            }
+            velocity = nextVelocity;
+
+            // The plate under the robot's load over the step
+            double torque = getLoadTorque(position, angle);
+            double inertia = CHARGING_STATION_INERTIA_KG_M2 + getLoadInertia(position, angle);
+            if (angularVelocity != 0 || Math.abs(torque) > CHARGING_STATION_FRICTION_NM) {
+                double direction = Math.signum(angularVelocity != 0 ? angularVelocity : torque);
+                torque -= direction * CHARGING_STATION_FRICTION_NM;
+
+                double rate = -CHARGING_STATION_DAMPING_NM_PER_RAD_PER_SECOND / inertia;
+                double steadyStateVelocity = torque / CHARGING_STATION_DAMPING_NM_PER_RAD_PER_SECOND;
+                double decay = Math.exp(rate * STEP_SECONDS);
+
+                angle += steadyStateVelocity * STEP_SECONDS
+                    + (angularVelocity - steadyStateVelocity) * (decay - 1) / rate;
+                angularVelocity = steadyStateVelocity + (angularVelocity - steadyStateVelocity) * decay;
+                if (angularVelocity * direction < 0) angularVelocity = 0;
+
+                if (Math.abs(angle) >= MAX_ANGLE_RADS) {
+                    angle = Math.copySign(MAX_ANGLE_RADS, angle);
+                    if (angularVelocity * angle > 0) angularVelocity = 0;
+                }
+            }
+
+            cost += angle * angle * STEP_SECONDS;
+        }
+
+        return cost
+            + FINAL_ANGLE_WEIGHT * angle * angle
+            + FINAL_ANGULAR_VELOCITY_WEIGHT * angularVelocity * angularVelocity
+            + FINAL_VELOCITY_WEIGHT * velocity * velocity
+            + FINAL_POSITION_WEIGHT * position * position;
+    }
+
+    /**
+     * Gets the velocity of the robot one loop later on a trapezoidal profile to a position: accelerating towards
+     * it, up to the maximum velocity, and braking to stop there.
+     * @param positionMeters The position of the robot's center from the hinge, in meters.
+     * @param velocityMetersPerSec The velocity of the robot along x, in m/s.
+     * @param targetMeters The position to stop at, in meters from the hinge.
+     * @return The velocity, in m/s, or exactly 0 once the robot has arrived.
+     */
+    public static double getNextVelocity(double positionMeters, double velocityMetersPerSec, double targetMeters) {
+        double distance = targetMeters - positionMeters;
+        if (Math.abs(distance) <= ARRIVED_METERS && Math.abs(velocityMetersPerSec) <= MAX_ACCEL * STEP_SECONDS) {
+            return 0;
+        }
+
+        double stoppingVelocity = Math.copySign(Math.sqrt(2 * MAX_ACCEL * Math.abs(distance)), distance);
+        double desiredVelocity = Math.max(-MAX_VEL, Math.min(stoppingVelocity, MAX_VEL));
+        double maxChange = MAX_ACCEL * STEP_SECONDS;
+        return velocityMetersPerSec + Math.max(-maxChange, Math.min(desiredVelocity - velocityMetersPerSec, maxChange));
+    }
+
+    /**
+     * Gets the torque the robot's weight puts on the plate.
+     * @param positionMeters The position of the robot's center from the hinge, in meters.
+     * @param angleRads The angle of the plate, in radians.
+     * @return The torque, in Nm, positive raising the +x edge.
+     */
+    private static double getLoadTorque(double positionMeters, double angleRads) {
+        return getWheelTorque(positionMeters + WHEEL_X_METERS, angleRads)
+            + getWheelTorque(positionMeters - WHEEL_X_METERS, angleRads);
+    }
+
+    /**
+     * Gets the torque a pair of wheels puts on the plate.
+     * @param wheelMeters The position of the wheels from the hinge, in meters.
+     * @param angleRads The angle of the plate, in radians.
+     * @return The torque, in Nm, positive raising the +x edge.
+     */
+    private static double getWheelTorque(double wheelMeters, double angleRads) {
+        if (Math.abs(wheelMeters) >= HALF_DEPTH_METERS) return 0;
+
+        double edgeMeters = Math.copySign(HALF_TOP_DEPTH_METERS * Math.cos(angleRads), wheelMeters);
+        if (Math.abs(wheelMeters) <= Math.abs(edgeMeters)) return -WHEEL_LOAD_NEWTONS * wheelMeters;
+
+        // The ramp is a beam between the carpet and the plate's edge
+        double groundMeters = Math.copySign(HALF_DEPTH_METERS, wheelMeters);
+        return -WHEEL_LOAD_NEWTONS * (groundMeters - wheelMeters) / (groundMeters - edgeMeters) * edgeMeters;
+    }
+
+    /**
+     * Gets the inertia the robot adds to the plate, from the wheels on it.
+     * @param positionMeters The position of the robot's center from the hinge, in meters.
+     * @param angleRads The angle of the plate, in radians.
+     * @return The inertia about the hinge, in kg m^2.
+     */
+    private static double getLoadInertia(double positionMeters, double angleRads) {
+        return getWheelInertia(positionMeters + WHEEL_X_METERS, angleRads)
+            + getWheelInertia(positionMeters - WHEEL_X_METERS, angleRads);
+    }
+
+    /**
+     * Gets the inertia a pair of wheels adds to the plate.
+     * @param wheelMeters The position of the wheels from the hinge, in meters.
+     * @param angleRads The angle of the plate, in radians.
+     * @return The inertia about the hinge, in kg m^2, or 0 if the wheels are off the plate.
+     */
+    private static double getWheelInertia(double wheelMeters, double angleRads) {
+        if (Math.abs(wheelMeters) > HALF_TOP_DEPTH_METERS * Math.cos(angleRads)) return 0;
+        return WHEEL_LOAD_NEWTONS / GRAVITY * wheelMeters * wheelMeters;
+    }
+
+    /**
+     * Estimates the angle of the plate from the robot's position and pitch, by finding the angle at which the
+     * model's surface gives the measured pitch. While the robot straddles a ramp its pitch is not the plate's angle,
+     * and with the robot across the edge of the plate the pitch barely depends on the angle; where a change in the
+     * angle changes the pitch by less than a tenth as much, the estimate keeps to the prior.
+     * @param positionMeters The position of the robot's center from the hinge, in meters.
+     * @param pitchRads The pitch of the robot, nose up positive, in radians.
+     * @param facingPositiveX Whether the robot's front faces +x, rather than -x.
+     * @param priorAngleRads The expected angle of the plate, e.g. the last estimate, in radians.
+     * @return The angle of the plate, in radians.
+     */
+    public static double estimateAngleRads(
+        double positionMeters, double pitchRads, boolean facingPositiveX, double priorAngleRads
+    ) {
+        // Search a coarse grid, then narrow down around its best angle
+        double stepRads = 2 * MAX_ANGLE_RADS / ANGLE_SEARCH_STEPS;
+        double bestAngle = priorAngleRads;
+        double bestError = Double.POSITIVE_INFINITY;
+        for (int i = 0; i <= ANGLE_SEARCH_STEPS; i++) {
+            double angle = -MAX_ANGLE_RADS + i * stepRads;
+            double error = getAngleError(positionMeters, pitchRads, facingPositiveX, priorAngleRads, angle);
+            if (error < bestError) {
+                bestError = error;
+                bestAngle = angle;
+            }
+        }
+
+        double low = Math.max(bestAngle - stepRads, -MAX_ANGLE_RADS);
+        double high = Math.min(bestAngle + stepRads, MAX_ANGLE_RADS);
+        for (int i = 0; i < ANGLE_REFINE_STEPS; i++) {
+            double lowThird = low + (high - low) / 3.0;
+            double highThird = high - (high - low) / 3.0;
+            if (
+                getAngleError(positionMeters, pitchRads, facingPositiveX, priorAngleRads, lowThird)
+                < getAngleError(positionMeters, pitchRads, facingPositiveX, priorAngleRads, highThird)
+            ) {
+                high = highThird;
+            } else {
+                low = lowThird;
+            }
+        }
+        return (low + high) / 2.0;
+    }
+
+    /**
+     * Gets how poorly an angle of the plate explains the robot's pitch: the difference between the pitch it gives and
+     * the measured pitch, plus a tenth of its difference from the prior.
+     * @param positionMeters The position of the robot's center from the hinge, in meters.
+     * @param pitchRads The pitch of the robot, nose up positive, in radians.
+     * @param facingPositiveX Whether the robot's front faces +x, rather than -x.
+     * @param priorAngleRads The expected angle of the plate, in radians.
+     * @param angleRads The angle of the plate to check, in radians.
+     * @return The error, in radians.
+     */
+    private static double getAngleError(
+        double positionMeters, double pitchRads, boolean facingPositiveX, double priorAngleRads, double angleRads
+    ) {
+        return Math.abs(getPitchRads(positionMeters, angleRads, facingPositiveX) - pitchRads)
+            + PRIOR_WEIGHT * Math.abs(angleRads - priorAngleRads);
+    }
+
+    /**
+     * Estimates the angular velocity of the plate from the rate of the robot's pitch, less the part of it from the
+     * robot moving over the surface, e.g. onto a ramp.
+     * @param positionMeters The position of the robot's center from the hinge, in meters.
+     * @param velocityMetersPerSec The velocity of the robot along x, in m/s.
+     * @param angleRads The estimated angle of the plate, in radians.
+     * @param pitchRateRadsPerSec The rate of the robot's pitch, nose up positive, in rad/s.
+     * @param facingPositiveX Whether the robot's front faces +x, rather than -x.
+     * @return The angular velocity of the plate, in rad/s, or 0 where the robot's pitch barely follows the plate.
+     */
+    public static double estimateAngularVelocity(
+        double positionMeters, double velocityMetersPerSec, double angleRads, double pitchRateRadsPerSec,
+        boolean facingPositiveX
+    ) {
+        double delta = 1e-3;
+        double pitchPerAngle = (
+            getPitchRads(positionMeters, angleRads + delta, facingPositiveX)
+            - getPitchRads(positionMeters, angleRads - delta, facingPositiveX)
+        ) / (2 * delta);
+        double pitchPerMeter = (
+            getPitchRads(positionMeters + delta, angleRads, facingPositiveX)
+            - getPitchRads(positionMeters - delta, angleRads, facingPositiveX)
+        ) / (2 * delta);
+
+        if (Math.abs(pitchPerAngle) < PRIOR_WEIGHT) return 0;
+        return (pitchRateRadsPerSec - pitchPerMeter * velocityMetersPerSec) / pitchPerAngle;
+    }
+
+    /**
+     * Checks the sign of a measured pitch against the model, to catch a NavX that reads nose down positive. Where
+     * the robot is on a ramp, the model's pitch has the same sign whatever the plate's angle, so a measured pitch
+     * of the other sign means the convention is wrong; elsewhere, any pitch passes.
+     * @param positionMeters The position of the robot's center from the hinge, in meters.
+     * @param pitchRads The measured pitch of the robot, nose up positive, in radians.
+     * @param facingPositiveX Whether the robot's front faces +x, rather than -x.
+     * @return Whether the measured pitch has the sign the model expects.
+     */
+    public static boolean isPitchSignConsistent(double positionMeters, double pitchRads, boolean facingPositiveX) {
+        double lowest = Double.POSITIVE_INFINITY;
+        double highest = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i <= ANGLE_SEARCH_STEPS; i++) {
+            double angle = -MAX_ANGLE_RADS + i * 2 * MAX_ANGLE_RADS / ANGLE_SEARCH_STEPS;
+            double pitch = getPitchRads(positionMeters, angle, facingPositiveX);
+            lowest = Math.min(lowest, pitch);
+            highest = Math.max(highest, pitch);
+        }
+
+        if (lowest >= SIGN_CHECK_PITCH_RADS) return pitchRads > -SIGN_CHECK_PITCH_RADS;
+        if (highest <= -SIGN_CHECK_PITCH_RADS) return pitchRads < SIGN_CHECK_PITCH_RADS;
+        return true;
+    }
+
+    /**
+     * Gets the pitch of the robot on the model's surface.
+     * @param positionMeters The position of the robot's center from the hinge, in meters.
+     * @param angleRads The angle of the plate, in radians.
+     * @param facingPositiveX Whether the robot's front faces +x, rather than -x.
+     * @return The pitch, nose up positive, in radians.
+     */
+    public static double getPitchRads(double positionMeters, double angleRads, boolean facingPositiveX) {
+        double rise = getSurfaceHeight(positionMeters + WHEEL_X_METERS, angleRads)
+            - getSurfaceHeight(positionMeters - WHEEL_X_METERS, angleRads);
+        return Math.atan2(facingPositiveX ? rise : -rise, 2 * WHEEL_X_METERS);
+    }
+
+    /**
+     * Gets the height of the station's surface.
+     * @param xMeters The position from the hinge, in meters.
+     * @param angleRads The angle of the plate, in radians.
+     * @return The height, in meters, or 0 off the station.
+     */
+    private static double getSurfaceHeight(double xMeters, double angleRads) {
+        if (Math.abs(xMeters) >= HALF_DEPTH_METERS) return 0;
+
+        double edgeMeters = Math.copySign(HALF_TOP_DEPTH_METERS * Math.cos(angleRads), xMeters);
+        if (Math.abs(xMeters) <= Math.abs(edgeMeters)) return HINGE_HEIGHT_METERS + xMeters * Math.tan(angleRads);
+
+        // On a ramp, between the plate's edge and the carpet
+        double edgeHeight = HINGE_HEIGHT_METERS + edgeMeters * Math.tan(angleRads);
+        double groundMeters = Math.copySign(HALF_DEPTH_METERS, xMeters);
+        return edgeHeight * (groundMeters - xMeters) / (groundMeters - edgeMeters);
+    }
+}
@@ -4,15 +4,18 @@ import com.kauailabs.navx.frc.AHRS;
 
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.subsystems.drivetrain.BaseDrivetrain;
+import frc.robot.sensors.NavXSampler;
 import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
 
 public abstract class BaseBalancerCommand extends CommandBase {
     protected final BaseDrivetrain driveSubsystem;
     protected final AHRS ahrs;
+    protected final NavXSampler navX;
 
     public BaseBalancerCommand(BaseDrivetrain driveSubsystem) {
         this.driveSubsystem = driveSubsystem;
         this.ahrs = driveSubsystem.getAhrs();
+        this.navX = driveSubsystem.getNavX();
 
         addRequirements(driveSubsystem);
     }
@@ -20,6 +23,7 @@ public abstract class BaseBalancerCommand extends CommandBase {
     @Override
     public void end(boolean interrupted) {
         System.out.println("------------------- Balancing process finished -------------------");
+        driveSubsystem.stop();
         if (driveSubsystem instanceof BaseSwerveSubsystem) {
             BaseSwerveSubsystem swerveSubsystem = (BaseSwerveSubsystem) driveSubsystem;
             swerveSubsystem.setChargingStationLocked(true);
@@ -1,11 +1,10 @@
 package frc.robot.commands.balancing;
 
-import com.kauailabs.navx.frc.AHRS;
-
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 
+import frc.robot.sensors.NavXSampler;
 import frc.robot.subsystems.drivetrain.BaseDrivetrain;
 import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
 
@@ -16,7 +15,7 @@ import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
  */
 public class ConstantGoOverCommand extends CommandBase {
     private final BaseDrivetrain driveSubsystem;
-    private final AHRS ahrs; 
+    private final NavXSampler navX;
 
     private double returnDrivePower;
     private double targetHeading;
@@ -31,7 +30,7 @@ public class ConstantGoOverCommand extends CommandBase {
 
     public ConstantGoOverCommand(BaseDrivetrain driveSubsystem, boolean isRed) {
         this.driveSubsystem = driveSubsystem;
-        this.ahrs = driveSubsystem.getAhrs();
+        this.navX = driveSubsystem.getNavX();
 
         this.targetHeading = isRed
             ? Math.PI
@@ -50,7 +49,7 @@ public class ConstantGoOverCommand extends CommandBase {
 
     @Override
     public void execute() {
-        double currentPitch = ahrs.getPitch();
+        double currentPitch = navX.getPitchDegs();
         System.out.println("Pitch" + currentPitch);
 
         if (!waited && currentPitch >= 2.0) { // if we haven't already waited
@@ -86,7 +85,7 @@ public class ConstantGoOverCommand extends CommandBase {
 
     @Override 
     public void end(boolean interrupted){
-        driveSubsystem.setDrivePowers(0.0);
+        driveSubsystem.stop();
         timer.reset();
         System.out.println("ended");
     }
@@ -14,12 +14,15 @@ import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
 import static frc.robot.Constants.BalancerConstants.*;
 
 public class DefaultBalancerCommand extends BaseBalancerCommand {
+    // The station is settled once the pitch changes slower than this; the same as the 0.1 deg per loop this used to
+    // allow between two readings
+    private static final double SETTLED_PITCH_RATE_DEGS_PER_SEC = 0.1 / 0.02;
+
     private final PIDController drivePID;
 
     private final Timer runawayTimer;
 
     private double returnDrivePower; // drive power to be returned to DT
-    private double prevPitchDegs;
     
     private final double direction;
     private final boolean reverse;
@@ -77,7 +80,7 @@ public class DefaultBalancerCommand extends BaseBalancerCommand {
 
     @Override
     public void execute() {
-        double currentPitchDegs = ahrs.getPitch();
+        double currentPitchDegs = navX.getPitchDegs();
 
         if (!reachedStation) {
             returnDrivePower = -0.75 * direction;
@@ -92,7 +95,8 @@ public class DefaultBalancerCommand extends BaseBalancerCommand {
                 runaway = true;
             }
         } else {
-            double deltaPitchDegs = Math.abs(currentPitchDegs - prevPitchDegs); 
+            // Filtered over the NavX's samples, rather than the difference between two noisy readings
+            double pitchRateDegsPerSec = Math.abs(navX.getPitchRateDegsPerSec());
 
             if (!passedCenter) {
                 if ((reverse && currentPitchDegs >= -10.0) || (!reverse && currentPitchDegs <= 10.0)) { // reverse && currentPitchDegs >= -8.0
@@ -102,7 +106,7 @@ public class DefaultBalancerCommand extends BaseBalancerCommand {
             } else {
                 returnDrivePower = -1 * drivePID.calculate(currentPitchDegs, 0);
                 // if ((reverse && Math.abs(currentPitchDegs) <= 1.0 && deltaPitchDegs <= 0.1) || (!reverse && Math.abs(currentPitchDegs) >= -1.0 && deltaPitchDegs >= -0.1)){
-                if (Math.abs(currentPitchDegs) <= 1.0 && ((reverse && deltaPitchDegs <= 0.1) || (!reverse && deltaPitchDegs >= -0.1))){
+                if (Math.abs(currentPitchDegs) <= 1.0 && pitchRateDegsPerSec <= SETTLED_PITCH_RATE_DEGS_PER_SEC) {
                     balanced = true;
                     balanceLog.append("Robot balanced");
                 }
@@ -127,8 +131,6 @@ public class DefaultBalancerCommand extends BaseBalancerCommand {
         } else {
             driveSubsystem.setDrivePowers(returnDrivePower);
         }
-
-        prevPitchDegs = currentPitchDegs;
     }
 
     @Override
@@ -27,14 +27,14 @@ public class DualPIDBalancerCommand extends BaseBalancerCommand {
     @Override
     public void initialize() {
         System.out.println("------------------- Balancer initialized -------------------");
-        prevPitchDegs = ahrs.getPitch();
+        prevPitchDegs = navX.getPitchDegs();
         reachedStation = false;
         balanced = false;
     }
 
     @Override
     public void execute() {
-        double currentPitchDegs = ahrs.getPitch();
+        double currentPitchDegs = navX.getPitchDegs();
 
         if (!reachedStation) {
             returnDrivePower = -0.80;
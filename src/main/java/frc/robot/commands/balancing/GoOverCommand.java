@@ -1,11 +1,10 @@
 package frc.robot.commands.balancing;
 
-import com.kauailabs.navx.frc.AHRS;
-
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 
+import frc.robot.sensors.NavXSampler;
 import frc.robot.subsystems.drivetrain.BaseDrivetrain;
 import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
 
@@ -20,7 +19,7 @@ public class GoOverCommand extends CommandBase {
     private static final double POWER_SCALE = 0.5;
 
     private final BaseDrivetrain driveSubsystem;
-    private final AHRS ahrs; 
+    private final NavXSampler navX;
 
     private double returnDrivePower;
 
@@ -34,7 +33,7 @@ public class GoOverCommand extends CommandBase {
 
     public GoOverCommand(BaseDrivetrain driveSubsystem, boolean isRed) {
         this.driveSubsystem = driveSubsystem;
-        this.ahrs = driveSubsystem.getAhrs();
+        this.navX = driveSubsystem.getNavX();
         waitTimer = new Timer();
         passedCenterTimer = new Timer();
         addRequirements(driveSubsystem);
@@ -50,7 +49,7 @@ public class GoOverCommand extends CommandBase {
 
     @Override
     public void execute() {
-        double currentPitch = ahrs.getPitch();
+        double currentPitch = navX.getPitchDegs();
         System.out.println("Pitch" + currentPitch);
 
         if (!reachedStation) {
@@ -91,7 +90,7 @@ public class GoOverCommand extends CommandBase {
 
     @Override 
     public void end(boolean interrupted) {
-        driveSubsystem.setDrivePowers(0.0);
+        driveSubsystem.stop();
         System.out.println("ended");
 
         waitTimer.stop();
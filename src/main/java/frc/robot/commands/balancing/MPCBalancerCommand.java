@@ -0,0 +1,197 @@
+package frc.robot.commands.balancing;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.TimedRobot;
+
+import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
+import frc.robot.util.FieldUtil;
+
+import static frc.robot.Constants.FieldConstants.*;
+
+/**
+ * Balances on the charging station by model-predictive control: each loop, the station's angle and angular velocity
+ * are estimated from the robot's odometry position and the NavX's pitch and pitch rate, `BalancePlanner` finds the
+ * plan that levels the station soonest, and the robot follows the first step of the plan's velocity profile.
+ *
+ * Unlike the threshold balancers, this works from either side of the station and in either direction the robot
+ * faces, and doesn't depend on fixed powers; it needs the pose estimate to be accurate along the field's x axis.
+ * The planner takes pitch as nose up positive, like `DefaultBalancerCommand`; the NavX's sign is checked on the ramp,
+ * and balancing stops if it disagrees.
+ */
+public class MPCBalancerCommand extends BaseBalancerCommand {
+    // Gain on the difference between the planned and measured velocities, which makes up for the slope holding the
+    // robot back
+    private static final double VELOCITY_KP = 2.0;
+
+    // The robot must stay within this distance of the station's hinge
+    private static final double MAX_DISTANCE_METERS = 3.0;
+
+    // The station is balanced once it stays about this level and still, with the robot stopped
+    private static final double BALANCED_ANGLE_DEGS = 1.0;
+    private static final double SETTLED_ANGULAR_VELOCITY_DEGS_PER_SEC = 0.5;
+    private static final double SETTLED_VELOCITY_METERS_PER_SEC = 0.05;
+    private static final double SETTLED_POSITION_METERS = 0.3;
+    private static final int SETTLED_LOOPS = 5;
+
+    // The NavX's pitch must have the sign the planner expects on the ramp, or the plan would drive the robot off the
+    // station; balancing stops once it has had the other sign for this many loops in a row
+    private static final int SIGN_MISMATCH_LOOPS = 5;
+
+    private final BaseSwerveSubsystem swerveSubsystem;
+    private final BalancePlanner planner;
+
+    private double centerX;
+    private Rotation2d targetHeading;
+
+    private double lastPositionMeters;
+    private double angleRads;
+    private double angularVelocity;
+    private double setpointVelocity;
+    private int settledLoops;
+    private int signMismatchLoops;
+    private boolean runaway;
+
+    private double worstSolveSeconds;
+    private int fewestCandidates;
+
+    private final StringLogEntry balanceLog;
+
+    /**
+     * Constructs a model-predictive balancer command.
+     * @param swerveSubsystem The swerve subsystem.
+     */
+    public MPCBalancerCommand(BaseSwerveSubsystem swerveSubsystem) {
+        super(swerveSubsystem);
+        this.swerveSubsystem = swerveSubsystem;
+
+        planner = new BalancePlanner();
+        balanceLog = new StringLogEntry(DataLogManager.getLog(), "balanceLog");
+    }
+
+    @Override
+    public void initialize() {
+        System.out.println("------------------- MPC balancer initialized -------------------");
+        balanceLog.append("MPC Balancer Initialized");
+
+        // Balance on whichever alliance's station is nearer
+        Pose2d pose = swerveSubsystem.getRobotPosition();
+        Pose2d blueCenter = new Pose2d(
+            Units.inchesToMeters(CHARGING_STATION_X_INCHES),
+            Units.inchesToMeters(CHARGING_STATION_Y_INCHES),
+            new Rotation2d()
+        );
+        double blueX = blueCenter.getX();
+        double redX = FieldUtil.mirrorPoseAcrossField(blueCenter).getX();
+        centerX = Math.abs(pose.getX() - blueX) < Math.abs(pose.getX() - redX) ? blueX : redX;
+
+        double currentHeadingRads = swerveSubsystem.getDriverHeading().getRadians();
+        double lockHeadingRads = (Math.abs(currentHeadingRads) > Math.PI / 2.0) ? Math.PI : 0;
+        targetHeading = new Rotation2d(lockHeadingRads);
+
+        planner.reset();
+        lastPositionMeters = Double.NaN;
+        angleRads = 0;
+        angularVelocity = 0;
+        setpointVelocity = 0;
+        settledLoops = 0;
+        signMismatchLoops = 0;
+        runaway = false;
+
+        worstSolveSeconds = 0;
+        fewestCandidates = BalancePlanner.CANDIDATES + 1;
+    }
+
+    @Override
+    public void execute() {
+        Pose2d pose = swerveSubsystem.getRobotPosition();
+        double positionMeters = pose.getX() - centerX;
+        boolean facingPositiveX = pose.getRotation().getCos() > 0;
+
+        double measuredVelocity = Double.isNaN(lastPositionMeters)
+            ? setpointVelocity
+            : (positionMeters - lastPositionMeters) / TimedRobot.kDefaultPeriod;
+        lastPositionMeters = positionMeters;
+
+        double pitchRads = Math.toRadians(navX.getPitchDegs());
+        boolean signConsistent = BalancePlanner.isPitchSignConsistent(positionMeters, pitchRads, facingPositiveX);
+        signMismatchLoops = signConsistent ? 0 : signMismatchLoops + 1;
+
+        // The station's state, from the robot's pitch where it is on the station, and from where it was heading where
+        // the pitch doesn't show it (e.g. before the robot reaches the station, which starts level)
+        angleRads = BalancePlanner.estimateAngleRads(
+            positionMeters, pitchRads, facingPositiveX,
+            angleRads + angularVelocity * TimedRobot.kDefaultPeriod
+        );
+        angularVelocity = BalancePlanner.estimateAngularVelocity(
+            positionMeters, measuredVelocity, angleRads, Math.toRadians(navX.getPitchRateDegsPerSec()), facingPositiveX
+        );
+
+        // Plan from the setpoint rather than the measured velocity, so the profile isn't held back by the slope
+        double tipMeters = planner.solve(positionMeters, setpointVelocity, angleRads, angularVelocity);
+        setpointVelocity = BalancePlanner.getNextVelocity(positionMeters, setpointVelocity, tipMeters);
+
+        worstSolveSeconds = Math.max(worstSolveSeconds, planner.getSolveSeconds());
+        fewestCandidates = Math.min(fewestCandidates, planner.getCandidatesEvaluated());
+
+        double velocity = MathUtil.clamp(
+            setpointVelocity + VELOCITY_KP * (setpointVelocity - measuredVelocity),
+            -BalancePlanner.MAX_VEL, BalancePlanner.MAX_VEL
+        );
+
+        boolean settled = Math.abs(Math.toDegrees(angleRads)) <= BALANCED_ANGLE_DEGS
+            && Math.abs(Math.toDegrees(angularVelocity)) <= SETTLED_ANGULAR_VELOCITY_DEGS_PER_SEC
+            && Math.abs(measuredVelocity) <= SETTLED_VELOCITY_METERS_PER_SEC
+            && Math.abs(positionMeters) <= SETTLED_POSITION_METERS;
+        settledLoops = settled ? settledLoops + 1 : 0;
+        if (settledLoops == SETTLED_LOOPS) balanceLog.append("Robot balanced");
+
+        if (Math.abs(positionMeters) > MAX_DISTANCE_METERS) {
+            velocity = 0.0;
+            System.out.println("BALANCER RUNAWAY DETECTED");
+            balanceLog.append("BALANCER RUNAWAY DETECTED - NOT AT CHARGING STATION");
+            runaway = true;
+        }
+
+        if (signMismatchLoops >= SIGN_MISMATCH_LOOPS) {
+            velocity = 0.0;
+            System.out.println("BALANCER PITCH SIGN MISMATCH");
+            balanceLog.append("NAVX PITCH SIGN MISMATCH - BALANCING INTERRUPTED");
+            runaway = true;
+        }
+
+        if (!ahrs.isConnected()) {
+            velocity = 0.0;
+            System.out.println("BALANCER RUNAWAY DETECTED");
+            balanceLog.append("NAVX DISCONNECT DETECTED - BALANCING INTERRUPTED");
+            runaway = true;
+        }
+
+        // The plan's velocity is along the field's x axis; drive it relative to the robot
+        Rotation2d heading = pose.getRotation();
+        swerveSubsystem.setDrivePowersWithHeadingLock(
+            velocity * heading.getCos() / swerveSubsystem.MAX_VEL,
+            -velocity * heading.getSin() / swerveSubsystem.MAX_VEL,
+            targetHeading,
+            true
+        );
+    }
+
+    @Override
+    public boolean isFinished() {
+        return settledLoops >= SETTLED_LOOPS || runaway;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        balanceLog.append(String.format(
+            "MPC solves took up to %.2fms, evaluating at least %d of %d plans",
+            worstSolveSeconds * 1000, fewestCandidates, BalancePlanner.CANDIDATES + 1
+        ));
+        super.end(interrupted);
+    }
+}
@@ -35,7 +35,7 @@ public class PIDSwitchBalancerCommand extends BaseBalancerCommand {
 
     @Override
     public void execute() {
-        double currentPitchDegs = ahrs.getPitch();
+        double currentPitchDegs = navX.getPitchDegs();
 
         if (!reachedStation) {
             returnDrivePower = -0.80;
@@ -4,7 +4,8 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Translation2d;
@@ -23,12 +24,13 @@ import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
 import frc.robot.subsystems.tiltedelevator.ElevatorState;
 import frc.robot.subsystems.tiltedelevator.TiltedElevatorSubsystem;
 import frc.robot.subsystems.tiltedelevator.ElevatorState.OffsetState;
+import frc.robot.util.ShuffleboardUtil;
 
 /**
  * An auto-align command that maintains a target `PlacePosition`. When scheduled, this command sets the target
  * to the closest `PlacePosition` and aligns with it. This command also creates a grid of buttons on Shuffleboard
- * to set the target to any given node. `alignLeft()` and `alignRight()` can be used to shift the target left or
- * right.
+ * to set the target to any given node, once the robot is running (see `ShuffleboardUtil.defer()`). `alignLeft()`
+ * and `alignRight()` can be used to shift the target left or right.
  */
 public class AutoAlignCommand extends InstantCommand {
     private final BaseSwerveSubsystem swerveSubsystem;
@@ -36,8 +38,9 @@ public class AutoAlignCommand extends InstantCommand {
     private boolean isRed;
 
     private final InstantCommand[] setTargetCommands;
-    private final HashMap<PlacePosition, ComplexWidget> commandEntries;
-    private final HashMap<FieldPosition, SimpleWidget> booleanEntries;
+    // Filled in as the grid is built, and read when the alliance changes
+    private final Map<PlacePosition, ComplexWidget> commandEntries;
+    private final Map<FieldPosition, SimpleWidget> booleanEntries;
 
     private volatile PlacePosition targetPlacePosition;
     private volatile Command wrappedAlignCommand;
@@ -67,8 +70,8 @@ public class AutoAlignCommand extends InstantCommand {
 
         // Initialize shuffleboard alignment buttons
         shuffleboardTab = Shuffleboard.getTab("Driver");
-        commandEntries = new HashMap<>();
-        booleanEntries = new HashMap<>();
+        commandEntries = new ConcurrentHashMap<>();
+        booleanEntries = new ConcurrentHashMap<>();
 
         PlacePosition[] positions = PlacePosition.values();
         setTargetCommands = new InstantCommand[positions.length];
@@ -80,16 +83,30 @@ public class AutoAlignCommand extends InstantCommand {
             InstantCommand command = new InstantCommand(() -> scheduleAlignCommandWith(position, true), swerveSubsystem, tiltedElevatorSubsystem);
             setTargetCommands[i] = command;
 
-            // Add command and boolean indicator to grid
-            ComplexWidget commandWidget = shuffleboardTab.add(position.name(), command);
-            commandEntries.put(position, commandWidget);
-            if (!booleanEntries.containsKey(position.placePosition)) booleanEntries.put(
-                position.placePosition,
-                shuffleboardTab.add(position.placePosition.name(), false)
-            );
+            // Add command and boolean indicator to grid. The grid isn't needed until the robot is running, so each
+            // button is built in a later loop.
+            ShuffleboardUtil.defer(() -> addShuffleboardButton(position, command));
+        }
+    }
 
-            updateShuffleboardPositions();
+    /**
+     * Adds a button to the Shuffleboard grid setting the target to a position, and the boolean indicator for its
+     * node if it doesn't have one yet.
+     * @param position The position.
+     * @param command The command setting the target to the position.
+     */
+    private void addShuffleboardButton(PlacePosition position, InstantCommand command) {
+        ComplexWidget commandWidget = shuffleboardTab.add(position.name(), command);
+        commandEntries.put(position, commandWidget);
+        if (!booleanEntries.containsKey(position.placePosition)) {
+            SimpleWidget booleanWidget = shuffleboardTab.add(position.placePosition.name(), false);
+            booleanWidget.getEntry().setBoolean(
+                targetPlacePosition != null && targetPlacePosition.placePosition == position.placePosition
+            );
+            booleanEntries.put(position.placePosition, booleanWidget);
         }
+
+        updateShuffleboardPositions();
     }
 
     @Override
@@ -266,8 +283,8 @@ public class AutoAlignCommand extends InstantCommand {
      * @param driveForwardAfterwards TODO
      */
     private void scheduleAlignCommandWith(PlacePosition newPosition, boolean driveForwardAfterwards) {
-        if (targetPlacePosition != null) booleanEntries.get(targetPlacePosition.placePosition).getEntry().setBoolean(false);
-        booleanEntries.get(newPosition.placePosition).getEntry().setBoolean(true);
+        if (targetPlacePosition != null) setTargetIndicator(targetPlacePosition.placePosition, false);
+        setTargetIndicator(newPosition.placePosition, true);
         targetPlacePosition = newPosition;
 
         if (wrappedGoForwardCommand != null) wrappedGoForwardCommand.cancel();
@@ -316,7 +333,7 @@ public class AutoAlignCommand extends InstantCommand {
      */
     @Override
     public void cancel() {
-        if (targetPlacePosition != null) booleanEntries.get(targetPlacePosition.placePosition).getEntry().setBoolean(false);
+        if (targetPlacePosition != null) setTargetIndicator(targetPlacePosition.placePosition, false);
 
         if (wrappedAlignCommand != null) wrappedAlignCommand.cancel();
         if (wrappedGoForwardCommand != null) wrappedGoForwardCommand.cancel();
@@ -330,6 +347,16 @@ public class AutoAlignCommand extends InstantCommand {
         targetPlacePosition = null;
     }
 
+    /**
+     * Sets the boolean indicator of a node on Shuffleboard, if it has been built.
+     * @param position The node.
+     * @param isTarget Whether the node is the target.
+     */
+    private void setTargetIndicator(FieldPosition position, boolean isTarget) {
+        SimpleWidget widget = booleanEntries.get(position);
+        if (widget != null) widget.getEntry().setBoolean(isTarget);
+    }
+
     /**
      * Sets the alliance of this auto align command.
      * @param isRed Whether the robot is on the red team. If false, aligns to blue nodes.
@@ -1,43 +1,157 @@
 package frc.robot.commands.dropping;
 
+import java.util.function.BooleanSupplier;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.FunctionalCommand;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
-import edu.wpi.first.wpilibj2.command.WaitCommand;
 
 import frc.robot.commands.grabber.RollerPlaceCommand;
 import frc.robot.commands.mover.TiltedElevatorCommand;
 import frc.robot.subsystems.RollerSubsystem;
+import frc.robot.subsystems.RollerSubsystem.HeldPiece;
 import frc.robot.subsystems.drivetrain.BaseDrivetrain;
+import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
 import frc.robot.subsystems.tiltedelevator.ElevatorState;
 import frc.robot.subsystems.tiltedelevator.TiltedElevatorSubsystem;
 import frc.robot.subsystems.tiltedelevator.ElevatorState.OffsetState;
 
 public class DropSequence extends SequentialCommandGroup {
+    private static final double BACK_OFF_POWER = 0.2;
+    private static final double SETTLE_TIMEOUT_SECS = 1.0;
+
+    // Shared by every drop sequence so that phase durations end up in the same log entries
+    private static DoubleLogEntry lowerLog, releaseLog, backOffLog, totalLog;
+    private static StringLogEntry dropLog;
+
+    private final Timer sequenceTimer = new Timer();
+    private final Timer phaseTimer = new Timer();
+    private final StringBuilder summary = new StringBuilder();
+
+    private Translation2d backOffStart;
+
     /*
-     * Order of commands
-     * 1. Moves to dropHeight
-     * 2. Waits waitTime1 (dont want to be moving when letting go)
-     * 3. Releases gamepiece and outtakes at outtakePower for outtakeDuration
-     * 4. Waits waitTime2 (dont want to be moving before piece is fully out)
-     * 5. Moves backwards reverseDist
-     * 6. Waits waitTime3
-     * 7. Moves to GROUND
+     * Order of commands, each phase ending on its event or, as a fallback, its timeout
+     * 1. Moves to the drop offset, until the elevator is at its target
+     * 2. Releases gamepiece and outtakes at outtakePower, until the roller no longer holds a piece
+     * 3. Moves backwards, until the robot has backed off backOffDistance
+     * 4. Decelerates through the drivetrain's tip-over limit, until the drivetrain has stopped
+     * 5. Moves to GROUND
      */
     public DropSequence(
         BaseDrivetrain driveSubsystem, RollerSubsystem rollerSubsystem, TiltedElevatorSubsystem tiltedElevatorSubsystem,
-        double waitAfterAtDropHeight, double outtakePower, double outtakeDuration, double waitAfterPlacing, double backTime
+        double outtakePower, double releaseTimeout, double backOffDistance, double backOffTimeout
     ) {
         addRequirements(driveSubsystem, rollerSubsystem, tiltedElevatorSubsystem);
+        initLogs();
+
+        BooleanSupplier pieceReleased = () -> rollerSubsystem.getPiece() == HeldPiece.EMPTY;
+        BooleanSupplier backedOff = () -> getBackOffDistance(driveSubsystem) >= backOffDistance;
 
         addCommands(
+            new InstantCommand(() -> {
+                summary.setLength(0);
+                summary.append("Drop ").append(tiltedElevatorSubsystem.getState()).append(":");
+                sequenceTimer.restart();
+                phaseTimer.restart();
+            }),
+
+            // TiltedElevatorCommand already finishes on `atTarget()`, with its own timeout
             new TiltedElevatorCommand(tiltedElevatorSubsystem, OffsetState.DROPPING),
-            new WaitCommand(waitAfterAtDropHeight),
-            new RollerPlaceCommand(rollerSubsystem, -outtakePower, outtakeDuration),
-            new WaitCommand(waitAfterPlacing),
-            new InstantCommand(() -> driveSubsystem.setDrivePowers(-0.2)),
-            new WaitCommand(backTime),
-            new InstantCommand(() -> driveSubsystem.setDrivePowers(0)),
-            new InstantCommand(() -> tiltedElevatorSubsystem.setState(ElevatorState.GROUND))
+            endPhase("lower", lowerLog, tiltedElevatorSubsystem::atTarget),
+
+            new RollerPlaceCommand(rollerSubsystem, -outtakePower, releaseTimeout).until(pieceReleased),
+            endPhase("release", releaseLog, pieceReleased),
+
+            new FunctionalCommand(
+                () -> backOffStart = getTranslation(driveSubsystem),
+                // Drive powers are rate limited, so the back-off power is set every loop
+                () -> driveSubsystem.setDrivePowers(-BACK_OFF_POWER),
+                // Otherwise the next phase brings the robot to a stop
+                (interrupted) -> {
+                    if (interrupted) driveSubsystem.stop();
+                },
+                backedOff
+            ).withTimeout(backOffTimeout),
+            endPhase("back off", backOffLog, backedOff),
+
+            // The elevator is still extended at the node, so the robot is brought to a stop at the deceleration
+            // the drivetrain allows for the extension before lowering
+            new FunctionalCommand(
+                () -> {},
+                () -> driveSubsystem.setDrivePowers(0.0),
+                (interrupted) -> driveSubsystem.stop(),
+                driveSubsystem::isStopped
+            ).withTimeout(SETTLE_TIMEOUT_SECS),
+
+            new InstantCommand(() -> {
+                tiltedElevatorSubsystem.setState(ElevatorState.GROUND);
+
+                double totalSeconds = sequenceTimer.get();
+                totalLog.append(totalSeconds);
+                summary.append(String.format(" total %.3fs", totalSeconds));
+                dropLog.append(summary.toString());
+            })
         );
     }
+
+    /**
+     * Creates a command logging the duration of the phase that just finished, and whether it finished on its event
+     * or fell back to its timeout.
+     * @param name The name of the phase.
+     * @param log The log entry for the phase's duration.
+     * @param event The event the phase waits for.
+     * @return The command to run at the end of the phase.
+     */
+    private Command endPhase(String name, DoubleLogEntry log, BooleanSupplier event) {
+        return new InstantCommand(() -> {
+            double phaseSeconds = phaseTimer.get();
+            log.append(phaseSeconds);
+            summary.append(String.format(" %s %.3fs", name, phaseSeconds));
+            if (!event.getAsBoolean()) summary.append(" (timed out)");
+
+            phaseTimer.restart();
+        });
+    }
+
+    /**
+     * Gets the distance the drivetrain has moved since the start of the back off phase. Only swerve drivetrains
+     * track their position, so other drivetrains back off for the timeout.
+     * @param driveSubsystem The drivetrain.
+     * @return The distance moved, in meters.
+     */
+    private double getBackOffDistance(BaseDrivetrain driveSubsystem) {
+        Translation2d current = getTranslation(driveSubsystem);
+        if (current == null || backOffStart == null) return 0;
+        return current.getDistance(backOffStart);
+    }
+
+    /**
+     * Gets the position of the drivetrain on the field.
+     * @param driveSubsystem The drivetrain.
+     * @return The position, or null if the drivetrain doesn't track its position.
+     */
+    private static Translation2d getTranslation(BaseDrivetrain driveSubsystem) {
+        if (!(driveSubsystem instanceof BaseSwerveSubsystem)) return null;
+        return ((BaseSwerveSubsystem) driveSubsystem).getRobotPosition().getTranslation();
+    }
+
+    /**
+     * Creates the drop sequence log entries, if they haven't been created yet.
+     */
+    private static void initLogs() {
+        if (dropLog != null) return;
+
+        lowerLog = new DoubleLogEntry(DataLogManager.getLog(), "drop/lowerSeconds");
+        releaseLog = new DoubleLogEntry(DataLogManager.getLog(), "drop/releaseSeconds");
+        backOffLog = new DoubleLogEntry(DataLogManager.getLog(), "drop/backOffSeconds");
+        totalLog = new DoubleLogEntry(DataLogManager.getLog(), "drop/totalSeconds");
+        dropLog = new StringLogEntry(DataLogManager.getLog(), "dropLog");
+    }
 }
@@ -9,6 +9,9 @@ import frc.robot.subsystems.tiltedelevator.ElevatorState;
 import frc.robot.subsystems.tiltedelevator.TiltedElevatorSubsystem;
 
 public class DropperChooserCommand extends InstantCommand {
+    // Far enough back to clear the node before the elevator lowers to ground
+    private static final double BACK_OFF_METERS = 0.25;
+
     public DropperChooserCommand(
         BaseDrivetrain driveSubsystem, RollerSubsystem rollerSubsystem, TiltedElevatorSubsystem tiltedElevatorSubsystem
     ) {
@@ -44,32 +47,32 @@ public class DropperChooserCommand extends InstantCommand {
         return switch (state) {
             case CONE_HIGH -> new DropSequence(
                 driveSubsystem, rollerSubsystem, tiltedElevatorSubsystem,
-                0, 0, 0, 0.2, 0.5
+                0, 0.2, BACK_OFF_METERS, 0.5
             );
 
             case CONE_MID -> new DropSequence(
                 driveSubsystem, rollerSubsystem, tiltedElevatorSubsystem,
-                0, 0, 0, 0.2, 0.5
+                0, 0.2, BACK_OFF_METERS, 0.5
             );
 
             case CUBE_HIGH -> new DropSequence(
                 driveSubsystem, rollerSubsystem, tiltedElevatorSubsystem,
-                0, 0.2, 0.5, 0.2, 0.5
+                0.2, 0.7, BACK_OFF_METERS, 0.5
             );
 
             case CUBE_MID -> new DropSequence(
                 driveSubsystem, rollerSubsystem, tiltedElevatorSubsystem,
-                0, 0.2, 0.5, 0.2, 0.5
+                0.2, 0.7, BACK_OFF_METERS, 0.5
             );
 
             case GROUND -> new DropSequence(
                 driveSubsystem, rollerSubsystem, tiltedElevatorSubsystem,
-                0, 0.65, 0.5, 0.2, 0.5
+                0.65, 0.7, BACK_OFF_METERS, 0.5
             );
 
             default -> new DropSequence(
                 driveSubsystem, rollerSubsystem, tiltedElevatorSubsystem,
-                0, 0, 0, 0, 0.5
+                0, 0, BACK_OFF_METERS, 0.5
             );
         };
     }
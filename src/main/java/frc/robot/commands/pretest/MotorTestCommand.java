@@ -1,6 +1,7 @@
 package frc.robot.commands.pretest;
 
 import edu.wpi.first.wpilibj2.command.InstantCommand;
+import edu.wpi.first.wpilibj2.command.RunCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
 
@@ -68,26 +69,22 @@ public class MotorTestCommand extends SequentialCommandGroup {
             // new InstantCommand(rollerSubsystem::openMotor, rollerSubsystem),
             // new WaitCommand(MECH_DELAY_SECS),
 
-            // Test swerve with forward, back, left, and right powers, and turning counterclockwise and clockwise
-            new InstantCommand(() -> swerveSubsystem.setDrivePowers(SWERVE_DRIVE_POWER, 0, 0, true)),
-            new WaitCommand(SWERVE_DRIVE_TIME_SECS),
-
-            new InstantCommand(() -> swerveSubsystem.setDrivePowers(-SWERVE_DRIVE_POWER, 0, 0, true)),
-            new WaitCommand(SWERVE_DRIVE_TIME_SECS),
-
-            new InstantCommand(() -> swerveSubsystem.setDrivePowers(0, SWERVE_DRIVE_POWER, 0, true)),
-            new WaitCommand(SWERVE_DRIVE_TIME_SECS),
-
-            new InstantCommand(() -> swerveSubsystem.setDrivePowers(0, -SWERVE_DRIVE_POWER, 0, true)),
-            new WaitCommand(SWERVE_DRIVE_TIME_SECS),
-
-            new InstantCommand(() -> swerveSubsystem.setDrivePowers(0, 0, SWERVE_DRIVE_POWER, true)),
-            new WaitCommand(SWERVE_DRIVE_TIME_SECS),
-
-            new InstantCommand(() -> swerveSubsystem.setDrivePowers(0, 0, -SWERVE_DRIVE_POWER, true)),
-            new WaitCommand(SWERVE_DRIVE_TIME_SECS),
-
-            new InstantCommand(() -> swerveSubsystem.setDrivePowers(0, 0, 0, true))
+            // Test swerve with forward, back, left, and right powers, and turning counterclockwise and clockwise.
+            // Drive powers are rate limited, so they're set every loop.
+            new RunCommand(() -> swerveSubsystem.setDrivePowers(SWERVE_DRIVE_POWER, 0, 0, true), swerveSubsystem)
+                .withTimeout(SWERVE_DRIVE_TIME_SECS),
+            new RunCommand(() -> swerveSubsystem.setDrivePowers(-SWERVE_DRIVE_POWER, 0, 0, true), swerveSubsystem)
+                .withTimeout(SWERVE_DRIVE_TIME_SECS),
+            new RunCommand(() -> swerveSubsystem.setDrivePowers(0, SWERVE_DRIVE_POWER, 0, true), swerveSubsystem)
+                .withTimeout(SWERVE_DRIVE_TIME_SECS),
+            new RunCommand(() -> swerveSubsystem.setDrivePowers(0, -SWERVE_DRIVE_POWER, 0, true), swerveSubsystem)
+                .withTimeout(SWERVE_DRIVE_TIME_SECS),
+            new RunCommand(() -> swerveSubsystem.setDrivePowers(0, 0, SWERVE_DRIVE_POWER, true), swerveSubsystem)
+                .withTimeout(SWERVE_DRIVE_TIME_SECS),
+            new RunCommand(() -> swerveSubsystem.setDrivePowers(0, 0, -SWERVE_DRIVE_POWER, true), swerveSubsystem)
+                .withTimeout(SWERVE_DRIVE_TIME_SECS),
+
+            new InstantCommand(swerveSubsystem::stop, swerveSubsystem)
         );
     }
 }
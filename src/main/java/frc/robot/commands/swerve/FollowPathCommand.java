@@ -309,7 +309,7 @@ public class FollowPathCommand extends SwerveControllerCommand {
      * @param endsMoving Whether the trajectory should end in motion.
      * @return The generated `TrajectoryConfig`.
      */
-    private static TrajectoryConfig createConfig(
+    public static TrajectoryConfig createConfig(
         BaseSwerveSubsystem swerveSubsystem, boolean startsMoving, boolean endsMoving
     ) {
         return new TrajectoryConfig(swerveSubsystem.MAX_VEL, swerveSubsystem.MAX_ACCEL)
@@ -1,22 +1,14 @@
 package frc.robot.commands.swerve;
 
-import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 
 import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
 
+/**
+ * Stops the swerve, which then decelerates through its tip-over limiter on its own.
+ */
 public class SwerveIdleCommand extends InstantCommand {
     public SwerveIdleCommand(BaseSwerveSubsystem swerveSubsystem) {
-        super(() -> {
-            /*
-            swerveSubsystem.setSwerveModuleStates(
-                new SwerveModuleState(),
-                new SwerveModuleState(),
-                new SwerveModuleState(),
-                new SwerveModuleState()
-            );
-            */
-            swerveSubsystem.setDrivePowers(0, 0, 0, true);
-        }, swerveSubsystem);
+        super(swerveSubsystem::stop, swerveSubsystem);
     }
 }
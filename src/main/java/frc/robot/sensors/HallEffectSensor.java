@@ -2,13 +2,17 @@ package frc.robot.sensors;
 
 import java.util.ArrayList;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.networktables.GenericEntry;
 import edu.wpi.first.wpilibj.DigitalInput;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 
+import frc.robot.util.HardwareSnapshot.BooleanReading;
+
 public class HallEffectSensor {
     private final DigitalInput sensor;
+    private final BooleanReading detectedReading; // Whether a magnet is detected, read once per loop
     private final Magnet[] magnets; // array of magnet locations from smallest extension to largest extension
 
     private ArrayList<GenericEntry> shuffleboardEntries = null;
@@ -20,6 +24,8 @@ public class HallEffectSensor {
 
     private boolean prevDetected;
     private double prevMechPos;
+    private boolean movingUp = true;
+    private Magnet newlyDetected = null;
 
     public HallEffectSensor(int id, Magnet[] magnets, double initialMechPos) {
         this(id, magnets, initialMechPos, -1, 0);
@@ -27,6 +33,7 @@ public class HallEffectSensor {
 
     public HallEffectSensor(int id, Magnet[] magnets, double initialMechPos, int lowerPos, int upperPos) {
         this.sensor = new DigitalInput(id);
+        this.detectedReading = new BooleanReading("Hall effect " + id, () -> !sensor.get());
         this.magnets = magnets;
 
         this.prevDetected = false;
@@ -70,48 +77,100 @@ public class HallEffectSensor {
      * @return A HallEffectMagnet object or null if sensor is between magnets.
      */
     public Magnet getHallEffectState(double mechPos) {
-        boolean detected = !sensor.get();
-        return((detected) ? magnets[0] : null);
-        // boolean movingUp = (mechPos - prevMechPos) > 0;
-
-        // // If magnet is newly detected
-        // if (detected && prevDetected == false) { // 0V signal (ie. false) indicates magnet is detected
-        //     if (movingUp) {
-        //         lowerPos = upperPos;
-        //     } else {
-        //         upperPos = lowerPos;
-        //     }
-
-        //     setShuffleboardValue(lowerPos, true);
-        // }
-
-        // // If magnet is no longer detected
-        // if (!detected && prevDetected == true) {
-        //     setShuffleboardValue(lowerPos, false);
-
-        //     if (movingUp) {
-        //         upperPos = lowerPos + 1;
-        //     } else {
-        //         lowerPos = upperPos - 1;
-        //     }
-        // }
-
-        // // Set previous state
-        // prevDetected = detected;
-        // prevMechPos = mechPos;
-
-        // return (lowerPos == upperPos) ? magnets[lowerPos] : null;
+        boolean detected = detectedReading.get(); // 0V signal (ie. false) indicates magnet is detected
+
+        // Keep the last direction of travel if the mechanism hasn't moved
+        if (mechPos != prevMechPos) movingUp = mechPos > prevMechPos;
+        newlyDetected = null;
+
+        // If magnet is newly detected
+        if (detected && !prevDetected) {
+            if (movingUp) {
+                lowerPos = upperPos;
+            } else {
+                upperPos = lowerPos;
+            }
+
+            // Ignore detections past the end of the magnet array; the tracked position is inconsistent with the
+            // magnets, so it can't be used as an absolute position.
+            if (lowerPos >= 0 && lowerPos < magnets.length) {
+                newlyDetected = magnets[lowerPos];
+                setShuffleboardValue(lowerPos, true);
+            } else {
+                lowerPos = MathUtil.clamp(lowerPos, 0, magnets.length - 1);
+                upperPos = lowerPos;
+            }
+        }
+
+        // If magnet is no longer detected
+        if (!detected && prevDetected) {
+            setShuffleboardValue(lowerPos, false);
+
+            if (movingUp) {
+                upperPos = lowerPos + 1;
+            } else {
+                lowerPos = upperPos - 1;
+            }
+        }
+
+        // Set previous state
+        prevDetected = detected;
+        prevMechPos = mechPos;
+
+        return (lowerPos == upperPos) ? magnets[lowerPos] : null;
+    }
+
+    /**
+     * Returns the magnet that was newly detected on the last call to `getHallEffectState()`, if any. The sensor
+     * trips at the edge of the magnet's detection band, so use `Magnet.getEdgeMeters(isMovingUp())` to get the
+     * mechanism position at the detection.
+     * 
+     * @return The newly detected magnet, or null if no magnet was newly detected.
+     */
+    public Magnet getNewlyDetectedMagnet() {
+        return newlyDetected;
+    }
+
+    /**
+     * Returns the direction of travel as of the last call to `getHallEffectState()`.
+     * @return Whether the mechanism is moving up (towards larger extensions).
+     */
+    public boolean isMovingUp() {
+        return movingUp;
     }
 
     public static class Magnet {
         private final double extendDistanceMeters;
+        private final double detectionHalfWidthMeters;
     
         public Magnet(double extendDistanceMeters) {
+            this(extendDistanceMeters, 0);
+        }
+
+        /**
+         * Creates a magnet with a detection band. The sensor reads the magnet while the mechanism is within
+         * `detectionHalfWidthMeters` of it, so it trips before reaching the magnet from either direction.
+         * @param extendDistanceMeters The mechanism position at the center of the magnet.
+         * @param detectionHalfWidthMeters The half width of the band the sensor detects the magnet over.
+         */
+        public Magnet(double extendDistanceMeters, double detectionHalfWidthMeters) {
             this.extendDistanceMeters = extendDistanceMeters;
+            this.detectionHalfWidthMeters = detectionHalfWidthMeters;
         }
         
         public double getExtendDistanceMeters() {
             return extendDistanceMeters;
         }
+
+        /**
+         * Gets the mechanism position at which the sensor starts detecting this magnet.
+         * @param movingUp Whether the mechanism is approaching the magnet from below.
+         * @return The position of the detection edge.
+         */
+        public double getEdgeMeters(boolean movingUp) {
+            return movingUp
+                ? extendDistanceMeters - detectionHalfWidthMeters
+                : extendDistanceMeters + detectionHalfWidthMeters;
+        }
     }
 }
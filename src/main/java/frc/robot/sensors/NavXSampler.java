@@ -0,0 +1,225 @@
+package frc.robot.sensors;
+
+import com.kauailabs.navx.AHRSProtocol.AHRSUpdateBase;
+import com.kauailabs.navx.frc.AHRS;
+import com.kauailabs.navx.frc.ITimestampedDataSubscriber;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Records every update from the NavX, at its native update rate, into a ring buffer of timestamped yaw, pitch and
+ * roll samples. Readers get values at any time in the buffer, interpolated between samples, or rates filtered by a
+ * least-squares fit over the latest samples, instead of differencing two polls of unknown age.
+ *
+ * On the robot the NavX's IO thread delivers samples as they arrive. The simulated NavX has no IO thread, so the
+ * simulation calls `poll()` whenever it moves the simulated NavX.
+ */
+public class NavXSampler implements ITimestampedDataSubscriber {
+    // The NavX's maximum update rate over SPI
+    public static final int UPDATE_RATE_HZ = 200;
+
+    // Long enough to look up the gyro at the capture time of a vision frame
+    private static final int CAPACITY = 128;
+
+    // Rates are fit over the samples this far back from the latest, about 20 samples at 200Hz
+    private static final double RATE_WINDOW_SECONDS = 0.1;
+
+    private final AHRS ahrs;
+
+    private final double[] timestamps = new double[CAPACITY];
+    private final double[] yaws = new double[CAPACITY];
+    private final double[] pitches = new double[CAPACITY];
+    private final double[] rolls = new double[CAPACITY];
+    private int newest = -1;
+    private int size = 0;
+
+    /**
+     * Creates a sampler and subscribes it to a NavX's updates.
+     * @param ahrs The NavX, or null to only record samples passed to `addSample()`.
+     */
+    public NavXSampler(AHRS ahrs) {
+        this.ahrs = ahrs;
+        if (ahrs != null) ahrs.registerCallback(this, null);
+    }
+
+    @Override
+    public void timestampedDataReceived(
+        long systemTimestamp, long sensorTimestamp, AHRSUpdateBase sensorData, Object context
+    ) {
+        // Called on the NavX's IO thread as each update arrives
+        addSample(Timer.getFPGATimestamp(), sensorData.yaw, sensorData.pitch, sensorData.roll);
+    }
+
+    /**
+     * Records the NavX's current values as a sample, e.g. after the simulation moves the simulated NavX.
+     */
+    public void poll() {
+        if (ahrs == null) return;
+        addSample(Timer.getFPGATimestamp(), ahrs.getYaw(), ahrs.getPitch(), ahrs.getRoll());
+    }
+
+    /**
+     * Records a sample, replacing the oldest once the buffer is full.
+     * @param timestampSeconds The FPGA timestamp of the sample, in seconds.
+     * @param yawDegs The yaw, clockwise positive, in degrees.
+     * @param pitchDegs The pitch, in degrees.
+     * @param rollDegs The roll, in degrees.
+     */
+    public synchronized void addSample(double timestampSeconds, double yawDegs, double pitchDegs, double rollDegs) {
+        newest = (newest + 1) % CAPACITY;
+        size = Math.min(size + 1, CAPACITY);
+
+        timestamps[newest] = timestampSeconds;
+        yaws[newest] = yawDegs;
+        pitches[newest] = pitchDegs;
+        rolls[newest] = rollDegs;
+    }
+
+    /**
+     * Gets the index of a sample, counting back from the newest.
+     * @param age The number of samples back from the newest, from 0 to `size - 1`.
+     * @return The index in the buffer.
+     */
+    private int indexOf(int age) {
+        return Math.floorMod(newest - age, CAPACITY);
+    }
+
+    /**
+     * Gets the latest yaw.
+     * @return The yaw, clockwise positive, in degrees, or 0 if there are no samples.
+     */
+    public synchronized double getYawDegs() {
+        return size == 0 ? 0 : yaws[newest];
+    }
+
+    /**
+     * Gets the latest pitch.
+     * @return The pitch, in degrees, or 0 if there are no samples.
+     */
+    public synchronized double getPitchDegs() {
+        return size == 0 ? 0 : pitches[newest];
+    }
+
+    /**
+     * Gets the latest roll.
+     * @return The roll, in degrees, or 0 if there are no samples.
+     */
+    public synchronized double getRollDegs() {
+        return size == 0 ? 0 : rolls[newest];
+    }
+
+    /**
+     * Gets the yaw at a time, interpolated between the samples around it. Times outside the buffer get the nearest
+     * sample.
+     * @param timestampSeconds The FPGA timestamp, in seconds.
+     * @return The yaw, clockwise positive, in degrees, or 0 if there are no samples.
+     */
+    public synchronized double getYawDegs(double timestampSeconds) {
+        return interpolate(yaws, timestampSeconds, true);
+    }
+
+    /**
+     * Gets the pitch at a time, interpolated between the samples around it. Times outside the buffer get the
+     * nearest sample.
+     * @param timestampSeconds The FPGA timestamp, in seconds.
+     * @return The pitch, in degrees, or 0 if there are no samples.
+     */
+    public synchronized double getPitchDegs(double timestampSeconds) {
+        return interpolate(pitches, timestampSeconds, false);
+    }
+
+    /**
+     * Gets the roll at a time, interpolated between the samples around it. Times outside the buffer get the
+     * nearest sample.
+     * @param timestampSeconds The FPGA timestamp, in seconds.
+     * @return The roll, in degrees, or 0 if there are no samples.
+     */
+    public synchronized double getRollDegs(double timestampSeconds) {
+        return interpolate(rolls, timestampSeconds, false);
+    }
+
+    /**
+     * Interpolates a channel at a time, searching back from the newest sample.
+     * @param values The channel.
+     * @param timestampSeconds The FPGA timestamp, in seconds.
+     * @param wraps Whether the channel is an angle that wraps at +/-180 degrees, like yaw.
+     * @return The interpolated value, or 0 if there are no samples.
+     */
+    private double interpolate(double[] values, double timestampSeconds, boolean wraps) {
+        if (size == 0) return 0;
+        if (timestampSeconds >= timestamps[newest]) return values[newest];
+
+        for (int age = 1; age < size; age++) {
+            int before = indexOf(age);
+            if (timestamps[before] > timestampSeconds) continue;
+
+            int after = indexOf(age - 1);
+            double t = (timestampSeconds - timestamps[before]) / (timestamps[after] - timestamps[before]);
+            double delta = values[after] - values[before];
+            if (wraps) delta = MathUtil.inputModulus(delta, -180, 180);
+
+            double value = values[before] + t * delta;
+            return wraps ? MathUtil.inputModulus(value, -180, 180) : value;
+        }
+        return values[indexOf(size - 1)];
+    }
+
+    /**
+     * Gets the rate the yaw is changing at, fit over the latest samples.
+     * @return The rate, clockwise positive, in degrees per second, or 0 if there aren't enough samples.
+     */
+    public synchronized double getYawRateDegsPerSec() {
+        return fitRate(yaws, true);
+    }
+
+    /**
+     * Gets the rate the pitch is changing at, fit over the latest samples. This is much less noisy than the
+     * difference between two readings a loop apart.
+     * @return The rate, in degrees per second, or 0 if there aren't enough samples.
+     */
+    public synchronized double getPitchRateDegsPerSec() {
+        return fitRate(pitches, false);
+    }
+
+    /**
+     * Gets the rate the roll is changing at, fit over the latest samples.
+     * @return The rate, in degrees per second, or 0 if there aren't enough samples.
+     */
+    public synchronized double getRollRateDegsPerSec() {
+        return fitRate(rolls, false);
+    }
+
+    /**
+     * Fits a line to the samples of a channel within the rate window of the newest sample, by least squares.
+     * @param values The channel.
+     * @param wraps Whether the channel is an angle that wraps at +/-180 degrees, like yaw.
+     * @return The slope of the line, per second, or 0 if there are fewer than two samples in the window.
+     */
+    private double fitRate(double[] values, boolean wraps) {
+        double newestTime = size == 0 ? 0 : timestamps[newest];
+        double newestValue = size == 0 ? 0 : values[newest];
+
+        // Times and values are taken relative to the newest sample, which keeps the sums small
+        int count = 0;
+        double sumT = 0, sumV = 0, sumTT = 0, sumTV = 0;
+        for (int age = 0; age < size; age++) {
+            int index = indexOf(age);
+            double t = timestamps[index] - newestTime;
+            if (t < -RATE_WINDOW_SECONDS) break;
+
+            double v = values[index] - newestValue;
+            if (wraps) v = MathUtil.inputModulus(v, -180, 180);
+
+            count++;
+            sumT += t;
+            sumV += v;
+            sumTT += t * t;
+            sumTV += t * v;
+        }
+
+        double denominator = count * sumTT - sumT * sumT;
+        if (count < 2 || denominator <= 0) return 0;
+        return (count * sumTV - sumT * sumV) / denominator;
+    }
+}
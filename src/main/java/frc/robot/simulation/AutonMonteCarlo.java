@@ -0,0 +1,505 @@
+package frc.robot.simulation;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import frc.robot.RobotContainer;
+import frc.robot.commands.auton.AutonFactoryFunction;
+import frc.robot.commands.auton.BottomBalanceAutonSequence;
+import frc.robot.commands.auton.BottomTwoPieceAutonSequence;
+import frc.robot.commands.auton.TopTwoPieceAutonSequence;
+import frc.robot.positions.PlacePosition;
+
+/**
+ * Monte Carlo sweeps of auton robustness: every auton routine is run many times in simulation with randomized
+ * `SimDisturbances` (and a random place position and alliance), and each run is compared with the undisturbed run
+ * from the same start. The result is each routine's success rate and the distribution of its completion time.
+ *
+ * A run succeeds if it finishes whenever the undisturbed run does, places as many pieces, and ends within
+ * `MAX_FINAL_TRANSLATION_ERROR_METERS` and `MAX_FINAL_HEADING_ERROR_DEGS` of where the undisturbed run ended.
+ *
+ * Since there can only be one `AutonSimulation` per JVM, each core gets a long-lived worker process (this class's
+ * `main()`), and batches of runs are handed out to the workers by a work-stealing pool, so that cores that draw
+ * short routines keep taking batches while others finish long ones. Each run has its own seed, so the results
+ * don't depend on how runs were scheduled and any failed run can be reproduced.
+ */
+public class AutonMonteCarlo {
+    public static final double MAX_FINAL_TRANSLATION_ERROR_METERS = 0.3;
+    public static final double MAX_FINAL_HEADING_ERROR_DEGS = 10.0;
+
+    private static final String ROUTINES_PREFIX = "ROUTINES ";
+    private static final String RESULT_PREFIX = "RESULT ";
+
+    private static final int BATCH_SIZE = 10;
+
+    private static final double[] PERCENTILES = { 5, 25, 50, 75, 95 };
+    private static final double HISTOGRAM_BIN_SECONDS = 0.5;
+    private static final int MAX_FAILED_RUNS_LISTED = 10;
+
+    private static final Gson gson = new Gson();
+
+    /**
+     * A run for a worker to do.
+     */
+    private static class RunRequest {
+        public final String routine;
+        public final String position;
+        public final boolean isRed;
+        public final SimDisturbances disturbances;
+        public final long seed;
+        public final boolean visionInAuton;
+
+        public RunRequest(
+            String routine, String position, boolean isRed,
+            SimDisturbances disturbances, long seed, boolean visionInAuton
+        ) {
+            this.routine = routine;
+            this.position = position;
+            this.isRed = isRed;
+            this.disturbances = disturbances;
+            this.seed = seed;
+            this.visionInAuton = visionInAuton;
+        }
+    }
+
+    /**
+     * The success rate and completion time distribution of one routine's disturbed runs.
+     */
+    public static class RoutineSummary {
+        public final String routine;
+        public final int runs;
+        public final int successes;
+        public final double successRate;
+
+        // Runs failing each criterion; a run can fail several
+        public final int unfinished, missedPieces, offTarget;
+
+        // Percentiles (at `percentiles`) of the completion time of runs that finished, and their histogram in
+        // `histogramBinSeconds` bins starting from 0
+        public final double[] percentiles;
+        public final double[] completionSecondsPercentiles;
+        public final double histogramBinSeconds;
+        public final int[] completionSecondsHistogram;
+
+        // Percentiles (at `percentiles`) of the distance between each run's final pose and the undisturbed run's
+        public final double[] finalErrorMetersPercentiles;
+
+        // The first few failed runs, as "position / alliance / seed", to reproduce them
+        public final List<String> failedRuns;
+
+        public RoutineSummary(
+            String routine, int runs, int successes, int unfinished, int missedPieces, int offTarget,
+            double[] completionSeconds, double[] finalErrorMeters, List<String> failedRuns
+        ) {
+            this.routine = routine;
+            this.runs = runs;
+            this.successes = successes;
+            this.successRate = runs == 0 ? 0 : (double) successes / runs;
+            this.unfinished = unfinished;
+            this.missedPieces = missedPieces;
+            this.offTarget = offTarget;
+            this.percentiles = PERCENTILES;
+            this.completionSecondsPercentiles = getPercentiles(completionSeconds);
+            this.histogramBinSeconds = HISTOGRAM_BIN_SECONDS;
+            this.completionSecondsHistogram = getHistogram(completionSeconds);
+            this.finalErrorMetersPercentiles = getPercentiles(finalErrorMeters);
+            this.failedRuns = failedRuns;
+        }
+    }
+
+    /**
+     * A worker process running an `AutonSimulation`, taking runs on its standard input and returning results on
+     * its standard output.
+     */
+    private static class Worker {
+        private final Process process;
+        private final BufferedWriter requests;
+        private final BufferedReader results;
+        private final File log;
+
+        /**
+         * Starts a worker process, with the same classpath and native libraries as this one.
+         * @param directory The working directory of the worker, where robot logs end up.
+         * @param log The file to write the worker's log to.
+         */
+        public Worker(File directory, File log) throws IOException {
+            this.log = log;
+
+            String java = ProcessHandle.current().info().command().orElse("java");
+            process = new ProcessBuilder(
+                java,
+                "-Xmx512m",
+                "-cp", System.getProperty("java.class.path"),
+                "-Djava.library.path=" + System.getProperty("java.library.path"),
+                AutonMonteCarlo.class.getName()
+            )
+                .directory(directory)
+                .redirectError(log)
+                .start();
+
+            requests = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+            results = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        }
+
+        /**
+         * Waits for the worker to start, and gets the auton routines it can run.
+         * @return The names of the routines.
+         */
+        public List<String> readRoutines() throws IOException {
+            return gson.fromJson(readLine(ROUTINES_PREFIX), new TypeToken<List<String>>() {}.getType());
+        }
+
+        /**
+         * Runs a batch of runs.
+         * @param batch The runs.
+         * @return The result of each run, in order.
+         */
+        public List<AutonResult> run(List<RunRequest> batch) throws IOException {
+            for (RunRequest request : batch) {
+                requests.write(gson.toJson(request));
+                requests.newLine();
+            }
+            requests.flush();
+
+            List<AutonResult> batchResults = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                batchResults.add(gson.fromJson(readLine(RESULT_PREFIX), AutonResult.class));
+            }
+            return batchResults;
+        }
+
+        /**
+         * Stops the worker.
+         */
+        public void close() {
+            try {
+                requests.close();
+            } catch (IOException e) {
+                // The worker already exited
+            }
+            process.destroy();
+        }
+
+        /**
+         * Reads a line of the worker's output.
+         * @param prefix The prefix the line must start with.
+         * @return The rest of the line.
+         */
+        private String readLine(String prefix) throws IOException {
+            String line = results.readLine();
+            if (line == null || !line.startsWith(prefix)) {
+                throw new IOException("Auton simulation worker failed; see " + log);
+            }
+            return line.substring(prefix.length());
+        }
+    }
+
+    /**
+     * Runs a Monte Carlo sweep of every auton routine.
+     * @param trials The number of disturbed runs of each routine.
+     * @param disturbances The magnitudes of the disturbances.
+     * @param visionInAuton Whether vision is enabled during auton.
+     * @param seed The seed of the sweep.
+     * @param workerCount The number of worker processes, usually one per core.
+     * @param directory The working directory of the workers, where their logs are written.
+     * @return The summary of each routine's runs.
+     */
+    public static List<RoutineSummary> sweep(
+        int trials, SimDisturbances disturbances, boolean visionInAuton, long seed, int workerCount, File directory
+    ) throws IOException, InterruptedException, ExecutionException {
+        directory.mkdirs();
+
+        List<Worker> workers = new ArrayList<>();
+        BlockingQueue<Worker> idleWorkers = new LinkedBlockingQueue<>();
+        ExecutorService pool = Executors.newWorkStealingPool(workerCount);
+
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                Worker worker = new Worker(directory, new File(directory, "worker-" + i + ".log"));
+                workers.add(worker);
+            }
+
+            List<String> routines = workers.get(0).readRoutines();
+            for (int i = 1; i < workerCount; i++) workers.get(i).readRoutines();
+            idleWorkers.addAll(workers);
+
+            // The undisturbed run from every start, to compare the disturbed runs with
+            List<RunRequest> nominalRequests = new ArrayList<>();
+            for (String routine : routines) {
+                for (PlacePosition position : PlacePosition.values()) {
+                    for (boolean isRed : new boolean[] { false, true }) {
+                        nominalRequests.add(new RunRequest(
+                            routine, position.name(), isRed, SimDisturbances.NONE, 0, visionInAuton
+                        ));
+                    }
+                }
+            }
+
+            // Each routine draws its runs from its own generator, so its runs don't depend on the other routines
+            Map<String, List<RunRequest>> trialRequests = new LinkedHashMap<>();
+            PlacePosition[] positions = PlacePosition.values();
+            for (String routine : routines) {
+                Random random = new Random(seed + routine.hashCode());
+                List<RunRequest> requests = new ArrayList<>();
+                for (int i = 0; i < trials; i++) {
+                    requests.add(new RunRequest(
+                        routine, positions[random.nextInt(positions.length)].name(), random.nextBoolean(),
+                        disturbances, random.nextLong(), visionInAuton
+                    ));
+                }
+                trialRequests.put(routine, requests);
+            }
+
+            List<Future<List<AutonResult>>> nominalFutures = submitBatches(pool, idleWorkers, nominalRequests);
+            Map<String, List<Future<List<AutonResult>>>> trialFutures = new LinkedHashMap<>();
+            for (Map.Entry<String, List<RunRequest>> entry : trialRequests.entrySet()) {
+                trialFutures.put(entry.getKey(), submitBatches(pool, idleWorkers, entry.getValue()));
+            }
+
+            Map<String, AutonResult> nominalResults = new HashMap<>();
+            for (AutonResult result : collect(nominalFutures)) nominalResults.put(result.getKey(), result);
+
+            List<RoutineSummary> summaries = new ArrayList<>();
+            for (String routine : routines) {
+                summaries.add(summarize(
+                    routine, trialRequests.get(routine), collect(trialFutures.get(routine)), nominalResults
+                ));
+            }
+            return summaries;
+        } finally {
+            pool.shutdownNow();
+            for (Worker worker : workers) worker.close();
+        }
+    }
+
+    /**
+     * Gets a table of each routine's success rate, failures, and completion time percentiles.
+     * @param summaries The summaries of each routine.
+     * @return The report.
+     */
+    public static String getReport(List<RoutineSummary> summaries) {
+        StringBuilder report = new StringBuilder(String.format(
+            "%-28s %6s %8s %10s %7s %10s   completion time p%s (s)\n",
+            "Routine", "Runs", "Success", "Unfinished", "Pieces", "Off target", joinPercentiles()
+        ));
+        for (RoutineSummary summary : summaries) {
+            StringBuilder times = new StringBuilder();
+            for (double seconds : summary.completionSecondsPercentiles) times.append(String.format(" %5.2f", seconds));
+
+            report.append(String.format(
+                "%-28s %6d %7.1f%% %10d %7d %10d  %s\n",
+                summary.routine, summary.runs, summary.successRate * 100,
+                summary.unfinished, summary.missedPieces, summary.offTarget,
+                times.length() == 0 ? " (none finished)" : times
+            ));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Splits runs into batches and submits them to the pool.
+     * @param pool The work-stealing pool.
+     * @param idleWorkers The workers not running a batch.
+     * @param requests The runs.
+     * @return The results of each batch.
+     */
+    private static List<Future<List<AutonResult>>> submitBatches(
+        ExecutorService pool, BlockingQueue<Worker> idleWorkers, List<RunRequest> requests
+    ) {
+        List<Future<List<AutonResult>>> futures = new ArrayList<>();
+        for (int start = 0; start < requests.size(); start += BATCH_SIZE) {
+            List<RunRequest> batch = requests.subList(start, Math.min(start + BATCH_SIZE, requests.size()));
+            futures.add(pool.submit(() -> {
+                // There are as many workers as pool threads, so one is always idle when a batch starts
+                Worker worker = idleWorkers.take();
+                try {
+                    return worker.run(batch);
+                } finally {
+                    idleWorkers.put(worker);
+                }
+            }));
+        }
+        return futures;
+    }
+
+    /**
+     * Waits for batches to finish and collects their results.
+     * @param futures The results of each batch.
+     * @return The results of every run, in order.
+     */
+    private static List<AutonResult> collect(
+        List<Future<List<AutonResult>>> futures
+    ) throws InterruptedException, ExecutionException {
+        List<AutonResult> results = new ArrayList<>();
+        for (Future<List<AutonResult>> future : futures) results.addAll(future.get());
+        return results;
+    }
+
+    /**
+     * Compares a routine's disturbed runs with its undisturbed runs.
+     * @param routine The name of the routine.
+     * @param requests The disturbed runs.
+     * @param results The results of the disturbed runs, in the same order.
+     * @param nominalResults The undisturbed results from every start, by key.
+     * @return The summary of the routine.
+     */
+    private static RoutineSummary summarize(
+        String routine, List<RunRequest> requests, List<AutonResult> results, Map<String, AutonResult> nominalResults
+    ) {
+        int successes = 0, unfinished = 0, missedPieces = 0, offTarget = 0;
+        List<Double> completionSeconds = new ArrayList<>();
+        double[] finalErrorMeters = new double[results.size()];
+        List<String> failedRuns = new ArrayList<>();
+
+        for (int i = 0; i < results.size(); i++) {
+            AutonResult result = results.get(i);
+            AutonResult nominal = nominalResults.get(result.getKey());
+
+            boolean isUnfinished = nominal.finished && !result.finished;
+            boolean isMissingPieces = result.piecesPlaced < nominal.piecesPlaced;
+
+            finalErrorMeters[i] = Math.hypot(result.finalX - nominal.finalX, result.finalY - nominal.finalY);
+            double headingErrorDegs = Math.abs(Math.IEEEremainder(result.finalHeadingDegs - nominal.finalHeadingDegs, 360));
+            boolean isOffTarget = finalErrorMeters[i] > MAX_FINAL_TRANSLATION_ERROR_METERS
+                || headingErrorDegs > MAX_FINAL_HEADING_ERROR_DEGS;
+
+            if (result.finished) completionSeconds.add(result.autonSeconds);
+            if (isUnfinished) unfinished++;
+            if (isMissingPieces) missedPieces++;
+            if (isOffTarget) offTarget++;
+
+            if (!isUnfinished && !isMissingPieces && !isOffTarget) {
+                successes++;
+            } else if (failedRuns.size() < MAX_FAILED_RUNS_LISTED) {
+                failedRuns.add(result.position + " / " + (result.isRed ? "red" : "blue") + " / " + requests.get(i).seed);
+            }
+        }
+
+        return new RoutineSummary(
+            routine, results.size(), successes, unfinished, missedPieces, offTarget,
+            completionSeconds.stream().mapToDouble(Double::doubleValue).toArray(), finalErrorMeters, failedRuns
+        );
+    }
+
+    /**
+     * Gets percentiles of a set of values, by nearest rank.
+     * @param values The values.
+     * @return The value at each of `PERCENTILES`, or an empty array if there are no values.
+     */
+    private static double[] getPercentiles(double[] values) {
+        if (values.length == 0) return new double[0];
+
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        double[] percentiles = new double[PERCENTILES.length];
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            int rank = (int) Math.ceil(PERCENTILES[i] / 100.0 * sorted.length);
+            percentiles[i] = sorted[Math.max(rank - 1, 0)];
+        }
+        return percentiles;
+    }
+
+    /**
+     * Gets a histogram of completion times over the auton period.
+     * @param seconds The completion times.
+     * @return The number of times in each `HISTOGRAM_BIN_SECONDS` bin, starting from 0.
+     */
+    private static int[] getHistogram(double[] seconds) {
+        int[] histogram = new int[(int) Math.ceil(AutonSimulation.AUTON_SECONDS / HISTOGRAM_BIN_SECONDS)];
+        for (double value : seconds) {
+            int bin = (int) (value / HISTOGRAM_BIN_SECONDS);
+            histogram[Math.min(Math.max(bin, 0), histogram.length - 1)]++;
+        }
+        return histogram;
+    }
+
+    /**
+     * Joins the percentiles for the report's header, e.g. "5/50/95".
+     * @return The joined percentiles.
+     */
+    private static String joinPercentiles() {
+        StringBuilder joined = new StringBuilder();
+        for (double percentile : PERCENTILES) {
+            if (joined.length() > 0) joined.append('/');
+            joined.append((int) percentile);
+        }
+        return joined.toString();
+    }
+
+    /**
+     * Gets every auton routine to sweep: the routines in the auton chooser, and the `BaseAutonSequence`s that are
+     * left out of it.
+     * @param container The robot.
+     * @return The routines, by name.
+     */
+    private static Map<String, AutonFactoryFunction> getRoutines(RobotContainer container) {
+        Map<String, AutonFactoryFunction> routines = new LinkedHashMap<>(container.getAutonRoutines());
+        routines.putIfAbsent("Top auton (2-piece)", TopTwoPieceAutonSequence::new);
+        routines.putIfAbsent("Bottom auton (2-piece)", BottomTwoPieceAutonSequence::new);
+        routines.putIfAbsent("Bottom balance auton", BottomBalanceAutonSequence::withDeadline);
+        return routines;
+    }
+
+    /**
+     * Runs a worker: reads runs as JSON lines from standard input, and writes each result as a JSON line to standard
+     * output, until standard input is closed.
+     *
+     * @param args Unused.
+     */
+    public static void main(String... args) {
+        // Standard output carries results, so anything the robot code prints goes to the log instead
+        PrintStream output = System.out;
+        System.setOut(System.err);
+
+        int status = 0;
+        try {
+            AutonSimulation simulation = new AutonSimulation();
+            Map<String, AutonFactoryFunction> routines = getRoutines(simulation.getContainer());
+            output.println(ROUTINES_PREFIX + gson.toJson(new ArrayList<>(routines.keySet())));
+            output.flush();
+
+            BufferedReader input = new BufferedReader(new InputStreamReader(System.in));
+            String line;
+            while ((line = input.readLine()) != null) {
+                RunRequest request = gson.fromJson(line, RunRequest.class);
+                simulation.setVisionInAuton(request.visionInAuton);
+
+                AutonResult result = simulation.run(
+                    request.routine, routines.get(request.routine),
+                    PlacePosition.valueOf(request.position), request.isRed,
+                    request.disturbances, request.seed
+                );
+                output.println(RESULT_PREFIX + gson.toJson(result));
+                output.flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            status = 1;
+        }
+
+        // The HAL leaves non-daemon threads running
+        System.exit(status);
+    }
+}
@@ -0,0 +1,56 @@
+package frc.robot.simulation;
+
+/**
+ * The outcome of running one auton routine in simulation.
+ */
+public class AutonResult {
+    public final String routine;
+    public final String position;
+    public final boolean isRed;
+
+    public final boolean finished; // Whether the routine finished before the end of the auton period
+    public final double autonSeconds; // Time until the routine finished, or the length of the auton period
+    public final int piecesPlaced;
+
+    public final double finalX, finalY, finalHeadingDegs; // The true final pose of the robot
+    public final double poseErrorMeters; // Distance between the estimated and true final pose
+    public final double peakLoopMillis; // Longest robot loop, in wall-clock time
+
+    public AutonResult(
+        String routine, String position, boolean isRed,
+        boolean finished, double autonSeconds, int piecesPlaced,
+        double finalX, double finalY, double finalHeadingDegs,
+        double poseErrorMeters, double peakLoopMillis
+    ) {
+        this.routine = routine;
+        this.position = position;
+        this.isRed = isRed;
+        this.finished = finished;
+        this.autonSeconds = autonSeconds;
+        this.piecesPlaced = piecesPlaced;
+        this.finalX = finalX;
+        this.finalY = finalY;
+        this.finalHeadingDegs = finalHeadingDegs;
+        this.poseErrorMeters = poseErrorMeters;
+        this.peakLoopMillis = peakLoopMillis;
+    }
+
+    /**
+     * Gets a key identifying the routine, position and alliance of this run, to match it with other runs.
+     * @return The key.
+     */
+    public String getKey() {
+        return getKey(routine, position, isRed);
+    }
+
+    /**
+     * Gets a key identifying a routine, position and alliance.
+     * @param routine The name of the routine.
+     * @param position The name of the starting place position.
+     * @param isRed Whether the robot is on the red alliance.
+     * @return The key.
+     */
+    public static String getKey(String routine, String position, boolean isRed) {
+        return routine + " / " + position + " / " + (isRed ? "red" : "blue");
+    }
+}
@@ -0,0 +1,340 @@
+package frc.robot.simulation;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import com.google.gson.Gson;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.interpolation.TimeInterpolatableBuffer;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+import frc.robot.RobotContainer;
+import frc.robot.commands.auton.AutonFactoryFunction;
+import frc.robot.positions.FieldPosition;
+import frc.robot.positions.PlacePosition;
+import frc.robot.subsystems.RollerSubsystem;
+import frc.robot.subsystems.RollerSubsystem.HeldPiece;
+import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
+import frc.robot.subsystems.tiltedelevator.ElevatorState;
+import frc.robot.subsystems.tiltedelevator.TiltedElevatorSubsystem;
+import frc.robot.util.HardwareSnapshot;
+
+/**
+ * Runs auton routines on the full robot (a `RobotContainer`) in simulation, as fast as the CPU allows. The HAL
+ * clock is paused and stepped by exactly one loop period before each scheduler run, so timers, timeouts and
+ * trajectories see the same time as on the robot no matter how long a loop takes in wall-clock time.
+ *
+ * Runs can be given `SimDisturbances` to add wheel slip, gyro drift, encoder noise, a noisy and delayed vision
+ * feed, and starting pose error. The vision feed stands in for the cameras, and like them is ignored while vision
+ * is disabled, which `Robot.autonomousInit()` does for auton unless `setVisionInAuton()` says otherwise.
+ *
+ * Each run starts with the piece for the starting node preloaded, and a cube staged on each of the game piece
+ * marks in the middle of the field, which the intake takes in when the robot is over it. Between runs, the elevator
+ * is lowered back to the ground.
+ *
+ * The HAL and the command scheduler are global to the process, so there can only be one simulation per JVM; to
+ * run in parallel, run one JVM per core (see `main()`).
+ */
+public class AutonSimulation {
+    public static final double AUTON_SECONDS = 15.0;
+    private static final double LOOP_SECONDS = TimedRobot.kDefaultPeriod;
+
+    // Loops at the start of each run left out of the peak loop time, since they load and compile new classes
+    private static final int WARMUP_LOOPS = 10;
+
+    // How far a misidentified tag moves a vision pose
+    private static final double VISION_OUTLIER_METERS = 1.0;
+
+    // The intake can take in a staged piece within this distance of the center of the robot
+    private static final double INTAKE_REACH_METERS = 0.6;
+    private static final FieldPosition[] STAGED_PIECES = {
+        FieldPosition.PIECE1, FieldPosition.PIECE2, FieldPosition.PIECE3, FieldPosition.PIECE4
+    };
+
+    // Longest time to wait for the elevator to lower between runs
+    private static final double STOW_TIMEOUT_SECONDS = 3.0;
+
+    private final RobotContainer container;
+    private final BaseSwerveSubsystem swerveSubsystem;
+    private final RollerSubsystem rollerSubsystem;
+    private final TiltedElevatorSubsystem tiltedElevatorSubsystem;
+    private final SwerveDriveSim driveSim;
+    private final RollerSim rollerSim;
+
+    private final TimeInterpolatableBuffer<Pose2d> poseHistory = TimeInterpolatableBuffer.createBuffer(1.0);
+    private boolean visionInAuton = false;
+
+    /**
+     * Initializes the HAL in simulation, pauses its clock, and creates the robot.
+     */
+    public AutonSimulation() {
+        HAL.initialize(500, 0);
+        SimHooks.pauseTiming();
+        setEnabled(false);
+
+        container = new RobotContainer();
+        if (!(container.driveSubsystem instanceof BaseSwerveSubsystem)) {
+            throw new IllegalStateException("Auton simulation needs a swerve drivetrain");
+        }
+
+        swerveSubsystem = (BaseSwerveSubsystem) container.driveSubsystem;
+        rollerSubsystem = container.getRollerSubsystem();
+        tiltedElevatorSubsystem = container.getTiltedElevatorSubsystem();
+        driveSim = swerveSubsystem.getDriveSim();
+        if (driveSim == null) throw new IllegalStateException("Auton simulation needs simulated swerve modules");
+        rollerSim = rollerSubsystem.getRollerSim();
+
+        // Runs inject their own vision measurements from `SimDisturbances`, which the cameras would duplicate
+        if (swerveSubsystem.getVisionSim() != null) swerveSubsystem.getVisionSim().setEnabled(false);
+    }
+
+    /**
+     * Gets the robot being simulated.
+     * @return The robot container.
+     */
+    public RobotContainer getContainer() {
+        return container;
+    }
+
+    /**
+     * Sets whether vision is enabled during auton runs. Disabled by default, like on the robot.
+     * @param visionInAuton Whether vision is enabled.
+     */
+    public void setVisionInAuton(boolean visionInAuton) {
+        this.visionInAuton = visionInAuton;
+    }
+
+    /**
+     * Runs an auton routine from the start of the auton period until it finishes or the period ends, with no
+     * disturbances.
+     * @param routine The name of the routine, as listed in `RobotContainer.getAutonRoutines()`.
+     * @param position The place position the robot starts at.
+     * @param isRed Whether the robot is on the red alliance.
+     * @return The result of the run.
+     */
+    public AutonResult run(String routine, PlacePosition position, boolean isRed) {
+        AutonFactoryFunction factory = container.getAutonRoutines().get(routine);
+        if (factory == null) throw new IllegalArgumentException("No auton routine named " + routine);
+
+        return run(routine, factory, position, isRed, SimDisturbances.NONE, 0);
+    }
+
+    /**
+     * Runs an auton routine from the start of the auton period until it finishes or the period ends.
+     * @param routine The name of the routine, for the result.
+     * @param factory The function creating the routine.
+     * @param position The place position the robot starts at.
+     * @param isRed Whether the robot is on the red alliance.
+     * @param disturbances The disturbances to inject.
+     * @param seed The seed of the disturbances, so that a run can be reproduced.
+     * @return The result of the run.
+     */
+    public AutonResult run(
+        String routine, AutonFactoryFunction factory, PlacePosition position, boolean isRed,
+        SimDisturbances disturbances, long seed
+    ) {
+        Random random = new Random(seed);
+        driveSim.setDisturbances(disturbances, random);
+
+        // Place the robot near where the routine expects it to start; the routine resets odometry itself
+        Transform2d startError = new Transform2d(
+            new Translation2d(
+                random.nextGaussian() * disturbances.startTranslationStdDevMeters,
+                random.nextGaussian() * disturbances.startTranslationStdDevMeters
+            ),
+            Rotation2d.fromDegrees(random.nextGaussian() * disturbances.startHeadingStdDevDegs)
+        );
+        driveSim.setPose(position.alignPosition.getPose(isRed).transformBy(startError));
+        poseHistory.clear();
+
+        rollerSim.setPiece(PlacePosition.getCubePositions().contains(position) ? HeldPiece.CUBE : HeldPiece.CONE);
+        List<Translation2d> stagedPieces = new ArrayList<>();
+        for (FieldPosition staged : STAGED_PIECES) stagedPieces.add(staged.getPose(isRed).getTranslation());
+        rollerSim.setPieceSource(() -> takeStagedPiece(stagedPieces));
+
+        DriverStationSim.setAllianceStationId(isRed ? AllianceStationID.Red1 : AllianceStationID.Blue1);
+        setEnabled(true);
+        swerveSubsystem.setVisionEnabled(visionInAuton);
+
+        Command command = container.createAutonomousCommand(factory, position, isRed);
+        command.schedule();
+
+        int loops = 0;
+        int piecesPlaced = 0;
+        long peakLoopNanos = 0;
+        boolean finished = false;
+        HeldPiece lastPiece = rollerSubsystem.getPiece();
+        double nextVisionSeconds = Timer.getFPGATimestamp() + disturbances.visionLatencySeconds;
+
+        while (loops * LOOP_SECONDS < AUTON_SECONDS) {
+            SimHooks.stepTiming(LOOP_SECONDS);
+
+            double nowSeconds = Timer.getFPGATimestamp();
+            if (disturbances.visionPeriodSeconds > 0 && nowSeconds >= nextVisionSeconds) {
+                addVisionMeasurement(nowSeconds, disturbances, random);
+                nextVisionSeconds += disturbances.visionPeriodSeconds;
+            }
+
+            long start = System.nanoTime();
+            runLoop();
+            long loopNanos = System.nanoTime() - start;
+            loops++;
+
+            if (loops > WARMUP_LOOPS) peakLoopNanos = Math.max(peakLoopNanos, loopNanos);
+            poseHistory.addSample(Timer.getFPGATimestamp(), driveSim.getPose());
+
+            // A piece leaving the roller is a piece placed
+            HeldPiece piece = rollerSubsystem.getPiece();
+            if (lastPiece != HeldPiece.EMPTY && piece == HeldPiece.EMPTY) piecesPlaced++;
+            lastPiece = piece;
+
+            if (!command.isScheduled()) {
+                finished = true;
+                break;
+            }
+        }
+
+        CommandScheduler.getInstance().cancelAll();
+        Pose2d truePose = driveSim.getPose();
+        Pose2d estimatedPose = swerveSubsystem.getRobotPosition();
+
+        stowElevator();
+        setEnabled(false);
+        runLoop();
+
+        return new AutonResult(
+            routine, position.name(), isRed,
+            finished, loops * LOOP_SECONDS, piecesPlaced,
+            truePose.getX(), truePose.getY(), truePose.getRotation().getDegrees(),
+            truePose.getTranslation().getDistance(estimatedPose.getTranslation()),
+            peakLoopNanos / 1e6
+        );
+    }
+
+    /**
+     * Takes the staged piece under the robot, if there is one.
+     * @param stagedPieces The positions of the pieces still staged, which the taken piece is removed from.
+     * @return The piece taken, or `EMPTY` if there is none within reach.
+     */
+    private HeldPiece takeStagedPiece(List<Translation2d> stagedPieces) {
+        Translation2d robot = driveSim.getPose().getTranslation();
+        for (Translation2d staged : stagedPieces) {
+            if (staged.getDistance(robot) <= INTAKE_REACH_METERS) {
+                stagedPieces.remove(staged);
+                return HeldPiece.CUBE;
+            }
+        }
+        return HeldPiece.EMPTY;
+    }
+
+    /**
+     * Lowers the elevator to the ground, stepping the clock until it gets there or times out, so that the next run
+     * starts with the elevator down like at the start of a match.
+     */
+    private void stowElevator() {
+        tiltedElevatorSubsystem.setState(ElevatorState.GROUND);
+        for (int i = 0; i * LOOP_SECONDS < STOW_TIMEOUT_SECONDS && !tiltedElevatorSubsystem.atTarget(); i++) {
+            SimHooks.stepTiming(LOOP_SECONDS);
+            runLoop();
+        }
+    }
+
+    /**
+     * Adds a vision pose estimate, made from the true pose of the robot when the frame was captured, to the pose
+     * estimator.
+     * @param nowSeconds The current FPGA timestamp, when the frame arrives.
+     * @param disturbances The disturbances of the vision feed.
+     * @param random The source of randomness for the disturbances.
+     */
+    private void addVisionMeasurement(double nowSeconds, SimDisturbances disturbances, Random random) {
+        double captureSeconds = nowSeconds - disturbances.visionLatencySeconds;
+        Optional<Pose2d> capturedPose = poseHistory.getSample(captureSeconds);
+        if (capturedPose.isEmpty()) return;
+
+        double errorMeters = random.nextDouble() < disturbances.visionOutlierProbability
+            ? VISION_OUTLIER_METERS
+            : Math.abs(random.nextGaussian()) * disturbances.visionNoiseMeters;
+        Translation2d error = new Translation2d(errorMeters, Rotation2d.fromRadians(2 * Math.PI * random.nextDouble()));
+
+        swerveSubsystem.addVisionMeasurement(
+            new Pose2d(capturedPose.get().getTranslation().plus(error), capturedPose.get().getRotation()),
+            captureSeconds + random.nextGaussian() * disturbances.visionTimestampErrorSeconds
+        );
+    }
+
+    /**
+     * Runs one robot loop: reads the sensors, then runs the scheduler, like `Robot.robotPeriodic()`.
+     */
+    static void runLoop() {
+        HardwareSnapshot.update();
+        CommandScheduler.getInstance().run();
+    }
+
+    /**
+     * Enables or disables the robot in autonomous mode.
+     * @param enabled Whether the robot is enabled.
+     */
+    static void setEnabled(boolean enabled) {
+        DriverStationSim.setAutonomous(true);
+        DriverStationSim.setEnabled(enabled);
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.notifyNewData();
+        DriverStation.refreshData();
+    }
+
+    /**
+     * Runs one shard of every auton routine from every place position on both alliances, and writes the results
+     * as JSON. Runs are assigned to shards round-robin, so each shard is a separate process that can run on its own
+     * core.
+     *
+     * @param args The index of this shard, the number of shards, and the path of the output file.
+     */
+    public static void main(String... args) {
+        int shardIndex = Integer.parseInt(args[0]);
+        int shardCount = Integer.parseInt(args[1]);
+        String outputPath = args[2];
+
+        int status = 0;
+        try {
+            AutonSimulation simulation = new AutonSimulation();
+            List<AutonResult> results = new ArrayList<>();
+
+            int runIndex = 0;
+            for (String routine : simulation.getContainer().getAutonRoutines().keySet()) {
+                for (PlacePosition position : PlacePosition.values()) {
+                    for (boolean isRed : new boolean[] { false, true }) {
+                        if (runIndex++ % shardCount != shardIndex) continue;
+                        results.add(simulation.run(routine, position, isRed));
+                    }
+                }
+            }
+
+            try (Writer writer = new FileWriter(outputPath)) {
+                new Gson().toJson(results, writer);
+            }
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            status = 1;
+        }
+
+        // The HAL leaves non-daemon threads running
+        System.exit(status);
+    }
+}
@@ -0,0 +1,46 @@
+package frc.robot.simulation;
+
+/**
+ * The outcome of running one balancer command onto a simulated charging station.
+ */
+public class BalancerResult {
+    public final String balancer;
+    public final String scenario;
+
+    public final boolean finished; // Whether the command finished before the timeout
+    public final double commandSeconds; // Time until the command finished, or the timeout
+
+    public final boolean balanced; // Whether the robot ended docked with the station level
+    public final double timeToBalanceSeconds; // Time until the station was last level, or -1 if not balanced
+
+    public final double peakAngleDegs; // Largest angle of the station
+    public final double overshootDegs; // Largest angle of the station past level, the other way from its first tip
+    public final double finalAngleDegs;
+    public final double finalOffsetMeters; // Distance along x from the station's hinge to the robot at the end
+
+    public BalancerResult(
+        String balancer, String scenario,
+        boolean finished, double commandSeconds,
+        boolean balanced, double timeToBalanceSeconds,
+        double peakAngleDegs, double overshootDegs, double finalAngleDegs, double finalOffsetMeters
+    ) {
+        this.balancer = balancer;
+        this.scenario = scenario;
+        this.finished = finished;
+        this.commandSeconds = commandSeconds;
+        this.balanced = balanced;
+        this.timeToBalanceSeconds = timeToBalanceSeconds;
+        this.peakAngleDegs = peakAngleDegs;
+        this.overshootDegs = overshootDegs;
+        this.finalAngleDegs = finalAngleDegs;
+        this.finalOffsetMeters = finalOffsetMeters;
+    }
+
+    /**
+     * Gets a key identifying the balancer and scenario of this run, to match it with other runs.
+     * @return The key.
+     */
+    public String getKey() {
+        return balancer + " / " + scenario;
+    }
+}
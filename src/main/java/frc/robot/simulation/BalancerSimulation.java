@@ -0,0 +1,228 @@
+package frc.robot.simulation;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import com.google.gson.Gson;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+import frc.robot.commands.balancing.ConstantGoOverCommand;
+import frc.robot.commands.balancing.DefaultBalancerCommand;
+import frc.robot.commands.balancing.DualPIDBalancerCommand;
+import frc.robot.commands.balancing.GoOverCommand;
+import frc.robot.commands.balancing.MPCBalancerCommand;
+import frc.robot.commands.balancing.PIDSwitchBalancerCommand;
+import frc.robot.positions.FieldPosition;
+import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
+
+/**
+ * Runs each balancer command on the full robot in simulation, driving onto a simulated charging station
+ * (`ChargingStationSim`) whose tilt reaches the commands through the simulated NavX's pitch. Each run measures how
+ * long the station takes to settle level with the robot docked, and how far it tips past level on the way.
+ *
+ * Runs start from the blue alliance's side of the field: from the grid, where auton starts a balance, or from the
+ * middle of the field, mirrored across the station. The clock is stepped the same way as in `AutonSimulation`,
+ * which creates the robot, so there can only be one simulation per JVM.
+ */
+public class BalancerSimulation {
+    private static final double LOOP_SECONDS = TimedRobot.kDefaultPeriod;
+
+    // Runs end this long after the start, or this long after the command finishes, to see whether the station stays put
+    private static final double TIMEOUT_SECONDS = 15.0;
+    private static final double SETTLE_SECONDS = 2.0;
+
+    private final BaseSwerveSubsystem swerveSubsystem;
+    private final SwerveDriveSim driveSim;
+
+    /**
+     * Initializes the HAL in simulation, pauses its clock, and creates the robot.
+     */
+    public BalancerSimulation() {
+        AutonSimulation simulation = new AutonSimulation();
+        swerveSubsystem = (BaseSwerveSubsystem) simulation.getContainer().driveSubsystem;
+        driveSim = swerveSubsystem.getDriveSim();
+        if (driveSim.getChargingStations().isEmpty()) {
+            throw new IllegalStateException("Balancer simulation needs a simulated charging station");
+        }
+
+        // The balancers only use the gyro
+        swerveSubsystem.setVisionEnabled(false);
+    }
+
+    /**
+     * Runs every balancer command from each side of the station it can balance from.
+     * @return The results of every run.
+     */
+    public List<BalancerResult> runAll() {
+        Pose2d gridStart = FieldPosition.B2_INIT.getPose(false);
+        Pose2d fieldStart = mirrorAcrossStation(gridStart);
+
+        List<BalancerResult> results = new ArrayList<>();
+        results.add(run("Default", "reverse from the grid", gridStart, s -> new DefaultBalancerCommand(s, true)));
+        results.add(run("Default", "forward from the field", fieldStart, s -> new DefaultBalancerCommand(s, false)));
+        results.add(run("PID switch", "from the grid", gridStart, PIDSwitchBalancerCommand::new));
+        results.add(run("Dual PID", "from the grid", gridStart, DualPIDBalancerCommand::new));
+        results.add(run("Go over", "from the grid", gridStart, s -> new GoOverCommand(s, false)));
+        results.add(run(
+            "Constant go over", "from the field",
+            new Pose2d(fieldStart.getTranslation(), new Rotation2d()),
+            s -> new ConstantGoOverCommand(s, false)
+        ));
+        results.add(run("MPC", "from the grid", gridStart, MPCBalancerCommand::new));
+        results.add(run("MPC", "from the field", fieldStart, MPCBalancerCommand::new));
+        return results;
+    }
+
+    /**
+     * Runs a balancer command with the charging station level and the robot at rest, until the command has finished
+     * and the station has had time to settle, or the run times out.
+     * @param balancer The name of the balancer, for the result.
+     * @param scenario A description of where the robot starts, for the result.
+     * @param start The starting pose of the robot.
+     * @param factory The function creating the balancer command.
+     * @return The result of the run.
+     */
+    public BalancerResult run(
+        String balancer, String scenario, Pose2d start, Function<BaseSwerveSubsystem, Command> factory
+    ) {
+        for (ChargingStationSim station : driveSim.getChargingStations()) station.setAngle(0);
+        ChargingStationSim station = getNearestStation(start);
+
+        driveSim.setPose(start);
+        swerveSubsystem.resetPose(start);
+        swerveSubsystem.resetDriverHeading(start.getRotation());
+        swerveSubsystem.setChargingStationLocked(false);
+
+        DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+        AutonSimulation.setEnabled(true);
+
+        Command command = factory.apply(swerveSubsystem);
+        command.schedule();
+
+        int loops = 0;
+        boolean finished = false;
+        double commandSeconds = TIMEOUT_SECONDS;
+        double levelSinceSeconds = 0;
+        double firstTipSign = 0;
+        double peakAngleDegs = 0;
+        double overshootDegs = 0;
+
+        while (loops * LOOP_SECONDS < TIMEOUT_SECONDS) {
+            SimHooks.stepTiming(LOOP_SECONDS);
+            AutonSimulation.runLoop();
+            loops++;
+
+            double seconds = loops * LOOP_SECONDS;
+            double angleDegs = station.getAngleDegs();
+            peakAngleDegs = Math.max(peakAngleDegs, Math.abs(angleDegs));
+
+            // Overshoot is tipping the other way from the way the robot first tipped the station
+            if (firstTipSign == 0 && !station.isLevel()) firstTipSign = Math.signum(angleDegs);
+            overshootDegs = Math.max(overshootDegs, -firstTipSign * angleDegs);
+
+            if (!station.isLevel()) levelSinceSeconds = -1;
+            else if (levelSinceSeconds < 0) levelSinceSeconds = seconds;
+
+            if (!finished && !command.isScheduled()) {
+                finished = true;
+                commandSeconds = seconds;
+            }
+            if (finished && seconds >= commandSeconds + SETTLE_SECONDS) break;
+        }
+
+        CommandScheduler.getInstance().cancelAll();
+        AutonSimulation.setEnabled(false);
+        AutonSimulation.runLoop();
+
+        boolean balanced = station.isLevel() && driveSim.isDocked(station);
+        return new BalancerResult(
+            balancer, scenario,
+            finished, commandSeconds,
+            balanced, balanced ? levelSinceSeconds : -1,
+            peakAngleDegs, overshootDegs, station.getAngleDegs(),
+            driveSim.getPose().getX() - station.getCenterX()
+        );
+    }
+
+    /**
+     * Gets the charging station nearest to a pose.
+     * @param pose The pose.
+     * @return The nearest charging station.
+     */
+    private ChargingStationSim getNearestStation(Pose2d pose) {
+        ChargingStationSim nearest = null;
+        double nearestDistance = Double.POSITIVE_INFINITY;
+        for (ChargingStationSim station : driveSim.getChargingStations()) {
+            double distance = Math.hypot(pose.getX() - station.getCenterX(), pose.getY() - station.getCenterY());
+            if (distance < nearestDistance) {
+                nearest = station;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Mirrors a pose across the hinge of the nearest charging station, keeping its heading.
+     * @param pose The pose.
+     * @return The mirrored pose.
+     */
+    private Pose2d mirrorAcrossStation(Pose2d pose) {
+        double centerX = getNearestStation(pose).getCenterX();
+        return new Pose2d(2 * centerX - pose.getX(), pose.getY(), pose.getRotation());
+    }
+
+    /**
+     * Formats results as a table, one run per line.
+     * @param results The results.
+     * @return The table.
+     */
+    public static String getReport(List<BalancerResult> results) {
+        StringBuilder report = new StringBuilder(String.format(
+            "%-18s %-24s %8s %9s %9s %11s %16s %12s %11s\n",
+            "Balancer", "Scenario", "Finished", "Time (s)", "Balanced",
+            "Peak (deg)", "Overshoot (deg)", "Final (deg)", "Offset (m)"
+        ));
+        for (BalancerResult result : results) {
+            report.append(String.format(
+                "%-18s %-24s %8s %9.2f %9s %11.1f %16.1f %12.1f %11.2f\n",
+                result.balancer, result.scenario, result.finished ? "yes" : "no", result.commandSeconds,
+                result.balanced ? String.format("%.2fs", result.timeToBalanceSeconds) : "no",
+                result.peakAngleDegs, result.overshootDegs, result.finalAngleDegs, result.finalOffsetMeters
+            ));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Runs every balancer command, and writes the results as JSON.
+     * @param args The path of the output file.
+     */
+    public static void main(String... args) {
+        int status = 0;
+        try {
+            List<BalancerResult> results = new BalancerSimulation().runAll();
+            try (Writer writer = new FileWriter(args[0])) {
+                new Gson().toJson(results, writer);
+            }
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            status = 1;
+        }
+
+        // The HAL leaves non-daemon threads running
+        System.exit(status);
+    }
+}
@@ -0,0 +1,196 @@
+package frc.robot.simulation;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.util.Units;
+
+import frc.robot.util.FieldUtil;
+
+import static frc.robot.Constants.FieldConstants.*;
+
+/**
+ * A simulated charging station: a top plate hinged at its center, with a ramp at each end that is hinged to the
+ * plate and rests on the carpet. The plate tilts along the field's x axis, against the damping and friction of its
+ * hinge, between hard stops at its maximum angle. Angles are positive with the +x edge up.
+ *
+ * The robot loads the station through its wheels (see `SwerveDriveSim`). A wheel on the top plate pushes down at
+ * its distance from the hinge. A wheel on a ramp splits its load between the carpet and the plate's edge, in
+ * proportion to how far up the ramp it is. A wheel on the plate also adds its share of the robot's mass to the
+ * inertia the load turns.
+ */
+public class ChargingStationSim {
+    private static final double GRAVITY = 9.81;
+
+    private static final double HALF_DEPTH_METERS = Units.inchesToMeters(CHARGING_STATION_DEPTH_INCHES) / 2.0;
+    private static final double HALF_TOP_DEPTH_METERS = Units.inchesToMeters(CHARGING_STATION_TOP_DEPTH_INCHES) / 2.0;
+    private static final double HALF_WIDTH_METERS = Units.inchesToMeters(CHARGING_STATION_WIDTH_INCHES) / 2.0;
+    private static final double HINGE_HEIGHT_METERS = Units.inchesToMeters(CHARGING_STATION_HINGE_HEIGHT_INCHES);
+    private static final double MAX_ANGLE_RADS = Math.toRadians(CHARGING_STATION_MAX_ANGLE_DEGS);
+
+    private final double centerX;
+    private final double centerY;
+
+    private double angleRads = 0;
+    private double angularVelocity = 0;
+
+    // Load applied by the robot since the last update
+    private double loadTorque = 0;
+    private double loadInertia = 0;
+
+    /**
+     * Creates a level charging station.
+     * @param centerX The x coordinate of the hinge, in meters.
+     * @param centerY The y coordinate of the center of the station, in meters.
+     */
+    public ChargingStationSim(double centerX, double centerY) {
+        this.centerX = centerX;
+        this.centerY = centerY;
+    }
+
+    /**
+     * Creates a level charging station for an alliance, at its place on the field.
+     * @param isRed Whether to create the red alliance's station.
+     * @return The charging station.
+     */
+    public static ChargingStationSim forAlliance(boolean isRed) {
+        Pose2d blueCenter = new Pose2d(
+            Units.inchesToMeters(CHARGING_STATION_X_INCHES),
+            Units.inchesToMeters(CHARGING_STATION_Y_INCHES),
+            new Rotation2d()
+        );
+        Pose2d center = isRed ? FieldUtil.mirrorPoseAcrossField(blueCenter) : blueCenter;
+        return new ChargingStationSim(center.getX(), center.getY());
+    }
+
+    /**
+     * Gets the height of the station's surface at a point on the field.
+     * @param x The x coordinate of the point, in meters.
+     * @param y The y coordinate of the point, in meters.
+     * @return The height, in meters, or 0 if the point is off the station.
+     */
+    public double getSurfaceHeight(double x, double y) {
+        double u = x - centerX;
+        if (Math.abs(y - centerY) > HALF_WIDTH_METERS || Math.abs(u) >= HALF_DEPTH_METERS) return 0;
+
+        double edgeU = Math.copySign(HALF_TOP_DEPTH_METERS * Math.cos(angleRads), u);
+        if (Math.abs(u) <= Math.abs(edgeU)) return HINGE_HEIGHT_METERS + u * Math.tan(angleRads);
+
+        // On a ramp, between the plate's edge and the carpet
+        double edgeHeight = HINGE_HEIGHT_METERS + edgeU * Math.tan(angleRads);
+        double groundU = Math.copySign(HALF_DEPTH_METERS, u);
+        return edgeHeight * (groundU - u) / (groundU - edgeU);
+    }
+
+    /**
+     * Gets whether a point on the field is on the top plate of the station, rather than on a ramp or the carpet.
+     * @param x The x coordinate of the point, in meters.
+     * @param y The y coordinate of the point, in meters.
+     * @return Whether the point is on the top plate.
+     */
+    public boolean isOnTop(double x, double y) {
+        return Math.abs(y - centerY) <= HALF_WIDTH_METERS
+            && Math.abs(x - centerX) <= HALF_TOP_DEPTH_METERS * Math.cos(angleRads);
+    }
+
+    /**
+     * Applies a downward force at a point until the next update, e.g. the load on one of the robot's wheels.
+     * Points off the station are ignored.
+     * @param x The x coordinate of the point, in meters.
+     * @param y The y coordinate of the point, in meters.
+     * @param forceNewtons The downward force, in newtons.
+     */
+    public void applyLoad(double x, double y, double forceNewtons) {
+        double u = x - centerX;
+        if (Math.abs(y - centerY) > HALF_WIDTH_METERS || Math.abs(u) >= HALF_DEPTH_METERS) return;
+
+        double edgeU = Math.copySign(HALF_TOP_DEPTH_METERS * Math.cos(angleRads), u);
+        if (Math.abs(u) <= Math.abs(edgeU)) {
+            loadTorque -= forceNewtons * u;
+            loadInertia += forceNewtons / GRAVITY * u * u;
+        } else {
+            // The ramp is a beam between the carpet and the plate's edge
+            double groundU = Math.copySign(HALF_DEPTH_METERS, u);
+            double edgeForce = forceNewtons * (groundU - u) / (groundU - edgeU);
+            loadTorque -= edgeForce * edgeU;
+        }
+    }
+
+    /**
+     * Advances the station by a step under the loads applied since the last update, then clears the loads.
+     * @param dtSeconds The length of the step, in seconds.
+     */
+    public void update(double dtSeconds) {
+        // Static friction holds the plate until the load overcomes it
+        if (angularVelocity == 0 && Math.abs(loadTorque) <= CHARGING_STATION_FRICTION_NM) {
+            loadTorque = 0;
+            loadInertia = 0;
+            return;
+        }
+
+        // Kinetic friction opposes the motion (or the motion the load is starting)
+        double direction = Math.signum(angularVelocity != 0 ? angularVelocity : loadTorque);
+        double torque = loadTorque - direction * CHARGING_STATION_FRICTION_NM;
+
+        // With the torque held over the step, the angular velocity decays exponentially towards torque / damping
+        double inertia = CHARGING_STATION_INERTIA_KG_M2 + loadInertia;
+        double rate = -CHARGING_STATION_DAMPING_NM_PER_RAD_PER_SECOND / inertia;
+        double steadyStateVelocity = torque / CHARGING_STATION_DAMPING_NM_PER_RAD_PER_SECOND;
+        double decay = Math.exp(rate * dtSeconds);
+
+        angleRads += steadyStateVelocity * dtSeconds + (angularVelocity - steadyStateVelocity) * (decay - 1) / rate;
+        angularVelocity = steadyStateVelocity + (angularVelocity - steadyStateVelocity) * decay;
+
+        // Friction stops the plate rather than reversing it
+        if (angularVelocity * direction < 0) angularVelocity = 0;
+
+        // The plate stops dead against the carpet
+        if (Math.abs(angleRads) >= MAX_ANGLE_RADS) {
+            angleRads = Math.copySign(MAX_ANGLE_RADS, angleRads);
+            if (angularVelocity * angleRads > 0) angularVelocity = 0;
+        }
+
+        loadTorque = 0;
+        loadInertia = 0;
+    }
+
+    /**
+     * Gets the angle of the top plate.
+     * @return The angle, in degrees, positive with the +x edge up.
+     */
+    public double getAngleDegs() {
+        return Math.toDegrees(angleRads);
+    }
+
+    /**
+     * Gets whether the top plate is level, by the game's definition.
+     * @return Whether the station is level.
+     */
+    public boolean isLevel() {
+        return Math.abs(getAngleDegs()) <= CHARGING_STATION_LEVEL_DEGS;
+    }
+
+    /**
+     * Sets the angle of the top plate, at rest.
+     * @param angleDegs The angle, in degrees, positive with the +x edge up.
+     */
+    public void setAngle(double angleDegs) {
+        angleRads = Math.max(-MAX_ANGLE_RADS, Math.min(Math.toRadians(angleDegs), MAX_ANGLE_RADS));
+        angularVelocity = 0;
+    }
+
+    /**
+     * Gets the x coordinate of the hinge.
+     * @return The x coordinate, in meters.
+     */
+    public double getCenterX() {
+        return centerX;
+    }
+
+    /**
+     * Gets the y coordinate of the center of the station.
+     * @return The y coordinate, in meters.
+     */
+    public double getCenterY() {
+        return centerY;
+    }
+}
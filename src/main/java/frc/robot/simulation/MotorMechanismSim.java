@@ -0,0 +1,123 @@
+package frc.robot.simulation;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+
+/**
+ * A DC motor driving an inertial load through a reduction, in the units of the mechanism (e.g. meters for a drive
+ * wheel, radians for a steer module). With the voltage held over a step, the velocity follows
+ * `a = A * v + B * V`, which is integrated exactly rather than with Euler steps, so large steps stay stable.
+ *
+ * This is the first-order model behind WPILib's `DCMotorSim`, without the JNI matrix exponential, so it can step
+ * thousands of times per second on a desktop without native libraries.
+ *
+ * An external acceleration (e.g. gravity on a slope) can be added to the load, and the load's acceleration can be
+ * capped (e.g. by the grip of a wheel).
+ */
+public class MotorMechanismSim {
+    private final DCMotor motor;
+    private final double motorRadiansPerUnit;
+    private final double a;
+    private final double b;
+
+    private double position = 0;
+    private double velocity = 0;
+    private double volts = 0;
+    private double externalAcceleration = 0;
+    private double maxAcceleration = Double.POSITIVE_INFINITY;
+
+    /**
+     * Creates a mechanism simulation.
+     * @param motor The motor (or motors) driving the mechanism.
+     * @param motorRadiansPerUnit The radians the motor turns per unit of mechanism travel, i.e. the reduction.
+     * @param inertia The inertia of the load, in kg for linear mechanisms or kg m^2 for rotary ones.
+     */
+    public MotorMechanismSim(DCMotor motor, double motorRadiansPerUnit, double inertia) {
+        this.motor = motor;
+        this.motorRadiansPerUnit = motorRadiansPerUnit;
+
+        // Torque on the load is k * Kt * (V - k * v / Kv) / R, for a reduction k
+        this.a = -motorRadiansPerUnit * motorRadiansPerUnit * motor.KtNMPerAmp
+            / (motor.rOhms * motor.KvRadPerSecPerVolt * inertia);
+        this.b = motorRadiansPerUnit * motor.KtNMPerAmp / (motor.rOhms * inertia);
+    }
+
+    /**
+     * Sets the voltage applied to the motor, held until it is next set.
+     * @param volts The voltage.
+     */
+    public void setInputVoltage(double volts) {
+        this.volts = volts;
+    }
+
+    /**
+     * Sets an acceleration applied to the load on top of the motor's, held until it is next set.
+     * @param acceleration The acceleration, in mechanism units per second squared.
+     */
+    public void setExternalAcceleration(double acceleration) {
+        this.externalAcceleration = acceleration;
+    }
+
+    /**
+     * Sets the largest acceleration the load can have, held until it is next set.
+     * @param acceleration The largest acceleration, in mechanism units per second squared.
+     */
+    public void setMaxAcceleration(double acceleration) {
+        this.maxAcceleration = acceleration;
+    }
+
+    /**
+     * Advances the mechanism by a step, holding the applied voltage.
+     * @param dtSeconds The length of the step, in seconds.
+     */
+    public void update(double dtSeconds) {
+        // The external acceleration acts like an extra b * V, so it is folded into the steady state velocity
+        double steadyStateVelocity = -(b * volts + externalAcceleration) / a;
+        double decay = Math.exp(a * dtSeconds);
+
+        double lastPosition = position;
+        double lastVelocity = velocity;
+        position += steadyStateVelocity * dtSeconds + (velocity - steadyStateVelocity) * (decay - 1) / a;
+        velocity = steadyStateVelocity + (velocity - steadyStateVelocity) * decay;
+
+        double acceleration = (velocity - lastVelocity) / dtSeconds;
+        if (Math.abs(acceleration) > maxAcceleration) {
+            acceleration = Math.copySign(maxAcceleration, acceleration);
+            velocity = lastVelocity + acceleration * dtSeconds;
+            position = lastPosition + lastVelocity * dtSeconds + 0.5 * acceleration * dtSeconds * dtSeconds;
+        }
+    }
+
+    /**
+     * Gets the position of the mechanism.
+     * @return The position, in mechanism units.
+     */
+    public double getPosition() {
+        return position;
+    }
+
+    /**
+     * Gets the velocity of the mechanism.
+     * @return The velocity, in mechanism units per second.
+     */
+    public double getVelocity() {
+        return velocity;
+    }
+
+    /**
+     * Gets the current drawn by the motor.
+     * @return The current, in amps.
+     */
+    public double getCurrentDrawAmps() {
+        return motor.getCurrent(velocity * motorRadiansPerUnit, volts);
+    }
+
+    /**
+     * Sets the state of the mechanism, e.g. to place it at a starting position.
+     * @param position The position, in mechanism units.
+     * @param velocity The velocity, in mechanism units per second.
+     */
+    public void setState(double position, double velocity) {
+        this.position = position;
+        this.velocity = velocity;
+    }
+}
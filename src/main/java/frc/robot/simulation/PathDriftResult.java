@@ -0,0 +1,24 @@
+package frc.robot.simulation;
+
+/**
+ * The outcome of following one test path in simulation, with or without discretized chassis speeds.
+ */
+public class PathDriftResult {
+    public final String path;
+    public final boolean discretized; // Whether chassis speeds were discretized over the loop
+
+    public final boolean finished; // Whether the path finished before the timeout
+    public final double maxDriftMeters; // Largest distance from the robot to the nearest point of the path
+    public final double finalErrorMeters; // Distance from the robot to the end of the path when it finished
+
+    public PathDriftResult(
+        String path, boolean discretized,
+        boolean finished, double maxDriftMeters, double finalErrorMeters
+    ) {
+        this.path = path;
+        this.discretized = discretized;
+        this.finished = finished;
+        this.maxDriftMeters = maxDriftMeters;
+        this.finalErrorMeters = finalErrorMeters;
+    }
+}
@@ -0,0 +1,199 @@
+package frc.robot.simulation;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import com.google.gson.Gson;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+import frc.robot.commands.auton.test.HighRotationLinePath;
+import frc.robot.commands.auton.test.RotatingSCurveAutonSequence;
+import frc.robot.commands.swerve.FollowPathCommand;
+import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
+
+/**
+ * Runs the test paths that rotate while driving (`HighRotationLinePath` and `RotatingSCurveAutonSequence`) on the
+ * full robot in simulation, with and without discretized chassis speeds (see `BaseSwerveSubsystem.discretize()`),
+ * and measures how far the simulated robot drifts off each path. Drift is the distance to the nearest point of the
+ * path's trajectories, so the robot lagging behind the trajectory in time doesn't count as drift.
+ *
+ * The paths reset odometry to the origin, so the simulated robot starts there too; the paths stay clear of the
+ * charging stations. The clock is stepped the same way as in `AutonSimulation`, which creates the robot, so there
+ * can only be one simulation per JVM.
+ */
+public class PathDriftSimulation {
+    private static final double LOOP_SECONDS = TimedRobot.kDefaultPeriod;
+    private static final double TIMEOUT_SECONDS = 15.0;
+
+    // Spacing in time of the points of the trajectories searched for the nearest point
+    private static final double SAMPLE_SECONDS = 0.001;
+
+    private final BaseSwerveSubsystem swerveSubsystem;
+    private final SwerveDriveSim driveSim;
+
+    /**
+     * Initializes the HAL in simulation, pauses its clock, and creates the robot.
+     */
+    public PathDriftSimulation() {
+        AutonSimulation simulation = new AutonSimulation();
+        swerveSubsystem = (BaseSwerveSubsystem) simulation.getContainer().driveSubsystem;
+        driveSim = swerveSubsystem.getDriveSim();
+    }
+
+    /**
+     * Runs every test path, first without and then with discretized chassis speeds.
+     * @return The results of every run.
+     */
+    public List<PathDriftResult> runAll() {
+        List<PathDriftResult> results = new ArrayList<>();
+        for (boolean discretize : new boolean[] { false, true }) {
+            results.add(run(
+                "HighRotationLinePath", discretize, HighRotationLinePath::new,
+                createTrajectory(HighRotationLinePath.START, HighRotationLinePath.WAYPOINTS, HighRotationLinePath.END)
+            ));
+            results.add(run(
+                "RotatingSCurveAutonSequence", discretize, RotatingSCurveAutonSequence::new,
+                createTrajectory(
+                    RotatingSCurveAutonSequence.START,
+                    RotatingSCurveAutonSequence.OUT_WAYPOINTS,
+                    RotatingSCurveAutonSequence.TURNAROUND
+                ),
+                createTrajectory(
+                    RotatingSCurveAutonSequence.TURNAROUND,
+                    RotatingSCurveAutonSequence.BACK_WAYPOINTS,
+                    RotatingSCurveAutonSequence.START
+                )
+            ));
+        }
+        swerveSubsystem.setDiscretizeEnabled(true);
+        return results;
+    }
+
+    /**
+     * Runs a path from the origin until it finishes or times out.
+     * @param path The name of the path, for the result.
+     * @param discretize Whether to discretize chassis speeds.
+     * @param factory The function creating the path command.
+     * @param trajectories The trajectories the path follows, in order.
+     * @return The result of the run.
+     */
+    public PathDriftResult run(
+        String path, boolean discretize, Function<BaseSwerveSubsystem, Command> factory, Trajectory... trajectories
+    ) {
+        List<Translation2d> points = new ArrayList<>();
+        for (Trajectory trajectory : trajectories) {
+            for (double t = 0; t <= trajectory.getTotalTimeSeconds(); t += SAMPLE_SECONDS) {
+                points.add(trajectory.sample(t).poseMeters.getTranslation());
+            }
+        }
+        Trajectory last = trajectories[trajectories.length - 1];
+        Translation2d end = last.sample(last.getTotalTimeSeconds()).poseMeters.getTranslation();
+
+        swerveSubsystem.setDiscretizeEnabled(discretize);
+        driveSim.setPose(new Pose2d());
+        swerveSubsystem.resetPose();
+        swerveSubsystem.resetDriverHeading();
+        AutonSimulation.setEnabled(true);
+
+        Command command = factory.apply(swerveSubsystem);
+        command.schedule();
+
+        int loops = 0;
+        boolean finished = false;
+        double maxDriftMeters = 0;
+        while (loops * LOOP_SECONDS < TIMEOUT_SECONDS) {
+            SimHooks.stepTiming(LOOP_SECONDS);
+            AutonSimulation.runLoop();
+            loops++;
+
+            maxDriftMeters = Math.max(maxDriftMeters, getDistanceMeters(driveSim.getPose().getTranslation(), points));
+            if (!command.isScheduled()) {
+                finished = true;
+                break;
+            }
+        }
+        double finalErrorMeters = driveSim.getPose().getTranslation().getDistance(end);
+
+        CommandScheduler.getInstance().cancelAll();
+        AutonSimulation.setEnabled(false);
+        AutonSimulation.runLoop();
+
+        return new PathDriftResult(path, discretize, finished, maxDriftMeters, finalErrorMeters);
+    }
+
+    /**
+     * Creates the trajectory `FollowPathCommand.from()` follows between two poses.
+     * @param start The start of the path.
+     * @param waypoints The waypoints of the path.
+     * @param end The end of the path.
+     * @return The trajectory.
+     */
+    private Trajectory createTrajectory(Pose2d start, List<Translation2d> waypoints, Pose2d end) {
+        return FollowPathCommand.createWheelHeadingTrajectory(
+            start, waypoints, end,
+            FollowPathCommand.createConfig(swerveSubsystem, false, false)
+        );
+    }
+
+    /**
+     * Gets the distance from a point to the nearest of a set of points.
+     * @param point The point.
+     * @param points The set of points.
+     * @return The distance to the nearest point, in meters.
+     */
+    private static double getDistanceMeters(Translation2d point, List<Translation2d> points) {
+        double nearest = Double.POSITIVE_INFINITY;
+        for (Translation2d other : points) nearest = Math.min(nearest, point.getDistance(other));
+        return nearest;
+    }
+
+    /**
+     * Formats results as a table, one run per line.
+     * @param results The results.
+     * @return The table.
+     */
+    public static String getReport(List<PathDriftResult> results) {
+        StringBuilder report = new StringBuilder(String.format(
+            "%-28s %11s %8s %10s %16s\n", "Path", "Discretized", "Finished", "Drift (mm)", "Final error (mm)"
+        ));
+        for (PathDriftResult result : results) {
+            report.append(String.format(
+                "%-28s %11s %8s %10.1f %16.1f\n",
+                result.path, result.discretized ? "yes" : "no", result.finished ? "yes" : "no",
+                result.maxDriftMeters * 1000, result.finalErrorMeters * 1000
+            ));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Runs every test path with and without discretization, and writes the results as JSON.
+     * @param args The path of the output file.
+     */
+    public static void main(String... args) {
+        int status = 0;
+        try {
+            List<PathDriftResult> results = new PathDriftSimulation().runAll();
+            try (Writer writer = new FileWriter(args[0])) {
+                new Gson().toJson(results, writer);
+            }
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            status = 1;
+        }
+
+        // The HAL leaves non-daemon threads running
+        System.exit(status);
+    }
+}
@@ -0,0 +1,179 @@
+package frc.robot.simulation;
+
+import java.util.function.Supplier;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.wpilibj.simulation.DIOSim;
+import edu.wpi.first.wpilibj.util.Color;
+
+import frc.robot.subsystems.RollerSubsystem.HeldPiece;
+import frc.robot.util.CachedTalon;
+import frc.robot.util.SetpointCache;
+
+import static frc.robot.Constants.RollerConstants.LIMIT_SWITCH_ID;
+
+/**
+ * Simulates the roller intake and a game piece in it, driven by the setpoints last sent to the roll and open Talons
+ * (see `SetpointCache`).
+ *
+ * A piece is taken in when the rollers intake while a piece is at the mouth of the intake (see `setPieceSource()`),
+ * and travels in at the rollers' surface speed until it seats against the limit switch. Outtaking rolls it back out
+ * until it leaves the mouth, and opening the beak past halfway drops it. The color sensor sees the piece once it is
+ * far enough in, and the carpet otherwise.
+ */
+public class RollerSim {
+    private static final double NOMINAL_VOLTAGE = 12.0;
+
+    // Estimates, to tune against video of the intake
+    private static final double ROLLER_SURFACE_SPEED_METERS_PER_SECOND = 3.0; // At full power
+    private static final double SEATED_DEPTH_METERS = 0.15; // A piece this far in presses the limit switch
+    private static final double COLOR_SENSOR_DEPTH_METERS = 0.05; // A piece this far in is in front of the sensor
+    private static final double BEAK_OPEN_RATE_PER_SECOND = 6.0; // Fraction of full opening per second, at full power
+    private static final double BEAK_RELEASE_OPENING = 0.5; // A piece falls out of a beak opened this far
+
+    // Normalized colors the color sensor reads
+    private static final Color CONE_COLOR = new Color(0.36, 0.55, 0.09);
+    private static final Color CUBE_COLOR = new Color(0.20, 0.31, 0.50);
+    private static final Color EMPTY_COLOR = new Color(0.27, 0.47, 0.26);
+
+    private final SetpointCache rollSetpoint;
+    private final SetpointCache openSetpoint;
+    private final DIOSim limitSwitch;
+
+    private Supplier<HeldPiece> pieceSource = () -> HeldPiece.EMPTY;
+
+    private HeldPiece piece = HeldPiece.EMPTY;
+    private double pieceDepthMeters = 0;
+    private double beakOpening = 0;
+
+    private int piecesIntaken = 0;
+    private int piecesReleased = 0;
+
+    /**
+     * Creates an empty intake with the beak closed.
+     * @param rollSetpoint The setpoint cache of the roll Talon.
+     * @param openSetpoint The setpoint cache of the open Talon.
+     */
+    public RollerSim(SetpointCache rollSetpoint, SetpointCache openSetpoint) {
+        this.rollSetpoint = rollSetpoint;
+        this.openSetpoint = openSetpoint;
+
+        limitSwitch = new DIOSim(LIMIT_SWITCH_ID);
+        updateLimitSwitch();
+    }
+
+    /**
+     * Advances the intake by a step, moving the beak and the piece, and updates the limit switch.
+     * @param dtSeconds The length of the step, in seconds.
+     */
+    public void update(double dtSeconds) {
+        double rollPower = getDutyCycle(rollSetpoint);
+        double openPower = getDutyCycle(openSetpoint);
+
+        beakOpening = MathUtil.clamp(beakOpening + openPower * BEAK_OPEN_RATE_PER_SECOND * dtSeconds, 0, 1);
+
+        if (piece == HeldPiece.EMPTY && rollPower > 0) {
+            HeldPiece offered = pieceSource.get();
+            if (offered != HeldPiece.EMPTY) {
+                piece = offered;
+                pieceDepthMeters = 0;
+                piecesIntaken++;
+            }
+        }
+
+        if (piece != HeldPiece.EMPTY) {
+            pieceDepthMeters = Math.min(
+                pieceDepthMeters + rollPower * ROLLER_SURFACE_SPEED_METERS_PER_SECOND * dtSeconds,
+                SEATED_DEPTH_METERS
+            );
+            if (pieceDepthMeters < 0 || beakOpening >= BEAK_RELEASE_OPENING) {
+                piece = HeldPiece.EMPTY;
+                pieceDepthMeters = 0;
+                piecesReleased++;
+            }
+        }
+
+        updateLimitSwitch();
+    }
+
+    /**
+     * Gets the duty cycle a Talon applies for its last setpoint.
+     * @param setpoint The setpoint cache of the Talon.
+     * @return The duty cycle.
+     */
+    private static double getDutyCycle(SetpointCache setpoint) {
+        Object mode = setpoint.getMode();
+        if (mode == ControlMode.PercentOutput) return MathUtil.clamp(setpoint.getValue(), -1.0, 1.0);
+        if (CachedTalon.VOLTAGE_MODE.equals(mode)) {
+            return MathUtil.clamp(setpoint.getValue() / NOMINAL_VOLTAGE, -1.0, 1.0);
+        }
+        return 0;
+    }
+
+    /**
+     * Presses the limit switch, which reads false when pressed, if a piece is seated.
+     */
+    private void updateLimitSwitch() {
+        limitSwitch.setValue(!(piece != HeldPiece.EMPTY && pieceDepthMeters >= SEATED_DEPTH_METERS));
+    }
+
+    /**
+     * Sets where pieces come from: the piece waiting at the mouth of the intake whenever the rollers intake, e.g.
+     * a piece on the ground or one fed by the human player.
+     * @param pieceSource The supplier of the piece at the mouth, or `EMPTY` for none.
+     */
+    public void setPieceSource(Supplier<HeldPiece> pieceSource) {
+        this.pieceSource = pieceSource;
+    }
+
+    /**
+     * Puts a piece seated in the intake, e.g. the piece preloaded before a match.
+     * @param piece The piece, or `EMPTY` to empty the intake.
+     */
+    public void setPiece(HeldPiece piece) {
+        this.piece = piece;
+        pieceDepthMeters = piece == HeldPiece.EMPTY ? 0 : SEATED_DEPTH_METERS;
+        beakOpening = 0;
+        updateLimitSwitch();
+    }
+
+    /**
+     * Gets the piece in the intake.
+     * @return The piece, or `EMPTY` if there is none.
+     */
+    public HeldPiece getPiece() {
+        return piece;
+    }
+
+    /**
+     * Gets the color the color sensor reads: the piece's, once it is in front of the sensor, or the carpet's.
+     * @return The normalized color.
+     */
+    public Color getColor() {
+        if (pieceDepthMeters < COLOR_SENSOR_DEPTH_METERS) return EMPTY_COLOR;
+        return switch (piece) {
+            case CONE -> CONE_COLOR;
+            case CUBE -> CUBE_COLOR;
+            default -> EMPTY_COLOR;
+        };
+    }
+
+    /**
+     * Gets the number of pieces taken in since the simulation was created.
+     * @return The number of pieces.
+     */
+    public int getPiecesIntaken() {
+        return piecesIntaken;
+    }
+
+    /**
+     * Gets the number of pieces that have left the intake, by outtaking or by opening the beak, since the
+     * simulation was created.
+     * @return The number of pieces.
+     */
+    public int getPiecesReleased() {
+        return piecesReleased;
+    }
+}
@@ -0,0 +1,26 @@
+package frc.robot.simulation;
+
+import java.util.Map;
+
+/**
+ * The outcome of running one scoring cycle, or the motor test, on the simulated mechanisms.
+ */
+public class ScoringCycleResult {
+    public final String name;
+
+    public final boolean finished; // Whether every phase finished before its timeout
+    public final double totalSeconds;
+    public final int piecesPlaced; // Pieces that left the intake during the run
+
+    public final Map<String, Double> phaseSeconds; // Duration of each phase, in order
+
+    public ScoringCycleResult(
+        String name, boolean finished, double totalSeconds, int piecesPlaced, Map<String, Double> phaseSeconds
+    ) {
+        this.name = name;
+        this.finished = finished;
+        this.totalSeconds = totalSeconds;
+        this.piecesPlaced = piecesPlaced;
+        this.phaseSeconds = phaseSeconds;
+    }
+}
@@ -0,0 +1,266 @@
+package frc.robot.simulation;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import com.google.gson.Gson;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+import frc.robot.commands.dropping.DropperChooserCommand;
+import frc.robot.commands.mover.TiltedElevatorCommand;
+import frc.robot.commands.pretest.MotorTestCommand;
+import frc.robot.positions.PlacePosition;
+import frc.robot.subsystems.RollerSubsystem;
+import frc.robot.subsystems.RollerSubsystem.HeldPiece;
+import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
+import frc.robot.subsystems.tiltedelevator.ElevatorState;
+import frc.robot.subsystems.tiltedelevator.TiltedElevatorSubsystem;
+
+/**
+ * Times full scoring cycles end to end on the simulated tilted elevator (`TiltedElevatorSim`) and roller
+ * (`RollerSim`): for each place position, the robot starts at the node holding the node's piece, raises the
+ * elevator, runs the node's drop sequence, and lowers the elevator back to the ground. It also runs the motor test
+ * with a cone fed to the intake, to check that every step of it finishes.
+ *
+ * The clock is stepped the same way as in `AutonSimulation`, which creates the robot, so there can only be one
+ * simulation per JVM.
+ */
+public class ScoringCycleSimulation {
+    private static final double LOOP_SECONDS = TimedRobot.kDefaultPeriod;
+
+    // Phases that don't finish by these timeouts have failed
+    private static final double RAISE_TIMEOUT_SECONDS = 4.0; // `TiltedElevatorCommand` gives up after 3 seconds
+    private static final double DROP_TIMEOUT_SECONDS = 10.0;
+    private static final double STOW_TIMEOUT_SECONDS = 4.0;
+    private static final double MOTOR_TEST_TIMEOUT_SECONDS = 60.0;
+
+    private final BaseSwerveSubsystem swerveSubsystem;
+    private final RollerSubsystem rollerSubsystem;
+    private final TiltedElevatorSubsystem tiltedElevatorSubsystem;
+    private final SwerveDriveSim driveSim;
+    private final RollerSim rollerSim;
+
+    private double seconds;
+
+    /**
+     * Initializes the HAL in simulation, pauses its clock, and creates the robot.
+     */
+    public ScoringCycleSimulation() {
+        AutonSimulation simulation = new AutonSimulation();
+        swerveSubsystem = (BaseSwerveSubsystem) simulation.getContainer().driveSubsystem;
+        rollerSubsystem = simulation.getContainer().getRollerSubsystem();
+        tiltedElevatorSubsystem = simulation.getContainer().getTiltedElevatorSubsystem();
+        driveSim = swerveSubsystem.getDriveSim();
+        rollerSim = rollerSubsystem.getRollerSim();
+        if (rollerSim == null || tiltedElevatorSubsystem.getElevatorSim() == null) {
+            throw new IllegalStateException("Scoring cycle simulation needs a simulated elevator and roller");
+        }
+
+        // The cycles don't depend on where the robot thinks it is
+        swerveSubsystem.setVisionEnabled(false);
+    }
+
+    /**
+     * Runs a scoring cycle at every place position, then the motor test.
+     * @return The results of every run.
+     */
+    public List<ScoringCycleResult> runAll() {
+        List<ScoringCycleResult> results = new ArrayList<>();
+        for (PlacePosition position : PlacePosition.values()) results.add(runCycle(position));
+        results.add(runMotorTest());
+        return results;
+    }
+
+    /**
+     * Runs a scoring cycle at a place position, starting at the node, holding the node's piece, with the elevator
+     * on the ground.
+     * @param position The place position.
+     * @return The result of the cycle.
+     */
+    public ScoringCycleResult runCycle(PlacePosition position) {
+        HeldPiece piece = PlacePosition.getCubePositions().contains(position) ? HeldPiece.CUBE : HeldPiece.CONE;
+        start(position.placePosition.getPose(false), piece);
+
+        ElevatorState state = position.elevatorState;
+        int releasedBefore = rollerSim.getPiecesReleased();
+        Map<String, Double> phaseSeconds = new LinkedHashMap<>();
+
+        boolean finished = runPhase(
+            "raise", new TiltedElevatorCommand(tiltedElevatorSubsystem, state), RAISE_TIMEOUT_SECONDS, phaseSeconds
+        ) && tiltedElevatorSubsystem.atTarget();
+        finished &= runPhase(
+            "drop",
+            DropperChooserCommand.getSequence(swerveSubsystem, rollerSubsystem, tiltedElevatorSubsystem, state),
+            DROP_TIMEOUT_SECONDS, phaseSeconds
+        );
+
+        // The drop sequence ends by setting the elevator to the ground without waiting for it
+        finished &= stepUntil(tiltedElevatorSubsystem::atTarget, STOW_TIMEOUT_SECONDS, "stow", phaseSeconds);
+
+        return finish(position.name(), finished, rollerSim.getPiecesReleased() - releasedBefore, phaseSeconds);
+    }
+
+    /**
+     * Runs the motor test, starting at a node with an empty intake and a cone waiting at its mouth.
+     * @return The result of the test.
+     */
+    public ScoringCycleResult runMotorTest() {
+        start(PlacePosition.B2_MID.placePosition.getPose(false), HeldPiece.EMPTY);
+        rollerSim.setPieceSource(() -> HeldPiece.CONE);
+
+        int releasedBefore = rollerSim.getPiecesReleased();
+        Map<String, Double> phaseSeconds = new LinkedHashMap<>();
+        boolean finished = runPhase(
+            "test",
+            new MotorTestCommand(swerveSubsystem, tiltedElevatorSubsystem, rollerSubsystem),
+            MOTOR_TEST_TIMEOUT_SECONDS, phaseSeconds
+        );
+        return finish("Motor test", finished, rollerSim.getPiecesReleased() - releasedBefore, phaseSeconds);
+    }
+
+    /**
+     * Places the robot at rest with the elevator on the ground and a piece in the intake, and enables it.
+     * @param pose The pose of the robot.
+     * @param piece The piece in the intake, or `EMPTY`.
+     */
+    private void start(Pose2d pose, HeldPiece piece) {
+        driveSim.setPose(pose);
+        swerveSubsystem.resetPose(pose);
+        swerveSubsystem.resetDriverHeading(pose.getRotation());
+
+        rollerSim.setPiece(piece);
+        rollerSim.setPieceSource(() -> HeldPiece.EMPTY);
+
+        DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+        AutonSimulation.setEnabled(true);
+
+        // Let the subsystems see the piece before the run starts
+        tiltedElevatorSubsystem.setState(ElevatorState.GROUND);
+        step();
+        seconds = 0;
+    }
+
+    /**
+     * Cancels every command, disables the robot, and creates the result of a run.
+     * @param name The name of the run.
+     * @param finished Whether every phase finished before its timeout.
+     * @param piecesPlaced The number of pieces that left the intake.
+     * @param phaseSeconds The duration of each phase.
+     * @return The result.
+     */
+    private ScoringCycleResult finish(
+        String name, boolean finished, int piecesPlaced, Map<String, Double> phaseSeconds
+    ) {
+        double totalSeconds = seconds;
+
+        CommandScheduler.getInstance().cancelAll();
+        AutonSimulation.setEnabled(false);
+        AutonSimulation.runLoop();
+
+        return new ScoringCycleResult(name, finished, totalSeconds, piecesPlaced, phaseSeconds);
+    }
+
+    /**
+     * Schedules a command and steps the clock until it finishes, or times out.
+     * @param name The name of the phase.
+     * @param command The command.
+     * @param timeoutSeconds The longest time to wait for the command.
+     * @param phaseSeconds The durations of the phases, which the phase is added to.
+     * @return Whether the command finished before the timeout.
+     */
+    private boolean runPhase(String name, Command command, double timeoutSeconds, Map<String, Double> phaseSeconds) {
+        command.schedule();
+        boolean finished = stepUntil(() -> !command.isScheduled(), timeoutSeconds, name, phaseSeconds);
+        if (!finished) command.cancel();
+        return finished;
+    }
+
+    /**
+     * Steps the clock until a condition holds, or times out.
+     * @param condition The condition.
+     * @param timeoutSeconds The longest time to wait for the condition.
+     * @param name The name of the phase.
+     * @param phaseSeconds The durations of the phases, which the phase is added to.
+     * @return Whether the condition held before the timeout.
+     */
+    private boolean stepUntil(
+        BooleanSupplier condition, double timeoutSeconds, String name, Map<String, Double> phaseSeconds
+    ) {
+        double startSeconds = seconds;
+        boolean held = false;
+        while (seconds - startSeconds < timeoutSeconds) {
+            step();
+            if (condition.getAsBoolean()) {
+                held = true;
+                break;
+            }
+        }
+        phaseSeconds.put(name, seconds - startSeconds);
+        return held;
+    }
+
+    /**
+     * Steps the clock by one robot loop and runs the scheduler.
+     */
+    private void step() {
+        SimHooks.stepTiming(LOOP_SECONDS);
+        AutonSimulation.runLoop();
+        seconds += LOOP_SECONDS;
+    }
+
+    /**
+     * Formats results as a table, one run per line.
+     * @param results The results.
+     * @return The table.
+     */
+    public static String getReport(List<ScoringCycleResult> results) {
+        StringBuilder report = new StringBuilder(String.format(
+            "%-12s %8s %9s %7s  %s\n", "Run", "Finished", "Time (s)", "Placed", "Phases (s)"
+        ));
+        for (ScoringCycleResult result : results) {
+            StringBuilder phases = new StringBuilder();
+            for (Map.Entry<String, Double> phase : result.phaseSeconds.entrySet()) {
+                phases.append(String.format("%s %.2f  ", phase.getKey(), phase.getValue()));
+            }
+            report.append(String.format(
+                "%-12s %8s %9.2f %7d  %s\n",
+                result.name, result.finished ? "yes" : "no", result.totalSeconds, result.piecesPlaced,
+                phases.toString().trim()
+            ));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Runs every scoring cycle and the motor test, and writes the results as JSON.
+     * @param args The path of the output file.
+     */
+    public static void main(String... args) {
+        int status = 0;
+        try {
+            List<ScoringCycleResult> results = new ScoringCycleSimulation().runAll();
+            try (Writer writer = new FileWriter(args[0])) {
+                new Gson().toJson(results, writer);
+            }
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            status = 1;
+        }
+
+        // The HAL leaves non-daemon threads running
+        System.exit(status);
+    }
+}
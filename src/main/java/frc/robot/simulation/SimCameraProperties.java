@@ -0,0 +1,70 @@
+package frc.robot.simulation;
+
+/**
+ * The imaging and timing characteristics of a simulated PhotonVision camera (see `SimVisionCamera`): which tags it
+ * can see, how often it produces a frame, how late the frame arrives, and how much noise is on each tag's pose.
+ */
+public class SimCameraProperties {
+    /**
+     * A perfect camera: no noise, no latency, a frame every loop, and a wide field of view.
+     */
+    public static final SimCameraProperties PERFECT = new SimCameraProperties(
+        1280, 800, 120.0, 50.0,
+        0, 0,
+        0, 0,
+        10.0, 0
+    );
+
+    /**
+     * Roughly an OV9281 running an AprilTag pipeline on the coprocessor.
+     */
+    public static final SimCameraProperties TYPICAL = new SimCameraProperties(
+        1280, 800, 70.0, 30.0, // 70 degree lens at 30fps
+        0.035, 0.005, // ~35ms from exposure to the frame reaching the robot
+        0.01, 1.0, // 1cm of noise per meter to the tag, and 1 degree of noise on its orientation
+        5.0, 0.05 // Tags are lost past ~5m, or under 0.05% of the image
+    );
+
+    public final int widthPx;
+    public final int heightPx;
+    public final double horizontalFovDegs;
+    public final double framesPerSecond;
+
+    // Frames arrive this long after they were captured, varying by this standard deviation
+    public final double latencySeconds;
+    public final double latencyStdDevSeconds;
+
+    // Standard deviation of the noise on each tag's position, per meter of distance, and on its orientation
+    public final double translationNoisePerMeter;
+    public final double rotationNoiseDegs;
+
+    // Tags farther than this, or smaller than this percent of the image, aren't detected
+    public final double maxRangeMeters;
+    public final double minAreaPercent;
+
+    public SimCameraProperties(
+        int widthPx, int heightPx, double horizontalFovDegs, double framesPerSecond,
+        double latencySeconds, double latencyStdDevSeconds,
+        double translationNoisePerMeter, double rotationNoiseDegs,
+        double maxRangeMeters, double minAreaPercent
+    ) {
+        this.widthPx = widthPx;
+        this.heightPx = heightPx;
+        this.horizontalFovDegs = horizontalFovDegs;
+        this.framesPerSecond = framesPerSecond;
+        this.latencySeconds = latencySeconds;
+        this.latencyStdDevSeconds = latencyStdDevSeconds;
+        this.translationNoisePerMeter = translationNoisePerMeter;
+        this.rotationNoiseDegs = rotationNoiseDegs;
+        this.maxRangeMeters = maxRangeMeters;
+        this.minAreaPercent = minAreaPercent;
+    }
+
+    /**
+     * Gets the focal length of the camera, the same horizontally and vertically.
+     * @return The focal length, in pixels.
+     */
+    public double getFocalLengthPx() {
+        return widthPx / 2.0 / Math.tan(Math.toRadians(horizontalFovDegs) / 2.0);
+    }
+}
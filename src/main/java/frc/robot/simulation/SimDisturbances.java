@@ -0,0 +1,82 @@
+package frc.robot.simulation;
+
+/**
+ * The magnitudes of the imperfections injected into a simulated auton run, so that routines can be tested against
+ * the sensor noise and wheel slip of a real field instead of a perfect one. Each run samples its own disturbances
+ * from these magnitudes; all zeros (`NONE`) gives the ideal simulation.
+ */
+public class SimDisturbances {
+    /**
+     * No disturbances: odometry, the gyro, and the starting pose are perfect.
+     */
+    public static final SimDisturbances NONE = new SimDisturbances(0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+    /**
+     * Disturbances of roughly the magnitude seen on a competition field.
+     */
+    public static final SimDisturbances TYPICAL = new SimDisturbances(
+        0.03, // Wheels slip ~2.5% of their travel on average
+        0.05, // Gyro drift of up to 0.05 degrees/s, about 0.75 degrees over auton
+        0.002, // 2mm of noise on each drive encoder reading
+        0.08, 0.02, 0.25, // Vision: ~80ms latency misreported by ~20ms, a frame every 250ms
+        0.05, 0.02, // Vision: 5cm of noise, and 2% of frames are a misidentified tag
+        0.05, 2.0 // The robot is placed within ~5cm and ~2 degrees of where the routine expects
+    );
+
+    // Standard deviation of the fraction of each step's wheel travel lost to slip
+    public final double wheelSlipStdDev;
+
+    // Largest gyro drift rate; each run drifts at a rate drawn uniformly within this
+    public final double gyroDriftDegsPerSecond;
+
+    // Standard deviation of the noise on each drive encoder reading
+    public final double encoderNoiseMeters;
+
+    // Vision frames arrive this long after they were captured, with this much error in their reported timestamp
+    public final double visionLatencySeconds;
+    public final double visionTimestampErrorSeconds;
+
+    // Time between vision frames, or 0 for no vision frames
+    public final double visionPeriodSeconds;
+
+    // Standard deviation of the noise on each vision pose, and the chance a pose is an outlier (a wrong tag)
+    public final double visionNoiseMeters;
+    public final double visionOutlierProbability;
+
+    // Standard deviations of the starting pose's error, from the pose the routine resets odometry to
+    public final double startTranslationStdDevMeters;
+    public final double startHeadingStdDevDegs;
+
+    public SimDisturbances(
+        double wheelSlipStdDev, double gyroDriftDegsPerSecond, double encoderNoiseMeters,
+        double visionLatencySeconds, double visionTimestampErrorSeconds, double visionPeriodSeconds,
+        double visionNoiseMeters, double visionOutlierProbability,
+        double startTranslationStdDevMeters, double startHeadingStdDevDegs
+    ) {
+        this.wheelSlipStdDev = wheelSlipStdDev;
+        this.gyroDriftDegsPerSecond = gyroDriftDegsPerSecond;
+        this.encoderNoiseMeters = encoderNoiseMeters;
+        this.visionLatencySeconds = visionLatencySeconds;
+        this.visionTimestampErrorSeconds = visionTimestampErrorSeconds;
+        this.visionPeriodSeconds = visionPeriodSeconds;
+        this.visionNoiseMeters = visionNoiseMeters;
+        this.visionOutlierProbability = visionOutlierProbability;
+        this.startTranslationStdDevMeters = startTranslationStdDevMeters;
+        this.startHeadingStdDevDegs = startHeadingStdDevDegs;
+    }
+
+    /**
+     * Gets a copy of these disturbances with every magnitude scaled, e.g. to sweep how much noise a routine can
+     * tolerate. The vision frame period and outlier probability are not scaled.
+     * @param scale The scale.
+     * @return The scaled disturbances.
+     */
+    public SimDisturbances scale(double scale) {
+        return new SimDisturbances(
+            wheelSlipStdDev * scale, gyroDriftDegsPerSecond * scale, encoderNoiseMeters * scale,
+            visionLatencySeconds * scale, visionTimestampErrorSeconds * scale, visionPeriodSeconds,
+            visionNoiseMeters * scale, visionOutlierProbability,
+            startTranslationStdDevMeters * scale, startHeadingStdDevDegs * scale
+        );
+    }
+}
@@ -0,0 +1,58 @@
+package frc.robot.simulation;
+
+import edu.wpi.first.hal.SimBoolean;
+import edu.wpi.first.hal.SimDouble;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.wpilibj.SPI;
+import edu.wpi.first.wpilibj.simulation.SimDeviceSim;
+
+/**
+ * Drives the simulated values of the NavX on the MXP port. In simulation, `AHRS` registers a sim device that its
+ * getters read from instead of the SPI bus, so the drivetrain's `AHRS` needs no changes to run in simulation.
+ *
+ * Angles are given counterclockwise positive like the rest of the robot code, and converted to the NavX's
+ * clockwise positive yaw.
+ */
+public class SimNavX {
+    private final SimDouble yaw;
+    private final SimDouble pitch;
+    private final SimDouble roll;
+    private final SimBoolean connected;
+
+    /**
+     * Finds the simulated NavX. The `AHRS` must already be constructed.
+     */
+    public SimNavX() {
+        SimDeviceSim device = new SimDeviceSim("navX-Sensor[" + SPI.Port.kMXP.value + "]");
+        yaw = device.getDouble("Yaw");
+        pitch = device.getDouble("Pitch");
+        roll = device.getDouble("Roll");
+        connected = device.getBoolean("Connected");
+
+        if (connected != null) connected.set(true);
+    }
+
+    /**
+     * Sets the yaw of the robot.
+     * @param headingRads The counterclockwise positive heading, in radians.
+     */
+    public void setHeading(double headingRads) {
+        if (yaw != null) yaw.set(-Math.toDegrees(MathUtil.angleModulus(headingRads)));
+    }
+
+    /**
+     * Sets the pitch of the robot.
+     * @param pitchDegs The pitch, in degrees.
+     */
+    public void setPitch(double pitchDegs) {
+        if (pitch != null) pitch.set(pitchDegs);
+    }
+
+    /**
+     * Sets the roll of the robot.
+     * @param rollDegs The roll, in degrees.
+     */
+    public void setRoll(double rollDegs) {
+        if (roll != null) roll.set(rollDegs);
+    }
+}
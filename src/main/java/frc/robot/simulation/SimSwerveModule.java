@@ -0,0 +1,148 @@
+package frc.robot.simulation;
+
+import java.util.Random;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.system.plant.DCMotor;
+
+import frc.robot.subsystems.drivetrain.BaseSwerveModule;
+import frc.robot.subsystems.drivetrain.SwerveModule;
+
+import static frc.robot.Constants.TipOverConstants.CARRIAGE_MASS_KG;
+import static frc.robot.Constants.TipOverConstants.CHASSIS_MASS_KG;
+
+/**
+ * A simulated `SwerveModule`: a NEO driving a quarter of the robot's mass and a NEO 550 steering the module, each
+ * through the gear ratios of the real module, and each closed-loop controlled with the real module's gains the
+ * way the SparkMax does it (a 1kHz loop with duty cycle output).
+ *
+ * Setpoints are optimized the same way as on the real module, using the absolute encoder path (wrapped angles).
+ * Noise can be added to the drive encoder readings that odometry sees, without affecting the simulated motion.
+ */
+public class SimSwerveModule implements BaseSwerveModule {
+    private static final double NOMINAL_VOLTAGE = 12.0;
+
+    // The SparkMax runs its PID loop at 1kHz, so the module is stepped at that rate
+    private static final double CONTROL_PERIOD_SECONDS = 0.001;
+
+    private static final double ROBOT_MASS_KG = CHASSIS_MASS_KG + CARRIAGE_MASS_KG;
+    private static final double STEER_INERTIA_KG_M2 = 0.005; // Estimate of the module and wheel about the steer axis
+
+    private final MotorMechanismSim drive = new MotorMechanismSim(
+        DCMotor.getNEO(1),
+        2 * Math.PI / SwerveModule.DRIVE_ROTATIONS_TO_METERS,
+        ROBOT_MASS_KG / 4.0
+    );
+    private final MotorMechanismSim steer = new MotorMechanismSim(
+        DCMotor.getNeo550(1),
+        2 * Math.PI / SwerveModule.STEER_ROTATIONS_TO_RADIANS,
+        STEER_INERTIA_KG_M2
+    );
+
+    private double targetVelocity = 0;
+    private double targetAngleRads = 0;
+
+    private double encoderNoiseMeters = 0;
+    private Random random = null;
+
+    @Override
+    public SwerveModulePosition getState() {
+        double noise = encoderNoiseMeters > 0 ? random.nextGaussian() * encoderNoiseMeters : 0;
+        return new SwerveModulePosition(drive.getPosition() + noise, getAngle());
+    }
+
+    /**
+     * Gets the true distance travelled and angle of the module, without encoder noise.
+     * @return The true position of the module.
+     */
+    public SwerveModulePosition getTruePosition() {
+        return new SwerveModulePosition(drive.getPosition(), getAngle());
+    }
+
+    @Override
+    public void setDesiredState(SwerveModuleState state) {
+        Rotation2d currentAngle = getAngle();
+        SwerveModuleState optimized = SwerveModuleState.optimize(state, currentAngle);
+        double angleErrorRads = optimized.angle.minus(currentAngle).getRadians();
+
+        targetVelocity = optimized.speedMetersPerSecond * Math.abs(Math.cos(angleErrorRads));
+        targetAngleRads = optimized.angle.getRadians();
+    }
+
+    /**
+     * Advances the module by a step, running the drive and steer control loops.
+     * @param dtSeconds The length of the step, in seconds.
+     */
+    public void update(double dtSeconds) {
+        int steps = Math.max(1, (int) Math.round(dtSeconds / CONTROL_PERIOD_SECONDS));
+        double stepSeconds = dtSeconds / steps;
+
+        for (int i = 0; i < steps; i++) {
+            double driveDutyCycle = SwerveModule.driveFF * targetVelocity
+                + SwerveModule.driveP * (targetVelocity - drive.getVelocity());
+            double steerDutyCycle = SwerveModule.steerP * MathUtil.angleModulus(targetAngleRads - steer.getPosition());
+
+            drive.setInputVoltage(MathUtil.clamp(driveDutyCycle, -1.0, 1.0) * NOMINAL_VOLTAGE);
+            steer.setInputVoltage(MathUtil.clamp(steerDutyCycle, -1.0, 1.0) * NOMINAL_VOLTAGE);
+            drive.update(stepSeconds);
+            steer.update(stepSeconds);
+        }
+    }
+
+    /**
+     * Brings the module to rest where it is, keeping its distance travelled and angle.
+     */
+    public void stop() {
+        targetVelocity = 0;
+        targetAngleRads = steer.getPosition();
+        drive.setState(drive.getPosition(), 0);
+        steer.setState(steer.getPosition(), 0);
+    }
+
+    /**
+     * Sets the noise added to each drive encoder reading.
+     * @param stdDevMeters The standard deviation of the noise, in meters, or 0 for no noise.
+     * @param random The source of the noise.
+     */
+    public void setEncoderNoise(double stdDevMeters, Random random) {
+        this.encoderNoiseMeters = stdDevMeters;
+        this.random = random;
+    }
+
+    /**
+     * Sets the forces of the ground on the wheel, held until they are next set.
+     * @param slopeAcceleration The acceleration of gravity along the wheel's direction on a slope, in m/s^2.
+     * @param maxAcceleration The largest acceleration the wheel's grip allows, in m/s^2.
+     */
+    public void setGroundForces(double slopeAcceleration, double maxAcceleration) {
+        drive.setExternalAcceleration(slopeAcceleration);
+        drive.setMaxAcceleration(maxAcceleration);
+    }
+
+    /**
+     * Gets the current velocity and angle of the module.
+     * @return The current velocity and angle of the module.
+     */
+    public SwerveModuleState getVelocityState() {
+        return new SwerveModuleState(drive.getVelocity(), getAngle());
+    }
+
+    /**
+     * Gets the total current drawn by the module's motors.
+     * @return The current, in amps.
+     */
+    public double getCurrentDrawAmps() {
+        return Math.abs(drive.getCurrentDrawAmps()) + Math.abs(steer.getCurrentDrawAmps());
+    }
+
+    /**
+     * Gets the wrapped angle of the module, as read by the absolute encoder.
+     * @return The [-pi, pi] angle of the module, as a `Rotation2d`.
+     */
+    private Rotation2d getAngle() {
+        return new Rotation2d(MathUtil.angleModulus(steer.getPosition()));
+    }
+}
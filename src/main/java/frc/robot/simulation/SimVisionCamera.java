@@ -0,0 +1,272 @@
+package frc.robot.simulation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+
+import org.photonvision.PhotonVersion;
+import org.photonvision.common.dataflow.structures.Packet;
+import org.photonvision.targeting.PhotonPipelineResult;
+import org.photonvision.targeting.PhotonTrackedTarget;
+import org.photonvision.targeting.TargetCorner;
+
+import edu.wpi.first.apriltag.AprilTag;
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.RawPublisher;
+import edu.wpi.first.networktables.StringPublisher;
+
+/**
+ * Simulates a PhotonVision camera on the robot detecting AprilTags. Each frame projects the tags of the field layout
+ * into the camera with a pinhole model, keeps the tags whose corners all land in the image facing the camera, adds
+ * noise to each tag's pose, and publishes the result where `PhotonCamera` reads it on NetworkTables once the frame's
+ * latency has passed. The reported latency places the frame's timestamp at the moment it was captured.
+ *
+ * No camera intrinsics are published, so `PhotonPoseEstimator` falls back from multi-tag PnP to its per-tag
+ * strategy, using the simulated camera-to-tag transforms.
+ */
+public class SimVisionCamera {
+    private static final double TAG_SIZE_METERS = Units.inchesToMeters(6);
+
+    // The corners of a tag in its own frame, counterclockwise from the bottom left as seen from the front
+    private static final Translation3d[] TAG_CORNERS = {
+        new Translation3d(0, TAG_SIZE_METERS / 2, -TAG_SIZE_METERS / 2),
+        new Translation3d(0, -TAG_SIZE_METERS / 2, -TAG_SIZE_METERS / 2),
+        new Translation3d(0, -TAG_SIZE_METERS / 2, TAG_SIZE_METERS / 2),
+        new Translation3d(0, TAG_SIZE_METERS / 2, TAG_SIZE_METERS / 2)
+    };
+
+    private final Transform3d robotToCamera;
+    private final AprilTagFieldLayout fieldLayout;
+    private final SimCameraProperties properties;
+    private final Random random;
+
+    private final RawPublisher resultPublisher;
+    private final StringPublisher versionPublisher;
+
+    private final Queue<Frame> pendingFrames = new ArrayDeque<>();
+    private double nextCaptureSeconds = Double.NEGATIVE_INFINITY;
+
+    /**
+     * A frame that has been captured, but hasn't reached the robot yet.
+     */
+    private static class Frame {
+        public final double captureSeconds;
+        public final double arrivalSeconds;
+        public final List<PhotonTrackedTarget> targets;
+
+        public Frame(double captureSeconds, double arrivalSeconds, List<PhotonTrackedTarget> targets) {
+            this.captureSeconds = captureSeconds;
+            this.arrivalSeconds = arrivalSeconds;
+            this.targets = targets;
+        }
+    }
+
+    /**
+     * Creates a simulated camera.
+     * @param instance The NetworkTables instance to publish results on, the same one the `PhotonCamera` reads.
+     * @param cameraName The name of the camera in PhotonVision.
+     * @param robotToCamera The transform from the center of the robot to the camera.
+     * @param fieldLayout The positions of the tags on the field.
+     * @param properties The imaging and timing characteristics of the camera.
+     * @param random The source of noise, seeded so that a run can be reproduced.
+     */
+    public SimVisionCamera(
+        NetworkTableInstance instance, String cameraName, Transform3d robotToCamera,
+        AprilTagFieldLayout fieldLayout, SimCameraProperties properties, Random random
+    ) {
+        this.robotToCamera = robotToCamera;
+        this.fieldLayout = fieldLayout;
+        this.properties = properties;
+        this.random = random;
+
+        NetworkTable photonTable = instance.getTable("photonvision");
+        resultPublisher = photonTable.getSubTable(cameraName).getRawTopic("rawBytes").publish("rawBytes");
+
+        // `PhotonCamera` refuses results from a coprocessor running a different version
+        versionPublisher = photonTable.getStringTopic("version").publish();
+        versionPublisher.set(PhotonVersion.versionString);
+    }
+
+    /**
+     * Captures a frame if one is due, and publishes the frames whose latency has passed.
+     * @param nowSeconds The current FPGA timestamp.
+     * @param robotPose The true pose of the robot on the field.
+     */
+    public void update(double nowSeconds, Pose2d robotPose) {
+        double periodSeconds = 1.0 / properties.framesPerSecond;
+        if (nowSeconds >= nextCaptureSeconds) {
+            double latencySeconds = Math.max(
+                0, properties.latencySeconds + random.nextGaussian() * properties.latencyStdDevSeconds
+            );
+            pendingFrames.add(new Frame(nowSeconds, nowSeconds + latencySeconds, detectTags(robotPose)));
+
+            // Don't catch up on frames missed by a slow loop
+            nextCaptureSeconds = Math.max(nextCaptureSeconds + periodSeconds, nowSeconds + periodSeconds / 2);
+        }
+
+        while (!pendingFrames.isEmpty() && pendingFrames.peek().arrivalSeconds <= nowSeconds) {
+            publish(pendingFrames.poll(), nowSeconds);
+        }
+    }
+
+    /**
+     * Publishes a frame as a pipeline result, timestamped when it arrives.
+     * @param frame The frame.
+     * @param nowSeconds The current FPGA timestamp.
+     */
+    private void publish(Frame frame, double nowSeconds) {
+        PhotonPipelineResult result = new PhotonPipelineResult(
+            (nowSeconds - frame.captureSeconds) * 1000.0, frame.targets
+        );
+        Packet packet = new Packet(result.getPacketSize());
+        result.populatePacket(packet);
+
+        // `PhotonCamera` subtracts the latency from the time the result changed on NetworkTables
+        resultPublisher.set(packet.getData(), (long) (nowSeconds * 1e6));
+    }
+
+    /**
+     * Detects the tags the camera sees from a robot pose, with noise on each tag's pose.
+     * @param robotPose The true pose of the robot on the field.
+     * @return The detected tags.
+     */
+    public List<PhotonTrackedTarget> detectTags(Pose2d robotPose) {
+        Pose3d cameraPose = new Pose3d(robotPose).transformBy(robotToCamera);
+        List<PhotonTrackedTarget> targets = new ArrayList<>();
+
+        for (AprilTag tag : fieldLayout.getTags()) {
+            Transform3d cameraToTag = new Transform3d(cameraPose, tag.pose);
+            Translation3d center = cameraToTag.getTranslation();
+            double distance = center.getNorm();
+            if (center.getX() <= 0 || distance > properties.maxRangeMeters) continue;
+
+            // The tag's face points along its +x axis, which must point back towards the camera
+            Translation3d normal = new Translation3d(1, 0, 0).rotateBy(cameraToTag.getRotation());
+            if (normal.getX() * center.getX() + normal.getY() * center.getY() + normal.getZ() * center.getZ() >= 0) {
+                continue;
+            }
+
+            List<TargetCorner> corners = projectCorners(cameraToTag);
+            if (corners == null) continue;
+
+            double areaPercent = getArea(corners) / (properties.widthPx * properties.heightPx) * 100.0;
+            if (areaPercent < properties.minAreaPercent) continue;
+
+            Transform3d measured = addNoise(cameraToTag, distance);
+            targets.add(new PhotonTrackedTarget(
+                -Math.toDegrees(Math.atan2(center.getY(), center.getX())),
+                Math.toDegrees(Math.atan2(center.getZ(), center.getX())),
+                areaPercent,
+                0,
+                tag.ID,
+                measured,
+                measured, // The simulated pose is unambiguous
+                0,
+                getBoundingBox(corners),
+                corners
+            ));
+        }
+        return targets;
+    }
+
+    /**
+     * Projects the corners of a tag into the image.
+     * @param cameraToTag The transform from the camera to the tag.
+     * @return The corners, in pixels, or null if any corner is outside the image.
+     */
+    private List<TargetCorner> projectCorners(Transform3d cameraToTag) {
+        double focalLength = properties.getFocalLengthPx();
+        List<TargetCorner> corners = new ArrayList<>();
+
+        for (Translation3d tagCorner : TAG_CORNERS) {
+            Translation3d corner = tagCorner.rotateBy(cameraToTag.getRotation()).plus(cameraToTag.getTranslation());
+            if (corner.getX() <= 0) return null;
+
+            // Image x is to the right and image y is down, from the top left
+            double x = properties.widthPx / 2.0 - focalLength * corner.getY() / corner.getX();
+            double y = properties.heightPx / 2.0 - focalLength * corner.getZ() / corner.getX();
+            if (x < 0 || x > properties.widthPx || y < 0 || y > properties.heightPx) return null;
+
+            corners.add(new TargetCorner(x, y));
+        }
+        return corners;
+    }
+
+    /**
+     * Gets the area of a polygon in the image.
+     * @param corners The corners of the polygon, in order.
+     * @return The area, in square pixels.
+     */
+    private static double getArea(List<TargetCorner> corners) {
+        double doubleArea = 0;
+        for (int i = 0; i < corners.size(); i++) {
+            TargetCorner a = corners.get(i);
+            TargetCorner b = corners.get((i + 1) % corners.size());
+            doubleArea += a.x * b.y - b.x * a.y;
+        }
+        return Math.abs(doubleArea) / 2.0;
+    }
+
+    /**
+     * Gets the upright bounding box of corners in the image, which PhotonVision reports as a tag's rectangle.
+     * @param corners The corners.
+     * @return The 4 corners of the bounding box.
+     */
+    private static List<TargetCorner> getBoundingBox(List<TargetCorner> corners) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (TargetCorner corner : corners) {
+            minX = Math.min(minX, corner.x);
+            minY = Math.min(minY, corner.y);
+            maxX = Math.max(maxX, corner.x);
+            maxY = Math.max(maxY, corner.y);
+        }
+        return List.of(
+            new TargetCorner(minX, maxY), new TargetCorner(maxX, maxY),
+            new TargetCorner(maxX, minY), new TargetCorner(minX, minY)
+        );
+    }
+
+    /**
+     * Adds noise to the measured pose of a tag, growing with its distance.
+     * @param cameraToTag The true transform from the camera to the tag.
+     * @param distance The distance to the tag, in meters.
+     * @return The noisy transform.
+     */
+    private Transform3d addNoise(Transform3d cameraToTag, double distance) {
+        double translationStdDev = properties.translationNoisePerMeter * distance;
+        double rotationStdDev = Math.toRadians(properties.rotationNoiseDegs);
+        if (translationStdDev == 0 && rotationStdDev == 0) return cameraToTag;
+
+        return new Transform3d(
+            cameraToTag.getTranslation().plus(new Translation3d(
+                random.nextGaussian() * translationStdDev,
+                random.nextGaussian() * translationStdDev,
+                random.nextGaussian() * translationStdDev
+            )),
+            cameraToTag.getRotation().plus(new Rotation3d(
+                random.nextGaussian() * rotationStdDev,
+                random.nextGaussian() * rotationStdDev,
+                random.nextGaussian() * rotationStdDev
+            ))
+        );
+    }
+
+    /**
+     * Drops the frames that haven't arrived yet, e.g. when the robot is moved to a new pose.
+     */
+    public void reset() {
+        pendingFrames.clear();
+        nextCaptureSeconds = Double.NEGATIVE_INFINITY;
+    }
+}
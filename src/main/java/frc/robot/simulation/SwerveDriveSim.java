@@ -0,0 +1,293 @@
+package frc.robot.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+
+import static frc.robot.Constants.SwerveConstants.TL_POS;
+import static frc.robot.Constants.TipOverConstants.*;
+
+/**
+ * Simulates the motion of a swerve drive from its `SimSwerveModule`s. Each step, the modules are advanced and the
+ * robot moves by the twist of their wheel travel (the same forward kinematics odometry uses), which keeps the
+ * ground-truth pose and the simulated NavX heading. With no disturbances, odometry tracks the true pose exactly;
+ * with `SimDisturbances`, the wheels slip (the robot moves less than its wheels turn), the gyro drifts, and the
+ * encoders are noisy.
+ *
+ * The robot can drive onto `ChargingStationSim`s. The height of the ground under each wheel gives the robot's
+ * pitch (nose up positive, as the balancers expect) and roll (left side up positive), which are fed to the NavX.
+ * Gravity then pulls each wheel along the slope, within the grip of its tread, and each wheel loads the station
+ * with its share of the robot's weight.
+ */
+public class SwerveDriveSim {
+    private static final double GRAVITY = 9.81;
+    private static final double WHEEL_FRICTION_COEFFICIENT = 1.0; // Tread on carpet and diamond plate, estimate
+
+    private static final double ROBOT_MASS_KG = CHASSIS_MASS_KG + CARRIAGE_MASS_KG;
+    private static final double COG_HEIGHT_METERS = (
+        CHASSIS_MASS_KG * CHASSIS_COG_HEIGHT_METERS + CARRIAGE_MASS_KG * CARRIAGE_STOWED_COG_HEIGHT_METERS
+    ) / ROBOT_MASS_KG;
+
+    // The wheels' contact points, front left, front right, back left, and back right
+    private static final double WHEEL_X_METERS = Math.abs(TL_POS.getX());
+    private static final double WHEEL_Y_METERS = Math.abs(TL_POS.getY());
+    private static final double[] WHEEL_X_SIGNS = { 1, 1, -1, -1 };
+    private static final double[] WHEEL_Y_SIGNS = { 1, -1, 1, -1 };
+
+    private final SimSwerveModule[] modules;
+    private final SwerveDriveKinematics kinematics;
+    private final SimNavX navX;
+
+    private SwerveModulePosition[] lastPositions;
+    private Pose2d pose = new Pose2d();
+
+    private SimDisturbances disturbances = SimDisturbances.NONE;
+    private Random random = new Random();
+    private double gyroDriftRateRadsPerSecond = 0;
+    private double gyroDriftRads = 0;
+
+    private final List<ChargingStationSim> chargingStations = new ArrayList<>();
+    private double pitchRads = 0;
+    private double rollRads = 0;
+
+    /**
+     * Creates a swerve drive simulation. Modules are given in the same order as the kinematics' module positions.
+     * @param kinematics The kinematics of the drive.
+     * @param navX The simulated NavX to update, or null to not simulate a gyro.
+     * @param modules The simulated modules.
+     */
+    public SwerveDriveSim(SwerveDriveKinematics kinematics, SimNavX navX, SimSwerveModule... modules) {
+        this.kinematics = kinematics;
+        this.navX = navX;
+        this.modules = modules;
+        this.lastPositions = getModulePositions();
+    }
+
+    /**
+     * Advances the drive by a step.
+     * @param dtSeconds The length of the step, in seconds.
+     */
+    public void update(double dtSeconds) {
+        if (!chargingStations.isEmpty()) applyGroundForces();
+        for (SimSwerveModule module : modules) module.update(dtSeconds);
+
+        SwerveModulePosition[] positions = getModulePositions();
+        SwerveModulePosition[] deltas = new SwerveModulePosition[modules.length];
+        for (int i = 0; i < modules.length; i++) {
+            deltas[i] = new SwerveModulePosition(
+                positions[i].distanceMeters - lastPositions[i].distanceMeters,
+                positions[i].angle
+            );
+        }
+        lastPositions = positions;
+
+        // On a slope, the wheels travel along the surface
+        Twist2d twist = kinematics.toTwist2d(deltas);
+        twist = new Twist2d(twist.dx * Math.cos(pitchRads), twist.dy * Math.cos(rollRads), twist.dtheta);
+        if (disturbances.wheelSlipStdDev > 0) {
+            double traction = 1.0 - Math.min(Math.abs(random.nextGaussian()) * disturbances.wheelSlipStdDev, 1.0);
+            twist = new Twist2d(twist.dx * traction, twist.dy * traction, twist.dtheta * traction);
+        }
+
+        pose = pose.exp(twist);
+        gyroDriftRads += gyroDriftRateRadsPerSecond * dtSeconds;
+
+        if (!chargingStations.isEmpty()) updateChargingStations(dtSeconds);
+        updateNavX();
+    }
+
+    /**
+     * Adds a charging station for the robot to drive onto.
+     * @param station The charging station.
+     */
+    public void addChargingStation(ChargingStationSim station) {
+        chargingStations.add(station);
+        updateTilt();
+        updateNavX();
+    }
+
+    /**
+     * Gets the charging stations the robot can drive onto.
+     * @return The charging stations.
+     */
+    public List<ChargingStationSim> getChargingStations() {
+        return chargingStations;
+    }
+
+    /**
+     * Gets whether the robot is docked on a charging station: whether all of its wheels are on the top plate.
+     * @param station The charging station.
+     * @return Whether the robot is docked.
+     */
+    public boolean isDocked(ChargingStationSim station) {
+        for (int i = 0; i < modules.length; i++) {
+            Translation2d contact = getWheelContact(i);
+            if (!station.isOnTop(contact.getX(), contact.getY())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the pitch of the robot.
+     * @return The pitch, in degrees, nose up positive.
+     */
+    public double getPitchDegs() {
+        return Math.toDegrees(pitchRads);
+    }
+
+    /**
+     * Gets the roll of the robot.
+     * @return The roll, in degrees, left side up positive.
+     */
+    public double getRollDegs() {
+        return Math.toDegrees(rollRads);
+    }
+
+    /**
+     * Sets the disturbances of the simulation, and draws this run's gyro drift rate from them. The accumulated
+     * gyro drift is reset.
+     * @param disturbances The disturbances.
+     * @param random The source of randomness for the disturbances.
+     */
+    public void setDisturbances(SimDisturbances disturbances, Random random) {
+        this.disturbances = disturbances;
+        this.random = random;
+
+        gyroDriftRateRadsPerSecond = Math.toRadians(disturbances.gyroDriftDegsPerSecond) * (2 * random.nextDouble() - 1);
+        gyroDriftRads = 0;
+        updateNavX();
+
+        for (SimSwerveModule module : modules) module.setEncoderNoise(disturbances.encoderNoiseMeters, random);
+    }
+
+    /**
+     * Gets the true pose of the robot.
+     * @return The true pose of the robot.
+     */
+    public Pose2d getPose() {
+        return pose;
+    }
+
+    /**
+     * Teleports the robot to a pose, e.g. to its starting position at the beginning of auton, and brings it to rest.
+     * @param pose The pose of the robot.
+     */
+    public void setPose(Pose2d pose) {
+        this.pose = pose;
+        for (SimSwerveModule module : modules) module.stop();
+        updateTilt();
+        updateNavX();
+    }
+
+    /**
+     * Gets the simulated modules.
+     * @return The modules, in the order of the kinematics' module positions.
+     */
+    public SimSwerveModule[] getModules() {
+        return modules;
+    }
+
+    /**
+     * Gets the total current drawn by the drivetrain.
+     * @return The current, in amps.
+     */
+    public double getCurrentDrawAmps() {
+        double current = 0;
+        for (SimSwerveModule module : modules) current += module.getCurrentDrawAmps();
+        return current;
+    }
+
+    /**
+     * Sets each module's pull from gravity along the slope under the robot, and the grip of its wheel.
+     */
+    private void applyGroundForces() {
+        double forwardAcceleration = -GRAVITY * Math.sin(pitchRads);
+        double leftAcceleration = -GRAVITY * Math.sin(rollRads);
+        double maxAcceleration = WHEEL_FRICTION_COEFFICIENT * GRAVITY * Math.cos(pitchRads) * Math.cos(rollRads);
+
+        for (SimSwerveModule module : modules) {
+            Rotation2d angle = module.getTruePosition().angle;
+            module.setGroundForces(
+                forwardAcceleration * angle.getCos() + leftAcceleration * angle.getSin(),
+                maxAcceleration
+            );
+        }
+    }
+
+    /**
+     * Loads the charging stations with the robot's weight, advances them, and updates the robot's tilt.
+     * @param dtSeconds The length of the step, in seconds.
+     */
+    private void updateChargingStations(double dtSeconds) {
+        // Holding the robot on a slope shifts weight from the uphill wheels to the downhill ones
+        double weight = ROBOT_MASS_KG * GRAVITY;
+        double weightTransfer = COG_HEIGHT_METERS * Math.sin(pitchRads) / WHEEL_X_METERS;
+
+        for (int i = 0; i < WHEEL_X_SIGNS.length; i++) {
+            Translation2d contact = getWheelContact(i);
+            double load = Math.max(weight / 4.0 * (Math.cos(pitchRads) - WHEEL_X_SIGNS[i] * weightTransfer), 0);
+            for (ChargingStationSim station : chargingStations) station.applyLoad(contact.getX(), contact.getY(), load);
+        }
+
+        for (ChargingStationSim station : chargingStations) station.update(dtSeconds);
+        updateTilt();
+    }
+
+    /**
+     * Updates the pitch and roll of the robot from the height of the ground under each of its wheels.
+     */
+    private void updateTilt() {
+        double[] heights = new double[WHEEL_X_SIGNS.length];
+        for (int i = 0; i < heights.length; i++) {
+            Translation2d contact = getWheelContact(i);
+            for (ChargingStationSim station : chargingStations) {
+                heights[i] += station.getSurfaceHeight(contact.getX(), contact.getY());
+            }
+        }
+
+        pitchRads = Math.atan2((heights[0] + heights[1]) - (heights[2] + heights[3]), 4 * WHEEL_X_METERS);
+        rollRads = Math.atan2((heights[0] + heights[2]) - (heights[1] + heights[3]), 4 * WHEEL_Y_METERS);
+    }
+
+    /**
+     * Gets the point on the field where a wheel touches the ground.
+     * @param index The index of the wheel: front left, front right, back left, or back right.
+     * @return The contact point, in field coordinates.
+     */
+    private Translation2d getWheelContact(int index) {
+        Translation2d offset = new Translation2d(
+            WHEEL_X_SIGNS[index] * WHEEL_X_METERS,
+            WHEEL_Y_SIGNS[index] * WHEEL_Y_METERS
+        );
+        return pose.getTranslation().plus(offset.rotateBy(pose.getRotation()));
+    }
+
+    /**
+     * Sets the simulated NavX heading to the true heading plus the gyro drift, and its pitch and roll to the tilt
+     * of the robot.
+     */
+    private void updateNavX() {
+        if (navX == null) return;
+
+        navX.setHeading(pose.getRotation().getRadians() + gyroDriftRads);
+        navX.setPitch(getPitchDegs());
+        navX.setRoll(getRollDegs());
+    }
+
+    /**
+     * Gets the true positions of each module.
+     * @return The positions of each module.
+     */
+    private SwerveModulePosition[] getModulePositions() {
+        SwerveModulePosition[] positions = new SwerveModulePosition[modules.length];
+        for (int i = 0; i < modules.length; i++) positions[i] = modules[i].getTruePosition();
+        return positions;
+    }
+}
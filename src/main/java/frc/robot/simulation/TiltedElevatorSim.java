@@ -0,0 +1,146 @@
+package frc.robot.simulation;
+
+import com.revrobotics.CANSparkMax.ControlType;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.simulation.DIOSim;
+import edu.wpi.first.wpilibj.simulation.ElevatorSim;
+
+import frc.robot.sensors.HallEffectSensor;
+import frc.robot.subsystems.tiltedelevator.TiltedElevatorSubsystem;
+import frc.robot.util.SetpointCache;
+
+import static frc.robot.Constants.TipOverConstants.CARRIAGE_MASS_KG;
+import static frc.robot.Constants.TiltedElevatorConstants.*;
+
+/**
+ * Simulates the tilted elevator's carriage as an `ElevatorSim` along the tilt, driven by the extension SparkMax. The
+ * SparkMax is simulated from the setpoint it was last sent (see `SetpointCache`): duty cycle and voltage setpoints
+ * are applied directly, and position setpoints run the SparkMax's P loop at 1kHz with their arbitrary feedforward,
+ * stopping at the forward soft limit like the real controller.
+ *
+ * Only the component of gravity along the tilt acts on the carriage. The simulated carriage drives the zero limit
+ * switch at the bottom of its travel, and the hall effect sensor as it passes each magnet's detection band.
+ */
+public class TiltedElevatorSim {
+    private static final double NOMINAL_VOLTAGE = 12.0;
+    private static final double GRAVITY = 9.81;
+
+    // The SparkMax runs its PID loop at 1kHz, so the carriage is stepped at that rate
+    private static final double CONTROL_PERIOD_SECONDS = 0.001;
+
+    // The carriage presses the zero limit switch within this distance of the bottom hard stop
+    private static final double LIMIT_SWITCH_TRAVEL_METERS = Units.inchesToMeters(0.25);
+    private static final double MAX_EXTENSION_METERS = EXTENSION_LIMIT_METERS + Units.inchesToMeters(1);
+
+    private final SetpointCache setpoint;
+    private final ElevatorSim elevator;
+
+    // The voltage that holds the carriage against gravity along the tilt
+    private final double gravityVolts;
+
+    private final DIOSim zeroLimitSwitch;
+    private final DIOSim hallSensor;
+
+    /**
+     * Creates a carriage at the bottom of its travel.
+     * @param setpoint The setpoint cache of the extension SparkMax.
+     * @param motorCount The number of NEOs driving the extension.
+     * @param hasHallSensor Whether the elevator has a hall effect sensor.
+     */
+    public TiltedElevatorSim(SetpointCache setpoint, int motorCount, boolean hasHallSensor) {
+        this.setpoint = setpoint;
+
+        DCMotor gearbox = DCMotor.getNEO(motorCount);
+        double gearing = 1.0 / TiltedElevatorSubsystem.EXTENSION_GEAR_RATIO;
+        double drumRadiusMeters = TiltedElevatorSubsystem.EXTENSION_ROTATIONS_TO_METERS * gearing / (2 * Math.PI);
+
+        // Gravity isn't simulated by the `ElevatorSim`, which would apply all of it, so it's applied as the
+        // voltage that would produce the same force
+        elevator = new ElevatorSim(
+            gearbox, gearing, CARRIAGE_MASS_KG, drumRadiusMeters, 0, MAX_EXTENSION_METERS, false
+        );
+        gravityVolts = CARRIAGE_MASS_KG * GRAVITY * Math.sin(EXTENSION_ANGLE_RADIANS)
+            * drumRadiusMeters * gearbox.rOhms / (gearing * gearbox.KtNMPerAmp);
+
+        zeroLimitSwitch = new DIOSim(ZERO_LIMIT_ID);
+        hallSensor = hasHallSensor ? new DIOSim(LEFT_HALL_ID) : null;
+        updateSensors();
+    }
+
+    /**
+     * Advances the carriage by a step, running the SparkMax's control loop, and updates the sensors.
+     * @param dtSeconds The length of the step, in seconds.
+     */
+    public void update(double dtSeconds) {
+        int steps = Math.max(1, (int) Math.round(dtSeconds / CONTROL_PERIOD_SECONDS));
+        double stepSeconds = dtSeconds / steps;
+
+        for (int i = 0; i < steps; i++) {
+            double dutyCycle = MathUtil.clamp(getDutyCycle(), -1.0, 1.0);
+            if (dutyCycle > 0 && getPositionMeters() >= EXTENSION_LIMIT_METERS) dutyCycle = 0;
+
+            elevator.setInputVoltage(dutyCycle * NOMINAL_VOLTAGE - gravityVolts);
+            elevator.update(stepSeconds);
+        }
+
+        updateSensors();
+    }
+
+    /**
+     * Gets the duty cycle the SparkMax applies for its last setpoint.
+     * @return The duty cycle.
+     */
+    private double getDutyCycle() {
+        Object mode = setpoint.getMode();
+        if (mode == ControlType.kDutyCycle) return setpoint.getValue();
+        if (mode == ControlType.kVoltage) return setpoint.getValue() / NOMINAL_VOLTAGE;
+        if (mode == ControlType.kPosition) {
+            return TiltedElevatorSubsystem.extensionP * (setpoint.getValue() - getPositionMeters())
+                + setpoint.getArbFF() / NOMINAL_VOLTAGE;
+        }
+        return 0;
+    }
+
+    /**
+     * Sets the zero limit switch and hall effect sensor from the position of the carriage. Both read false when
+     * triggered.
+     */
+    private void updateSensors() {
+        double position = getPositionMeters();
+        zeroLimitSwitch.setValue(position > LIMIT_SWITCH_TRAVEL_METERS);
+
+        if (hallSensor == null) return;
+        boolean detected = false;
+        for (HallEffectSensor.Magnet magnet : LEFT_MAGNETS) {
+            detected |= position >= magnet.getEdgeMeters(true) && position <= magnet.getEdgeMeters(false);
+        }
+        hallSensor.setValue(!detected);
+    }
+
+    /**
+     * Gets the extension of the carriage.
+     * @return The extension, in meters.
+     */
+    public double getPositionMeters() {
+        return elevator.getPositionMeters();
+    }
+
+    /**
+     * Gets the velocity of the carriage along the tilt.
+     * @return The velocity, in m/s.
+     */
+    public double getVelocityMetersPerSecond() {
+        return elevator.getVelocityMetersPerSecond();
+    }
+
+    /**
+     * Gets the current drawn by the extension motors.
+     * @return The current, in amps.
+     */
+    public double getCurrentDrawAmps() {
+        return elevator.getCurrentDrawAmps();
+    }
+}
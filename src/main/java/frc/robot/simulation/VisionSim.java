@@ -0,0 +1,75 @@
+package frc.robot.simulation;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.Timer;
+
+import static frc.robot.Constants.VisionConstants.*;
+
+/**
+ * Simulates the robot's PhotonVision cameras (see `SimVisionCamera`), at the transforms in `VisionConstants`, so that
+ * `PhotonWrapper` and the vision fusion in the pose estimator run unchanged in simulation. The results are published
+ * on the robot's own NetworkTables instance, so no coprocessor is needed.
+ */
+public class VisionSim {
+    private final List<SimVisionCamera> cameras;
+    private boolean enabled = true;
+
+    /**
+     * Creates the simulated cameras on the default NetworkTables instance.
+     * @param properties The imaging and timing characteristics of every camera.
+     * @param seed The seed of the cameras' noise, so that a run can be reproduced.
+     */
+    public VisionSim(SimCameraProperties properties, long seed) {
+        AprilTagFieldLayout fieldLayout;
+        try {
+            fieldLayout = AprilTagFields.k2023ChargedUp.loadAprilTagLayoutField();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        NetworkTableInstance instance = NetworkTableInstance.getDefault();
+        Random random = new Random(seed);
+        cameras = List.of(
+            new SimVisionCamera(
+                instance, FRONT_CAMERA.getName(), FRONT_CAMERA_POSE, fieldLayout, properties, random
+            ),
+            new SimVisionCamera(
+                instance, RIGHT_CAMERA.getName(), RIGHT_CAMERA_POSE, fieldLayout, properties, random
+            )
+        );
+    }
+
+    /**
+     * Captures and publishes frames from every camera, if enabled.
+     * @param robotPose The true pose of the robot on the field.
+     */
+    public void update(Pose2d robotPose) {
+        if (!enabled) return;
+
+        double nowSeconds = Timer.getFPGATimestamp();
+        for (SimVisionCamera camera : cameras) camera.update(nowSeconds, robotPose);
+    }
+
+    /**
+     * Drops the frames that haven't arrived yet, e.g. when the robot is moved to a new pose.
+     */
+    public void reset() {
+        for (SimVisionCamera camera : cameras) camera.reset();
+    }
+
+    /**
+     * Enables or disables the cameras. Disabled cameras stop producing frames, as if unplugged.
+     * @param enabled Whether the cameras are enabled.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) reset();
+    }
+}
@@ -8,12 +8,17 @@ import com.revrobotics.ColorSensorV3;
 import edu.wpi.first.networktables.GenericEntry;
 import edu.wpi.first.wpilibj.DigitalInput;
 import edu.wpi.first.wpilibj.I2C;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 import edu.wpi.first.wpilibj.util.Color;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.simulation.RollerSim;
 import frc.robot.subsystems.leds.LEDSubsystem;
+import frc.robot.util.CachedTalon;
+import frc.robot.util.MotorRole;
 import frc.robot.util.MotorUtil;
 import frc.robot.util.TrackingTimer;
 
@@ -24,9 +29,16 @@ public class RollerSubsystem extends SubsystemBase {
     private final WPI_TalonSRX rightBeak;
     private final WPI_TalonSRX openMotor;
 
+    // The roll and open powers are usually the same from loop to loop, so only send them when they change
+    private final CachedTalon rollSetpoint;
+    private final CachedTalon openSetpoint;
+
     private final DigitalInput limitSwitch;
     private ColorSensorV3 crolorSensor;
 
+    // Simulation of the intake and its game piece, or null on the robot
+    private final RollerSim rollerSim;
+
     public enum HeldPiece {
         CONE, CUBE, EMPTY;
     }
@@ -71,23 +83,27 @@ public class RollerSubsystem extends SubsystemBase {
     private double rollPower = 0.0;
 
     public RollerSubsystem() {
-        leftBeak = MotorUtil.createTalonSRX(LEFT_ID);
+        leftBeak = MotorUtil.createTalonSRX(LEFT_ID, MotorRole.LEADER);
         // leftBeak.setInverted(true);
         leftBeak.setInverted(false);
         leftBeak.setNeutralMode(NeutralMode.Brake);
 
-        rightBeak = MotorUtil.createTalonSRX(RIGHT_ID);
+        rightBeak = MotorUtil.createTalonSRX(RIGHT_ID, MotorRole.FOLLOWER);
         rightBeak.follow(leftBeak);
         rightBeak.setInverted(InvertType.OpposeMaster);
         rightBeak.setNeutralMode(NeutralMode.Brake);
 
-        openMotor = MotorUtil.createTalonSRX(OPEN_ID);
+        openMotor = MotorUtil.createTalonSRX(OPEN_ID, MotorRole.OPEN_LOOP);
         openMotor.setNeutralMode(NeutralMode.Coast);
         // openMotor.setInverted(true);
         openMotor.setInverted(false);
 
+        rollSetpoint = new CachedTalon(leftBeak);
+        openSetpoint = new CachedTalon(openMotor);
+
         limitSwitch = new DigitalInput(LIMIT_SWITCH_ID);
         crolorSensor = new ColorSensorV3(I2C.Port.kMXP);
+        rollerSim = RobotBase.isSimulation() ? new RollerSim(rollSetpoint.getCache(), openSetpoint.getCache()) : null;
 
         shuffleboardTab = Shuffleboard.getTab("Roller");
         limitEntry = shuffleboardTab.add("Limit piece", "EMPTY")
@@ -141,6 +157,11 @@ public class RollerSubsystem extends SubsystemBase {
         openingLogic();
     }
 
+    @Override
+    public void simulationPeriodic() {
+        if (rollerSim != null) rollerSim.update(TimedRobot.kDefaultPeriod);
+    }
+
     /**
      * Detects what game piece the intake is currently holding and applies power to
      * the roll motors.
@@ -161,9 +182,9 @@ public class RollerSubsystem extends SubsystemBase {
 
         // if wheels must intake, and the limit switch is not pressed, turn on motors
         if (limitPiece == HeldPiece.EMPTY) {
-            leftBeak.set(rollPower);
+            rollSetpoint.set(rollPower);
         } else {
-            leftBeak.set(Math.min(rollPower, 0.0));
+            rollSetpoint.set(Math.min(rollPower, 0.0));
         }
 
         limitEntry.setString(limitPiece.name());
@@ -194,11 +215,11 @@ public class RollerSubsystem extends SubsystemBase {
         }
 
         // Otherwise, open if we're opening and close if we're closing.
-        if (openTimer.hasStarted()) openMotor.set(0.5);
-        else if (closeTimer.hasStarted()) openMotor.set(-0.2);
-        else if (heldPiece == HeldPiece.CONE) openMotor.setVoltage(-4.0);
-        else if (rollPower > 0) openMotor.setVoltage(-1.0);
-        else openMotor.set(0);
+        if (openTimer.hasStarted()) openSetpoint.set(0.5);
+        else if (closeTimer.hasStarted()) openSetpoint.set(-0.2);
+        else if (heldPiece == HeldPiece.CONE) openSetpoint.setVoltage(-4.0);
+        else if (rollPower > 0) openSetpoint.setVoltage(-1.0);
+        else openSetpoint.set(0);
     }
 
     /**
@@ -226,7 +247,7 @@ public class RollerSubsystem extends SubsystemBase {
      * @return The piece detected by the color sensor.
      */
     private HeldPiece getColorSensorPiece() {
-        Color detectedColor = crolorSensor.getColor();
+        Color detectedColor = rollerSim != null ? rollerSim.getColor() : crolorSensor.getColor();
         double red = detectedColor.red * 255;
         double green = detectedColor.green * 255;
         double blue = detectedColor.blue * 255;
@@ -282,6 +303,14 @@ public class RollerSubsystem extends SubsystemBase {
         return heldPiece;
     }
 
+    /**
+     * Gets the simulation of the intake and its game piece.
+     * @return The simulation, or null if not running in simulation.
+     */
+    public RollerSim getRollerSim() {
+        return rollerSim;
+    }
+
     public boolean colorSensorConnected() {
         return colorSensorConnected;
     }
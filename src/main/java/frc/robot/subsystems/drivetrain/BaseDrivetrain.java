@@ -5,14 +5,26 @@ import com.kauailabs.navx.frc.AHRS;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj.SPI;
 
+import frc.robot.sensors.NavXSampler;
+import frc.robot.util.HardwareSnapshot.BooleanReading;
+import frc.robot.util.HardwareSnapshot.DoubleReading;
+
 /**
  * The superclass of all drivetrain subsystems (both tank and swerve).
  */
 public abstract class BaseDrivetrain extends SubsystemBase {
     protected final AHRS ahrs;
+    protected final NavXSampler navX;
+
+    // The NavX's yaw (clockwise positive, in degrees) and connection status, read once per loop
+    protected final DoubleReading gyroAngle;
+    protected final BooleanReading gyroConnected;
 
     public BaseDrivetrain() {
-        ahrs = new AHRS(SPI.Port.kMXP);
+        ahrs = new AHRS(SPI.Port.kMXP, (byte) NavXSampler.UPDATE_RATE_HZ);
+        navX = new NavXSampler(ahrs);
+        gyroAngle = new DoubleReading("NavX angle", ahrs::getAngle);
+        gyroConnected = new BooleanReading("NavX connected", ahrs::isConnected);
     }
 
     /**
@@ -24,6 +36,32 @@ public abstract class BaseDrivetrain extends SubsystemBase {
      */
     public abstract void setDrivePowers(double forwardPower);
 
+    /**
+     * Stops the drive system. Drive systems that rate limit their drive powers only approach the commanded
+     * powers over several loops, so commands should call this rather than setting zero powers once when they
+     * end; rate limited drive systems keep decelerating on their own until driven again.
+     */
+    public void stop() {
+        setDrivePowers(0.0);
+    }
+
+    /**
+     * Stops the drive system immediately, without limiting the deceleration. This should only be used when
+     * the robot is disabled or emergency stopped; commands should use `stop()`.
+     */
+    public void stopImmediately() {
+        setDrivePowers(0.0);
+    }
+
+    /**
+     * Gets whether the commanded drive powers have reached zero. Rate limited drive systems take several loops
+     * to get there after being stopped.
+     * @return Whether the drive system is commanded to stand still.
+     */
+    public boolean isStopped() {
+        return true;
+    }
+
     /**
      * Gets the NavX AHRS on this drivetrain.
      * @return The NavX object.
@@ -31,4 +69,12 @@ public abstract class BaseDrivetrain extends SubsystemBase {
     public AHRS getAhrs() {
         return ahrs;
     }
+
+    /**
+     * Gets the timestamped samples of the NavX on this drivetrain, e.g. for its pitch rate.
+     * @return The NavX sampler.
+     */
+    public NavXSampler getNavX() {
+        return navX;
+    }
 }
@@ -1,5 +1,7 @@
 package frc.robot.subsystems.drivetrain;
 
+import java.util.function.DoubleSupplier;
+
 import edu.wpi.first.math.MatBuilder;
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.Nat;
@@ -8,23 +10,36 @@ import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.GenericEntry;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 
+import frc.robot.simulation.ChargingStationSim;
+import frc.robot.simulation.SimCameraProperties;
+import frc.robot.simulation.SimNavX;
+import frc.robot.simulation.SimSwerveModule;
+import frc.robot.simulation.SwerveDriveSim;
+import frc.robot.simulation.VisionSim;
 import frc.robot.subsystems.leds.LEDSubsystem;
 import frc.robot.util.FieldUtil;
 import frc.robot.util.ShuffleboardUtil;
 import frc.robot.vision.PhotonWrapper;
 
+import static frc.robot.Constants.SwerveConstants.MODULE_MAX_DRIVE_ACCEL;
+import static frc.robot.Constants.SwerveConstants.MODULE_MAX_STEER_VEL;
+
 /**
  * The superclass for the current `SwerveSubsystem` and `SwerveSubsystem2020` that contains all the
  * logic for managing module states, updating odometry, and taking driver input.
@@ -37,10 +52,15 @@ public abstract class BaseSwerveSubsystem extends BaseDrivetrain {
 
     private final SwerveDrivePoseEstimator poseEstimator;
     private final SwerveDriveKinematics kinematics;
+    private final SwerveSetpointGenerator setpointGenerator;
 
     private final PhotonWrapper photonWrapper;
     private final LEDSubsystem ledSubsystem;
 
+    // The physics simulation of the drivetrain, if running in simulation with simulated modules
+    private final SwerveDriveSim driveSim;
+    private final VisionSim visionSim;
+
     public final double MAX_VEL; // Max robot tangential velocity, in m/s
     public final double MAX_ACCEL; // Max robot tangential acceleration, in m/s^2
     public final double MAX_OMEGA; // Max robot angular velocity, in rads/s
@@ -49,6 +69,25 @@ public abstract class BaseSwerveSubsystem extends BaseDrivetrain {
     // private final ProfiledPIDController thetaController;
     private final PIDController thetaController;
 
+    private final TipOverLimiter tipOverLimiter = new TipOverLimiter();
+    private DoubleSupplier extensionSupplier = () -> 0.0;
+
+    // Whether `stop()` was called and nothing has driven the modules since, so the drivetrain is still
+    // decelerating through the tip-over limiter each loop
+    private boolean stopping = false;
+
+    // Whether to limit acceleration by the extension of the elevator, and to limit each module's setpoints to what
+    // it can reach in a loop. Both are off until the robot's mass properties and the module traction limit in
+    // `TipOverConstants` and `SwerveConstants` are measured.
+    private static final boolean TIP_OVER_LIMIT_ENABLE = false;
+    private static final boolean SETPOINT_LIMIT_ENABLE = false;
+
+    // Whether to discretize chassis speeds over the loop period, so that translating while rotating doesn't drift
+    private volatile boolean DISCRETIZE_ENABLE = true;
+
+    // Whether to use the closed-form `FourModuleSwerveKinematics` instead of WPILib's matrix-based kinematics
+    private static final boolean FAST_KINEMATICS_ENABLE = true;
+
     private final Timer lockTimer;
     private static final double LOCK_TIMEOUT_SECONDS = 1.0; // The elapsed idle time to wait before locking
     private static final boolean LOCKING_ENABLE = false;
@@ -105,8 +144,17 @@ public abstract class BaseSwerveSubsystem extends BaseDrivetrain {
         this.bottomRightModule = bottomRightModule;
 
         this.kinematics = kinematics;
+        this.setpointGenerator = new SwerveSetpointGenerator(
+            kinematics,
+            MAX_VEL, MAX_OMEGA,
+            MODULE_MAX_DRIVE_ACCEL, MODULE_MAX_STEER_VEL
+        );
         this.photonWrapper = photonWrapper;
         this.ledSubsystem = ledSubsystem;
+        this.driveSim = createDriveSim(kinematics, topLeftModule, topRightModule, bottomLeftModule, bottomRightModule);
+        this.visionSim = driveSim != null && photonWrapper != null
+            ? new VisionSim(SimCameraProperties.TYPICAL, 0)
+            : null;
 
         // Initialize pose estimator
         poseEstimator = new SwerveDrivePoseEstimator(
@@ -171,16 +219,13 @@ public abstract class BaseSwerveSubsystem extends BaseDrivetrain {
         }
 
         // Add vision pose estimate to pose estimator
-        if (VISION_ENABLE) photonWrapper.getRobotPoses(estimate).forEach((visionPose) -> {
-            if (!FieldUtil.poseInField(visionPose.estimatedPose.toPose2d())) return;
-
-            if (ledSubsystem != null) ledSubsystem.displayTagDetected();
-            poseEstimator.addVisionMeasurement(
-                visionPose.estimatedPose.toPose2d(),
-                visionPose.timestampSeconds
-            );
+        if (VISION_ENABLE && photonWrapper != null) photonWrapper.getRobotPoses(estimate).forEach((visionPose) -> {
+            addVisionMeasurement(visionPose.estimatedPose.toPose2d(), visionPose.timestampSeconds);
         });
 
+        // Keep decelerating after `stop()` until something drives the modules again
+        if (stopping) driveLimited(new ChassisSpeeds());
+
         // If all commanded velocities are 0, the system is idle (drivers / commands are
         // not supplying input).
         boolean isIdle = states[0].speedMetersPerSecond == 0.0
@@ -208,6 +253,17 @@ public abstract class BaseSwerveSubsystem extends BaseDrivetrain {
         }
     }
 
+    @Override
+    public void simulationPeriodic() {
+        if (driveSim != null) {
+            driveSim.update(TimedRobot.kDefaultPeriod);
+
+            // The simulated NavX has no IO thread delivering samples
+            navX.poll();
+        }
+        if (visionSim != null) visionSim.update(driveSim.getPose());
+    }
+
     /**
      * Locks the swerve. This sets the wheels parallel to the charging station if the charging
      * station lock mode is enabled, or in an X otherwise.
@@ -231,7 +287,9 @@ public abstract class BaseSwerveSubsystem extends BaseDrivetrain {
 
     /**
      * Sets the swerve module states of this subsystem from provided field-centric
-     * swerve drive powers.
+     * swerve drive powers. The speeds are limited so that the robot doesn't tip over, so they are
+     * only reached over several loops; this must be called every loop while driving, and `stop()`
+     * used to stop.
      * 
      * @param xPower The power [-1.0, 1.0] in the x (forward) direction.
      * @param yPower The power [-1.0, 1.0] in the y (left) direction.
@@ -248,15 +306,65 @@ public abstract class BaseSwerveSubsystem extends BaseDrivetrain {
             relative ? new Rotation2d() : getDriverHeading()
         );
 
+        stopping = false;
+        driveLimited(speeds);
+        swerveRelativeEntry.setBoolean(relative);
+    }
+
+    /**
+     * Sets the swerve module states of this subsystem from robot-relative chassis speeds, limiting them so that
+     * the robot doesn't tip over and the modules don't skid.
+     * 
+     * @param speeds The desired robot-relative chassis speeds.
+     */
+    private void driveLimited(ChassisSpeeds speeds) {
+        // Limit acceleration so the robot doesn't tip with the elevator extended
+        if (TIP_OVER_LIMIT_ENABLE) {
+            speeds = tipOverLimiter.calculate(speeds, extensionSupplier.getAsDouble(), TimedRobot.kDefaultPeriod);
+        }
+        if (DISCRETIZE_ENABLE) speeds = discretize(speeds, TimedRobot.kDefaultPeriod);
+
         // Calculate swerve module states from desired chassis speeds, desaturating
-        // them to ensure all velocities are under MAX_VEL after kinematics.
-        this.states = kinematics.toSwerveModuleStates(speeds);
-        SwerveDriveKinematics.desaturateWheelSpeeds(
-            this.states, speeds, 
-            MAX_VEL, MAX_VEL, MAX_OMEGA
-        );
+        // them to ensure all velocities are under MAX_VEL after kinematics, and limiting
+        // them to what the modules can reach this loop so they don't skid while steering.
+        SwerveModuleState[] setpoints;
+        if (SETPOINT_LIMIT_ENABLE) {
+            setpoints = setpointGenerator.generate(speeds, TimedRobot.kDefaultPeriod);
+        } else {
+            setpoints = kinematics.toSwerveModuleStates(speeds);
+            SwerveDriveKinematics.desaturateWheelSpeeds(setpoints, speeds, MAX_VEL, MAX_VEL, MAX_OMEGA);
+            setpointGenerator.reset(setpoints);
+        }
 
-        swerveRelativeEntry.setBoolean(relative);
+        // The limiter tracks the speeds the robot actually moves at, not the discretized ones
+        ChassisSpeeds achieved = kinematics.toChassisSpeeds(setpoints);
+        tipOverLimiter.reset(DISCRETIZE_ENABLE ? undiscretize(achieved, TimedRobot.kDefaultPeriod) : achieved);
+
+        this.states = setpoints;
+    }
+
+    /**
+     * Stops the drivetrain, decelerating through the tip-over limiter at the most the current extension of the
+     * elevator allows. The deceleration continues every loop until the modules are driven again, so this only
+     * needs to be called once.
+     */
+    @Override
+    public void stop() {
+        stopping = true;
+    }
+
+    /**
+     * Stops the modules immediately, without limiting the deceleration, keeping them at their current angles.
+     * This can tip the robot with the elevator extended, so it should only be used when the robot is disabled
+     * or emergency stopped.
+     */
+    @Override
+    public void stopImmediately() {
+        SwerveModuleState[] stopped = new SwerveModuleState[states.length];
+        for (int i = 0; i < states.length; i++) {
+            stopped[i] = new SwerveModuleState(0.0, states[i].angle);
+        }
+        setSwerveModuleStates(stopped);
     }
 
     /**
@@ -295,9 +403,122 @@ public abstract class BaseSwerveSubsystem extends BaseDrivetrain {
      */
     public void setSwerveModuleStates(SwerveModuleState... states) {
         swerveRelativeEntry.setBoolean(false); // TODO: better way of setting this to false during auton
+
+        // Without rotation the discretized speeds are the same, so states that only set module angles (e.g.
+        // when idle) are passed through untouched.
+        ChassisSpeeds speeds = kinematics.toChassisSpeeds(states);
+        if (DISCRETIZE_ENABLE && speeds.omegaRadiansPerSecond != 0.0) {
+            states = kinematics.toSwerveModuleStates(discretize(speeds, TimedRobot.kDefaultPeriod));
+        }
+
+        stopping = false;
+        setpointGenerator.reset(states);
+        tipOverLimiter.reset(speeds);
         this.states = states;
     }
 
+    /**
+     * Gets whether every module is commanded to zero speed, e.g. once `stop()` has finished decelerating.
+     * @return Whether the modules are commanded to stand still.
+     */
+    @Override
+    public boolean isStopped() {
+        for (SwerveModuleState state : states) {
+            if (state.speedMetersPerSecond != 0.0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Creates the kinematics for a swerve drive, using the closed-form four-module kinematics if enabled.
+     * 
+     * @param topLeft The position of the top left module relative to the center of the robot.
+     * @param topRight The position of the top right module relative to the center of the robot.
+     * @param bottomLeft The position of the bottom left module relative to the center of the robot.
+     * @param bottomRight The position of the bottom right module relative to the center of the robot.
+     * @return The created `SwerveDriveKinematics`.
+     */
+    public static SwerveDriveKinematics createKinematics(
+        Translation2d topLeft, Translation2d topRight,
+        Translation2d bottomLeft, Translation2d bottomRight
+    ) {
+        return FAST_KINEMATICS_ENABLE
+            ? new FourModuleSwerveKinematics(topLeft, topRight, bottomLeft, bottomRight)
+            : new SwerveDriveKinematics(topLeft, topRight, bottomLeft, bottomRight);
+    }
+
+    /**
+     * Creates the physics simulation of the drivetrain, on a field with both charging stations, if running in
+     * simulation and all of the modules are simulated.
+     * 
+     * @param kinematics The kinematics of the drivetrain.
+     * @param modules The modules, in the order of the kinematics' module positions.
+     * @return The simulation, or null if not simulating.
+     */
+    private static SwerveDriveSim createDriveSim(SwerveDriveKinematics kinematics, BaseSwerveModule... modules) {
+        if (!RobotBase.isSimulation()) return null;
+
+        SimSwerveModule[] simModules = new SimSwerveModule[modules.length];
+        for (int i = 0; i < modules.length; i++) {
+            if (!(modules[i] instanceof SimSwerveModule)) return null;
+            simModules[i] = (SimSwerveModule) modules[i];
+        }
+        SwerveDriveSim driveSim = new SwerveDriveSim(kinematics, new SimNavX(), simModules);
+        driveSim.addChargingStation(ChargingStationSim.forAlliance(false));
+        driveSim.addChargingStation(ChargingStationSim.forAlliance(true));
+        return driveSim;
+    }
+
+    /**
+     * Discretizes chassis speeds over a loop. Module states are held for the whole loop, so the robot moves along
+     * an arc rather than in the straight line the speeds describe when it translates and rotates at the same time.
+     * The discretized speeds are the twist that, held over the loop, moves the robot by exactly the displacement
+     * the continuous speeds would (see the pose exponential in `Pose2d.exp()`).
+     * 
+     * @param speeds The desired robot-relative chassis speeds.
+     * @param dtSeconds The loop period, in seconds.
+     * @return The discretized chassis speeds.
+     */
+    public static ChassisSpeeds discretize(ChassisSpeeds speeds, double dtSeconds) {
+        Pose2d desiredDelta = new Pose2d(
+            speeds.vxMetersPerSecond * dtSeconds,
+            speeds.vyMetersPerSecond * dtSeconds,
+            new Rotation2d(speeds.omegaRadiansPerSecond * dtSeconds)
+        );
+        Twist2d twist = new Pose2d().log(desiredDelta);
+        return new ChassisSpeeds(twist.dx / dtSeconds, twist.dy / dtSeconds, twist.dtheta / dtSeconds);
+    }
+
+    /**
+     * Undoes `discretize()`, getting the continuous chassis speeds that discretize to the given speeds.
+     * 
+     * @param speeds The discretized robot-relative chassis speeds.
+     * @param dtSeconds The loop period, in seconds.
+     * @return The continuous chassis speeds.
+     */
+    public static ChassisSpeeds undiscretize(ChassisSpeeds speeds, double dtSeconds) {
+        Pose2d delta = new Pose2d().exp(new Twist2d(
+            speeds.vxMetersPerSecond * dtSeconds,
+            speeds.vyMetersPerSecond * dtSeconds,
+            speeds.omegaRadiansPerSecond * dtSeconds
+        ));
+        return new ChassisSpeeds(
+            delta.getX() / dtSeconds,
+            delta.getY() / dtSeconds,
+            delta.getRotation().getRadians() / dtSeconds
+        );
+    }
+
+    /**
+     * Sets the supplier of the tilted elevator's extension, used to limit acceleration so the robot doesn't tip.
+     * Without one, the elevator is assumed to be stowed.
+     * 
+     * @param extensionSupplier The supplier of the extension, in meters.
+     */
+    public void setExtensionSupplier(DoubleSupplier extensionSupplier) {
+        this.extensionSupplier = extensionSupplier;
+    }
+
     /**
      * Gets the states of each module as a `SwerveModulePosition[]`.
      * @return The states of each module.
@@ -366,14 +587,27 @@ public abstract class BaseSwerveSubsystem extends BaseDrivetrain {
         return poseEstimator.getEstimatedPosition();
     }
 
+    /**
+     * Adds a vision pose estimate to the pose estimator, if vision is enabled and the pose is on the field.
+     * @param visionPose The estimated pose of the robot.
+     * @param timestampSeconds The FPGA timestamp at which the estimate's image was captured.
+     */
+    public void addVisionMeasurement(Pose2d visionPose, double timestampSeconds) {
+        if (!VISION_ENABLE || !FieldUtil.poseInField(visionPose)) return;
+
+        if (ledSubsystem != null) ledSubsystem.displayTagDetected();
+        poseEstimator.addVisionMeasurement(visionPose, timestampSeconds);
+    }
+
     /**
      * Reset the robot's position to a given Pose2d. This method does not reset the field heading.
      * @param currentPose The position to reset the pose estimator to.
      */
     public void resetPose(Pose2d currentPose) {
-        Rotation2d gyroAngle = getGyroHeading();
+        // The gyro may have moved since the start of the loop, e.g. when the simulation is reset
+        gyroAngle.refresh();
         poseEstimator.resetPosition(
-            gyroAngle,
+            getGyroHeading(),
             getModuleStates(),
             currentPose
         );
@@ -393,6 +627,7 @@ public abstract class BaseSwerveSubsystem extends BaseDrivetrain {
      * @param currentRotation The rotation to reset the driver angle to.
      */
     public void resetDriverHeading(Rotation2d currentRotation) {
+        gyroAngle.refresh();
         driverHeadingOffset = getGyroHeading().minus(currentRotation);
     }
 
@@ -405,11 +640,11 @@ public abstract class BaseSwerveSubsystem extends BaseDrivetrain {
     }
 
     /**
-     * Gets the gyro angle given by the NavX AHRS, inverted to be counterclockwise positive.
+     * Gets the gyro angle given by the NavX AHRS at the start of the loop, inverted to be counterclockwise positive.
      * @return The robot's global heading as a Rotation2d.
      */
     private Rotation2d getGyroHeading() {
-        return Rotation2d.fromDegrees(-ahrs.getAngle());
+        return Rotation2d.fromDegrees(-gyroAngle.get());
     }
 
     /**
@@ -420,13 +655,29 @@ public abstract class BaseSwerveSubsystem extends BaseDrivetrain {
      */
     public Rotation2d getDriverHeading() {
         // Primarily use AHRS reading, falling back on the pose estimator if the AHRS disconnects.
-        Rotation2d robotHeading = ahrs.isConnected()
+        Rotation2d robotHeading = gyroConnected.get()
             ? getGyroHeading()
             : getRobotPosition().getRotation();
 
         return robotHeading.minus(driverHeadingOffset);
     }
 
+    /**
+     * Gets the physics simulation of the drivetrain.
+     * @return The simulation, or null if not running in simulation.
+     */
+    public SwerveDriveSim getDriveSim() {
+        return driveSim;
+    }
+
+    /**
+     * Gets the simulation of the PhotonVision cameras, which see the field from the drivetrain simulation's pose.
+     * @return The simulation, or null if not running in simulation or without vision.
+     */
+    public VisionSim getVisionSim() {
+        return visionSim;
+    }
+
     /**
      * Sets whether vision data is enabled.
      * @param visionEnable Whether to enable vision data for localization.
@@ -435,4 +686,12 @@ public abstract class BaseSwerveSubsystem extends BaseDrivetrain {
         this.VISION_ENABLE = visionEnable;
         visionEnableEntry.setBoolean(VISION_ENABLE);
     }
+
+    /**
+     * Sets whether chassis speeds are discretized over the loop period (see `discretize()`).
+     * @param enabled Whether to discretize chassis speeds.
+     */
+    public void setDiscretizeEnabled(boolean enabled) {
+        DISCRETIZE_ENABLE = enabled;
+    }
 }
@@ -0,0 +1,183 @@
+package frc.robot.subsystems.drivetrain;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Swerve kinematics specialized for exactly four modules, computed in closed form with plain doubles instead of
+ * through EJML matrices. Inverse kinematics is the velocity of each module's position on the rotating chassis;
+ * forward kinematics is the least-squares chassis velocity, using the pseudo-inverse of the inverse kinematics
+ * matrix, which is precomputed as coefficients for each module's velocity components.
+ *
+ * Results match `SwerveDriveKinematics` to within floating point error, including keeping the module angles when
+ * the chassis is stopped, so this can be used anywhere WPILib's kinematics is (pose estimation, trajectory
+ * constraints, `SwerveControllerCommand`).
+ */
+public class FourModuleSwerveKinematics extends SwerveDriveKinematics {
+    private static final int NUM_MODULES = 4;
+
+    private final double[] moduleX = new double[NUM_MODULES];
+    private final double[] moduleY = new double[NUM_MODULES];
+
+    // Pseudo-inverse coefficients of each module's x and y velocity components, for vx, vy, and omega
+    private final double[][] xCoefficients = new double[3][NUM_MODULES];
+    private final double[][] yCoefficients = new double[3][NUM_MODULES];
+
+    private SwerveModuleState[] moduleStates = new SwerveModuleState[NUM_MODULES];
+
+    /**
+     * Creates kinematics for a four-module swerve drive. Module states are given and returned in the same order
+     * as the module positions.
+     * @param topLeft The position of the top left module relative to the center of the robot.
+     * @param topRight The position of the top right module relative to the center of the robot.
+     * @param bottomLeft The position of the bottom left module relative to the center of the robot.
+     * @param bottomRight The position of the bottom right module relative to the center of the robot.
+     */
+    public FourModuleSwerveKinematics(
+        Translation2d topLeft, Translation2d topRight,
+        Translation2d bottomLeft, Translation2d bottomRight
+    ) {
+        super(topLeft, topRight, bottomLeft, bottomRight);
+
+        Translation2d[] modules = { topLeft, topRight, bottomLeft, bottomRight };
+        double sumX = 0, sumY = 0, sumSquares = 0;
+        for (int i = 0; i < NUM_MODULES; i++) {
+            moduleX[i] = modules[i].getX();
+            moduleY[i] = modules[i].getY();
+            sumX += moduleX[i];
+            sumY += moduleY[i];
+            sumSquares += moduleX[i] * moduleX[i] + moduleY[i] * moduleY[i];
+            moduleStates[i] = new SwerveModuleState();
+        }
+
+        // The inverse kinematics matrix A has rows [1, 0, -y] and [0, 1, x] for each module, so
+        // A^T A = [[n, 0, -sumY], [0, n, sumX], [-sumY, sumX, sumSquares]]. Invert it by cofactors.
+        double n = NUM_MODULES;
+        double[][] normal = {
+            { n, 0, -sumY },
+            { 0, n, sumX },
+            { -sumY, sumX, sumSquares }
+        };
+        double[][] inverse = invert3x3(normal);
+
+        // pinv(A) = (A^T A)^-1 A^T; the columns of A^T for each module are [1, 0, -y] and [0, 1, x]
+        for (int k = 0; k < 3; k++) {
+            for (int i = 0; i < NUM_MODULES; i++) {
+                xCoefficients[k][i] = inverse[k][0] - inverse[k][2] * moduleY[i];
+                yCoefficients[k][i] = inverse[k][1] + inverse[k][2] * moduleX[i];
+            }
+        }
+    }
+
+    @Override
+    public SwerveModuleState[] toSwerveModuleStates(ChassisSpeeds chassisSpeeds, Translation2d centerOfRotationMeters) {
+        double vx = chassisSpeeds.vxMetersPerSecond;
+        double vy = chassisSpeeds.vyMetersPerSecond;
+        double omega = chassisSpeeds.omegaRadiansPerSecond;
+
+        // Stopped modules keep their last angle, like `SwerveDriveKinematics`
+        SwerveModuleState[] states = new SwerveModuleState[NUM_MODULES];
+        if (vx == 0.0 && vy == 0.0 && omega == 0.0) {
+            for (int i = 0; i < NUM_MODULES; i++) {
+                states[i] = new SwerveModuleState(0.0, moduleStates[i].angle);
+            }
+            moduleStates = states;
+            return states;
+        }
+
+        double centerX = centerOfRotationMeters.getX();
+        double centerY = centerOfRotationMeters.getY();
+        for (int i = 0; i < NUM_MODULES; i++) {
+            double moduleVx = vx - omega * (moduleY[i] - centerY);
+            double moduleVy = vy + omega * (moduleX[i] - centerX);
+            states[i] = new SwerveModuleState(Math.hypot(moduleVx, moduleVy), new Rotation2d(moduleVx, moduleVy));
+        }
+
+        moduleStates = states;
+        return states;
+    }
+
+    @Override
+    public SwerveModuleState[] toSwerveModuleStates(ChassisSpeeds chassisSpeeds) {
+        return toSwerveModuleStates(chassisSpeeds, new Translation2d());
+    }
+
+    @Override
+    public ChassisSpeeds toChassisSpeeds(SwerveModuleState... wheelStates) {
+        checkModuleCount(wheelStates.length);
+
+        double vx = 0, vy = 0, omega = 0;
+        for (int i = 0; i < NUM_MODULES; i++) {
+            double moduleVx = wheelStates[i].speedMetersPerSecond * wheelStates[i].angle.getCos();
+            double moduleVy = wheelStates[i].speedMetersPerSecond * wheelStates[i].angle.getSin();
+            vx += xCoefficients[0][i] * moduleVx + yCoefficients[0][i] * moduleVy;
+            vy += xCoefficients[1][i] * moduleVx + yCoefficients[1][i] * moduleVy;
+            omega += xCoefficients[2][i] * moduleVx + yCoefficients[2][i] * moduleVy;
+        }
+
+        return new ChassisSpeeds(vx, vy, omega);
+    }
+
+    @Override
+    public Twist2d toTwist2d(SwerveModulePosition... wheelDeltas) {
+        checkModuleCount(wheelDeltas.length);
+
+        double dx = 0, dy = 0, dtheta = 0;
+        for (int i = 0; i < NUM_MODULES; i++) {
+            double moduleDx = wheelDeltas[i].distanceMeters * wheelDeltas[i].angle.getCos();
+            double moduleDy = wheelDeltas[i].distanceMeters * wheelDeltas[i].angle.getSin();
+            dx += xCoefficients[0][i] * moduleDx + yCoefficients[0][i] * moduleDy;
+            dy += xCoefficients[1][i] * moduleDx + yCoefficients[1][i] * moduleDy;
+            dtheta += xCoefficients[2][i] * moduleDx + yCoefficients[2][i] * moduleDy;
+        }
+
+        return new Twist2d(dx, dy, dtheta);
+    }
+
+    /**
+     * Throws if the number of module states passed in doesn't match the number of modules.
+     * @param count The number of module states.
+     */
+    private static void checkModuleCount(int count) {
+        if (count != NUM_MODULES) {
+            throw new IllegalArgumentException(
+                "Number of modules is not consistent with number of wheel locations provided in constructor"
+            );
+        }
+    }
+
+    /**
+     * Inverts a 3x3 matrix by cofactors.
+     * @param m The matrix, which must be invertible.
+     * @return The inverse of the matrix.
+     */
+    private static double[][] invert3x3(double[][] m) {
+        double c00 = m[1][1] * m[2][2] - m[1][2] * m[2][1];
+        double c01 = m[1][2] * m[2][0] - m[1][0] * m[2][2];
+        double c02 = m[1][0] * m[2][1] - m[1][1] * m[2][0];
+        double determinant = m[0][0] * c00 + m[0][1] * c01 + m[0][2] * c02;
+
+        return new double[][] {
+            {
+                c00 / determinant,
+                (m[0][2] * m[2][1] - m[0][1] * m[2][2]) / determinant,
+                (m[0][1] * m[1][2] - m[0][2] * m[1][1]) / determinant
+            },
+            {
+                c01 / determinant,
+                (m[0][0] * m[2][2] - m[0][2] * m[2][0]) / determinant,
+                (m[0][2] * m[1][0] - m[0][0] * m[1][2]) / determinant
+            },
+            {
+                c02 / determinant,
+                (m[0][1] * m[2][0] - m[0][0] * m[2][1]) / determinant,
+                (m[0][0] * m[1][1] - m[0][1] * m[1][0]) / determinant
+            }
+        };
+    }
+}
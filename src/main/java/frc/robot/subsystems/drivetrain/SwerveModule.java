@@ -23,8 +23,13 @@ import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 
 import frc.robot.Constants;
+import frc.robot.util.CachedSparkMax;
+import frc.robot.util.HardwareSnapshot.DoubleReading;
+import frc.robot.util.MotorRole;
 import frc.robot.util.MotorUtil;
 import frc.robot.util.ShuffleboardUtil;
+import frc.robot.util.SparkMaxConfig;
+import frc.robot.util.SparkMaxConfig.FeedbackSensor;
 
 /**
  * A swerve module with a Falcon drive motor and a NEO steer motor.
@@ -33,32 +38,37 @@ public class SwerveModule implements BaseSwerveModule {
     // private final WPI_TalonFX driveMotor;
     private final CANSparkMax driveMotor;
     private RelativeEncoder driveEncoder;
-    private SparkMaxPIDController drivePidController;
+    private final CachedSparkMax driveSetpoint;
 
     private final CANSparkMax steerMotor;
     private RelativeEncoder steerRelativeEncoder;
     private SparkMaxAnalogSensor steerAbsoluteEncoder;
     private SparkMaxPIDController steerPidController;
+    private final CachedSparkMax steerSetpoint;
 
     private final double offsetRads;
     private boolean relativeFeedbackEnabled = false;
 
-    private static final double DRIVE_ROTATIONS_TO_METERS = (1.0 / 3.0) * (13.0 / 8.0) * (1.0 / 3.0) * Math.PI * Units.inchesToMeters(4.0) * 9.0 / 9.5; // 3:1, 8:13, 3:1 gear ratios, 4.0" wheel diameter, circumference = pi * d
-    private static final double STEER_ROTATIONS_TO_RADIANS = (1.0 / 52.0) * (34.0 / 63.0) * 2 * Math.PI; // 52:1 gear ratio, 63:34 pulley ratio, 1 rotation = 2pi
+    // Encoder values read once per loop: odometry and the setpoint both need the steer angle
+    private final DoubleReading drivePosition, driveVelocity, steerPosition;
+
+    public static final double DRIVE_ROTATIONS_TO_METERS = (1.0 / 3.0) * (13.0 / 8.0) * (1.0 / 3.0) * Math.PI * Units.inchesToMeters(4.0) * 9.0 / 9.5; // 3:1, 8:13, 3:1 gear ratios, 4.0" wheel diameter, circumference = pi * d
+    public static final double STEER_ROTATIONS_TO_RADIANS = (1.0 / 52.0) * (34.0 / 63.0) * 2 * Math.PI; // 52:1 gear ratio, 63:34 pulley ratio, 1 rotation = 2pi
     private static final double STEER_VOLTS_TO_RADIANS = 2 * Math.PI / 3.3; // MA3 analog output: 3.3V -> 2pi
 
-    private static final double driveP = 0.05;
+    public static final double driveP = 0.05;
     private static final double driveI = 0;
     private static final double driveD = 0;
-    private static final double driveFF = 0.186697057706;
+    public static final double driveFF = 0.186697057706;
 
-    private static final double steerP = 1.0;
+    public static final double steerP = 1.0;
     private static final double steerI = 0;
     private static final double steerD = 0;
     private static final double steerFF = 0;
 
-    private final ShuffleboardTab shuffleboardTab;
-    private final GenericEntry 
+    // Built once the robot is running (see `ShuffleboardUtil.defer()`), so null until then
+    private ShuffleboardTab shuffleboardTab;
+    private GenericEntry 
         targetVelEntry, currentVelEntry, velErrorEntry,
         targetAngleEntry, currentAngleEntry, angleErrorEntry;
 
@@ -88,42 +98,52 @@ public class SwerveModule implements BaseSwerveModule {
          * driveMotor.config_kF(0, driveFF);
          */
 
-        driveMotor = MotorUtil.createSparkMax(drivePort, (sparkMax) -> {
-            sparkMax.setIdleMode(IdleMode.kBrake);
-
-            driveEncoder = sparkMax.getEncoder();
-            driveEncoder.setPositionConversionFactor(DRIVE_ROTATIONS_TO_METERS);
-            driveEncoder.setVelocityConversionFactor(DRIVE_ROTATIONS_TO_METERS / 60.0); // min = 60s
-    
-            drivePidController = MotorUtil.createSparkMaxPIDController(sparkMax, driveEncoder);
-            drivePidController.setP(driveP);
-            drivePidController.setI(driveI);
-            drivePidController.setD(driveD);
-            drivePidController.setFF(driveFF);
-        });
-
-        steerMotor = MotorUtil.createSparkMax550(steerPort, (sparkMax) -> {
-            sparkMax.setIdleMode(IdleMode.kBrake);
-
-            steerAbsoluteEncoder = sparkMax.getAnalog(SparkMaxAnalogSensor.Mode.kAbsolute);
-            steerAbsoluteEncoder.setPositionConversionFactor(STEER_VOLTS_TO_RADIANS);
-
-            steerRelativeEncoder = sparkMax.getEncoder();
-            steerRelativeEncoder.setPositionConversionFactor(STEER_ROTATIONS_TO_RADIANS);
-            steerRelativeEncoder.setPosition(steerAbsoluteEncoder.getPosition()); // Set initial position to absolute value
-
-            steerPidController = MotorUtil.createSparkMaxPIDController(sparkMax, steerAbsoluteEncoder);
-            steerPidController.setP(steerP);
-            steerPidController.setI(steerI);
-            steerPidController.setD(steerD);
-            steerPidController.setFF(steerFF);
-    
-            steerPidController.setPositionPIDWrappingEnabled(true);
-            steerPidController.setPositionPIDWrappingMinInput(0.0);
-            steerPidController.setPositionPIDWrappingMaxInput(2 * Math.PI);
-        });
-
-        shuffleboardTab = Shuffleboard.getTab("Swerve " + drivePort + " " + steerPort);
+        driveMotor = MotorUtil.createSparkMax(drivePort, MotorRole.DRIVE, new SparkMaxConfig()
+            .idleMode(IdleMode.kBrake)
+            .encoderConversionFactors(DRIVE_ROTATIONS_TO_METERS, DRIVE_ROTATIONS_TO_METERS / 60.0) // min = 60s
+            .pid(FeedbackSensor.PRIMARY_ENCODER, driveP, driveI, driveD, driveFF)
+        );
+        driveEncoder = driveMotor.getEncoder();
+        driveSetpoint = new CachedSparkMax(driveMotor);
+
+        steerMotor = MotorUtil.createSparkMax550(steerPort, MotorRole.STEER, new SparkMaxConfig()
+            .idleMode(IdleMode.kBrake)
+            .analogPositionConversionFactor(STEER_VOLTS_TO_RADIANS)
+            .encoderConversionFactors(STEER_ROTATIONS_TO_RADIANS, 1.0)
+            .pid(FeedbackSensor.ANALOG, steerP, steerI, steerD, steerFF)
+            .pidWrapping(0.0, 2 * Math.PI)
+        );
+        steerAbsoluteEncoder = steerMotor.getAnalog(SparkMaxAnalogSensor.Mode.kAbsolute);
+        steerRelativeEncoder = steerMotor.getEncoder();
+        steerPidController = steerMotor.getPIDController();
+        steerSetpoint = new CachedSparkMax(steerMotor);
+
+        // Set initial position to absolute value, once the conversion factors are applied. The drive motor is
+        // awaited too since odometry reads it as soon as the swerve subsystem is constructed.
+        MotorUtil.awaitConfiguration(driveMotor, steerMotor);
+        steerRelativeEncoder.setPosition(steerAbsoluteEncoder.getPosition());
+
+        this.offsetRads = offsetRads;
+
+        // The steer angle is read from whichever encoder the steer PID uses
+        drivePosition = new DoubleReading("Drive " + drivePort + " position", driveEncoder::getPosition);
+        driveVelocity = new DoubleReading("Drive " + drivePort + " velocity", driveEncoder::getVelocity);
+        steerPosition = new DoubleReading("Steer " + steerPort + " position", () -> relativeFeedbackEnabled
+            ? steerRelativeEncoder.getPosition()
+            : steerAbsoluteEncoder.getPosition()
+        );
+
+        // The debug tab isn't needed to drive
+        ShuffleboardUtil.defer(() -> createShuffleboardTab(drivePort, steerPort));
+    }
+
+    /**
+     * Creates the module's debug tab on Shuffleboard.
+     * @param drivePort The drive motor's CAN ID, for the name of the tab.
+     * @param steerPort The steer motor's CAN ID, for the name of the tab.
+     */
+    private void createShuffleboardTab(int drivePort, int steerPort) {
+        ShuffleboardTab shuffleboardTab = Shuffleboard.getTab("Swerve " + drivePort + " " + steerPort);
         targetVelEntry = shuffleboardTab.add("Target velocity (mps)", 0.0)
             .withPosition(0, 0)
             .withSize(2, 1)
@@ -158,7 +178,7 @@ public class SwerveModule implements BaseSwerveModule {
             .getEntry();
         ShuffleboardUtil.addBooleanListener(shuffleboardEnableEntry, (value) -> SHUFFLEBOARD_ENABLE = value);
 
-        this.offsetRads = offsetRads;
+        this.shuffleboardTab = shuffleboardTab;
     }
 
     /**
@@ -179,7 +199,7 @@ public class SwerveModule implements BaseSwerveModule {
     public SwerveModulePosition getState() {
         return new SwerveModulePosition(
             // driveMotor.getSelectedSensorPosition() * DRIVE_TICKS_TO_METERS,
-            driveEncoder.getPosition(),
+            drivePosition.get(),
             getWrappedAngle()
         );
     }
@@ -199,11 +219,11 @@ public class SwerveModule implements BaseSwerveModule {
         double targetAngleRads = optimized.angle.getRadians() - offsetRads;
         double angleErrorRads = optimized.angle.minus(currentAngle).getRadians();
 
-        double currentVelocity = driveEncoder.getVelocity();
+        double currentVelocity = driveVelocity.get();
         double targetVelocity = optimized.speedMetersPerSecond * Math.abs(Math.cos(angleErrorRads));
 
         // Set shuffleboard debug info
-        if (SHUFFLEBOARD_ENABLE) {
+        if (SHUFFLEBOARD_ENABLE && shuffleboardTab != null) {
             targetVelEntry.setDouble(targetVelocity);
             currentVelEntry.setDouble(currentVelocity);
             velErrorEntry.setDouble(targetVelocity - currentVelocity);
@@ -214,8 +234,9 @@ public class SwerveModule implements BaseSwerveModule {
         }
 
         // driveMotor.set(ControlMode.Velocity, optimized.getFirst() / (DRIVE_TICKS_TO_METERS * 10.0));
-        drivePidController.setReference(targetVelocity, ControlType.kVelocity);
-        steerPidController.setReference(targetAngleRads, ControlType.kPosition);
+        // Setpoints that haven't changed since the last loop (e.g. while stopped or holding a heading) aren't resent
+        driveSetpoint.setReference(targetVelocity, ControlType.kVelocity);
+        steerSetpoint.setReference(targetAngleRads, ControlType.kPosition);
     }
 
     /**
@@ -247,8 +268,10 @@ public class SwerveModule implements BaseSwerveModule {
     public void setSteerRelativeFeedback(boolean useRelative) {
         steerPidController.setFeedbackDevice(useRelative ? steerRelativeEncoder : steerAbsoluteEncoder);
         steerPidController.setPositionPIDWrappingEnabled(!useRelative);
+        steerSetpoint.invalidate();
 
         this.relativeFeedbackEnabled = useRelative;
+        steerPosition.refresh();
     }
 
     /**
@@ -258,10 +281,7 @@ public class SwerveModule implements BaseSwerveModule {
      * @return The current [-pi, pi] angle of the module, as a `Rotation2d`.
      */
     private Rotation2d getWrappedAngle() {
-        double angleRads = relativeFeedbackEnabled
-            ? steerRelativeEncoder.getPosition()
-            : steerAbsoluteEncoder.getPosition();
-        double wrappedAngleRads = MathUtil.angleModulus(angleRads + offsetRads);
+        double wrappedAngleRads = MathUtil.angleModulus(steerPosition.get() + offsetRads);
 
         return new Rotation2d(wrappedAngleRads);
     }
@@ -271,7 +291,7 @@ public class SwerveModule implements BaseSwerveModule {
      * @return The current unwrapped angle of the module, as a `Rotation2d`.
      */
     private Rotation2d getRelativeAngle() {
-        double angleRads = steerRelativeEncoder.getPosition() + offsetRads;
+        double angleRads = steerPosition.get() + offsetRads;
         return new Rotation2d(angleRads);
     }
 
@@ -16,6 +16,7 @@ import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 
+import frc.robot.util.MotorRole;
 import frc.robot.util.MotorUtil;
 
 /**
@@ -45,7 +46,7 @@ public class SwerveModule2020 implements BaseSwerveModule {
     private static final double steerFF = 0;
 
     public SwerveModule2020(int drivePort, int steerPort, double offsetRads) {
-        driveMotor = MotorUtil.createSparkMax(drivePort, (sparkMax) -> {
+        driveMotor = MotorUtil.createSparkMax(drivePort, MotorRole.DRIVE, (sparkMax) -> {
             sparkMax.setIdleMode(IdleMode.kBrake);
 
             driveEncoder = sparkMax.getEncoder();
@@ -59,7 +60,7 @@ public class SwerveModule2020 implements BaseSwerveModule {
             drivePidController.setFF(driveFF);
         });
 
-        steerMotor = MotorUtil.createTalonSRX(steerPort);
+        steerMotor = MotorUtil.createTalonSRX(steerPort, MotorRole.STEER);
         steerMotor.setNeutralMode(NeutralMode.Brake);
         steerMotor.setInverted(true);
 
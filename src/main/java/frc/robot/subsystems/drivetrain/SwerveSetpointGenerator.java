@@ -0,0 +1,176 @@
+package frc.robot.subsystems.drivetrain;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Generates swerve module setpoints that the modules can actually reach in one loop. Given the previous setpoints,
+ * each module's velocity vector is moved from its previous value towards its desired value by the largest common
+ * fraction such that no module's drive speed changes by more than its acceleration limit, and no module has to
+ * steer faster than its steer velocity limit. Since kinematics is linear, moving every module by the same fraction
+ * moves the chassis in a straight line from its previous speeds towards the desired speeds.
+ *
+ * Modules moving slower than they could accelerate to in one loop are exempt from the steer limit (their angle is
+ * still rate limited), so the robot can start moving from rest in any direction without waiting for the modules.
+ *
+ * Like the modules, the setpoints only move one loop's worth towards the desired speeds per call, so the desired
+ * speeds must be passed in every loop until they are reached; `reset()` jumps straight to new setpoints.
+ */
+public class SwerveSetpointGenerator {
+    private static final int BISECTION_ITERATIONS = 12;
+    private static final double EPSILON = 1e-9;
+
+    private final SwerveDriveKinematics kinematics;
+    private final double maxModuleSpeed;
+    private final double maxOmega;
+    private final double maxDriveAccel;
+    private final double maxSteerVelocity;
+
+    // Previous setpoints of each module, as a signed speed along its angle
+    private final double[] prevSpeeds;
+    private final double[] prevAngles;
+
+    // Scratch arrays for the previous and desired module velocity vectors
+    private final double[] prevVx, prevVy, desiredVx, desiredVy;
+
+    /**
+     * Creates a setpoint generator with all modules at rest.
+     * @param kinematics The kinematics of the drivetrain.
+     * @param maxModuleSpeed The maximum speed of each module, in m/s.
+     * @param maxOmega The maximum angular velocity of the chassis, in rads/s.
+     * @param maxDriveAccel The maximum drive acceleration of each module, in m/s^2.
+     * @param maxSteerVelocity The maximum steer velocity of each module, in rads/s.
+     */
+    public SwerveSetpointGenerator(
+        SwerveDriveKinematics kinematics,
+        double maxModuleSpeed, double maxOmega,
+        double maxDriveAccel, double maxSteerVelocity
+    ) {
+        this.kinematics = kinematics;
+        this.maxModuleSpeed = maxModuleSpeed;
+        this.maxOmega = maxOmega;
+        this.maxDriveAccel = maxDriveAccel;
+        this.maxSteerVelocity = maxSteerVelocity;
+
+        int numModules = kinematics.toSwerveModuleStates(new ChassisSpeeds()).length;
+        prevSpeeds = new double[numModules];
+        prevAngles = new double[numModules];
+        prevVx = new double[numModules];
+        prevVy = new double[numModules];
+        desiredVx = new double[numModules];
+        desiredVy = new double[numModules];
+    }
+
+    /**
+     * Generates the module setpoints for this loop.
+     * @param desiredSpeeds The desired robot-relative chassis speeds.
+     * @param dtSeconds The loop period, in seconds.
+     * @return The module states to command, in the same order as the kinematics.
+     */
+    public SwerveModuleState[] generate(ChassisSpeeds desiredSpeeds, double dtSeconds) {
+        // Desaturate the desired speeds the same way driver input always has been
+        SwerveModuleState[] desiredStates = kinematics.toSwerveModuleStates(desiredSpeeds);
+        SwerveDriveKinematics.desaturateWheelSpeeds(
+            desiredStates, desiredSpeeds,
+            maxModuleSpeed, maxModuleSpeed, maxOmega
+        );
+
+        for (int i = 0; i < prevSpeeds.length; i++) {
+            prevVx[i] = prevSpeeds[i] * Math.cos(prevAngles[i]);
+            prevVy[i] = prevSpeeds[i] * Math.sin(prevAngles[i]);
+            desiredVx[i] = desiredStates[i].speedMetersPerSecond * desiredStates[i].angle.getCos();
+            desiredVy[i] = desiredStates[i].speedMetersPerSecond * desiredStates[i].angle.getSin();
+        }
+
+        double maxDriveStep = maxDriveAccel * dtSeconds;
+        double maxSteerStep = maxSteerVelocity * dtSeconds;
+
+        // The previous setpoints (s = 0) are always feasible, so bisect for the largest feasible s
+        double s = 1.0;
+        if (!isFeasible(1.0, maxDriveStep, maxSteerStep)) {
+            double feasible = 0.0;
+            double infeasible = 1.0;
+            for (int i = 0; i < BISECTION_ITERATIONS; i++) {
+                double mid = (feasible + infeasible) / 2.0;
+                if (isFeasible(mid, maxDriveStep, maxSteerStep)) feasible = mid;
+                else infeasible = mid;
+            }
+            s = feasible;
+        }
+
+        SwerveModuleState[] states = new SwerveModuleState[prevSpeeds.length];
+        for (int i = 0; i < prevSpeeds.length; i++) {
+            double vx = prevVx[i] + s * (desiredVx[i] - prevVx[i]);
+            double vy = prevVy[i] + s * (desiredVy[i] - prevVy[i]);
+            double speed = Math.hypot(vx, vy);
+
+            // A stopped module keeps its angle
+            double angle = prevAngles[i];
+            double signedSpeed = 0;
+            if (speed > EPSILON) {
+                double angleDelta = MathUtil.angleModulus(Math.atan2(vy, vx) - prevAngles[i]);
+                signedSpeed = speed;
+
+                // Drive backwards instead of steering more than 90 degrees
+                if (Math.abs(angleDelta) > Math.PI / 2.0) {
+                    angleDelta = MathUtil.angleModulus(angleDelta + Math.PI);
+                    signedSpeed = -speed;
+                }
+
+                angle = MathUtil.angleModulus(prevAngles[i] + MathUtil.clamp(angleDelta, -maxSteerStep, maxSteerStep));
+            }
+
+            states[i] = new SwerveModuleState(signedSpeed, new Rotation2d(angle));
+            prevSpeeds[i] = signedSpeed;
+            prevAngles[i] = angle;
+        }
+
+        return states;
+    }
+
+    /**
+     * Resets the previous setpoints, e.g. when the modules were being commanded without the generator.
+     * @param states The current module states, in the same order as the kinematics.
+     */
+    public void reset(SwerveModuleState... states) {
+        for (int i = 0; i < prevSpeeds.length; i++) {
+            prevSpeeds[i] = states[i].speedMetersPerSecond;
+            prevAngles[i] = states[i].angle.getRadians();
+        }
+    }
+
+    /**
+     * Gets whether moving every module a fraction of the way from its previous to its desired velocity is within
+     * the drive acceleration and steer velocity limits.
+     * @param s The fraction of the way to the desired velocities.
+     * @param maxDriveStep The maximum change in drive speed this loop, in m/s.
+     * @param maxSteerStep The maximum change in module angle this loop, in radians.
+     * @return Whether the fraction is feasible.
+     */
+    private boolean isFeasible(double s, double maxDriveStep, double maxSteerStep) {
+        for (int i = 0; i < prevSpeeds.length; i++) {
+            double vx = prevVx[i] + s * (desiredVx[i] - prevVx[i]);
+            double vy = prevVy[i] + s * (desiredVy[i] - prevVy[i]);
+            double speed = Math.hypot(vx, vy);
+            if (speed <= EPSILON) {
+                if (Math.abs(prevSpeeds[i]) > maxDriveStep + EPSILON) return false;
+                continue;
+            }
+
+            double angleDelta = MathUtil.angleModulus(Math.atan2(vy, vx) - prevAngles[i]);
+            double signedSpeed = speed;
+            if (Math.abs(angleDelta) > Math.PI / 2.0) {
+                angleDelta = MathUtil.angleModulus(angleDelta + Math.PI);
+                signedSpeed = -speed;
+            }
+
+            if (Math.abs(signedSpeed - prevSpeeds[i]) > maxDriveStep + EPSILON) return false;
+            if (speed > maxDriveStep && Math.abs(angleDelta) > maxSteerStep + EPSILON) return false;
+        }
+
+        return true;
+    }
+}
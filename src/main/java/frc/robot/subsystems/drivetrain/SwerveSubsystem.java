@@ -1,7 +1,8 @@
 package frc.robot.subsystems.drivetrain;
 
-import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.RobotBase;
+import frc.robot.simulation.SimSwerveModule;
 import frc.robot.subsystems.leds.LEDSubsystem;
 import frc.robot.vision.PhotonWrapper;
 
@@ -15,12 +16,13 @@ public class SwerveSubsystem extends BaseSwerveSubsystem {
 
     public SwerveSubsystem(PhotonWrapper photonWrapper, LEDSubsystem ledSubsystem) {
         super(
-            new SwerveModule.TopLeft(TL_DRIVE, TL_STEER, TL_OFFSET_RADS),
-            new SwerveModule.TopRight(TR_DRIVE, TR_STEER, TR_OFFSET_RADS),
-            new SwerveModule.BottomLeft(BL_DRIVE, BL_STEER, BL_OFFSET_RADS),
-            new SwerveModule.BottomRight(BR_DRIVE, BR_STEER, BR_OFFSET_RADS),
+            // In simulation, use physics models of the modules instead of talking to SparkMaxes
+            RobotBase.isReal() ? new SwerveModule.TopLeft(TL_DRIVE, TL_STEER, TL_OFFSET_RADS) : new SimSwerveModule(),
+            RobotBase.isReal() ? new SwerveModule.TopRight(TR_DRIVE, TR_STEER, TR_OFFSET_RADS) : new SimSwerveModule(),
+            RobotBase.isReal() ? new SwerveModule.BottomLeft(BL_DRIVE, BL_STEER, BL_OFFSET_RADS) : new SimSwerveModule(),
+            RobotBase.isReal() ? new SwerveModule.BottomRight(BR_DRIVE, BR_STEER, BR_OFFSET_RADS) : new SimSwerveModule(),
             MAX_VEL, MAX_ACCEL, MAX_OMEGA, MAX_ALPHA,
-            new SwerveDriveKinematics(TL_POS, TR_POS, BL_POS, BR_POS),
+            createKinematics(TL_POS, TR_POS, BL_POS, BR_POS),
             photonWrapper,
             ledSubsystem
         );
@@ -1,6 +1,5 @@
 package frc.robot.subsystems.drivetrain;
 
-import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import frc.robot.vision.PhotonWrapper;
 
 import static frc.robot.Constants.SwerveConstants2020.*;
@@ -18,7 +17,7 @@ public class SwerveSubsystem2020 extends BaseSwerveSubsystem {
             new SwerveModule2020(BL_DRIVE, BL_STEER, BL_OFFSET_RADS),
             new SwerveModule2020(BR_DRIVE, BR_STEER, BR_OFFSET_RADS),
             MAX_VEL, MAX_ACCEL, MAX_OMEGA, MAX_ALPHA,
-            new SwerveDriveKinematics(TL_POS, TR_POS, BL_POS, BR_POS),
+            createKinematics(TL_POS, TR_POS, BL_POS, BR_POS),
             photonWrapper,
             null
         );
@@ -0,0 +1,140 @@
+package frc.robot.subsystems.drivetrain;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+
+import static frc.robot.Constants.SwerveConstants.TL_POS;
+import static frc.robot.Constants.TipOverConstants.*;
+import static frc.robot.Constants.TiltedElevatorConstants.EXTENSION_ANGLE_RADIANS;
+
+/**
+ * Limits the acceleration of the chassis so that the robot doesn't tip over, given the extension of the tilted
+ * elevator. Extending the elevator raises the robot's center of gravity and moves it forward, lowering the
+ * acceleration at which the robot tips; when stowed, the limits are above what the wheels can put down.
+ *
+ * The robot tips when the zero moment point, the center of gravity offset by -a * h / g, leaves the rectangle
+ * formed by the modules. This is checked independently along the robot's x and y axes, and the commanded
+ * acceleration is scaled down (keeping its direction) until both are satisfied.
+ *
+ * Each call moves at most one loop's worth of acceleration from the last speeds, so the desired speeds must be
+ * passed in every loop until they are reached; `reset()` jumps straight to new speeds.
+ */
+public class TipOverLimiter {
+    private static final double GRAVITY = 9.81;
+
+    private final double supportHalfLengthMeters;
+    private final double supportHalfWidthMeters;
+
+    private ChassisSpeeds lastSpeeds = new ChassisSpeeds();
+
+    /**
+     * Creates a tip-over limiter for the current robot, with the modules' positions as its support rectangle.
+     */
+    public TipOverLimiter() {
+        this(Math.abs(TL_POS.getX()), Math.abs(TL_POS.getY()));
+    }
+
+    /**
+     * Creates a tip-over limiter.
+     * @param supportHalfLengthMeters The distance from the center of the robot to the front and back wheels.
+     * @param supportHalfWidthMeters The distance from the center of the robot to the left and right wheels.
+     */
+    public TipOverLimiter(double supportHalfLengthMeters, double supportHalfWidthMeters) {
+        this.supportHalfLengthMeters = supportHalfLengthMeters;
+        this.supportHalfWidthMeters = supportHalfWidthMeters;
+    }
+
+    /**
+     * Limits the change from the last speeds to the desired speeds. Angular velocity is passed through unchanged,
+     * but the rotation of the robot over the loop is accounted for, so that turning while driving is limited by
+     * its centripetal acceleration.
+     *
+     * @param desiredSpeeds The desired robot-relative chassis speeds.
+     * @param extensionMeters The current extension of the tilted elevator, in meters.
+     * @param dtSeconds The time since the last speeds, in seconds.
+     * @return The limited robot-relative chassis speeds.
+     */
+    public ChassisSpeeds calculate(ChassisSpeeds desiredSpeeds, double extensionMeters, double dtSeconds) {
+        // Express the last velocity in the current robot frame
+        double dTheta = lastSpeeds.omegaRadiansPerSecond * dtSeconds;
+        double cos = Math.cos(dTheta);
+        double sin = Math.sin(dTheta);
+        double lastVx = lastSpeeds.vxMetersPerSecond * cos + lastSpeeds.vyMetersPerSecond * sin;
+        double lastVy = -lastSpeeds.vxMetersPerSecond * sin + lastSpeeds.vyMetersPerSecond * cos;
+
+        double ax = (desiredSpeeds.vxMetersPerSecond - lastVx) / dtSeconds;
+        double ay = (desiredSpeeds.vyMetersPerSecond - lastVy) / dtSeconds;
+
+        double scale = 1.0;
+        double maxForward = getMaxForwardAccel(extensionMeters);
+        double maxBackward = getMaxBackwardAccel(extensionMeters);
+        double maxSideways = getMaxSidewaysAccel(extensionMeters);
+        if (ax > maxForward) scale = Math.min(scale, maxForward / ax);
+        if (-ax > maxBackward) scale = Math.min(scale, maxBackward / -ax);
+        if (Math.abs(ay) > maxSideways) scale = Math.min(scale, maxSideways / Math.abs(ay));
+
+        lastSpeeds = new ChassisSpeeds(
+            lastVx + ax * scale * dtSeconds,
+            lastVy + ay * scale * dtSeconds,
+            desiredSpeeds.omegaRadiansPerSecond
+        );
+        return lastSpeeds;
+    }
+
+    /**
+     * Resets the last speeds, e.g. when the chassis was being driven without the limiter.
+     * @param speeds The current robot-relative chassis speeds.
+     */
+    public void reset(ChassisSpeeds speeds) {
+        lastSpeeds = speeds;
+    }
+
+    /**
+     * Gets the maximum forward acceleration before the robot tips backwards.
+     * @param extensionMeters The extension of the tilted elevator, in meters.
+     * @return The maximum acceleration, in m/s^2.
+     */
+    public double getMaxForwardAccel(double extensionMeters) {
+        return TIP_SAFETY_FACTOR * GRAVITY * (supportHalfLengthMeters + getCoGXMeters(extensionMeters))
+            / getCoGHeightMeters(extensionMeters);
+    }
+
+    /**
+     * Gets the maximum backward acceleration (braking while driving forward) before the robot tips forwards.
+     * @param extensionMeters The extension of the tilted elevator, in meters.
+     * @return The maximum acceleration, in m/s^2.
+     */
+    public double getMaxBackwardAccel(double extensionMeters) {
+        return TIP_SAFETY_FACTOR * GRAVITY * (supportHalfLengthMeters - getCoGXMeters(extensionMeters))
+            / getCoGHeightMeters(extensionMeters);
+    }
+
+    /**
+     * Gets the maximum sideways acceleration before the robot tips over sideways.
+     * @param extensionMeters The extension of the tilted elevator, in meters.
+     * @return The maximum acceleration, in m/s^2.
+     */
+    public double getMaxSidewaysAccel(double extensionMeters) {
+        return TIP_SAFETY_FACTOR * GRAVITY * supportHalfWidthMeters / getCoGHeightMeters(extensionMeters);
+    }
+
+    /**
+     * Gets the height of the robot's center of gravity.
+     * @param extensionMeters The extension of the tilted elevator, in meters.
+     * @return The height, in meters.
+     */
+    public static double getCoGHeightMeters(double extensionMeters) {
+        double carriageHeight = CARRIAGE_STOWED_COG_HEIGHT_METERS + extensionMeters * Math.sin(EXTENSION_ANGLE_RADIANS);
+        return (CHASSIS_MASS_KG * CHASSIS_COG_HEIGHT_METERS + CARRIAGE_MASS_KG * carriageHeight)
+            / (CHASSIS_MASS_KG + CARRIAGE_MASS_KG);
+    }
+
+    /**
+     * Gets the forward position of the robot's center of gravity. The chassis is assumed to be centered.
+     * @param extensionMeters The extension of the tilted elevator, in meters.
+     * @return The position forward of the center of the robot, in meters.
+     */
+    public static double getCoGXMeters(double extensionMeters) {
+        double carriageX = CARRIAGE_STOWED_COG_X_METERS + extensionMeters * Math.cos(EXTENSION_ANGLE_RADIANS);
+        return CARRIAGE_MASS_KG * carriageX / (CHASSIS_MASS_KG + CARRIAGE_MASS_KG);
+    }
+}
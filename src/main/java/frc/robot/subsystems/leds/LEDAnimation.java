@@ -0,0 +1,142 @@
+package frc.robot.subsystems.leds;
+
+/**
+ * An `LEDEffect` declared with a priority, rendered onto its own layer by an `LEDAnimationEngine`. Animations
+ * with higher priorities are drawn on top of those with lower priorities.
+ * <p>
+ * `start()`, `play()`, and `stop()` only record a request; it is applied on the engine's next update so that
+ * effect timing always comes from the engine's clock.
+ */
+public class LEDAnimation {
+    private enum State {
+        IDLE, PLAYING, FINISHING
+    }
+
+    private final LEDEffect effect;
+    private final int priority;
+    private LEDLayer layer;
+
+    private State state = State.IDLE;
+    private double startTimeSeconds;
+    private double endTimeSeconds;
+    private int finishedLEDs;
+
+    // Requests applied on the next update. A requested duration of NaN means no start was requested.
+    private double requestedDurationSeconds = Double.NaN;
+    private boolean stopRequested = false;
+
+    /**
+     * Declares an animation.
+     * @param effect The effect to render.
+     * @param priority The priority of the animation. Higher priorities are drawn on top.
+     */
+    public LEDAnimation(LEDEffect effect, int priority) {
+        this.effect = effect;
+        this.priority = priority;
+    }
+
+    /**
+     * Plays the animation until it is stopped. Does nothing if the animation is already playing indefinitely.
+     */
+    public void start() {
+        play(Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Plays the animation for a duration. If the animation is already playing, its duration is extended
+     * without restarting the effect.
+     * @param durationSeconds The duration to play for from the next update, in seconds.
+     */
+    public void play(double durationSeconds) {
+        requestedDurationSeconds = durationSeconds;
+        stopRequested = false;
+    }
+
+    /**
+     * Stops the animation and clears its layer.
+     */
+    public void stop() {
+        requestedDurationSeconds = Double.NaN;
+        stopRequested = true;
+    }
+
+    /**
+     * Gets whether the animation is currently playing (or has been requested to play).
+     * @return Whether the animation is playing.
+     */
+    public boolean isPlaying() {
+        return !Double.isNaN(requestedDurationSeconds) || (state == State.PLAYING && !stopRequested);
+    }
+
+    /**
+     * Gets the effect rendered by this animation.
+     * @return The effect.
+     */
+    public LEDEffect getEffect() {
+        return effect;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Attaches the animation to the layer it renders onto.
+     * @param layer The layer.
+     */
+    void attach(LEDLayer layer) {
+        this.layer = layer;
+    }
+
+    LEDLayer getLayer() {
+        return layer;
+    }
+
+    /**
+     * Applies pending requests and renders a frame of the animation if it is active. When a timed animation
+     * ends, scrolling effects keep scrolling transparent LEDs until they have scrolled off the strip; other
+     * effects are cleared immediately.
+     * @param timestampSeconds The current timestamp, in seconds.
+     * @param dtSeconds The time since the previous update, in seconds.
+     */
+    void update(double timestampSeconds, double dtSeconds) {
+        if (stopRequested) {
+            stopRequested = false;
+            if (state != State.IDLE) layer.reset();
+            state = State.IDLE;
+        }
+
+        if (!Double.isNaN(requestedDurationSeconds)) {
+            if (state != State.PLAYING) {
+                state = State.PLAYING;
+                startTimeSeconds = timestampSeconds;
+                endTimeSeconds = timestampSeconds + requestedDurationSeconds;
+            } else {
+                endTimeSeconds = Math.max(endTimeSeconds, timestampSeconds + requestedDurationSeconds);
+            }
+            requestedDurationSeconds = Double.NaN;
+        }
+
+        if (state == State.PLAYING && timestampSeconds >= endTimeSeconds) {
+            if (effect.scrolls()) {
+                state = State.FINISHING;
+                finishedLEDs = 0;
+            } else {
+                layer.reset();
+                state = State.IDLE;
+            }
+        }
+
+        switch (state) {
+            case PLAYING -> effect.render(layer, timestampSeconds - startTimeSeconds, dtSeconds);
+            case FINISHING -> {
+                int inc = effect.scrollIncrement(dtSeconds);
+                layer.incrementColors(inc, LEDColor.TRANSPARENT);
+
+                finishedLEDs += inc;
+                if (finishedLEDs >= layer.getLength()) state = State.IDLE;
+            }
+            case IDLE -> {}
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package frc.robot.subsystems.leds;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Renders a fixed set of declared `LEDAnimation`s. Each animation gets its own layer, and the layers are
+ * composited in priority order (lowest priority on the bottom). Only active animations are evaluated each
+ * frame; idle animations leave their (transparent) layers untouched.
+ */
+public class LEDAnimationEngine {
+    private final LEDAnimation[] animations;
+    private final LEDCompositor compositor;
+
+    private double lastTimestampSeconds = Double.NaN;
+
+    /**
+     * Creates an animation engine for a strip.
+     * @param length The number of LEDs in the strip.
+     * @param animations The animations to render. Animations with equal priorities are drawn in the order given.
+     */
+    public LEDAnimationEngine(int length, LEDAnimation... animations) {
+        this.animations = animations.clone();
+        Arrays.sort(this.animations, Comparator.comparingInt(LEDAnimation::getPriority));
+
+        LEDLayer[] layers = new LEDLayer[this.animations.length];
+        for (int i = 0; i < layers.length; i++) {
+            layers[i] = new LEDLayer(length);
+            this.animations[i].attach(layers[i]);
+        }
+        compositor = new LEDCompositor(length, layers);
+    }
+
+    /**
+     * Renders a frame of every active animation.
+     * @param timestampSeconds The current timestamp, in seconds.
+     */
+    public void update(double timestampSeconds) {
+        double dt = Double.isNaN(lastTimestampSeconds) ? 0 : timestampSeconds - lastTimestampSeconds;
+        lastTimestampSeconds = timestampSeconds;
+
+        for (LEDAnimation animation : animations) {
+            animation.update(timestampSeconds, dt);
+        }
+    }
+
+    /**
+     * Gets the compositor for the animations' layers, to display on an `LEDStrip`.
+     * @return The compositor.
+     */
+    public LEDCompositor getCompositor() {
+        return compositor;
+    }
+}
@@ -0,0 +1,149 @@
+package frc.robot.subsystems.leds;
+
+import edu.wpi.first.wpilibj.util.Color;
+
+/**
+ * Utilities for working with colors packed into a single `int` as 0xRRGGBBAA. Packed colors let the LED
+ * layers and compositor work on primitive arrays without allocating a `Color` object per LED per loop.
+ * An alpha of 0 is fully transparent and an alpha of 255 is fully opaque.
+ */
+public class LEDColor {
+    public static final int TRANSPARENT = 0;
+    public static final int BLACK = rgb(0, 0, 0);
+
+    /**
+     * Packs red, green, blue, and alpha components into a single color.
+     * @param red The [0, 255] red component.
+     * @param green The [0, 255] green component.
+     * @param blue The [0, 255] blue component.
+     * @param alpha The [0, 255] alpha component.
+     * @return The packed color.
+     */
+    public static int rgba(int red, int green, int blue, int alpha) {
+        return (red & 0xFF) << 24 | (green & 0xFF) << 16 | (blue & 0xFF) << 8 | (alpha & 0xFF);
+    }
+
+    /**
+     * Packs red, green, and blue components into a single fully opaque color.
+     * @param red The [0, 255] red component.
+     * @param green The [0, 255] green component.
+     * @param blue The [0, 255] blue component.
+     * @return The packed color.
+     */
+    public static int rgb(int red, int green, int blue) {
+        return rgba(red, green, blue, 255);
+    }
+
+    /**
+     * Packs a WPILib `Color` into a fully opaque color.
+     * @param color The color to pack.
+     * @return The packed color.
+     */
+    public static int fromColor(Color color) {
+        return rgb((int) Math.round(color.red * 255), (int) Math.round(color.green * 255), (int) Math.round(color.blue * 255));
+    }
+
+    /**
+     * Creates a fully opaque color from HSV values. This mirrors `Color.fromHSV()` without allocating.
+     * @param h The [0, 180) hue.
+     * @param s The [0, 255] saturation.
+     * @param v The [0, 255] value.
+     * @return The packed color.
+     */
+    public static int fromHSV(int h, int s, int v) {
+        if (s == 0) return rgb(v, v, v);
+
+        int region = h / 30;
+        int remainder = (h - region * 30) * 6;
+
+        int p = (v * (255 - s)) >> 8;
+        int q = (v * (255 - ((s * remainder) >> 8))) >> 8;
+        int t = (v * (255 - ((s * (255 - remainder)) >> 8))) >> 8;
+
+        return switch (region) {
+            case 0 -> rgb(v, t, p);
+            case 1 -> rgb(q, v, p);
+            case 2 -> rgb(p, v, t);
+            case 3 -> rgb(p, q, v);
+            case 4 -> rgb(t, p, v);
+            default -> rgb(v, p, q);
+        };
+    }
+
+    public static int red(int color) {
+        return (color >>> 24) & 0xFF;
+    }
+
+    public static int green(int color) {
+        return (color >>> 16) & 0xFF;
+    }
+
+    public static int blue(int color) {
+        return (color >>> 8) & 0xFF;
+    }
+
+    public static int alpha(int color) {
+        return color & 0xFF;
+    }
+
+    /**
+     * Returns a color with the same red, green, and blue components but a different alpha.
+     * @param color The packed color.
+     * @param alpha The new [0, 255] alpha.
+     * @return The packed color with the new alpha.
+     */
+    public static int withAlpha(int color, int alpha) {
+        return (color & 0xFFFFFF00) | (alpha & 0xFF);
+    }
+
+    /**
+     * Scales the red, green, and blue components of a color by a factor, keeping its alpha.
+     * @param color The packed color.
+     * @param factor The [0.0, 1.0] factor to scale by.
+     * @return The scaled color.
+     */
+    public static int scale(int color, double factor) {
+        return rgba(
+            (int) (red(color) * factor),
+            (int) (green(color) * factor),
+            (int) (blue(color) * factor),
+            alpha(color)
+        );
+    }
+
+    /**
+     * Linearly interpolates between two colors, including alpha.
+     * @param from The color at t = 0.
+     * @param to The color at t = 255.
+     * @param t The [0, 255] interpolation weight of `to`.
+     * @return The interpolated color.
+     */
+    public static int lerp(int from, int to, int t) {
+        int u = 255 - t;
+        return rgba(
+            (red(from) * u + red(to) * t + 127) / 255,
+            (green(from) * u + green(to) * t + 127) / 255,
+            (blue(from) * u + blue(to) * t + 127) / 255,
+            (alpha(from) * u + alpha(to) * t + 127) / 255
+        );
+    }
+
+    /**
+     * Alpha-blends a color on top of an opaque destination color ("source over").
+     * @param dst The opaque color underneath.
+     * @param src The color to draw on top.
+     * @return The opaque blended color.
+     */
+    public static int blend(int dst, int src) {
+        int a = alpha(src);
+        if (a == 255) return src;
+        if (a == 0) return dst;
+
+        int u = 255 - a;
+        return rgb(
+            (red(src) * a + red(dst) * u + 127) / 255,
+            (green(src) * a + green(dst) * u + 127) / 255,
+            (blue(src) * a + blue(dst) * u + 127) / 255
+        );
+    }
+}
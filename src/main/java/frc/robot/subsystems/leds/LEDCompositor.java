@@ -0,0 +1,56 @@
+package frc.robot.subsystems.leds;
+
+import java.util.Arrays;
+
+/**
+ * Composites a fixed stack of `LEDLayer`s into a single opaque frame. Layers are blended bottom to top into a
+ * scratch frame, working entirely on primitive arrays so that composing a frame does not allocate.
+ */
+public class LEDCompositor {
+    private final LEDLayer[] layers;
+    private final int[] frame;
+    private final int[] scratch;
+
+    /**
+     * Creates a compositor for a strip of a given length.
+     * @param length The number of LEDs in the strip.
+     * @param layers The layers to composite, ordered from bottom to top.
+     */
+    public LEDCompositor(int length, LEDLayer... layers) {
+        this.layers = layers;
+        this.frame = new int[length];
+        this.scratch = new int[length];
+    }
+
+    /**
+     * Composites all layers into the frame. LEDs not covered by an opaque layer are blended on top of black.
+     * @return Whether the composed frame differs from the previously composed frame.
+     */
+    public boolean compose() {
+        Arrays.fill(scratch, LEDColor.BLACK);
+        for (int j = 0; j < layers.length; j++) {
+            layers[j].blendOnto(scratch);
+        }
+
+        if (Arrays.equals(frame, scratch)) return false;
+        System.arraycopy(scratch, 0, frame, 0, frame.length);
+        return true;
+    }
+
+    /**
+     * Gets the composed color of an LED at a specified index.
+     * @param i The LED index to retrieve.
+     * @return The opaque packed color of the LED at index i.
+     */
+    public int getLED(int i) {
+        return frame[i];
+    }
+
+    /**
+     * Gets the number of LEDs in the composed frame.
+     * @return The length of the frame.
+     */
+    public int getLength() {
+        return frame.length;
+    }
+}
@@ -0,0 +1,224 @@
+package frc.robot.subsystems.leds;
+
+/**
+ * An effect that renders onto an `LEDLayer` as a function of time. Periodic effects are precomputed into
+ * lookup tables sampled at `TABLE_RATE_HZ` when they are created, so rendering a frame is a table lookup
+ * rather than a trigonometric or timer computation.
+ * <p>
+ * Effects are created with the static factories (`solid`, `blink`, `fade`, `chase`, `pulse`) and played by
+ * wrapping them in an `LEDAnimation`.
+ */
+public abstract class LEDEffect {
+    public static final int TABLE_RATE_HZ = 100;
+
+    protected int color;
+
+    protected LEDEffect(int color) {
+        this.color = color;
+    }
+
+    /**
+     * Sets the color of the effect. Lookup tables only store timing, so this takes effect on the next frame.
+     * @param color The packed color.
+     */
+    public void setColor(int color) {
+        this.color = color;
+    }
+
+    /**
+     * Renders a frame of the effect onto a layer.
+     * @param layer The layer to render onto.
+     * @param elapsedSeconds The time since the effect was started, in seconds.
+     * @param dtSeconds The time since the previous frame, in seconds.
+     */
+    abstract void render(LEDLayer layer, double elapsedSeconds, double dtSeconds);
+
+    /**
+     * Gets whether the effect scrolls its layer. Scrolling effects are scrolled off the strip when they finish
+     * instead of being cleared.
+     * @return Whether the effect scrolls.
+     */
+    boolean scrolls() {
+        return false;
+    }
+
+    /**
+     * Gets the number of LEDs a scrolling effect moves by in a frame.
+     * @param dtSeconds The time since the previous frame, in seconds.
+     * @return The number of LEDs to scroll by.
+     */
+    int scrollIncrement(double dtSeconds) {
+        return 0;
+    }
+
+    /**
+     * Creates an effect that fills the layer with a solid color.
+     * @param color The packed color.
+     * @return The effect.
+     */
+    public static LEDEffect solid(int color) {
+        return new LEDEffect(color) {
+            @Override
+            void render(LEDLayer layer, double elapsedSeconds, double dtSeconds) {
+                layer.fillColor(this.color);
+            }
+        };
+    }
+
+    /**
+     * Creates an effect that alternates between two solid colors, starting with the "on" color.
+     * @param onColor The packed color during the "on" phase (set by `setColor()`).
+     * @param offColor The packed color during the "off" phase.
+     * @param onSeconds The duration of the "on" phase, in seconds.
+     * @param offSeconds The duration of the "off" phase, in seconds.
+     * @return The effect.
+     */
+    public static LEDEffect blink(int onColor, int offColor, double onSeconds, double offSeconds) {
+        boolean[] table = onOffTable(onSeconds, onSeconds + offSeconds);
+
+        return new LEDEffect(onColor) {
+            @Override
+            void render(LEDLayer layer, double elapsedSeconds, double dtSeconds) {
+                layer.fillColor(table[tableIndex(elapsedSeconds, table.length)] ? this.color : offColor);
+            }
+        };
+    }
+
+    /**
+     * Creates an effect that fades a color in and out in alternating groups of LEDs. The color's weight follows
+     * 1/2 * cos(t) + 1/2, scaled to the given period, so the effect starts at the full color. With an
+     * `offGroupLength` of 0, the whole layer fades.
+     * <p>
+     * If animations to fade into are given, the faded groups cross-fade into the composite of those animations'
+     * layers, hiding any layers in between; they must have lower priorities so that they are rendered first.
+     * Otherwise, the color's alpha fades over all of the layers below.
+     * @param color The packed color to fade.
+     * @param periodSeconds The period of the fade, in seconds.
+     * @param onGroupLength The length of the faded group.
+     * @param offGroupLength The length of the transparent group.
+     * @param fadeInto The animations to cross-fade into, from bottom to top.
+     * @return The effect.
+     */
+    public static LEDEffect fade(
+        int color, double periodSeconds, int onGroupLength, int offGroupLength, LEDAnimation... fadeInto
+    ) {
+        int[] alphaTable = new int[tableLength(periodSeconds)];
+        for (int i = 0; i < alphaTable.length; i++) {
+            double t = (double) i / TABLE_RATE_HZ;
+            double scale = 0.5 * Math.cos(t * 2 * Math.PI / periodSeconds) + 0.5;
+            alphaTable[i] = (int) Math.round(scale * 255);
+        }
+
+        return new LEDEffect(color) {
+            @Override
+            void render(LEDLayer layer, double elapsedSeconds, double dtSeconds) {
+                int alpha = alphaTable[tableIndex(elapsedSeconds, alphaTable.length)];
+                if (fadeInto.length == 0) {
+                    layer.fillGrouped(onGroupLength, offGroupLength, LEDColor.withAlpha(this.color, alpha));
+                    return;
+                }
+
+                layer.fillGrouped(onGroupLength, offGroupLength, LEDColor.TRANSPARENT);
+                int groupLength = onGroupLength + offGroupLength;
+                for (int i = 0; i < layer.getLength(); i += groupLength) {
+                    for (int j = i; j < Math.min(i + onGroupLength, layer.getLength()); j++) {
+                        int base = LEDColor.BLACK;
+                        for (LEDAnimation animation : fadeInto) {
+                            base = LEDColor.blend(base, animation.getLayer().getLED(j));
+                        }
+                        layer.setLED(j, LEDColor.lerp(base, this.color, alpha));
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates an effect that continuously scrolls a color onto the strip.
+     * @param color The packed color to scroll on.
+     * @param ledsPerSecond The speed to scroll at, in LEDs per second.
+     * @return The effect.
+     */
+    public static LEDEffect chase(int color, double ledsPerSecond) {
+        return new ScrollingEffect(color, ledsPerSecond) {
+            @Override
+            void render(LEDLayer layer, double elapsedSeconds, double dtSeconds) {
+                layer.incrementColors(scrollIncrement(dtSeconds), this.color);
+            }
+        };
+    }
+
+    /**
+     * Creates an effect that scrolls periodic pulses of a color onto the strip, with transparent gaps
+     * between them.
+     * @param color The packed color of the pulses.
+     * @param ledsPerSecond The speed to scroll at, in LEDs per second.
+     * @param pulseSeconds The time each pulse is emitted for, in seconds.
+     * @param periodSeconds The time between the starts of consecutive pulses, in seconds.
+     * @return The effect.
+     */
+    public static LEDEffect pulse(int color, double ledsPerSecond, double pulseSeconds, double periodSeconds) {
+        boolean[] table = onOffTable(pulseSeconds, periodSeconds);
+
+        return new ScrollingEffect(color, ledsPerSecond) {
+            @Override
+            void render(LEDLayer layer, double elapsedSeconds, double dtSeconds) {
+                boolean on = table[tableIndex(elapsedSeconds, table.length)];
+                layer.incrementColors(scrollIncrement(dtSeconds), on ? this.color : LEDColor.TRANSPARENT);
+            }
+        };
+    }
+
+    /**
+     * An effect that scrolls the layer at a constant speed.
+     */
+    private static abstract class ScrollingEffect extends LEDEffect {
+        private final double ledsPerSecond;
+
+        public ScrollingEffect(int color, double ledsPerSecond) {
+            super(color);
+            this.ledsPerSecond = ledsPerSecond;
+        }
+
+        @Override
+        boolean scrolls() {
+            return true;
+        }
+
+        @Override
+        int scrollIncrement(double dtSeconds) {
+            // Ignore floating point noise so that a 20ms loop at 150 LEDs/sec scrolls exactly 3 LEDs
+            return (int) Math.ceil(dtSeconds * ledsPerSecond - 1e-6);
+        }
+    }
+
+    /**
+     * Builds a table that is on for the first part of each period and off for the rest.
+     * @param onSeconds The duration of the "on" part, in seconds.
+     * @param periodSeconds The period, in seconds.
+     * @return The on/off table.
+     */
+    private static boolean[] onOffTable(double onSeconds, double periodSeconds) {
+        boolean[] table = new boolean[tableLength(periodSeconds)];
+        int onSamples = (int) Math.round(onSeconds * TABLE_RATE_HZ);
+        for (int i = 0; i < table.length; i++) {
+            table[i] = i < onSamples;
+        }
+        return table;
+    }
+
+    private static int tableLength(double periodSeconds) {
+        return Math.max(1, (int) Math.round(periodSeconds * TABLE_RATE_HZ));
+    }
+
+    /**
+     * Gets the table index for a time since the effect started.
+     * @param elapsedSeconds The time since the effect started, in seconds.
+     * @param length The length of the table.
+     * @return The index into the table.
+     */
+    private static int tableIndex(double elapsedSeconds, int length) {
+        // Nudge forward so sample boundaries aren't lost to floating point noise (e.g. 0.5 * 100 = 49.99...)
+        return (int) (elapsedSeconds * TABLE_RATE_HZ + 1e-6) % length;
+    }
+}
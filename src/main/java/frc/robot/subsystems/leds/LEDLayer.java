@@ -1,76 +1,119 @@
 package frc.robot.subsystems.leds;
 
-import edu.wpi.first.wpilibj.util.Color;
+import java.util.Arrays;
 
+/**
+ * A layer of LED colors, packed as 0xRRGGBBAA ints (see `LEDColor`). Layers are alpha-blended on top of each
+ * other by the `LEDCompositor`; an alpha of 0 is transparent and lets the layer below show through.
+ * <p>
+ * The layer is stored as a circular buffer: LED `i` lives at `ledArray[(head + i) % length]`. Scrolling with
+ * `incrementColors()` moves the head instead of shifting the whole array, so a scroll only writes the new LEDs.
+ */
 public class LEDLayer {
-    private final Color[] ledArray;
+    private final int[] ledArray;
+    private int head = 0;
 
     public LEDLayer(int length) {
-        ledArray = new Color[length];
+        ledArray = new int[length];
     }
 
     /**
      * Sets an LED at a specified index.
      * @param i The LED index to set.
-     * @param color The color to set the LED at index i to (null is equivalent to transparent).
+     * @param color The packed color to set the LED at index i to (`LEDColor.TRANSPARENT` is transparent).
      */
-    public void setLED(int i, Color color) {
-        ledArray[i] = color;
+    public void setLED(int i, int color) {
+        ledArray[index(i)] = color;
     }
 
     /**
      * Gets the color of an LED at a specified index.
      * @param i The LED index to retrieve.
-     * @return The color of the LED at index i.
+     * @return The packed color of the LED at index i.
      */
-    public Color getLED(int i) {
-        return ledArray[i];
+    public int getLED(int i) {
+        return ledArray[index(i)];
+    }
+
+    /**
+     * Gets the number of LEDs in this layer.
+     * @return The length of the layer.
+     */
+    public int getLength() {
+        return ledArray.length;
     }
 
     /**
      * Moves the leds up by an increment
      * @param inc the number of leds to move up by
-     * @param color the color to set at the bottom
+     * @param color the packed color to set at the bottom
      */
-    public void incrementColors(int inc, Color color) {
-        for (int i = 0; i < ledArray.length - inc; i++) {
-            setLED(i, getLED(i + inc));
-        }
-        for (int i = ledArray.length - inc; i < ledArray.length; i++) {
-            setLED(i, color);
+    public void incrementColors(int inc, int color) {
+        inc = Math.min(inc, ledArray.length);
+
+        // The `inc` LEDs at the old head scroll off the top and become the new bottom LEDs, so only they
+        // need to be written.
+        int i = head;
+        for (int j = 0; j < inc; j++) {
+            ledArray[i] = color;
+            if (++i == ledArray.length) i = 0;
         }
+        head = i;
     }
 
     /**
      * Fills the layer with a solid color.
-     * @param color The color to fill the layer with.
+     * @param color The packed color to fill the layer with.
      */
-    public void fillColor(Color color) {
-        for (int i = 0; i < ledArray.length; i++) {
-            setLED(i, color);
-        }
+    public void fillColor(int color) {
+        Arrays.fill(ledArray, color);
+        head = 0;
     }
 
     /**
-     * Fills the layer with alternating groups of "on" and "off" LEDs. "off" leds are set to null (transparent).
+     * Fills the layer with alternating groups of "on" and "off" LEDs. "off" leds are set to transparent.
      * @param onGroupLength The length of the "on" group.
      * @param offGroupLength The length of the "off" group.
-     * @param color The color to set the "on" LEDs.
+     * @param color The packed color to set the "on" LEDs.
      */
-    public void fillGrouped(int onGroupLength, int offGroupLength, Color color) {
+    public void fillGrouped(int onGroupLength, int offGroupLength, int color) {
+        int groupLength = onGroupLength + offGroupLength;
+        head = 0;
         for (int i = 0; i < ledArray.length; i++) {
-            if (i % (onGroupLength + offGroupLength) < onGroupLength) {
-                setLED(i, color);
-            } else {
-                setLED(i, null);
-            }
+            ledArray[i] = i % groupLength < onGroupLength ? color : LEDColor.TRANSPARENT;
         }
     }
 
     /**
-     * Resets the layer by setting all LEDs to null (transparent).
+     * Resets the layer by setting all LEDs to transparent.
      */
     public void reset() {
-        fillColor(null);
+        fillColor(LEDColor.TRANSPARENT);
+    }
+
+    /**
+     * Alpha-blends this layer on top of a frame. The circular buffer is walked as two contiguous runs (from
+     * the head to the end of the array, then from the start of the array to the head) so that no per-LED
+     * index wrapping is needed.
+     * @param frame The opaque frame to blend onto, of the same length as this layer.
+     */
+    void blendOnto(int[] frame) {
+        int firstRun = ledArray.length - head;
+        for (int i = 0; i < firstRun; i++) {
+            frame[i] = LEDColor.blend(frame[i], ledArray[head + i]);
+        }
+        for (int i = firstRun; i < ledArray.length; i++) {
+            frame[i] = LEDColor.blend(frame[i], ledArray[i - firstRun]);
+        }
+    }
+
+    /**
+     * Converts an LED index into an index of the underlying circular buffer.
+     * @param i The LED index.
+     * @return The index into `ledArray`.
+     */
+    private int index(int i) {
+        int index = head + i;
+        return index >= ledArray.length ? index - ledArray.length : index;
     }
 }
@@ -6,33 +6,43 @@ import edu.wpi.first.wpilibj.AddressableLEDBuffer;
 public class LEDStrip {
     private final AddressableLED led;
     private final AddressableLEDBuffer ledBuffer;
+    private final LEDCompositor compositor;
 
-    private int ledLength;
-
-    public LEDStrip(int ledPort, int ledLength) {
-        this.ledLength = ledLength;
-        led = new AddressableLED(ledPort);
-        ledBuffer = new AddressableLEDBuffer(ledLength);
-        led.setLength(ledBuffer.getLength());
-        led.start();
+    /**
+     * Creates an LED strip on a PWM port that displays a stack of `LEDLayer`s.
+     * @param ledPort The PWM port of the strip.
+     * @param ledLength The number of LEDs in the strip.
+     * @param layers The layers to display, ordered from bottom to top.
+     */
+    public LEDStrip(int ledPort, int ledLength, LEDLayer... layers) {
+        this(ledPort, new LEDCompositor(ledLength, layers));
     }
 
     /**
-     * Sets the LED data to the current buffer.
+     * Creates an LED strip on a PWM port that displays the output of a compositor.
+     * @param ledPort The PWM port of the strip.
+     * @param compositor The compositor to display. The strip is the same length as the compositor.
      */
-    public void setBuffer() {
-        led.setData(ledBuffer);
+    public LEDStrip(int ledPort, LEDCompositor compositor) {
+        this.led = new AddressableLED(ledPort);
+        this.ledBuffer = new AddressableLEDBuffer(compositor.getLength());
+        this.compositor = compositor;
+
+        led.setLength(ledBuffer.getLength());
+        led.start();
     }
 
     /**
-     * Applies an `LEDLayer` on top of the LED buffer.
-     * @param layer The layer to be added on top of the buffer. Null leds are considered transparent and "fall through" to the previous layer's color.
+     * Composites the strip's layers and sends the result to the LEDs. The LED data is only pushed when the
+     * composed frame has changed since the last update.
      */
-    public void addLayer(LEDLayer layer) {
-        for (int i = 0; i < ledLength; i++) {
-            if (layer.getLED(i) != null) {
-                ledBuffer.setLED(i, layer.getLED(i));
-            }
+    public void update() {
+        if (!compositor.compose()) return;
+
+        for (int i = 0; i < compositor.getLength(); i++) {
+            int color = compositor.getLED(i);
+            ledBuffer.setRGB(i, LEDColor.red(color), LEDColor.green(color), LEDColor.blue(color));
         }
+        led.setData(ledBuffer);
     }
 }
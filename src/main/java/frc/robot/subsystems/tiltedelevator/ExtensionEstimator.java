@@ -0,0 +1,160 @@
+package frc.robot.subsystems.tiltedelevator;
+
+import edu.wpi.first.math.MatBuilder;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.Nat;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+
+import frc.robot.sensors.HallEffectSensor;
+
+/**
+ * A Kalman filter estimating the tilted elevator's carriage position and velocity. The state is
+ * [position, velocity, encoder offset], where the encoder reads position + offset. The encoder tracks relative
+ * motion every loop, and the offset (winch slip) is observed through absolute corrections when the carriage
+ * presses the zero limit switch or a hall effect sensor detects a magnet.
+ */
+public class ExtensionEstimator {
+    // Process noise: white noise acceleration of the carriage, and a random walk of the encoder offset per loop
+    private static final double ACCEL_STD_DEV = 20; // m/s^2
+    private static final double SLIP_STD_DEV = 0.001; // m per loop
+
+    // Measurement noise
+    private static final double ENCODER_POS_STD_DEV = 0.002; // m
+    private static final double ENCODER_VEL_STD_DEV = 0.1; // m/s
+    private static final double LIMIT_SWITCH_STD_DEV = 0.003; // m
+    private static final double HALL_STD_DEV = 0.002; // m, not including the sampling uncertainty while moving
+
+    private static final Matrix<N1, N3> ENCODER_POS_H = new MatBuilder<>(Nat.N1(), Nat.N3()).fill(1, 0, 1);
+    private static final Matrix<N1, N3> ENCODER_VEL_H = new MatBuilder<>(Nat.N1(), Nat.N3()).fill(0, 1, 0);
+    private static final Matrix<N1, N3> ABSOLUTE_POS_H = new MatBuilder<>(Nat.N1(), Nat.N3()).fill(1, 0, 0);
+
+    private Matrix<N3, N1> x;
+    private Matrix<N3, N3> P;
+
+    private double lastDtSeconds = 0;
+    private boolean prevLimitSwitchPressed = false;
+
+    /**
+     * Creates an estimator with the carriage at rest and the encoder reading its true position.
+     * @param initialPositionMeters The initial position of the carriage, in meters.
+     */
+    public ExtensionEstimator(double initialPositionMeters) {
+        x = new MatBuilder<>(Nat.N3(), Nat.N1()).fill(initialPositionMeters, 0, 0);
+        P = new MatBuilder<>(Nat.N3(), Nat.N3()).fill(
+            1e-6, 0, 0,
+            0, 1e-4, 0,
+            0, 0, 1e-6
+        );
+    }
+
+    /**
+     * Predicts the state forward by a loop and corrects it with the encoder. Must be called once every loop,
+     * before `updateLimitSwitch()` and `updateHallEffect()`.
+     * @param dtSeconds The time since the last update, in seconds.
+     * @param encoderPositionMeters The encoder position, in meters.
+     * @param encoderVelocityMetersPerSec The encoder velocity, in m/s.
+     */
+    public void update(double dtSeconds, double encoderPositionMeters, double encoderVelocityMetersPerSec) {
+        lastDtSeconds = dtSeconds;
+
+        Matrix<N3, N3> F = new MatBuilder<>(Nat.N3(), Nat.N3()).fill(
+            1, dtSeconds, 0,
+            0, 1, 0,
+            0, 0, 1
+        );
+
+        // Discretized white noise acceleration for [position, velocity]
+        double q = ACCEL_STD_DEV * ACCEL_STD_DEV;
+        double dt2 = dtSeconds * dtSeconds;
+        Matrix<N3, N3> Q = new MatBuilder<>(Nat.N3(), Nat.N3()).fill(
+            dt2 * dt2 / 4 * q, dt2 * dtSeconds / 2 * q, 0,
+            dt2 * dtSeconds / 2 * q, dt2 * q, 0,
+            0, 0, SLIP_STD_DEV * SLIP_STD_DEV
+        );
+
+        x = F.times(x);
+        P = F.times(P).times(F.transpose()).plus(Q);
+
+        correct(ENCODER_POS_H, encoderPositionMeters, ENCODER_POS_STD_DEV * ENCODER_POS_STD_DEV);
+        correct(ENCODER_VEL_H, encoderVelocityMetersPerSec, ENCODER_VEL_STD_DEV * ENCODER_VEL_STD_DEV);
+    }
+
+    /**
+     * Corrects the position to zero when the zero limit switch is newly pressed.
+     * @param pressed Whether the zero limit switch is pressed.
+     */
+    public void updateLimitSwitch(boolean pressed) {
+        if (pressed && !prevLimitSwitchPressed) {
+            correctAbsolute(0, LIMIT_SWITCH_STD_DEV * LIMIT_SWITCH_STD_DEV);
+        }
+        prevLimitSwitchPressed = pressed;
+    }
+
+    /**
+     * Corrects the position when a hall effect sensor newly detects a magnet. `getHallEffectState()` must
+     * already have been called on the sensor this loop.
+     * @param sensor The hall effect sensor.
+     */
+    public void updateHallEffect(HallEffectSensor sensor) {
+        HallEffectSensor.Magnet magnet = sensor.getNewlyDetectedMagnet();
+        if (magnet == null) return;
+
+        // The sensor crossed the edge of the magnet's detection band (which depends on the direction of travel)
+        // at some point in the last loop; on average half a loop ago.
+        double velocity = getVelocityMetersPerSec();
+        double travel = velocity * lastDtSeconds;
+        double position = magnet.getEdgeMeters(sensor.isMovingUp()) + travel / 2;
+
+        correctAbsolute(position, HALL_STD_DEV * HALL_STD_DEV + travel * travel / 12);
+    }
+
+    /**
+     * Corrects the estimate with a measurement of the carriage's absolute position.
+     * @param positionMeters The measured position, in meters.
+     * @param variance The variance of the measurement, in meters squared.
+     */
+    public void correctAbsolute(double positionMeters, double variance) {
+        correct(ABSOLUTE_POS_H, positionMeters, variance);
+    }
+
+    /**
+     * Gets the estimated carriage position.
+     * @return The position, in meters.
+     */
+    public double getPositionMeters() {
+        return x.get(0, 0);
+    }
+
+    /**
+     * Gets the estimated carriage velocity.
+     * @return The velocity, in m/s.
+     */
+    public double getVelocityMetersPerSec() {
+        return x.get(1, 0);
+    }
+
+    /**
+     * Gets the estimated encoder offset, such that encoder position = carriage position + offset.
+     * @return The encoder offset, in meters.
+     */
+    public double getEncoderOffsetMeters() {
+        return x.get(2, 0);
+    }
+
+    /**
+     * Applies a scalar measurement update.
+     * @param H The measurement row.
+     * @param z The measurement.
+     * @param variance The variance of the measurement.
+     */
+    private void correct(Matrix<N1, N3> H, double z, double variance) {
+        Matrix<N3, N1> PHt = P.times(H.transpose());
+        double s = H.times(PHt).get(0, 0) + variance;
+        Matrix<N3, N1> K = PHt.div(s);
+
+        double innovation = z - H.times(x).get(0, 0);
+        x = x.plus(K.times(innovation));
+        P = Matrix.eye(Nat.N3()).minus(K.times(H)).times(P);
+    }
+}
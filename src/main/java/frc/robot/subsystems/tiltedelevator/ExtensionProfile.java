@@ -0,0 +1,114 @@
+package frc.robot.subsystems.tiltedelevator;
+
+import edu.wpi.first.math.controller.ElevatorFeedforward;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+
+import static frc.robot.Constants.TiltedElevatorConstants.*;
+
+/**
+ * A trapezoidal motion profile for the tilted elevator's extension, along with the feedforward voltage needed to
+ * follow it. Each call to `calculate()` advances the setpoint by one loop towards the goal, replanning from the
+ * current setpoint so that changing the goal mid-motion stays continuous.
+ */
+public class ExtensionProfile {
+    private final TrapezoidProfile.Constraints constraints;
+    private final ElevatorFeedforward feedforward;
+
+    private TrapezoidProfile.State setpoint = new TrapezoidProfile.State();
+    private TrapezoidProfile.State goal = new TrapezoidProfile.State();
+    private double feedforwardVolts = 0;
+
+    /**
+     * Creates an extension profile with the constraints and feedforward gains in `TiltedElevatorConstants`.
+     */
+    public ExtensionProfile() {
+        this(
+            new TrapezoidProfile.Constraints(EXTENSION_MAX_VEL, EXTENSION_MAX_ACCEL),
+            // Only the component of gravity along the tilt acts on the carriage
+            new ElevatorFeedforward(
+                EXTENSION_KS,
+                EXTENSION_KG_VERTICAL * Math.sin(EXTENSION_ANGLE_RADIANS),
+                EXTENSION_KV,
+                EXTENSION_KA
+            )
+        );
+    }
+
+    /**
+     * Creates an extension profile.
+     * @param constraints The velocity and acceleration constraints of the profile.
+     * @param feedforward The feedforward of the elevator, with kG along the tilt.
+     */
+    public ExtensionProfile(TrapezoidProfile.Constraints constraints, ElevatorFeedforward feedforward) {
+        this.constraints = constraints;
+        this.feedforward = feedforward;
+    }
+
+    /**
+     * Resets the setpoint to a measured state, e.g. when the elevator was being driven without the profile.
+     * @param positionMeters The current extension, in meters.
+     * @param velocityMetersPerSec The current extension velocity, in m/s.
+     */
+    public void reset(double positionMeters, double velocityMetersPerSec) {
+        setpoint = new TrapezoidProfile.State(positionMeters, velocityMetersPerSec);
+        goal = new TrapezoidProfile.State(positionMeters, 0);
+        feedforwardVolts = feedforward.calculate(0);
+    }
+
+    /**
+     * Sets the goal extension of the profile.
+     * @param goalMeters The goal extension, in meters.
+     */
+    public void setGoal(double goalMeters) {
+        if (goal.position != goalMeters) goal = new TrapezoidProfile.State(goalMeters, 0);
+    }
+
+    /**
+     * Advances the profile by one loop and computes the feedforward for the new setpoint.
+     * @param dtSeconds The loop period, in seconds.
+     * @return The new setpoint.
+     */
+    public TrapezoidProfile.State calculate(double dtSeconds) {
+        TrapezoidProfile.State next = new TrapezoidProfile(constraints, goal, setpoint).calculate(dtSeconds);
+
+        double accel = (next.velocity - setpoint.velocity) / dtSeconds;
+        feedforwardVolts = feedforward.calculate(next.velocity, accel);
+
+        setpoint = next;
+        return next;
+    }
+
+    /**
+     * Gets the feedforward voltage for the current setpoint.
+     * @return The feedforward, in volts.
+     */
+    public double getFeedforwardVolts() {
+        return feedforwardVolts;
+    }
+
+    public TrapezoidProfile.State getSetpoint() {
+        return setpoint;
+    }
+
+    /**
+     * Gets the time a profiled move between two extensions takes, starting and ending at rest.
+     * @param startMeters The starting extension, in meters.
+     * @param goalMeters The goal extension, in meters.
+     * @return The duration of the move, in seconds.
+     */
+    public double getTravelTimeSeconds(double startMeters, double goalMeters) {
+        return new TrapezoidProfile(
+            constraints,
+            new TrapezoidProfile.State(goalMeters, 0),
+            new TrapezoidProfile.State(startMeters, 0)
+        ).totalTime();
+    }
+
+    /**
+     * Gets whether the profile has reached its goal.
+     * @return Whether the setpoint is at the goal.
+     */
+    public boolean isFinished() {
+        return setpoint.equals(goal);
+    }
+}
@@ -6,12 +6,15 @@ import com.revrobotics.CANSparkMax.IdleMode;
 import com.revrobotics.CANSparkMax.SoftLimitDirection;
 import com.revrobotics.RelativeEncoder;
 import com.revrobotics.SparkMaxPIDController;
-import com.revrobotics.SparkMaxPIDController.ArbFFUnits;
 
 import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.GenericEntry;
 import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
@@ -19,8 +22,15 @@ import edu.wpi.first.wpilibj2.command.SubsystemBase;
 
 import frc.robot.Constants;
 import frc.robot.sensors.HallEffectSensor;
+import frc.robot.simulation.TiltedElevatorSim;
+import frc.robot.util.CachedSparkMax;
+import frc.robot.util.HardwareSnapshot.BooleanReading;
+import frc.robot.util.HardwareSnapshot.DoubleReading;
+import frc.robot.util.MotorRole;
 import frc.robot.util.MotorUtil;
 import frc.robot.util.ShuffleboardUtil;
+import frc.robot.util.SparkMaxConfig;
+import frc.robot.util.SparkMaxConfig.FeedbackSensor;
 import frc.robot.subsystems.tiltedelevator.ElevatorState.OffsetState;
 
 import static frc.robot.Constants.TiltedElevatorConstants.*;
@@ -43,13 +53,15 @@ public class TiltedElevatorSubsystem extends SubsystemBase {
 
     private double manualPower = 0;
 
-    private boolean hallPressed = false;
     private HallEffectSensor.Magnet lastHallPos = null;
 
     // Devices
     private final CANSparkMax extensionMotor;
     private RelativeEncoder extensionEncoder;
     private SparkMaxPIDController extensionPidController;
+    private final CachedSparkMax extensionSetpoint;
+    private boolean reverseSoftLimitEnabled = true;
+    private double softLimitOffsetMeters = 0;
 
     private final CANSparkMax extensionFollow;
     private final CANSparkMax extensionFollowB;
@@ -57,75 +69,90 @@ public class TiltedElevatorSubsystem extends SubsystemBase {
     private final DigitalInput zeroLimitSwitch;
     private final HallEffectSensor leftHallSensor;
 
+    // Sensor values read once per loop. The limit switch reads false when pressed.
+    private final DoubleReading encoderPosition, encoderVelocity;
+    private final BooleanReading zeroLimitReading;
+
+    private final ExtensionProfile extensionProfile = new ExtensionProfile();
+    private final ExtensionEstimator extensionEstimator;
+
+    // Physics simulation of the carriage, or null on the robot
+    private final TiltedElevatorSim elevatorSim;
+
     // Constants
-    private static final double EXTENSION_GEAR_RATIO = 14.0 / 64.0;
+    public static final double EXTENSION_GEAR_RATIO = 14.0 / 64.0;
     private static final double EXTENSION_CIRCUMFERENCE = Units.inchesToMeters(Math.PI * 0.500); // approx circumference of winch
-    private static final double EXTENSION_ROTATIONS_TO_METERS = EXTENSION_GEAR_RATIO * EXTENSION_CIRCUMFERENCE * 2.0 * (15.0 / 13.4);
+    public static final double EXTENSION_ROTATIONS_TO_METERS = EXTENSION_GEAR_RATIO * EXTENSION_CIRCUMFERENCE * 2.0 * (15.0 / 13.4);
 
-    private static final double extensionP = 2.4;
+    public static final double extensionP = 2.4;
     private static final double extensionI = 0;
     private static final double extensionD = 0;
     private static final double extensionTolerance = 0.003;
-    private static final double extensionRampRate = 0.4;
-    private double arbFeedforward = Constants.IS_R1 ? 0.03 : 0;
+
+    // Soft limits on the carriage position. The SparkMax applies them to its own encoder, so they're shifted by the
+    // estimated encoder offset whenever it moves by more than the tolerance.
+    private static final double REVERSE_SOFT_LIMIT_METERS = Units.inchesToMeters(-2);
+    private static final double SOFT_LIMIT_OFFSET_TOLERANCE_METERS = Units.inchesToMeters(0.25);
 
     // Shuffleboard
     private final ShuffleboardTab shuffleboardTab;
     private final GenericEntry 
         extensionPEntry, extensionIEntry, extensionDEntry,
-        extensionToleranceEntry, arbFFEntry, rampEntry;
+        extensionToleranceEntry;
     private final GenericEntry manualPowerEntry, targetExtensionEntry;
     private final GenericEntry currentExtensionEntry, currentVelEntry, currentStateEntry, offsetDistEntry;
     private final GenericEntry limitSwitchEntry, hallEntry;
 
     public TiltedElevatorSubsystem() {
-        extensionMotor = MotorUtil.createSparkMax(EXTENSION_ID, (sparkMax) -> {
-            sparkMax.setIdleMode(IdleMode.kBrake); 
-            sparkMax.setInverted(true);
-            sparkMax.setClosedLoopRampRate(extensionRampRate);
-
-            extensionEncoder = sparkMax.getEncoder();
-            extensionEncoder.setPositionConversionFactor(EXTENSION_ROTATIONS_TO_METERS);
-            extensionEncoder.setVelocityConversionFactor(EXTENSION_ROTATIONS_TO_METERS / 60.0);
-            extensionEncoder.setPosition(0);
-            
-            sparkMax.setSoftLimit(SoftLimitDirection.kForward, (float) EXTENSION_LIMIT_METERS);
-            sparkMax.enableSoftLimit(SoftLimitDirection.kForward, true);
-            sparkMax.setSoftLimit(SoftLimitDirection.kReverse, (float) Units.inchesToMeters(-2));
-            sparkMax.enableSoftLimit(SoftLimitDirection.kReverse, true);
-
-            extensionPidController = MotorUtil.createSparkMaxPIDController(sparkMax, extensionEncoder);
-            extensionPidController.setP(extensionP);
-            extensionPidController.setI(extensionI);
-            extensionPidController.setD(extensionD);
-            extensionPidController.setSmartMotionAllowedClosedLoopError(extensionTolerance, 0);
-        });
-
-        extensionFollow = MotorUtil.createSparkMax(EXTENSION_FOLLOW_ID, (sparkMax) -> {
-            sparkMax.follow(extensionMotor);
-            sparkMax.setIdleMode(IdleMode.kBrake);
-        });
+        extensionMotor = MotorUtil.createSparkMax(EXTENSION_ID, MotorRole.LEADER, new SparkMaxConfig()
+            .idleMode(IdleMode.kBrake)
+            .inverted(true)
+            .encoderConversionFactors(EXTENSION_ROTATIONS_TO_METERS, EXTENSION_ROTATIONS_TO_METERS / 60.0)
+            .forwardSoftLimit(EXTENSION_LIMIT_METERS)
+            .reverseSoftLimit(REVERSE_SOFT_LIMIT_METERS)
+            .pid(FeedbackSensor.PRIMARY_ENCODER, extensionP, extensionI, extensionD, 0)
+            .allowedClosedLoopError(extensionTolerance)
+        );
+        extensionEncoder = extensionMotor.getEncoder();
+        extensionPidController = extensionMotor.getPIDController();
+        extensionSetpoint = new CachedSparkMax(extensionMotor);
+
+        extensionFollow = MotorUtil.createSparkMax(EXTENSION_FOLLOW_ID, MotorRole.FOLLOWER, new SparkMaxConfig()
+            .follow(extensionMotor)
+            .idleMode(IdleMode.kBrake)
+        );
 
         if (Constants.IS_R1) extensionFollowB = null;
-        else extensionFollowB = MotorUtil.createSparkMax(EXTENSION_FOLLOW_B_ID, (sparkMax) -> {
-            sparkMax.follow(extensionMotor);
-            sparkMax.setIdleMode(IdleMode.kBrake);
-        });
+        else extensionFollowB = MotorUtil.createSparkMax(EXTENSION_FOLLOW_B_ID, MotorRole.FOLLOWER, new SparkMaxConfig()
+            .follow(extensionMotor)
+            .idleMode(IdleMode.kBrake)
+        );
+
+        // Zero the encoder once its conversion factors are applied
+        MotorUtil.awaitConfiguration(extensionMotor);
+        extensionEncoder.setPosition(0);
 
         zeroLimitSwitch = new DigitalInput(ZERO_LIMIT_ID);
 
         if (Constants.IS_R1) leftHallSensor = null;
         else leftHallSensor = new HallEffectSensor(LEFT_HALL_ID, LEFT_MAGNETS, extensionEncoder.getPosition());
 
+        // The simulated carriage starts at the bottom, where the encoder was just zeroed
+        elevatorSim = RobotBase.isSimulation()
+            ? new TiltedElevatorSim(extensionSetpoint.getCache(), Constants.IS_R1 ? 2 : 3, leftHallSensor != null)
+            : null;
+        encoderPosition = new DoubleReading("Extension position", this::readEncoderPositionMeters);
+        encoderVelocity = new DoubleReading("Extension velocity", this::readEncoderVelocityMetersPerSec);
+        zeroLimitReading = new BooleanReading("Extension zero limit", zeroLimitSwitch::get);
+        extensionEstimator = new ExtensionEstimator(encoderPosition.get());
+
         shuffleboardTab = Shuffleboard.getTab("Tilted Elevator");
 
         extensionPEntry = shuffleboardTab.add("Extension P", extensionP).withPosition(0, 0).getEntry();
         extensionIEntry = shuffleboardTab.add("Extension I", extensionI).withPosition(1, 0).getEntry();
         extensionDEntry = shuffleboardTab.add("Extension D", extensionD).withPosition(2, 0).getEntry();
         extensionToleranceEntry = shuffleboardTab.add("Extension tolerance", extensionTolerance).withPosition(0, 1).getEntry();
-        arbFFEntry = shuffleboardTab.add("Arb FF", arbFeedforward).withPosition(1, 1).getEntry();
-        rampEntry = shuffleboardTab.add("Ramp Rate", extensionRampRate).withPosition(2, 1).getEntry();
-        hallEntry = shuffleboardTab.add("Hall effect", hallPressed).getEntry();
+        hallEntry = shuffleboardTab.add("Hall effect", false).getEntry();
 
         manualPowerEntry = shuffleboardTab.add("Manual Power", manualPower).withPosition(0, 2).getEntry();
         targetExtensionEntry = shuffleboardTab.add("Target Ext (in)", 0.0).withPosition(1, 2).getEntry();
@@ -155,70 +182,76 @@ public class TiltedElevatorSubsystem extends SubsystemBase {
 
     @Override
     public void periodic() {
-        // When limit switch is pressed, reset encoder
-        if (zeroLimitSwitch != null && !zeroLimitSwitch.get())
-            extensionEncoder.setPosition(0); 
-
-        // When magnet is detected, reset encoder
+        // Fuse the encoder with absolute corrections from the limit switch and hall effect magnets to
+        // estimate the carriage position, correcting winch slip.
+        extensionEstimator.update(TimedRobot.kDefaultPeriod, encoderPosition.get(), encoderVelocity.get());
+        extensionEstimator.updateLimitSwitch(!zeroLimitReading.get());
         if (leftHallSensor != null) {
-            HallEffectSensor.Magnet leftHallSensorPos = leftHallSensor.getHallEffectState(extensionEncoder.getPosition());
-            // System.out.println(leftHallSensorPos);
-            // System.out.println(lastHallPos + " " + leftHallSensorPos);
-            if (leftHallSensorPos != null && lastHallPos == null){
-                // extensionEncoder.setPosition(Units.inchesToMeters(EXTENSION_LIMIT));//leftHallSensorPos.getExtendDistanceMeters());
-            }
-            lastHallPos = leftHallSensorPos;
+            lastHallPos = leftHallSensor.getHallEffectState(encoderPosition.get());
+            extensionEstimator.updateHallEffect(leftHallSensor);
         }
+        updateSoftLimits(extensionEstimator.getEncoderOffsetMeters());
 
         // If we're in manual power mode, use percent out power supplied by driver joystick.
         if (IS_MANUAL) {
             manualPowerEntry.setDouble(manualPower);
-            extensionMotor.set(manualPower);
+            extensionSetpoint.set(manualPower);
+            extensionProfile.reset(getExtensionMeters(), extensionEstimator.getVelocityMetersPerSec());
             return;
         }
 
         if (state == ElevatorState.HOME) {
-            if (zeroLimitSwitch.get()) {
-                extensionMotor.set(-0.25);
-                extensionMotor.enableSoftLimit(SoftLimitDirection.kReverse, false);
+            extensionProfile.reset(getExtensionMeters(), extensionEstimator.getVelocityMetersPerSec());
+
+            if (zeroLimitReading.get()) {
+                extensionSetpoint.set(-0.25);
+                setReverseSoftLimitEnabled(false);
             } else {
-                extensionMotor.set(0);
-                extensionMotor.enableSoftLimit(SoftLimitDirection.kReverse, true);
+                extensionSetpoint.set(0);
+                setReverseSoftLimitEnabled(true);
                 state = ElevatorState.GROUND;
             }
             return;
         }
 
-        extensionMotor.enableSoftLimit(SoftLimitDirection.kReverse, true);
+        setReverseSoftLimitEnabled(true);
 
         // Temporarily store mechanism state during single periodic loop
-        double currentPos = extensionEncoder.getPosition();
-        double currentVel = extensionEncoder.getVelocity();
+        double currentPos = getExtensionMeters();
+        double currentVel = extensionEstimator.getVelocityMetersPerSec();
+
+        // Hold the profile at the measured state while disabled so that it starts from where the elevator
+        // actually is when enabled.
+        if (DriverStation.isDisabled()) extensionProfile.reset(currentPos, currentVel);
 
         if (SHUFFLEBOARD_ENABLE) {
             ShuffleboardUtil.pollShuffleboardDouble(extensionPEntry, extensionPidController::setP);
             ShuffleboardUtil.pollShuffleboardDouble(extensionIEntry, extensionPidController::setI);
             ShuffleboardUtil.pollShuffleboardDouble(extensionDEntry, extensionPidController::setD);
             ShuffleboardUtil.pollShuffleboardDouble(extensionToleranceEntry, (value) -> extensionPidController.setSmartMotionAllowedClosedLoopError(value, 0));
-            ShuffleboardUtil.pollShuffleboardDouble(rampEntry, (value) -> extensionMotor.setClosedLoopRampRate(value));
-            arbFeedforward = arbFFEntry.getDouble(arbFeedforward);
         }
 
         // If we're trying to get to 0, set the motor to 0 power so the carriage drops with gravity
         // and hits the hard stop / limit switch.
         double targetExtension = getTargetExtensionMeters();
-        if (targetExtension == 0 && currentPos < Units.inchesToMeters(1) && zeroLimitSwitch.get()) {
-            extensionMotor.set(-0.075);
+        if (targetExtension == 0 && currentPos < Units.inchesToMeters(1) && zeroLimitReading.get()) {
+            extensionSetpoint.set(-0.075);
         }
         // If we're trying to get max extension and we're currently within 1" of our goal, move elevator up so it hits the magnet
         // else if (targetExtension >= EXTENSION_LIMIT && (EXTENSION_LIMIT - currentPos < Units.inchesToMeters(1))) {
         //     extensionMotor.set(0.075);
         // } else {
-            // Set PID reference
-            extensionPidController.setReference(
-                MathUtil.clamp(targetExtension, 0, EXTENSION_LIMIT_METERS),
-                ControlType.kPosition, 0,
-                arbFeedforward, ArbFFUnits.kPercentOut
+            // Advance the motion profile towards the target and follow its setpoint, with the
+            // profile's feedforward (gravity along the tilt, velocity, and acceleration) as arb FF.
+            // The SparkMax closes the loop on its own encoder, so shift the setpoint by the
+            // estimated encoder offset.
+            extensionProfile.setGoal(MathUtil.clamp(targetExtension, 0, EXTENSION_LIMIT_METERS));
+            TrapezoidProfile.State setpoint = extensionProfile.calculate(TimedRobot.kDefaultPeriod);
+
+            extensionSetpoint.setReference(
+                setpoint.position + extensionEstimator.getEncoderOffsetMeters(),
+                ControlType.kPosition,
+                extensionProfile.getFeedforwardVolts()
             );
         // }
 
@@ -228,11 +261,68 @@ public class TiltedElevatorSubsystem extends SubsystemBase {
             currentStateEntry.setString(state.toString());
             targetExtensionEntry.setDouble(Units.metersToInches(targetExtension));
             offsetDistEntry.setDouble(Units.metersToInches(offsetDistMeters));
-            limitSwitchEntry.setBoolean(!zeroLimitSwitch.get());
-            hallEntry.setBoolean(leftHallSensor.getHallEffectState(extensionEncoder.getPosition()) != null);
+            limitSwitchEntry.setBoolean(!zeroLimitReading.get());
+            hallEntry.setBoolean(lastHallPos != null);
         }
     }
 
+    @Override
+    public void simulationPeriodic() {
+        if (elevatorSim != null) elevatorSim.update(TimedRobot.kDefaultPeriod);
+    }
+
+    /**
+     * Reads the position of the extension encoder, which reads the simulated carriage in simulation.
+     * @return The position, in meters.
+     */
+    private double readEncoderPositionMeters() {
+        return elevatorSim != null ? elevatorSim.getPositionMeters() : extensionEncoder.getPosition();
+    }
+
+    /**
+     * Reads the velocity of the extension encoder, which reads the simulated carriage in simulation.
+     * @return The velocity, in m/s.
+     */
+    private double readEncoderVelocityMetersPerSec() {
+        return elevatorSim != null ? elevatorSim.getVelocityMetersPerSecond() : extensionEncoder.getVelocity();
+    }
+
+    /**
+     * Gets the physics simulation of the carriage.
+     * @return The simulation, or null if not running in simulation.
+     */
+    public TiltedElevatorSim getElevatorSim() {
+        return elevatorSim;
+    }
+
+    /**
+     * Enables or disables the reverse soft limit of the extension motor, only sending the change to the SparkMax
+     * when it differs from what was last set.
+     * @param enabled Whether the reverse soft limit is enabled.
+     */
+    private void setReverseSoftLimitEnabled(boolean enabled) {
+        if (enabled == reverseSoftLimitEnabled) return;
+        extensionMotor.enableSoftLimit(SoftLimitDirection.kReverse, enabled);
+        reverseSoftLimitEnabled = enabled;
+    }
+
+    /**
+     * Shifts the extension motor's soft limits into the encoder's frame when the estimated encoder offset has moved
+     * by more than `SOFT_LIMIT_OFFSET_TOLERANCE_METERS` since they were last set, so that they keep bounding the
+     * carriage's actual position as the winch slips.
+     * @param encoderOffsetMeters The estimated encoder offset, in meters.
+     */
+    private void updateSoftLimits(double encoderOffsetMeters) {
+        if (Math.abs(encoderOffsetMeters - softLimitOffsetMeters) <= SOFT_LIMIT_OFFSET_TOLERANCE_METERS) return;
+        extensionMotor.setSoftLimit(
+            SoftLimitDirection.kForward, (float) (EXTENSION_LIMIT_METERS + encoderOffsetMeters)
+        );
+        extensionMotor.setSoftLimit(
+            SoftLimitDirection.kReverse, (float) (REVERSE_SOFT_LIMIT_METERS + encoderOffsetMeters)
+        );
+        softLimitOffsetMeters = encoderOffsetMeters;
+    }
+
     /**
      * Sets the state of the subsystem.
      * @param state The `ElevatorState` to set the subsystem to.
@@ -296,11 +386,11 @@ public class TiltedElevatorSubsystem extends SubsystemBase {
     }
 
     /**
-     * Gets the current extension, in meters, of the subsystem.
+     * Gets the current estimated extension, in meters, of the subsystem.
      * @return The current extension, in meters.
      */
     public double getExtensionMeters() { 
-        return extensionEncoder.getPosition();
+        return extensionEstimator.getPositionMeters();
     }
 
     /**
@@ -312,10 +402,12 @@ public class TiltedElevatorSubsystem extends SubsystemBase {
     }
 
     /**
-     * Gets whether the elevator has reached its target extension.
+     * Gets whether the elevator has reached its target extension. The motion profile must have finished so that
+     * passing through the target mid-motion doesn't count.
      * @return Whether the elevator has reached its target extension.
      */
     public boolean atTarget() {
-        return Math.abs(getExtensionMeters() - getTargetExtensionMeters()) <= EXTENSION_TOLERANCE_METERS;
+        return extensionProfile.isFinished()
+            && Math.abs(getExtensionMeters() - getTargetExtensionMeters()) <= EXTENSION_TOLERANCE_METERS;
     }
 }
@@ -0,0 +1,139 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Keeps track of the CAN frames sent by every motor controller created through `MotorUtil`, and estimates the
+ * resulting bus utilization. The estimate counts each controller's periodic status frames and the control frames
+ * the roboRIO sends it, all as full 8-byte extended frames.
+ */
+public class CANBusBudget {
+    private static final double BUS_BITS_PER_SECOND = 1_000_000;
+
+    // An extended frame with 8 data bytes is 131 bits including the interframe space; allow ~10% for bit stuffing
+    private static final double FRAME_BITS = 144;
+
+    // Above this, lower priority (higher ID) frames start waiting for the bus
+    private static final double WARNING_UTILIZATION = 0.7;
+
+    // Setpoints are sent once per robot loop to SparkMaxes, while Phoenix sends Talon control frames every 10ms
+    private static final double SPARK_MAX_CONTROL_PERIOD_MS = 20;
+    private static final double TALON_CONTROL_PERIOD_MS = 10;
+
+    private static final List<Device> devices = new ArrayList<>();
+
+    /**
+     * A motor controller on the bus.
+     */
+    private static class Device {
+        public final String type;
+        public final int deviceId;
+        public final MotorRole role;
+        public final double framesPerSecond;
+
+        public Device(String type, int deviceId, MotorRole role, double framesPerSecond) {
+            this.type = type;
+            this.deviceId = deviceId;
+            this.role = role;
+            this.framesPerSecond = framesPerSecond;
+        }
+    }
+
+    /**
+     * Registers a SparkMax in a given role.
+     * @param deviceId The CAN ID of the SparkMax.
+     * @param role The role of the SparkMax.
+     */
+    public static void registerSparkMax(int deviceId, MotorRole role) {
+        double controlFramesPerSecond = role.isCommanded() ? 1000.0 / SPARK_MAX_CONTROL_PERIOD_MS : 0;
+        register("SparkMax", deviceId, role, role.sparkMaxStatusPeriodsMs, controlFramesPerSecond);
+    }
+
+    /**
+     * Registers a Talon in a given role.
+     * @param deviceId The CAN ID of the Talon.
+     * @param role The role of the Talon.
+     */
+    public static void registerTalon(int deviceId, MotorRole role) {
+        register("Talon", deviceId, role, role.talonStatusPeriodsMs, 1000.0 / TALON_CONTROL_PERIOD_MS);
+    }
+
+    /**
+     * Gets the total number of frames sent on the bus per second by all registered devices.
+     * @return The frames per second.
+     */
+    public static double getFramesPerSecond() {
+        double framesPerSecond = 0;
+        for (Device device : devices) framesPerSecond += device.framesPerSecond;
+        return framesPerSecond;
+    }
+
+    /**
+     * Gets the estimated fraction of the bus's bandwidth used by all registered devices.
+     * @return The estimated utilization, from 0 to 1 (or above if the bus is saturated).
+     */
+    public static double getEstimatedUtilization() {
+        return getFramesPerSecond() * FRAME_BITS / BUS_BITS_PER_SECOND;
+    }
+
+    /**
+     * Gets a report of every registered device's role and frame rate, and the total estimated utilization.
+     * @return The report.
+     */
+    public static String getReport() {
+        StringBuilder report = new StringBuilder("CAN bus budget:\n");
+        for (Device device : devices) {
+            report.append(String.format(
+                "  %-8s %2d  %-11s %6.1f frames/s\n",
+                device.type, device.deviceId, device.role, device.framesPerSecond
+            ));
+        }
+        report.append(String.format(
+            "  %d devices, %.0f frames/s, %.1f%% estimated utilization",
+            devices.size(), getFramesPerSecond(), getEstimatedUtilization() * 100
+        ));
+        return report.toString();
+    }
+
+    /**
+     * Logs the report, and warns on the driver station if the bus is close to saturation.
+     */
+    public static void report() {
+        DataLogManager.log(getReport());
+
+        double utilization = getEstimatedUtilization();
+        if (utilization > WARNING_UTILIZATION) {
+            DriverStation.reportWarning(String.format(
+                "Estimated CAN bus utilization is %.1f%%, over %.0f%%",
+                utilization * 100, WARNING_UTILIZATION * 100
+            ), false);
+        }
+    }
+
+    /**
+     * Clears all registered devices.
+     */
+    public static void reset() {
+        devices.clear();
+    }
+
+    /**
+     * Registers a device from its status frame periods and control frame rate.
+     * @param type The type of the device, for the report.
+     * @param deviceId The CAN ID of the device.
+     * @param role The role of the device.
+     * @param statusPeriodsMs The periods of each of the device's status frames, in ms.
+     * @param controlFramesPerSecond The number of control frames sent to the device per second.
+     */
+    private static void register(
+        String type, int deviceId, MotorRole role, int[] statusPeriodsMs, double controlFramesPerSecond
+    ) {
+        double framesPerSecond = controlFramesPerSecond;
+        for (int periodMs : statusPeriodsMs) framesPerSecond += 1000.0 / periodMs;
+        devices.add(new Device(type, deviceId, role, framesPerSecond));
+    }
+}
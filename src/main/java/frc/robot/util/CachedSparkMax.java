@@ -0,0 +1,97 @@
+package frc.robot.util;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.SparkMaxPIDController;
+import com.revrobotics.CANSparkMax.ControlType;
+import com.revrobotics.SparkMaxPIDController.ArbFFUnits;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * A SparkMax whose setpoints go through a `SetpointCache`, so that each call only sends a CAN frame if the
+ * setpoint changed or the keep-alive period has passed. REVLib sends a frame on every `set()` and
+ * `setReference()`, so this is where repeated setpoints cost bus time.
+ *
+ * Only the setpoint methods are wrapped; use `getMotor()` for everything else.
+ */
+public class CachedSparkMax {
+    private final CANSparkMax motor;
+    private final SparkMaxPIDController pidController;
+    private final SetpointCache cache;
+
+    /**
+     * Wraps a SparkMax with the default epsilon and keep-alive period.
+     * @param motor The SparkMax.
+     */
+    public CachedSparkMax(CANSparkMax motor) {
+        this.motor = motor;
+        this.pidController = motor.getPIDController();
+        this.cache = new SetpointCache("SparkMax " + motor.getDeviceId());
+    }
+
+    /**
+     * Sets the duty cycle of the motor.
+     * @param speed The [-1.0, 1.0] duty cycle.
+     */
+    public void set(double speed) {
+        if (cache.update(ControlType.kDutyCycle, speed, 0, Timer.getFPGATimestamp())) {
+            motor.set(speed);
+        }
+    }
+
+    /**
+     * Sets the voltage of the motor. Unlike `CANSparkMax.setVoltage()`, this uses the SparkMax's voltage control
+     * mode, which compensates for the bus voltage on the controller, so the setpoint doesn't change with the
+     * battery voltage every loop.
+     * @param volts The voltage.
+     */
+    public void setVoltage(double volts) {
+        setReference(volts, ControlType.kVoltage);
+    }
+
+    /**
+     * Sets the closed loop setpoint of the motor, in slot 0.
+     * @param value The setpoint, in the units of the control type.
+     * @param controlType The control type.
+     */
+    public void setReference(double value, ControlType controlType) {
+        if (cache.update(controlType, value, 0, Timer.getFPGATimestamp())) {
+            pidController.setReference(value, controlType);
+        }
+    }
+
+    /**
+     * Sets the closed loop setpoint of the motor, in slot 0, with an arbitrary feedforward.
+     * @param value The setpoint, in the units of the control type.
+     * @param controlType The control type.
+     * @param arbFFVolts The arbitrary feedforward, in volts.
+     */
+    public void setReference(double value, ControlType controlType, double arbFFVolts) {
+        if (cache.update(controlType, value, arbFFVolts, Timer.getFPGATimestamp())) {
+            pidController.setReference(value, controlType, 0, arbFFVolts, ArbFFUnits.kVoltage);
+        }
+    }
+
+    /**
+     * Forces the next setpoint to be sent.
+     */
+    public void invalidate() {
+        cache.invalidate();
+    }
+
+    /**
+     * Gets the wrapped SparkMax.
+     * @return The SparkMax.
+     */
+    public CANSparkMax getMotor() {
+        return motor;
+    }
+
+    /**
+     * Gets the setpoint cache of the SparkMax, for its sent and suppressed counts.
+     * @return The setpoint cache.
+     */
+    public SetpointCache getCache() {
+        return cache;
+    }
+}
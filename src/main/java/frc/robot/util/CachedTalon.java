@@ -0,0 +1,85 @@
+package frc.robot.util;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
+
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * A Talon whose setpoints go through a `SetpointCache`, so that each call only updates the controller if the
+ * setpoint changed or the keep-alive period has passed.
+ *
+ * Phoenix buffers the setpoint and sends the control frame every 10ms on its own, so for Talons this saves the
+ * call into Phoenix rather than bus time; it keeps the sent and suppressed counts comparable with the SparkMaxes.
+ */
+public class CachedTalon {
+    // Voltage setpoints are cached in volts, not in the percent output sent for them
+    public static final String VOLTAGE_MODE = "Voltage";
+
+    private final BaseMotorController motor;
+    private final SetpointCache cache;
+
+    /**
+     * Wraps a Talon with the default epsilon and keep-alive period.
+     * @param motor The Talon.
+     */
+    public CachedTalon(BaseMotorController motor) {
+        this.motor = motor;
+        this.cache = new SetpointCache("Talon " + motor.getDeviceID());
+    }
+
+    /**
+     * Sets the percent output of the motor.
+     * @param speed The [-1.0, 1.0] percent output.
+     */
+    public void set(double speed) {
+        set(ControlMode.PercentOutput, speed);
+    }
+
+    /**
+     * Sets the setpoint of the motor in a given control mode.
+     * @param mode The control mode.
+     * @param value The setpoint, in the units of the control mode.
+     */
+    public void set(ControlMode mode, double value) {
+        if (cache.update(mode, value, 0, Timer.getFPGATimestamp())) {
+            motor.set(mode, value);
+        }
+    }
+
+    /**
+     * Sets the voltage of the motor, compensating for the battery voltage when the setpoint is sent. Since the
+     * voltage is cached rather than the resulting percent output, the compensation is refreshed at least every
+     * keep-alive period.
+     * @param volts The voltage.
+     */
+    public void setVoltage(double volts) {
+        if (cache.update(VOLTAGE_MODE, volts, 0, Timer.getFPGATimestamp())) {
+            motor.set(ControlMode.PercentOutput, volts / RobotController.getBatteryVoltage());
+        }
+    }
+
+    /**
+     * Forces the next setpoint to be sent.
+     */
+    public void invalidate() {
+        cache.invalidate();
+    }
+
+    /**
+     * Gets the wrapped Talon.
+     * @return The Talon.
+     */
+    public BaseMotorController getMotor() {
+        return motor;
+    }
+
+    /**
+     * Gets the setpoint cache of the Talon, for its sent and suppressed counts.
+     * @return The setpoint cache.
+     */
+    public SetpointCache getCache() {
+        return cache;
+    }
+}
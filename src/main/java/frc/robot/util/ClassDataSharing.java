@@ -0,0 +1,83 @@
+package frc.robot.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Loads the robot's classes so the JVM can record them for an application class data sharing (AppCDS) archive.
+ * Deploying with `-PbuildCDS=true` stops robot code, runs this on the roboRIO with `-XX:DumpLoadedClassList`, and
+ * dumps the list to an archive the robot program starts with (see `build.gradle`). Loading classes from the archive skips parsing and verifying them, which is most
+ * of the time the JVM spends before `robotInit()` on the roboRIO.
+ *
+ * Classes are loaded without being initialized, so no static initializer runs and nothing touches the HAL or the
+ * CAN bus. The JVM only uses an archive built from the same jar, so a stale archive is ignored rather than loaded.
+ */
+public class ClassDataSharing {
+    // Packages of the robot code, WPILib and the vendor libraries; everything else in the jar is rarely loaded
+    private static final String[] PACKAGES = {
+        "frc/robot/", "edu/wpi/first/", "com/revrobotics/", "com/ctre/", "org/photonvision/", "com/kauailabs/"
+    };
+
+    /**
+     * Loads every class in the robot's packages from the jar this class is in, and reports how many loaded.
+     * @param args Unused.
+     */
+    public static void main(String... args) {
+        int loaded = 0;
+        int failed = 0;
+
+        try (JarFile jar = new JarFile(getJarPath())) {
+            ClassLoader loader = ClassDataSharing.class.getClassLoader();
+
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (!name.endsWith(".class") || name.contains("-") || !isArchived(name)) continue;
+
+                String className = name.substring(0, name.length() - ".class".length()).replace('/', '.');
+                try {
+                    Class.forName(className, false, loader);
+                    loaded++;
+                } catch (Throwable e) {
+                    // E.g. classes for other platforms, or whose dependencies aren't on the classpath
+                    failed++;
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+
+        System.out.println("Loaded " + loaded + " classes for the archive (" + failed + " failed)");
+        System.exit(0);
+    }
+
+    /**
+     * Gets whether a class in the jar belongs in the archive.
+     * @param path The path of the class file in the jar.
+     * @return Whether the class is in one of the robot's packages.
+     */
+    private static boolean isArchived(String path) {
+        for (String prefix : PACKAGES) {
+            if (path.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the path of the jar this class was loaded from.
+     * @return The path.
+     */
+    private static String getJarPath() {
+        try {
+            return new File(
+                ClassDataSharing.class.getProtectionDomain().getCodeSource().getLocation().toURI()
+            ).getPath();
+        } catch (Exception e) {
+            throw new IllegalStateException("Couldn't find the robot jar", e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+
+/**
+ * Reads every registered sensor value once at the start of each loop, so that the code running in the loop sees a
+ * consistent view of the hardware, and reading the same value in several places (e.g. the gyro from the pose
+ * estimator and from field-relative driving) doesn't make another JNI call or CAN request each time.
+ *
+ * Call `update()` at the start of each loop, before the scheduler runs. Values read from a reading in between see
+ * what the hardware read at the start of the loop. Code that changes what the hardware reads, like resetting an
+ * encoder, should `refresh()` the reading before using it again in the same loop.
+ *
+ * Every reading is registered so that the number of reads requested and actually made can be reported.
+ */
+public class HardwareSnapshot {
+    private static final List<Reading> readings = new ArrayList<>();
+    private static long loopCount = 0;
+
+    /**
+     * Reads every registered value from the hardware. Call this once at the start of each loop.
+     */
+    public static void update() {
+        for (Reading reading : readings) reading.refresh();
+        loopCount++;
+    }
+
+    /**
+     * A sensor value read once per loop.
+     */
+    private abstract static class Reading {
+        private final String name;
+        protected long readCount = 0;
+        protected long requestCount = 0;
+
+        /**
+         * Registers a reading.
+         * @param name The name of the value, for the report.
+         */
+        protected Reading(String name) {
+            this.name = name;
+            readings.add(this);
+        }
+
+        /**
+         * Reads the value from the hardware now, and keeps it until the next loop.
+         */
+        public abstract void refresh();
+    }
+
+    /**
+     * A `double` sensor value read once per loop, e.g. an encoder position.
+     */
+    public static class DoubleReading extends Reading {
+        private final DoubleSupplier reader;
+        private double value;
+
+        /**
+         * Creates and registers a reading, and reads its first value.
+         * @param name The name of the value, for the report.
+         * @param reader The function reading the value from the hardware.
+         */
+        public DoubleReading(String name, DoubleSupplier reader) {
+            super(name);
+            this.reader = reader;
+            refresh();
+        }
+
+        @Override
+        public void refresh() {
+            value = reader.getAsDouble();
+            readCount++;
+        }
+
+        /**
+         * Gets the value read at the start of the loop.
+         * @return The value.
+         */
+        public double get() {
+            requestCount++;
+            return value;
+        }
+    }
+
+    /**
+     * A `boolean` sensor value read once per loop, e.g. a limit switch.
+     */
+    public static class BooleanReading extends Reading {
+        private final BooleanSupplier reader;
+        private boolean value;
+
+        /**
+         * Creates and registers a reading, and reads its first value.
+         * @param name The name of the value, for the report.
+         * @param reader The function reading the value from the hardware.
+         */
+        public BooleanReading(String name, BooleanSupplier reader) {
+            super(name);
+            this.reader = reader;
+            refresh();
+        }
+
+        @Override
+        public void refresh() {
+            value = reader.getAsBoolean();
+            readCount++;
+        }
+
+        /**
+         * Gets the value read at the start of the loop.
+         * @return The value.
+         */
+        public boolean get() {
+            requestCount++;
+            return value;
+        }
+    }
+
+    /**
+     * Gets a report of how many times per loop each value was requested, which is how many times the hardware was
+     * read per loop before the snapshot, and how many times it was actually read.
+     * @return The report.
+     */
+    public static String getReport() {
+        StringBuilder report = new StringBuilder("Hardware reads per loop:\n");
+        long loops = Math.max(loopCount, 1);
+
+        long totalRead = 0;
+        long totalRequested = 0;
+        for (Reading reading : readings) {
+            report.append(String.format(
+                "  %-28s %6.2f requested %6.2f read\n",
+                reading.name, (double) reading.requestCount / loops, (double) reading.readCount / loops
+            ));
+            totalRead += reading.readCount;
+            totalRequested += reading.requestCount;
+        }
+
+        report.append(String.format(
+            "  %.1f requested, %.1f read over %d loops",
+            (double) totalRequested / loops, (double) totalRead / loops, loopCount
+        ));
+        return report.toString();
+    }
+
+    /**
+     * Logs the report.
+     */
+    public static void report() {
+        DataLogManager.log(getReport());
+    }
+
+    /**
+     * Clears all registered readings.
+     */
+    public static void reset() {
+        readings.clear();
+        loopCount = 0;
+    }
+}
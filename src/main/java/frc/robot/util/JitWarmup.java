@@ -0,0 +1,469 @@
+package frc.robot.util;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordingStream;
+
+import org.photonvision.PhotonPoseEstimator;
+import org.photonvision.PhotonPoseEstimator.PoseStrategy;
+import org.photonvision.targeting.PhotonPipelineResult;
+import org.photonvision.targeting.PhotonTrackedTarget;
+import org.photonvision.targeting.TargetCorner;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.math.controller.HolonomicDriveController;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.InstantCommand;
+import edu.wpi.first.wpilibj2.command.ParallelRaceGroup;
+import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
+import edu.wpi.first.wpilibj2.command.WaitCommand;
+
+import frc.robot.commands.balancing.BalancePlanner;
+import frc.robot.commands.swerve.FollowPathCommand;
+import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
+import frc.robot.subsystems.drivetrain.SwerveModule;
+import frc.robot.subsystems.drivetrain.SwerveSetpointGenerator;
+
+import static frc.robot.Constants.SwerveConstants.MODULE_MAX_DRIVE_ACCEL;
+import static frc.robot.Constants.SwerveConstants.MODULE_MAX_STEER_VEL;
+import static frc.robot.Constants.VisionConstants.FRONT_CAMERA;
+import static frc.robot.Constants.VisionConstants.FRONT_CAMERA_POSE;
+
+/**
+ * Warms up the JIT compiler on the control code's hot paths while the robot is disabled, so that the first loops of
+ * auton don't run them interpreted. Each path exercises the same library and robot methods as the real loop on
+ * synthetic data, on objects of its own, so nothing is sent to the motors. Paths run round-robin in whatever time is
+ * left in each disabled loop, until their hot methods reach C2 or they have run `MAX_ITERATIONS` times.
+ *
+ * Where the JRE has JFR, its compilation events tell which tier each hot method reached, which is reported when the
+ * robot is enabled.
+ */
+public class JitWarmup {
+    // Paths stop after this many iterations even if their hot methods weren't seen reaching C2
+    private static final int MAX_ITERATIONS = 20_000;
+
+    // HotSpot compile levels: 0 is the interpreter, 1 to 3 are C1, and 4 is C2
+    private static final int C2_LEVEL = 4;
+
+    private static final double LOOP_SECONDS = TimedRobot.kDefaultPeriod;
+
+    private final List<WarmupPath> paths = new ArrayList<>();
+    private final CompilationMonitor monitor;
+    private int nextPath = 0;
+
+    /**
+     * A hot path, and the methods on it that should be compiled.
+     */
+    private static class WarmupPath {
+        public final String name;
+        public final Runnable body;
+        public final String[] hotMethods;
+        public int iterations = 0;
+
+        public WarmupPath(String name, Runnable body, String[] hotMethods) {
+            this.name = name;
+            this.body = body;
+            this.hotMethods = hotMethods;
+        }
+    }
+
+    /**
+     * Creates the warm-up paths for a swerve drivetrain, and starts watching for compilations of their hot methods.
+     * @param swerveSubsystem The drivetrain, whose kinematics and limits the synthetic data uses. It isn't commanded.
+     */
+    public JitWarmup(BaseSwerveSubsystem swerveSubsystem) {
+        SwerveDriveKinematics kinematics = swerveSubsystem.getKinematics();
+
+        addPathFollowing(swerveSubsystem, kinematics);
+        addSetpointGeneration(swerveSubsystem, kinematics);
+        addModuleOptimization();
+        addPoseEstimation(kinematics);
+        addBalancePlanning();
+        addVisionEstimation();
+        addCommandComposition();
+
+        Set<String> hotMethods = new HashSet<>();
+        for (WarmupPath path : paths) hotMethods.addAll(List.of(path.hotMethods));
+
+        CompilationMonitor startedMonitor;
+        try {
+            startedMonitor = new CompilationMonitor(hotMethods);
+        } catch (LinkageError | RuntimeException e) {
+            // The JRE may be built without JFR
+            startedMonitor = null;
+        }
+        monitor = startedMonitor;
+    }
+
+    /**
+     * Adds a path, e.g. for a new hot method.
+     * @param name The name of the path, for the report.
+     * @param body One iteration of the path.
+     * @param hotMethods The methods the path should get compiled, as fully qualified `class.method` names.
+     */
+    public void addPath(String name, Runnable body, String... hotMethods) {
+        paths.add(new WarmupPath(name, body, hotMethods));
+    }
+
+    /**
+     * Samples a trajectory and tracks it like `FollowPathCommand`, without commanding the modules.
+     * @param swerveSubsystem The drivetrain, for its limits.
+     * @param kinematics The kinematics of the drivetrain.
+     */
+    private void addPathFollowing(BaseSwerveSubsystem swerveSubsystem, SwerveDriveKinematics kinematics) {
+        Trajectory trajectory = FollowPathCommand.createWheelHeadingTrajectory(
+            new Pose2d(), List.of(new Translation2d(1.5, 0.5)), new Pose2d(3.0, 1.0, new Rotation2d()),
+            FollowPathCommand.createConfig(swerveSubsystem, false, false)
+        );
+        HolonomicDriveController controller = new HolonomicDriveController(
+            new PIDController(1.5, 0, 0),
+            new PIDController(1.5, 0, 0),
+            new ProfiledPIDController(
+                1.5, 0, 0, new TrapezoidProfile.Constraints(swerveSubsystem.MAX_OMEGA, swerveSubsystem.MAX_ALPHA)
+            )
+        );
+        int[] step = { 0 };
+
+        addPath("Path following", () -> {
+            double seconds = (step[0]++ * LOOP_SECONDS) % trajectory.getTotalTimeSeconds();
+            Trajectory.State state = trajectory.sample(seconds);
+            Pose2d measured = state.poseMeters.plus(new Transform2d(
+                new Translation2d(0.02 * Math.sin(seconds), 0.02 * Math.cos(seconds)), new Rotation2d()
+            ));
+
+            ChassisSpeeds speeds = controller.calculate(measured, state, Rotation2d.fromDegrees(seconds));
+            SwerveModuleState[] states = kinematics.toSwerveModuleStates(speeds);
+            SwerveDriveKinematics.desaturateWheelSpeeds(states, swerveSubsystem.MAX_VEL);
+        },
+            "edu.wpi.first.math.trajectory.Trajectory.sample",
+            "edu.wpi.first.math.controller.HolonomicDriveController.calculate",
+            // The drivetrain's kinematics may override it, e.g. `FourModuleSwerveKinematics`
+            kinematics.getClass().getName() + ".toSwerveModuleStates"
+        );
+    }
+
+    /**
+     * Generates module setpoints for changing chassis speeds, on a generator of its own.
+     * @param swerveSubsystem The drivetrain, for its limits.
+     * @param kinematics The kinematics of the drivetrain.
+     */
+    private void addSetpointGeneration(BaseSwerveSubsystem swerveSubsystem, SwerveDriveKinematics kinematics) {
+        SwerveSetpointGenerator generator = new SwerveSetpointGenerator(
+            kinematics,
+            swerveSubsystem.MAX_VEL, swerveSubsystem.MAX_OMEGA,
+            MODULE_MAX_DRIVE_ACCEL, MODULE_MAX_STEER_VEL
+        );
+        int[] step = { 0 };
+
+        addPath("Setpoint generation", () -> {
+            double phase = step[0]++ * 0.05;
+            generator.generate(new ChassisSpeeds(
+                swerveSubsystem.MAX_VEL * Math.sin(phase), swerveSubsystem.MAX_VEL * Math.cos(0.7 * phase),
+                swerveSubsystem.MAX_OMEGA * Math.sin(0.3 * phase)
+            ), LOOP_SECONDS);
+        },
+            "frc.robot.subsystems.drivetrain.SwerveSetpointGenerator.generate"
+        );
+    }
+
+    /**
+     * Optimizes module states against unwrapped module angles.
+     */
+    private void addModuleOptimization() {
+        int[] step = { 0 };
+
+        addPath("Module optimization", () -> {
+            double phase = step[0]++ * 0.1;
+            SwerveModule.optimizeWithWraparound(
+                new SwerveModuleState(Math.sin(phase), new Rotation2d(3.0 * phase)),
+                new Rotation2d(10.0 * Math.sin(0.1 * phase))
+            );
+        },
+            "frc.robot.subsystems.drivetrain.SwerveModule.optimizeWithWraparound"
+        );
+    }
+
+    /**
+     * Updates a pose estimator of its own with odometry, and occasionally a vision measurement.
+     * @param kinematics The kinematics of the drivetrain.
+     */
+    private void addPoseEstimation(SwerveDriveKinematics kinematics) {
+        int moduleCount = kinematics.toSwerveModuleStates(new ChassisSpeeds()).length;
+        SwerveModulePosition[] positions = new SwerveModulePosition[moduleCount];
+        for (int i = 0; i < positions.length; i++) positions[i] = new SwerveModulePosition();
+        SwerveDrivePoseEstimator estimator = new SwerveDrivePoseEstimator(
+            kinematics, new Rotation2d(), positions, new Pose2d()
+        );
+        int[] step = { 0 };
+
+        addPath("Pose estimation", () -> {
+            int i = step[0]++;
+            for (int module = 0; module < positions.length; module++) {
+                positions[module] = new SwerveModulePosition(i * 0.01, new Rotation2d(0.01 * i + module));
+            }
+            Pose2d estimate = estimator.update(new Rotation2d(0.001 * i), positions);
+
+            if (i % 10 == 0) estimator.addVisionMeasurement(estimate, Timer.getFPGATimestamp() - 0.05);
+        },
+            "edu.wpi.first.math.estimator.SwerveDrivePoseEstimator.updateWithTime",
+            "edu.wpi.first.math.estimator.SwerveDrivePoseEstimator.addVisionMeasurement"
+        );
+    }
+
+    /**
+     * Estimates the charging station's state and plans across it from a robot rocking about the hinge, on a planner
+     * of its own.
+     */
+    private void addBalancePlanning() {
+        BalancePlanner planner = new BalancePlanner();
+        int[] step = { 0 };
+
+        addPath("Balance planning", () -> {
+            double phase = step[0]++ * 0.05;
+            double position = 0.5 * Math.sin(phase);
+            double angle = BalancePlanner.estimateAngleRads(position, 0.2 * Math.cos(phase), true, 0);
+            planner.solve(position, 0.5 * Math.cos(phase), angle, -0.2 * Math.sin(phase));
+        },
+            "frc.robot.commands.balancing.BalancePlanner.solve",
+            "frc.robot.commands.balancing.BalancePlanner.estimateAngleRads"
+        );
+    }
+
+    /**
+     * Estimates the robot's pose from a synthetic detection of a tag, on an estimator of its own set up like
+     * `PhotonWrapper`'s. With one tag, the estimator takes its per-tag fallback, which doesn't need camera
+     * intrinsics. The field layout is slow to load, so it's loaded on the first iteration rather than at startup.
+     */
+    private void addVisionEstimation() {
+        PhotonPoseEstimator[] estimator = { null };
+        boolean[] unavailable = { false };
+
+        // In front of a tag on the blue grid, facing it
+        int tagId = 8;
+        Pose3d[] tagPose = { null };
+        List<TargetCorner> corners = List.of(
+            new TargetCorner(600, 420), new TargetCorner(680, 420),
+            new TargetCorner(680, 380), new TargetCorner(600, 380)
+        );
+        int[] step = { 0 };
+
+        addPath("Vision estimation", () -> {
+            if (unavailable[0]) return;
+            if (estimator[0] == null) {
+                AprilTagFieldLayout fieldLayout;
+                try {
+                    fieldLayout = AprilTagFields.k2023ChargedUp.loadAprilTagLayoutField();
+                } catch (IOException e) {
+                    unavailable[0] = true;
+                    return;
+                }
+
+                estimator[0] = new PhotonPoseEstimator(
+                    fieldLayout, PoseStrategy.MULTI_TAG_PNP, FRONT_CAMERA, FRONT_CAMERA_POSE
+                );
+                estimator[0].setMultiTagFallbackStrategy(PoseStrategy.CLOSEST_TO_REFERENCE_POSE);
+                tagPose[0] = fieldLayout.getTagPose(tagId).get();
+            }
+
+            int i = step[0]++;
+            Pose2d robotPose = new Pose2d(2.5 + 0.5 * Math.sin(0.01 * i), 1.0, Rotation2d.fromDegrees(180));
+            Transform3d cameraToTag = new Transform3d(
+                new Pose3d(robotPose).transformBy(FRONT_CAMERA_POSE), tagPose[0]
+            );
+
+            PhotonPipelineResult result = new PhotonPipelineResult(30, List.of(new PhotonTrackedTarget(
+                0, 0, 0.5, 0, tagId, cameraToTag, cameraToTag, 0.1, corners, corners
+            )));
+
+            // The estimator skips results with the same timestamp as the last
+            result.setTimestampSeconds(i * LOOP_SECONDS);
+            estimator[0].setReferencePose(robotPose);
+            estimator[0].update(result);
+        },
+            "org.photonvision.PhotonPoseEstimator.update"
+        );
+    }
+
+    /**
+     * Composes command groups like the auton routines do, without scheduling them.
+     */
+    private void addCommandComposition() {
+        addPath("Command composition", () -> {
+            new SequentialCommandGroup(
+                new InstantCommand(),
+                new WaitCommand(1.0).withTimeout(0.5),
+                new ParallelRaceGroup(new WaitCommand(1.0), new InstantCommand().until(() -> true))
+            );
+        },
+            "edu.wpi.first.wpilibj2.command.SequentialCommandGroup.addCommands",
+            "edu.wpi.first.wpilibj2.command.ParallelRaceGroup.addCommands"
+        );
+    }
+
+    /**
+     * Runs iterations of the paths that aren't warm yet, round-robin, for up to a given time.
+     * @param budgetSeconds The time to spend, e.g. what is left of the current loop.
+     */
+    public void run(double budgetSeconds) {
+        long deadlineNanos = System.nanoTime() + (long) (budgetSeconds * 1e9);
+
+        int idlePaths = 0;
+        while (idlePaths < paths.size() && System.nanoTime() < deadlineNanos) {
+            WarmupPath path = paths.get(nextPath);
+            nextPath = (nextPath + 1) % paths.size();
+
+            if (isWarm(path)) {
+                idlePaths++;
+                continue;
+            }
+            idlePaths = 0;
+
+            path.body.run();
+            path.iterations++;
+        }
+    }
+
+    /**
+     * Gets whether every path is warm, so there's nothing left to run.
+     * @return Whether the warm-up is complete.
+     */
+    public boolean isComplete() {
+        for (WarmupPath path : paths) {
+            if (!isWarm(path)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets whether a path is warm: its hot methods reached C2, or it has run its maximum number of iterations.
+     * @param path The path.
+     * @return Whether the path is warm.
+     */
+    private boolean isWarm(WarmupPath path) {
+        if (path.iterations >= MAX_ITERATIONS) return true;
+        if (monitor == null) return false;
+
+        for (String method : path.hotMethods) {
+            if (monitor.getLevel(method) < C2_LEVEL) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets a report of each path's iterations, and the highest tier each hot method was compiled at.
+     * @return The report.
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder("JIT warm-up:\n");
+        for (WarmupPath path : paths) {
+            report.append(String.format("  %-20s %6d iterations\n", path.name, path.iterations));
+            for (String method : path.hotMethods) {
+                report.append(String.format("    %-40s %s\n", getShortName(method), getTier(method)));
+            }
+        }
+        report.append(monitor == null
+            ? "  Compile tiers unknown: JFR isn't available"
+            : String.format("  Complete: %s", isComplete() ? "yes" : "no"));
+        return report.toString();
+    }
+
+    /**
+     * Gets the name of the highest tier a method was compiled at.
+     * @param method The fully qualified name of the method.
+     * @return The tier.
+     */
+    private String getTier(String method) {
+        if (monitor == null) return "unknown";
+
+        int level = monitor.getLevel(method);
+        if (level >= C2_LEVEL) return "C2";
+        if (level > 0) return "C1 (level " + level + ")";
+        return "interpreted";
+    }
+
+    /**
+     * Gets the class and method name of a fully qualified method name.
+     * @param method The fully qualified name of the method.
+     * @return The short name.
+     */
+    private static String getShortName(String method) {
+        int classStart = method.lastIndexOf('.', method.lastIndexOf('.') - 1);
+        return method.substring(classStart + 1);
+    }
+
+    /**
+     * Logs the report and stops watching for compilations. Call this when the robot is enabled.
+     */
+    public void finish() {
+        DataLogManager.log(getReport());
+        if (monitor != null) monitor.close();
+    }
+
+    /**
+     * Watches JFR's compilation events for the highest level each of a set of methods was compiled at. This is
+     * separate from `JitWarmup` so that a JRE without JFR only fails to load this class.
+     */
+    private static class CompilationMonitor {
+        private final RecordingStream stream;
+        private final Map<String, Integer> levels = new ConcurrentHashMap<>();
+
+        /**
+         * Starts watching for compilations.
+         * @param methods The fully qualified names of the methods to watch.
+         */
+        public CompilationMonitor(Set<String> methods) {
+            stream = new RecordingStream();
+            stream.enable("jdk.Compilation").withThreshold(Duration.ZERO);
+            stream.onEvent("jdk.Compilation", (event) -> {
+                if (!event.getBoolean("succeded")) return;
+
+                RecordedMethod method = event.getValue("method");
+                String name = method.getType().getName() + "." + method.getName();
+                if (methods.contains(name)) levels.merge(name, event.getInt("compileLevel"), Math::max);
+            });
+            stream.startAsync();
+        }
+
+        /**
+         * Gets the highest level a method was compiled at.
+         * @param method The fully qualified name of the method.
+         * @return The level, or 0 if it wasn't compiled.
+         */
+        public int getLevel(String method) {
+            return levels.getOrDefault(method, 0);
+        }
+
+        /**
+         * Stops watching for compilations.
+         */
+        public void close() {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package frc.robot.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * A file on the roboRIO recording the hash of the configuration last burned to each motor controller, so that
+ * controllers whose configuration hasn't changed can skip being reconfigured on boot. The hash alone can't tell
+ * that a controller was replaced, so `MotorUtil` also reads back a fingerprint of the configuration from the
+ * controller (see `SparkMaxConfig.matches()`) before skipping it. Delete the file (or change the configuration) to
+ * force every controller to be reconfigured.
+ *
+ * All methods are synchronized, since controllers are configured concurrently.
+ */
+public class MotorConfigCache {
+    private static final String FILE_NAME = "motor-config-cache.properties";
+
+    private final File file;
+    private final Properties hashes = new Properties();
+    private boolean dirty = false;
+
+    /**
+     * Loads the cache from the robot's operating directory (`/home/lvuser` on the roboRIO).
+     */
+    public MotorConfigCache() {
+        this(new File(Filesystem.getOperatingDirectory(), FILE_NAME));
+    }
+
+    /**
+     * Loads the cache from a file. A missing or unreadable file is treated as an empty cache.
+     * @param file The cache file.
+     */
+    public MotorConfigCache(File file) {
+        this.file = file;
+        if (!file.exists()) return;
+
+        try (InputStream input = new FileInputStream(file)) {
+            hashes.load(input);
+        } catch (IOException e) {
+            DriverStation.reportWarning("Couldn't read motor config cache: " + e.getMessage(), false);
+            hashes.clear();
+        }
+    }
+
+    /**
+     * Gets whether a device was last configured with a configuration of a given hash.
+     * @param key The key of the device, e.g. "sparkmax.3".
+     * @param hash The hash of the desired configuration.
+     * @return Whether the hashes match.
+     */
+    public synchronized boolean matches(String key, int hash) {
+        return Integer.toString(hash).equals(hashes.getProperty(key));
+    }
+
+    /**
+     * Records that a device was configured with a configuration of a given hash.
+     * @param key The key of the device, e.g. "sparkmax.3".
+     * @param hash The hash of the configuration.
+     */
+    public synchronized void put(String key, int hash) {
+        hashes.setProperty(key, Integer.toString(hash));
+        dirty = true;
+    }
+
+    /**
+     * Removes the record of a device, so that it is reconfigured on the next boot.
+     * @param key The key of the device, e.g. "sparkmax.3".
+     */
+    public synchronized void remove(String key) {
+        if (hashes.remove(key) != null) dirty = true;
+    }
+
+    /**
+     * Writes the cache back to its file, if anything changed.
+     */
+    public synchronized void save() {
+        if (!dirty) return;
+
+        try (OutputStream output = new FileOutputStream(file)) {
+            hashes.store(output, "Hashes of the configuration burned to each motor controller");
+            dirty = false;
+        } catch (IOException e) {
+            DriverStation.reportWarning("Couldn't write motor config cache: " + e.getMessage(), false);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package frc.robot.util;
+
+/**
+ * The role of a motor controller on the CAN bus, which determines how often it sends each of its status frames.
+ * Frames that nothing on the roboRIO reads are slowed to their minimum rate so that they don't take bus time away
+ * from the swerve drive and steer traffic.
+ *
+ * SparkMax periods are given for status frames 0-6 (0: applied output and faults, 1: velocity, temperature,
+ * voltage and current, 2: position, 3: analog sensor, 4: alternate encoder, 5-6: duty cycle absolute encoder).
+ * Talon periods are given in the order of `MotorUtil.TALON_STATUS_FRAMES`, and are capped at 255ms by Phoenix.
+ */
+public enum MotorRole {
+    /**
+     * Factory default frame rates, left untouched.
+     */
+    DEFAULT(
+        new int[] { 10, 20, 20, 50, 20, 200, 200 },
+        new int[] { 10, 20, 160, 160, 160, 160, 160, 160, 160 }
+    ),
+
+    /**
+     * A closed-loop mechanism motor that other motors follow. Applied output stays fast since followers mirror it,
+     * and velocity and position are read by the mechanism.
+     */
+    LEADER(
+        new int[] { 10, 20, 20, 500, 500, 500, 500 },
+        new int[] { 10, 20, 255, 255, 255, 255, 255, 255, 255 }
+    ),
+
+    /**
+     * A motor following a leader. Nothing on the roboRIO reads it, so only faults are sent at a reduced rate.
+     */
+    FOLLOWER(
+        new int[] { 100, 500, 500, 500, 500, 500, 500 },
+        new int[] { 100, 255, 255, 255, 255, 255, 255, 255, 255 }
+    ),
+
+    /**
+     * A swerve drive motor, whose velocity and position are read every loop for odometry.
+     */
+    DRIVE(
+        new int[] { 20, 20, 20, 500, 500, 500, 500 },
+        new int[] { 20, 20, 255, 255, 255, 255, 255, 255, 255 }
+    ),
+
+    /**
+     * A swerve steer motor, whose position and analog absolute encoder are read every loop.
+     */
+    STEER(
+        new int[] { 20, 100, 20, 20, 500, 500, 500 },
+        new int[] { 20, 20, 255, 20, 255, 255, 255, 255, 255 }
+    ),
+
+    /**
+     * A motor controller used for its sensors; its own output isn't read.
+     */
+    SENSOR_ONLY(
+        new int[] { 100, 20, 20, 50, 20, 200, 200 },
+        new int[] { 100, 20, 160, 160, 160, 255, 255, 255, 255 }
+    ),
+
+    /**
+     * An open-loop motor (e.g. an intake) that is only ever commanded, never read.
+     */
+    OPEN_LOOP(
+        new int[] { 20, 500, 500, 500, 500, 500, 500 },
+        new int[] { 20, 255, 255, 255, 255, 255, 255, 255, 255 }
+    );
+
+    public final int[] sparkMaxStatusPeriodsMs;
+    public final int[] talonStatusPeriodsMs;
+
+    private MotorRole(int[] sparkMaxStatusPeriodsMs, int[] talonStatusPeriodsMs) {
+        this.sparkMaxStatusPeriodsMs = sparkMaxStatusPeriodsMs;
+        this.talonStatusPeriodsMs = talonStatusPeriodsMs;
+    }
+
+    /**
+     * Gets whether motors in this role are sent setpoints every loop. Followers are configured once and then
+     * mirror their leader (though Phoenix keeps sending Talon followers their follow control frame).
+     * @return Whether the motor is commanded every loop.
+     */
+    public boolean isCommanded() {
+        return this != FOLLOWER;
+    }
+}
@@ -1,8 +1,17 @@
 package frc.robot.util;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
 import com.ctre.phoenix.motorcontrol.SupplyCurrentLimitConfiguration;
 import com.ctre.phoenix.motorcontrol.can.WPI_TalonFX;
 import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
@@ -12,25 +21,112 @@ import com.revrobotics.MotorFeedbackSensor;
 import com.revrobotics.REVLibError;
 import com.revrobotics.SparkMaxPIDController;
 import com.revrobotics.CANSparkMaxLowLevel.MotorType;
+import com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame;
 
+import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.DriverStation;
 
 public class MotorUtil {
+    // The Talon status frames whose periods are set by a `MotorRole`, in order
+    public static final StatusFrameEnhanced[] TALON_STATUS_FRAMES = {
+        StatusFrameEnhanced.Status_1_General,
+        StatusFrameEnhanced.Status_2_Feedback0,
+        StatusFrameEnhanced.Status_3_Quadrature,
+        StatusFrameEnhanced.Status_4_AinTempVbat,
+        StatusFrameEnhanced.Status_8_PulseWidth,
+        StatusFrameEnhanced.Status_10_Targets,
+        StatusFrameEnhanced.Status_12_Feedback1,
+        StatusFrameEnhanced.Status_13_Base_PIDF0,
+        StatusFrameEnhanced.Status_14_Turn_PIDF1
+    };
+
+    // The SparkMax status frames whose periods are set by a `MotorRole`, in order
+    public static final PeriodicFrame[] SPARK_MAX_STATUS_FRAMES = {
+        PeriodicFrame.kStatus0,
+        PeriodicFrame.kStatus1,
+        PeriodicFrame.kStatus2,
+        PeriodicFrame.kStatus3,
+        PeriodicFrame.kStatus4,
+        PeriodicFrame.kStatus5,
+        PeriodicFrame.kStatus6
+    };
+
+    // Talons keep their configuration in flash as it is set, so the hash of the configuration applied by
+    // `createTalonSRX()` is stored in one of their custom parameters. Bump the version when that configuration
+    // changes in a way the hash doesn't cover.
+    private static final int TALON_CONFIG_VERSION = 1;
+    private static final SupplyCurrentLimitConfiguration TALON_CURRENT_LIMIT = new SupplyCurrentLimitConfiguration(true, 60.0, 60.0, 0.2);
+    private static final int TALON_CONFIG_HASH = String.format(
+        "v%d supply=%b/%s/%s/%s",
+        TALON_CONFIG_VERSION, TALON_CURRENT_LIMIT.enable,
+        Double.toString(TALON_CURRENT_LIMIT.currentLimit),
+        Double.toString(TALON_CURRENT_LIMIT.triggerThresholdCurrent),
+        Double.toString(TALON_CURRENT_LIMIT.triggerThresholdTime)
+    ).hashCode();
+    private static final int TALON_CONFIG_HASH_PARAM = 0;
+
+    // SparkMaxes created from a `SparkMaxConfig` are configured concurrently on these threads
+    private static final int CONFIG_THREADS = 4;
+    private static final ExecutorService configExecutor = Executors.newFixedThreadPool(CONFIG_THREADS, (runnable) -> {
+        Thread thread = new Thread(runnable, "MotorConfig");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final Map<CANSparkMax, Future<?>> pendingConfigs = new LinkedHashMap<>();
+    private static MotorConfigCache configCache;
+
+    private static long configStartNanos = -1;
+    private static final AtomicLong configCallNanos = new AtomicLong();
+    private static final AtomicInteger configuredCount = new AtomicInteger();
+    private static final AtomicInteger skippedCount = new AtomicInteger();
+
     /**
-     * Creates a WPI_TalonSRX on a given device ID, configuring it with global defaults.
+     * Creates a WPI_TalonSRX on a given device ID, configuring it with global defaults and the status frame
+     * rates of its role.
      * @param deviceId The CAN ID of the Talon.
+     * @param role The role of the Talon on the CAN bus.
      * @return The configured Talon.
      */
-    public static WPI_TalonSRX createTalonSRX(int deviceId) {
+    public static WPI_TalonSRX createTalonSRX(int deviceId, MotorRole role) {
         WPI_TalonSRX talon = new WPI_TalonSRX(deviceId);
+        startConfigurationTimer();
+        long start = System.nanoTime();
 
-        // Set 60.0 amp current limit to kick in after 0.2 seconds
-        checkError(deviceId, talon.configFactoryDefault(), "factory reset");
-        checkError(deviceId, talon.configSupplyCurrentLimit(new SupplyCurrentLimitConfiguration(true, 60.0, 60.0, 0.2)), "current limit");
+        // Set 60.0 amp current limit to kick in after 0.2 seconds, unless the Talon already has it
+        if (talon.configGetCustomParam(TALON_CONFIG_HASH_PARAM) == TALON_CONFIG_HASH) {
+            skippedCount.incrementAndGet();
+        } else {
+            boolean ok = checkError(deviceId, talon.configFactoryDefault(), "factory reset");
+            ok &= checkError(deviceId, talon.configSupplyCurrentLimit(TALON_CURRENT_LIMIT), "current limit");
+            if (ok) checkError(deviceId, talon.configSetCustomParam(TALON_CONFIG_HASH, TALON_CONFIG_HASH_PARAM), "config hash");
+            configuredCount.incrementAndGet();
+        }
+        configCallNanos.addAndGet(System.nanoTime() - start);
+
+        // Set status frame rates
+        if (role != MotorRole.DEFAULT) {
+            for (int i = 0; i < TALON_STATUS_FRAMES.length; i++) {
+                checkError(
+                    deviceId,
+                    talon.setStatusFramePeriod(TALON_STATUS_FRAMES[i], role.talonStatusPeriodsMs[i]),
+                    "status frame " + TALON_STATUS_FRAMES[i].name()
+                );
+            }
+        }
+        CANBusBudget.registerTalon(deviceId, role);
 
         return talon;
     }
 
+    /**
+     * Creates a WPI_TalonSRX on a given device ID, configuring it with global defaults.
+     * @param deviceId The CAN ID of the Talon.
+     * @return The configured Talon.
+     */
+    public static WPI_TalonSRX createTalonSRX(int deviceId) {
+        return createTalonSRX(deviceId, MotorRole.DEFAULT);
+    }
+
     /**
      * Creates a WPI_TalonSRX on a given device ID, configuring it with global defaults.
      * @param deviceId The CAN ID of the Talon.
@@ -42,23 +138,30 @@ public class MotorUtil {
         // Set 60.0 amp current limit to kick in after 0.2 seconds
         checkError(deviceId, talon.configFactoryDefault(), "factory reset");
         checkError(deviceId, talon.configSupplyCurrentLimit(new SupplyCurrentLimitConfiguration(true, 60.0, 60.0, 0.2)), "current limit");
+        CANBusBudget.registerTalon(deviceId, MotorRole.DEFAULT);
 
         return talon;
     }
 
     /**
-     * Creates a CANSparkMax on a given device ID and motor type, configuring it with global defaults.
+     * Creates a CANSparkMax on a given device ID and motor type, configuring it with global defaults and the
+     * status frame rates of its role.
      * @param deviceId The CAN ID of the SparkMax.
      * @param motorType The SparkMax's motor type (kBrushed or kBrushless).
+     * @param role The role of the SparkMax on the CAN bus.
      * @param configureMotor A callback to configure the motor further before settings are burned to flash.
      * @return The configured SparkMax.
      */
-    public static CANSparkMax createSparkMax(int deviceId, MotorType motorType, Consumer<CANSparkMax> configureMotor) {
+    public static CANSparkMax createSparkMax(
+        int deviceId, MotorType motorType, MotorRole role, Consumer<CANSparkMax> configureMotor
+    ) {
         CANSparkMax spark = new CANSparkMax(deviceId, motorType);
 
         // Set 60.0 amp current limit
         checkError(deviceId, spark.restoreFactoryDefaults(), "factory reset");
         checkError(deviceId, spark.setSmartCurrentLimit(60), "current limit");
+        setStatusFramePeriods(spark, role);
+        CANBusBudget.registerSparkMax(deviceId, role);
 
         // Apply manually configured settings
         configureMotor.accept(spark);
@@ -67,6 +170,29 @@ public class MotorUtil {
         return spark;
     }
 
+    /**
+     * Creates a CANSparkMax on a given device ID and motor type, configuring it with global defaults.
+     * @param deviceId The CAN ID of the SparkMax.
+     * @param motorType The SparkMax's motor type (kBrushed or kBrushless).
+     * @param configureMotor A callback to configure the motor further before settings are burned to flash.
+     * @return The configured SparkMax.
+     */
+    public static CANSparkMax createSparkMax(int deviceId, MotorType motorType, Consumer<CANSparkMax> configureMotor) {
+        return createSparkMax(deviceId, motorType, MotorRole.DEFAULT, configureMotor);
+    }
+
+    /**
+     * Creates a brushless CANSparkMax on a given device ID, configuring it with global defaults and the status
+     * frame rates of its role.
+     * @param deviceId The CAN ID of the SparkMax.
+     * @param role The role of the SparkMax on the CAN bus.
+     * @param configureMotor A callback to configure the motor further before settings are burned to flash.
+     * @return The configured SparkMax.
+     */
+    public static CANSparkMax createSparkMax(int deviceId, MotorRole role, Consumer<CANSparkMax> configureMotor) {
+        return createSparkMax(deviceId, MotorType.kBrushless, role, configureMotor);
+    }
+
     /**
      * Creates a brushless CANSparkMax on a given device ID, configuring it with global defaults.
      * @param deviceId The CAN ID of the SparkMax.
@@ -87,17 +213,21 @@ public class MotorUtil {
     }
 
     /**
-     * Creates a brushless CANSparkMax for a NEO 550 on a given device ID, configuring it with global defaults.
+     * Creates a brushless CANSparkMax for a NEO 550 on a given device ID, configuring it with global defaults and
+     * the status frame rates of its role.
      * @param deviceId The CAN ID of the SparkMax.
+     * @param role The role of the SparkMax on the CAN bus.
      * @param configureMotor A callback to configure the motor further before settings are burned to flash.
      * @return The configured SparkMax.
      */
-    public static CANSparkMax createSparkMax550(int deviceId, Consumer<CANSparkMax> configureMotor) {
+    public static CANSparkMax createSparkMax550(int deviceId, MotorRole role, Consumer<CANSparkMax> configureMotor) {
         CANSparkMax spark = new CANSparkMax(deviceId, MotorType.kBrushless);
 
         // Set 20.0 amp current limit
         checkError(deviceId, spark.restoreFactoryDefaults(), "factory reset");
         checkError(deviceId, spark.setSmartCurrentLimit(20), "current limit");
+        setStatusFramePeriods(spark, role);
+        CANBusBudget.registerSparkMax(deviceId, role);
 
         // Apply manually configured settings
         configureMotor.accept(spark);
@@ -106,6 +236,16 @@ public class MotorUtil {
         return spark;
     }
 
+    /**
+     * Creates a brushless CANSparkMax for a NEO 550 on a given device ID, configuring it with global defaults.
+     * @param deviceId The CAN ID of the SparkMax.
+     * @param configureMotor A callback to configure the motor further before settings are burned to flash.
+     * @return The configured SparkMax.
+     */
+    public static CANSparkMax createSparkMax550(int deviceId, Consumer<CANSparkMax> configureMotor) {
+        return createSparkMax550(deviceId, MotorRole.DEFAULT, configureMotor);
+    }
+
     /**
      * Creates a brushless CANSparkMax for a NEO 550 on a given device ID, configuring it with global defaults.
      * @param deviceId The CAN ID of the SparkMax.
@@ -115,6 +255,131 @@ public class MotorUtil {
         return createSparkMax550(deviceId, (sparkMax) -> {});
     }
 
+    /**
+     * Creates a brushless CANSparkMax on a given device ID from a persistent configuration, with a 60 amp current
+     * limit unless the configuration sets one. The SparkMax is configured in the background, and only if its
+     * configuration changed since it was last configured; call `awaitConfiguration()` before reading its sensors.
+     * @param deviceId The CAN ID of the SparkMax.
+     * @param role The role of the SparkMax on the CAN bus.
+     * @param config The persistent configuration of the SparkMax.
+     * @return The SparkMax.
+     */
+    public static CANSparkMax createSparkMax(int deviceId, MotorRole role, SparkMaxConfig config) {
+        if (!config.hasSmartCurrentLimit()) config.smartCurrentLimit(60);
+        return createConfiguredSparkMax(deviceId, role, config);
+    }
+
+    /**
+     * Creates a brushless CANSparkMax for a NEO 550 on a given device ID from a persistent configuration, with a
+     * 20 amp current limit unless the configuration sets one. The SparkMax is configured in the background, and
+     * only if its configuration changed since it was last configured; call `awaitConfiguration()` before reading
+     * its sensors.
+     * @param deviceId The CAN ID of the SparkMax.
+     * @param role The role of the SparkMax on the CAN bus.
+     * @param config The persistent configuration of the SparkMax.
+     * @return The SparkMax.
+     */
+    public static CANSparkMax createSparkMax550(int deviceId, MotorRole role, SparkMaxConfig config) {
+        if (!config.hasSmartCurrentLimit()) config.smartCurrentLimit(20);
+        return createConfiguredSparkMax(deviceId, role, config);
+    }
+
+    /**
+     * Waits for SparkMaxes created from a `SparkMaxConfig` to finish being configured.
+     * @param sparks The SparkMaxes to wait for.
+     */
+    public static void awaitConfiguration(CANSparkMax... sparks) {
+        for (CANSparkMax spark : sparks) {
+            Future<?> pending = pendingConfigs.get(spark);
+            if (pending == null) continue;
+
+            try {
+                pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                DriverStation.reportError(
+                    "Error configuring SparkMax " + spark.getDeviceId() + ": " + e.getCause(),
+                    e.getCause().getStackTrace()
+                );
+            }
+        }
+    }
+
+    /**
+     * Waits for every motor controller to finish being configured, saves the configuration cache, and logs how
+     * long configuration took.
+     */
+    public static void finishConfiguration() {
+        awaitConfiguration(pendingConfigs.keySet().toArray(new CANSparkMax[0]));
+        pendingConfigs.clear();
+        if (configCache != null) configCache.save();
+        if (configStartNanos < 0) return;
+
+        DataLogManager.log(String.format(
+            "Configured %d motor controllers and skipped %d unchanged in %.0fms (%.0fms of configuration calls)",
+            configuredCount.get(), skippedCount.get(),
+            (System.nanoTime() - configStartNanos) / 1e6, configCallNanos.get() / 1e6
+        ));
+        configStartNanos = -1;
+    }
+
+    /**
+     * Creates a brushless SparkMax and queues its configuration.
+     * @param deviceId The CAN ID of the SparkMax.
+     * @param role The role of the SparkMax on the CAN bus.
+     * @param config The persistent configuration of the SparkMax.
+     * @return The SparkMax.
+     */
+    private static CANSparkMax createConfiguredSparkMax(int deviceId, MotorRole role, SparkMaxConfig config) {
+        CANSparkMax spark = new CANSparkMax(deviceId, MotorType.kBrushless);
+        if (configCache == null) configCache = new MotorConfigCache();
+        startConfigurationTimer();
+
+        CANBusBudget.registerSparkMax(deviceId, role);
+        pendingConfigs.put(spark, configExecutor.submit(() -> configureSparkMax(spark, role, config)));
+        return spark;
+    }
+
+    /**
+     * Configures a SparkMax, skipping the persistent configuration if the cache shows it is already applied and
+     * the settings read back from the controller agree, so a swapped or retuned controller is still configured.
+     * Settings that can't be read back and status frame periods are always set.
+     * @param spark The SparkMax.
+     * @param role The role of the SparkMax on the CAN bus.
+     * @param config The persistent configuration of the SparkMax.
+     */
+    private static void configureSparkMax(CANSparkMax spark, MotorRole role, SparkMaxConfig config) {
+        long start = System.nanoTime();
+        int deviceId = spark.getDeviceId();
+        String key = "sparkmax." + deviceId;
+        int hash = config.getHash();
+
+        if (configCache.matches(key, hash) && config.matches(spark)) {
+            config.applyUnreadable(spark);
+            skippedCount.incrementAndGet();
+        } else {
+            // Forget the old hash first, so a failure partway through reconfigures on the next boot
+            configCache.remove(key);
+            boolean ok = checkError(deviceId, spark.restoreFactoryDefaults(), "factory reset");
+            ok &= config.apply(spark);
+            ok &= checkError(deviceId, spark.burnFlash(), "burn flash");
+            if (ok) configCache.put(key, hash);
+            configuredCount.incrementAndGet();
+        }
+
+        setStatusFramePeriods(spark, role);
+        configCallNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    /**
+     * Starts timing configuration, if this is the first motor controller since configuration last finished.
+     */
+    private static void startConfigurationTimer() {
+        if (configStartNanos < 0) configStartNanos = System.nanoTime();
+    }
+
     /**
      * Creates a SparkMaxPIDController from a given SparkMax and feedback device.
      * @param spark The SparkMax to get a PID controller for.
@@ -130,15 +395,35 @@ public class MotorUtil {
         return pidController;
     }
 
+    /**
+     * Sets the status frame periods of a SparkMax to those of its role.
+     * @param spark The SparkMax.
+     * @param role The role of the SparkMax on the CAN bus.
+     */
+    private static void setStatusFramePeriods(CANSparkMax spark, MotorRole role) {
+        if (role == MotorRole.DEFAULT) return;
+
+        int deviceId = spark.getDeviceId();
+        for (int i = 0; i < SPARK_MAX_STATUS_FRAMES.length; i++) {
+            checkError(
+                deviceId,
+                spark.setPeriodicFramePeriod(SPARK_MAX_STATUS_FRAMES[i], role.sparkMaxStatusPeriodsMs[i]),
+                "status frame " + i
+            );
+        }
+    }
+
     /**
      * Checks a CANSparkMax configuration call for an error, reporting it if it exists.
      * @param id The CAN ID of the SparkMax.
      * @param error The error returned by the configuration.
      * @param field The field being configured.
+     * @return Whether the configuration succeeded.
      */
-    private static void checkError(int id, REVLibError error, String field) {
-        if (error == REVLibError.kOk) return;
+    static boolean checkError(int id, REVLibError error, String field) {
+        if (error == REVLibError.kOk) return true;
         DriverStation.reportError("Error configuring [" + field + "] on SparkMax " + id + ": " + error.name(), false);
+        return false;
     }
 
     /**
@@ -146,9 +431,11 @@ public class MotorUtil {
      * @param id The CAN ID of the Talon.
      * @param error The error returned by the configuration.
      * @param field The field being configured.
+     * @return Whether the configuration succeeded.
      */
-    private static void checkError(int id, ErrorCode error, String field) {
-        if (error == ErrorCode.OK) return;
+    static boolean checkError(int id, ErrorCode error, String field) {
+        if (error == ErrorCode.OK) return true;
         DriverStation.reportError("Error configuring [" + field + "] on Talon " + id + ": " + error.name(), false);
+        return false;
     }
 }
@@ -0,0 +1,177 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+
+/**
+ * Remembers the last setpoint sent to a motor controller, so that repeating the same command every loop doesn't
+ * send another CAN frame. A setpoint is sent when its control mode changes, when its value or arbitrary
+ * feedforward moves more than epsilon from what was last sent, or when the keep-alive period has passed since the
+ * last send (so a dropped frame or a controller reset is corrected within a few loops).
+ *
+ * Every cache is registered so that the number of setpoints sent and suppressed by each device can be reported.
+ */
+public class SetpointCache {
+    public static final double DEFAULT_EPSILON = 1e-4;
+    public static final double DEFAULT_KEEP_ALIVE_SECONDS = 0.1;
+
+    private static final List<SetpointCache> caches = new ArrayList<>();
+
+    private final String name;
+    private final double epsilon;
+    private final double keepAliveSeconds;
+
+    private boolean hasSent = false;
+    private Object lastMode = null;
+    private double lastValue = 0;
+    private double lastArbFF = 0;
+    private double lastSentSeconds = 0;
+
+    private long sentCount = 0;
+    private long suppressedCount = 0;
+
+    /**
+     * Creates and registers a setpoint cache.
+     * @param name The name of the device, for the report.
+     * @param epsilon The largest change in value or feedforward that is suppressed.
+     * @param keepAliveSeconds The longest time a setpoint is suppressed for before it is sent again.
+     */
+    public SetpointCache(String name, double epsilon, double keepAliveSeconds) {
+        this.name = name;
+        this.epsilon = epsilon;
+        this.keepAliveSeconds = keepAliveSeconds;
+        caches.add(this);
+    }
+
+    /**
+     * Creates and registers a setpoint cache with the default epsilon and keep-alive period.
+     * @param name The name of the device, for the report.
+     */
+    public SetpointCache(String name) {
+        this(name, DEFAULT_EPSILON, DEFAULT_KEEP_ALIVE_SECONDS);
+    }
+
+    /**
+     * Gets whether a setpoint needs to be sent, and if so records it as the last sent setpoint.
+     * @param mode The control mode of the setpoint. Modes are compared with `equals()`.
+     * @param value The value of the setpoint.
+     * @param arbFF The arbitrary feedforward of the setpoint, or 0 if none.
+     * @param nowSeconds The current time, in seconds.
+     * @return Whether the setpoint should be sent.
+     */
+    public boolean update(Object mode, double value, double arbFF, double nowSeconds) {
+        boolean changed = !hasSent
+            || !mode.equals(lastMode)
+            || Math.abs(value - lastValue) > epsilon
+            || Math.abs(arbFF - lastArbFF) > epsilon
+            || nowSeconds - lastSentSeconds >= keepAliveSeconds;
+
+        if (!changed) {
+            suppressedCount++;
+            return false;
+        }
+
+        hasSent = true;
+        lastMode = mode;
+        lastValue = value;
+        lastArbFF = arbFF;
+        lastSentSeconds = nowSeconds;
+        sentCount++;
+        return true;
+    }
+
+    /**
+     * Forgets the last sent setpoint, so that the next one is always sent. Use this when something other than the
+     * cache changes what the controller is doing, like its feedback sensor.
+     */
+    public void invalidate() {
+        hasSent = false;
+    }
+
+    /**
+     * Gets the control mode of the last sent setpoint, which the controller is still following.
+     * @return The control mode, or null if no setpoint has been sent.
+     */
+    public Object getMode() {
+        return lastMode;
+    }
+
+    /**
+     * Gets the value of the last sent setpoint.
+     * @return The value, in the units of the control mode.
+     */
+    public double getValue() {
+        return lastValue;
+    }
+
+    /**
+     * Gets the arbitrary feedforward of the last sent setpoint.
+     * @return The arbitrary feedforward, or 0 if none.
+     */
+    public double getArbFF() {
+        return lastArbFF;
+    }
+
+    /**
+     * Gets the name of the device.
+     * @return The name of the device.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of setpoints sent to the device.
+     * @return The number of setpoints sent.
+     */
+    public long getSentCount() {
+        return sentCount;
+    }
+
+    /**
+     * Gets the number of setpoints that were suppressed because the device already had them.
+     * @return The number of setpoints suppressed.
+     */
+    public long getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    /**
+     * Gets a report of the setpoints sent and suppressed by every registered device.
+     * @return The report.
+     */
+    public static String getReport() {
+        StringBuilder report = new StringBuilder("Setpoint cache:\n");
+        long totalSent = 0, totalSuppressed = 0;
+        for (SetpointCache cache : caches) {
+            report.append(String.format(
+                "  %-16s %8d sent %8d suppressed\n", cache.name, cache.sentCount, cache.suppressedCount
+            ));
+            totalSent += cache.sentCount;
+            totalSuppressed += cache.suppressedCount;
+        }
+
+        long total = totalSent + totalSuppressed;
+        report.append(String.format(
+            "  %d sent, %d suppressed (%.1f%%)",
+            totalSent, totalSuppressed, total == 0 ? 0.0 : 100.0 * totalSuppressed / total
+        ));
+        return report.toString();
+    }
+
+    /**
+     * Logs the report.
+     */
+    public static void report() {
+        DataLogManager.log(getReport());
+    }
+
+    /**
+     * Clears all registered caches.
+     */
+    public static void reset() {
+        caches.clear();
+    }
+}
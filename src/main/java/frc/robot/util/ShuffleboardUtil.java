@@ -1,7 +1,9 @@
 package frc.robot.util;
 
+import java.util.ArrayDeque;
 import java.util.EnumSet;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.function.Consumer;
 
 import edu.wpi.first.networktables.GenericEntry;
@@ -12,6 +14,29 @@ import edu.wpi.first.networktables.NetworkTableValue;
 public class ShuffleboardUtil {
     private static final NetworkTableInstance networkTableInstance = NetworkTableInstance.getDefault();
 
+    // Dashboard construction deferred until the robot is running, in the order it was deferred
+    private static final Queue<Runnable> deferredBuilders = new ArrayDeque<>();
+
+    /**
+     * Defers building non-essential dashboard widgets until the robot is running, so that they don't delay the
+     * robot becoming ready, e.g. after a brownout reboot. Builders run one per loop from `buildNextDeferred()`, on
+     * the main thread, so anything using the widgets they create must handle them not existing yet.
+     * @param builder The code building the widgets.
+     */
+    public static void defer(Runnable builder) {
+        deferredBuilders.add(builder);
+    }
+
+    /**
+     * Runs the next deferred dashboard builder, if any. Call this once per loop.
+     * @return Whether any builders are left to run.
+     */
+    public static boolean buildNextDeferred() {
+        Runnable builder = deferredBuilders.poll();
+        if (builder != null) builder.run();
+        return !deferredBuilders.isEmpty();
+    }
+
     /**
      * Sets up a listener on a Shuffleboard entry for a `double` change, calling the provided callback on new values.
      * @param entry The shuffleboard entry to poll.
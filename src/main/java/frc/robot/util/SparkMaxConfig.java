@@ -0,0 +1,338 @@
+package frc.robot.util;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.MotorFeedbackSensor;
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.SparkMaxAnalogSensor;
+import com.revrobotics.SparkMaxPIDController;
+import com.revrobotics.CANSparkMax.IdleMode;
+import com.revrobotics.CANSparkMax.SoftLimitDirection;
+
+/**
+ * The persistent configuration of a SparkMax: everything that is saved to the controller's flash. Describing the
+ * configuration as data rather than as a sequence of calls lets `MotorUtil` hash it and skip sending it when the
+ * controller already has it from a previous boot.
+ *
+ * Only settings that this robot uses are supported; add new ones to both `apply()` and `describe()`.
+ */
+public class SparkMaxConfig {
+    // Bump when `apply()` changes in a way that isn't reflected in `describe()`, to force every SparkMax to reconfigure
+    private static final int VERSION = 1;
+
+    /**
+     * The sensor the SparkMax's PID controller uses for feedback.
+     */
+    public enum FeedbackSensor {
+        PRIMARY_ENCODER, ANALOG
+    }
+
+    private int smartCurrentLimitAmps = -1;
+    private IdleMode idleMode = IdleMode.kCoast;
+    private boolean inverted = false;
+    private CANSparkMax leader = null;
+
+    private double encoderPositionFactor = 1.0;
+    private double encoderVelocityFactor = 1.0;
+    private double analogPositionFactor = 1.0;
+
+    private boolean forwardSoftLimitEnabled = false;
+    private float forwardSoftLimit = 0;
+    private boolean reverseSoftLimitEnabled = false;
+    private float reverseSoftLimit = 0;
+
+    private FeedbackSensor feedbackSensor = null;
+    private double p = 0, i = 0, d = 0, ff = 0;
+    private double allowedClosedLoopError = 0;
+    private boolean pidWrappingEnabled = false;
+    private double pidWrappingMinInput = 0, pidWrappingMaxInput = 0;
+
+    /**
+     * Sets the smart current limit.
+     * @param amps The current limit, in amps.
+     * @return This configuration, for chaining.
+     */
+    public SparkMaxConfig smartCurrentLimit(int amps) {
+        smartCurrentLimitAmps = amps;
+        return this;
+    }
+
+    /**
+     * Sets the idle mode.
+     * @param idleMode The idle mode.
+     * @return This configuration, for chaining.
+     */
+    public SparkMaxConfig idleMode(IdleMode idleMode) {
+        this.idleMode = idleMode;
+        return this;
+    }
+
+    /**
+     * Sets whether the motor is inverted. Ignored for followers.
+     * @param inverted Whether the motor is inverted.
+     * @return This configuration, for chaining.
+     */
+    public SparkMaxConfig inverted(boolean inverted) {
+        this.inverted = inverted;
+        return this;
+    }
+
+    /**
+     * Makes the SparkMax follow a leader.
+     * @param leader The SparkMax to follow.
+     * @return This configuration, for chaining.
+     */
+    public SparkMaxConfig follow(CANSparkMax leader) {
+        this.leader = leader;
+        return this;
+    }
+
+    /**
+     * Sets the conversion factors of the primary encoder.
+     * @param positionFactor The position conversion factor.
+     * @param velocityFactor The velocity conversion factor.
+     * @return This configuration, for chaining.
+     */
+    public SparkMaxConfig encoderConversionFactors(double positionFactor, double velocityFactor) {
+        encoderPositionFactor = positionFactor;
+        encoderVelocityFactor = velocityFactor;
+        return this;
+    }
+
+    /**
+     * Sets the position conversion factor of the analog sensor, in absolute mode.
+     * @param positionFactor The position conversion factor.
+     * @return This configuration, for chaining.
+     */
+    public SparkMaxConfig analogPositionConversionFactor(double positionFactor) {
+        analogPositionFactor = positionFactor;
+        return this;
+    }
+
+    /**
+     * Enables the forward soft limit.
+     * @param limit The soft limit, in converted units of the primary encoder.
+     * @return This configuration, for chaining.
+     */
+    public SparkMaxConfig forwardSoftLimit(double limit) {
+        forwardSoftLimitEnabled = true;
+        forwardSoftLimit = (float) limit;
+        return this;
+    }
+
+    /**
+     * Enables the reverse soft limit.
+     * @param limit The soft limit, in converted units of the primary encoder.
+     * @return This configuration, for chaining.
+     */
+    public SparkMaxConfig reverseSoftLimit(double limit) {
+        reverseSoftLimitEnabled = true;
+        reverseSoftLimit = (float) limit;
+        return this;
+    }
+
+    /**
+     * Sets the feedback sensor and gains of the PID controller, in slot 0.
+     * @param feedbackSensor The feedback sensor.
+     * @param p The proportional gain.
+     * @param i The integral gain.
+     * @param d The derivative gain.
+     * @param ff The feedforward gain.
+     * @return This configuration, for chaining.
+     */
+    public SparkMaxConfig pid(FeedbackSensor feedbackSensor, double p, double i, double d, double ff) {
+        this.feedbackSensor = feedbackSensor;
+        this.p = p;
+        this.i = i;
+        this.d = d;
+        this.ff = ff;
+        return this;
+    }
+
+    /**
+     * Sets the smart motion allowed closed loop error, in slot 0.
+     * @param error The allowed error, in converted units.
+     * @return This configuration, for chaining.
+     */
+    public SparkMaxConfig allowedClosedLoopError(double error) {
+        allowedClosedLoopError = error;
+        return this;
+    }
+
+    /**
+     * Enables position PID wrapping.
+     * @param minInput The minimum input.
+     * @param maxInput The maximum input.
+     * @return This configuration, for chaining.
+     */
+    public SparkMaxConfig pidWrapping(double minInput, double maxInput) {
+        pidWrappingEnabled = true;
+        pidWrappingMinInput = minInput;
+        pidWrappingMaxInput = maxInput;
+        return this;
+    }
+
+    /**
+     * Gets whether a current limit has been set on this configuration.
+     * @return Whether the current limit is set.
+     */
+    public boolean hasSmartCurrentLimit() {
+        return smartCurrentLimitAmps >= 0;
+    }
+
+    /**
+     * Applies this configuration to a SparkMax, assumed to be at factory defaults.
+     * @param spark The SparkMax.
+     * @return Whether every setting was applied without error.
+     */
+    public boolean apply(CANSparkMax spark) {
+        int id = spark.getDeviceId();
+        boolean ok = true;
+
+        if (hasSmartCurrentLimit()) ok &= MotorUtil.checkError(id, spark.setSmartCurrentLimit(smartCurrentLimitAmps), "current limit");
+        ok &= MotorUtil.checkError(id, spark.setIdleMode(idleMode), "idle mode");
+        if (leader != null) ok &= MotorUtil.checkError(id, spark.follow(leader), "follow");
+        else spark.setInverted(inverted);
+
+        RelativeEncoder encoder = spark.getEncoder();
+        ok &= MotorUtil.checkError(id, encoder.setPositionConversionFactor(encoderPositionFactor), "position conversion");
+        ok &= MotorUtil.checkError(id, encoder.setVelocityConversionFactor(encoderVelocityFactor), "velocity conversion");
+
+        SparkMaxAnalogSensor analog = null;
+        if (feedbackSensor == FeedbackSensor.ANALOG) {
+            analog = spark.getAnalog(SparkMaxAnalogSensor.Mode.kAbsolute);
+            ok &= MotorUtil.checkError(id, analog.setPositionConversionFactor(analogPositionFactor), "analog conversion");
+        }
+
+        if (forwardSoftLimitEnabled) {
+            ok &= MotorUtil.checkError(id, spark.setSoftLimit(SoftLimitDirection.kForward, forwardSoftLimit), "forward soft limit");
+            ok &= MotorUtil.checkError(id, spark.enableSoftLimit(SoftLimitDirection.kForward, true), "forward soft limit enable");
+        }
+        if (reverseSoftLimitEnabled) {
+            ok &= MotorUtil.checkError(id, spark.setSoftLimit(SoftLimitDirection.kReverse, reverseSoftLimit), "reverse soft limit");
+            ok &= MotorUtil.checkError(id, spark.enableSoftLimit(SoftLimitDirection.kReverse, true), "reverse soft limit enable");
+        }
+
+        if (feedbackSensor != null) {
+            MotorFeedbackSensor sensor = feedbackSensor == FeedbackSensor.ANALOG ? analog : encoder;
+            SparkMaxPIDController pidController = MotorUtil.createSparkMaxPIDController(spark, sensor);
+            ok &= MotorUtil.checkError(id, pidController.setP(p), "P");
+            ok &= MotorUtil.checkError(id, pidController.setI(i), "I");
+            ok &= MotorUtil.checkError(id, pidController.setD(d), "D");
+            ok &= MotorUtil.checkError(id, pidController.setFF(ff), "FF");
+            if (allowedClosedLoopError != 0) {
+                ok &= MotorUtil.checkError(id, pidController.setSmartMotionAllowedClosedLoopError(allowedClosedLoopError, 0), "allowed error");
+            }
+            if (pidWrappingEnabled) {
+                ok &= MotorUtil.checkError(id, pidController.setPositionPIDWrappingEnabled(true), "PID wrapping");
+                ok &= MotorUtil.checkError(id, pidController.setPositionPIDWrappingMinInput(pidWrappingMinInput), "PID wrapping min");
+                ok &= MotorUtil.checkError(id, pidController.setPositionPIDWrappingMaxInput(pidWrappingMaxInput), "PID wrapping max");
+            }
+        }
+
+        return ok;
+    }
+
+    /**
+     * Applies the settings of this configuration that can't be read back from a SparkMax, which is only the smart
+     * current limit. These are sent even when the rest of the configuration is skipped.
+     * @param spark The SparkMax.
+     * @return Whether every setting was applied without error.
+     */
+    public boolean applyUnreadable(CANSparkMax spark) {
+        if (!hasSmartCurrentLimit()) return true;
+        int id = spark.getDeviceId();
+        return MotorUtil.checkError(id, spark.setSmartCurrentLimit(smartCurrentLimitAmps), "current limit");
+    }
+
+    /**
+     * Reads back every setting that `apply()` writes from a SparkMax, except those `applyUnreadable()` sends every
+     * boot, and the PID controller's feedback sensor. This catches a controller that was swapped since the
+     * configuration was last burned, as well as gains that were tuned at runtime and outlived a code restart.
+     * @param spark The SparkMax.
+     * @return Whether the settings read back match this configuration.
+     */
+    public boolean matches(CANSparkMax spark) {
+        if (spark.isFollower() != (leader != null)) return false;
+        if (leader == null && spark.getInverted() != inverted) return false;
+        if (spark.getIdleMode() != idleMode) return false;
+
+        RelativeEncoder encoder = spark.getEncoder();
+        if (!floatEquals(encoder.getPositionConversionFactor(), encoderPositionFactor)) return false;
+        if (!floatEquals(encoder.getVelocityConversionFactor(), encoderVelocityFactor)) return false;
+        if (feedbackSensor == FeedbackSensor.ANALOG) {
+            SparkMaxAnalogSensor analog = spark.getAnalog(SparkMaxAnalogSensor.Mode.kAbsolute);
+            if (!floatEquals(analog.getPositionConversionFactor(), analogPositionFactor)) return false;
+        }
+
+        boolean softLimitsMatch =
+            softLimitMatches(spark, SoftLimitDirection.kForward, forwardSoftLimitEnabled, forwardSoftLimit)
+            && softLimitMatches(spark, SoftLimitDirection.kReverse, reverseSoftLimitEnabled, reverseSoftLimit);
+        if (!softLimitsMatch) return false;
+
+        // Without a feedback sensor the PID controller is left at factory defaults, which are all zero
+        SparkMaxPIDController pidController = spark.getPIDController();
+        if (!floatEquals(pidController.getP(), p)) return false;
+        if (!floatEquals(pidController.getI(), i)) return false;
+        if (!floatEquals(pidController.getD(), d)) return false;
+        if (!floatEquals(pidController.getFF(), ff)) return false;
+        if (!floatEquals(pidController.getSmartMotionAllowedClosedLoopError(0), allowedClosedLoopError)) return false;
+
+        if (pidController.getPositionPIDWrappingEnabled() != pidWrappingEnabled) return false;
+        return !pidWrappingEnabled
+            || floatEquals(pidController.getPositionPIDWrappingMinInput(), pidWrappingMinInput)
+            && floatEquals(pidController.getPositionPIDWrappingMaxInput(), pidWrappingMaxInput);
+    }
+
+    /**
+     * Compares a setting read back from a SparkMax, which stores parameters as floats.
+     * @param actual The setting read back.
+     * @param expected The setting in this configuration.
+     * @return Whether the setting matches at float precision.
+     */
+    private static boolean floatEquals(double actual, double expected) {
+        return (float) actual == (float) expected;
+    }
+
+    /**
+     * Reads back a soft limit from a SparkMax.
+     * @param spark The SparkMax.
+     * @param direction The direction of the soft limit.
+     * @param enabled Whether the soft limit should be enabled.
+     * @param limit The soft limit, checked only if it should be enabled.
+     * @return Whether the soft limit read back matches.
+     */
+    private static boolean softLimitMatches(
+        CANSparkMax spark, SoftLimitDirection direction, boolean enabled, float limit
+    ) {
+        if (spark.isSoftLimitEnabled(direction) != enabled) return false;
+        return !enabled || (float) spark.getSoftLimit(direction) == limit;
+    }
+
+    /**
+     * Describes every setting of this configuration, so that two configurations with the same description
+     * configure a SparkMax identically.
+     * @return The description.
+     */
+    public String describe() {
+        return String.format(
+            "v%d current=%d idle=%s inverted=%b leader=%d encoder=%s/%s analog=%s "
+                + "forward=%b/%s reverse=%b/%s feedback=%s pidf=%s/%s/%s/%s error=%s wrapping=%b/%s/%s",
+            VERSION, smartCurrentLimitAmps, idleMode, inverted, leader == null ? -1 : leader.getDeviceId(),
+            Double.toString(encoderPositionFactor), Double.toString(encoderVelocityFactor),
+            Double.toString(analogPositionFactor),
+            forwardSoftLimitEnabled, Float.toString(forwardSoftLimit),
+            reverseSoftLimitEnabled, Float.toString(reverseSoftLimit),
+            feedbackSensor, Double.toString(p), Double.toString(i), Double.toString(d), Double.toString(ff),
+            Double.toString(allowedClosedLoopError),
+            pidWrappingEnabled, Double.toString(pidWrappingMinInput), Double.toString(pidWrappingMaxInput)
+        );
+    }
+
+    /**
+     * Gets a hash of this configuration that is stable across boots.
+     * @return The hash.
+     */
+    public int getHash() {
+        return describe().hashCode();
+    }
+}
@@ -0,0 +1,76 @@
+package frc.robot.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+
+/**
+ * Records how long after the JVM started each stage of robot startup finished, e.g. creating the subsystems or the
+ * first loop, so startup time can be tracked across code changes and compared with and without the class data
+ * sharing archive built on deploy (see `ClassDataSharing`). Times are measured from JVM start, so they include
+ * loading WPILib and the vendor libraries before `robotInit()`.
+ */
+public class StartupTimeline {
+    private static final Map<String, Double> marks = new LinkedHashMap<>();
+    private static boolean reported = false;
+
+    /**
+     * Records that a stage of startup just finished. Only the first mark of each stage is kept.
+     * @param stage The name of the stage.
+     */
+    public static void mark(String stage) {
+        if (reported) return;
+        marks.putIfAbsent(stage, ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0);
+    }
+
+    /**
+     * Gets a report of when each stage finished, and how long it took after the previous one.
+     * @return The report.
+     */
+    public static String getReport() {
+        StringBuilder report = new StringBuilder(String.format(
+            "Startup timeline (class data sharing: %s):\n", getClassDataSharingStatus()
+        ));
+
+        double previousSeconds = 0;
+        for (Map.Entry<String, Double> mark : marks.entrySet()) {
+            report.append(String.format(
+                "  %-24s %7.3fs  (+%.3fs)\n", mark.getKey(), mark.getValue(), mark.getValue() - previousSeconds
+            ));
+            previousSeconds = mark.getValue();
+        }
+        return report.toString();
+    }
+
+    /**
+     * Gets whether the JVM is using a class data sharing archive.
+     * @return "on" or "off", or "unknown" if the JVM doesn't say.
+     */
+    private static String getClassDataSharingStatus() {
+        try {
+            HotSpotDiagnosticMXBean hotSpot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            return Boolean.parseBoolean(hotSpot.getVMOption("UseSharedSpaces").getValue()) ? "on" : "off";
+        } catch (RuntimeException | LinkageError e) {
+            return "unknown";
+        }
+    }
+
+    /**
+     * Logs the timeline, as a report and as one DataLog entry per stage, then stops recording marks. Call this once
+     * startup is done.
+     */
+    public static void report() {
+        if (reported) return;
+        reported = true;
+
+        for (Map.Entry<String, Double> mark : marks.entrySet()) {
+            new DoubleLogEntry(DataLogManager.getLog(), "startup/" + mark.getKey()).append(mark.getValue());
+        }
+        DataLogManager.log(getReport());
+    }
+}
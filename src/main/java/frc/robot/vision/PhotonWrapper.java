@@ -14,6 +14,7 @@ import edu.wpi.first.apriltag.AprilTagFields;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.GenericEntry;
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
@@ -28,8 +29,9 @@ import static frc.robot.Constants.VisionConstants.*;
  * A connection to PhotonVision on the coprocessor.
  */
 public class PhotonWrapper {
-    private final PhotonPoseEstimator frontPoseEstimator;
-    private final PhotonPoseEstimator backPoseEstimator;
+    // Created in the background once the field layout loads, so null until then
+    private volatile PhotonPoseEstimator frontPoseEstimator;
+    private volatile PhotonPoseEstimator backPoseEstimator;
 
     private final ShuffleboardTab shuffleboardTab;
     private final GenericEntry frontStatusEntry, xPosFrontEntry, yPosFrontEntry, timestampFrontEntry;
@@ -40,33 +42,10 @@ public class PhotonWrapper {
     private volatile boolean SHUFFLEBOARD_ENABLE = OVERRIDE_SHUFFLEBOARD_ENABLE || Constants.GLOBAL_SHUFFLEBOARD_ENABLE;
 
     /**
-     * Constructs a PhotonVision connection to the coprocessor.
+     * Constructs a PhotonVision connection to the coprocessor. Parsing the field layout is slow on the roboRIO, so
+     * the pose estimators are created on a background thread, and no poses are estimated until they are ready.
      */
     public PhotonWrapper() {
-        try {
-            AprilTagFieldLayout fieldLayout = AprilTagFields.k2023ChargedUp.loadAprilTagLayoutField();
-
-            frontPoseEstimator = new PhotonPoseEstimator(
-                // new AprilTagFieldLayout(AprilTagFields.k2023ChargedUp.m_resourceFile),
-                // new AprilTagFieldLayout(Filesystem.getDeployDirectory() + "/2023-chargedup.json"),
-                fieldLayout,
-                PoseStrategy.MULTI_TAG_PNP,
-                FRONT_CAMERA,
-                FRONT_CAMERA_POSE
-            );
-            frontPoseEstimator.setMultiTagFallbackStrategy(PoseStrategy.CLOSEST_TO_REFERENCE_POSE);
-
-            backPoseEstimator = new PhotonPoseEstimator(
-                fieldLayout,
-                PoseStrategy.MULTI_TAG_PNP,
-                RIGHT_CAMERA,
-                RIGHT_CAMERA_POSE
-            );
-            backPoseEstimator.setMultiTagFallbackStrategy(PoseStrategy.CLOSEST_TO_REFERENCE_POSE);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-
         shuffleboardTab = Shuffleboard.getTab("PhotonVision");
 
         frontStatusEntry = shuffleboardTab.add("Front tag detected", false).withPosition(0, 0).getEntry();
@@ -84,6 +63,52 @@ public class PhotonWrapper {
             .withWidget(BuiltInWidgets.kToggleSwitch)
             .getEntry();
         ShuffleboardUtil.addBooleanListener(shuffleboardEnableEntry, (value) -> SHUFFLEBOARD_ENABLE = value);
+
+        Thread initThread = new Thread(this::createPoseEstimators, "VisionInit");
+        initThread.setDaemon(true);
+        initThread.start();
+    }
+
+    /**
+     * Loads the field layout and creates the pose estimators for each camera.
+     */
+    private void createPoseEstimators() {
+        AprilTagFieldLayout fieldLayout;
+        try {
+            fieldLayout = AprilTagFields.k2023ChargedUp.loadAprilTagLayoutField();
+        } catch (IOException e) {
+            DriverStation.reportError("Couldn't load AprilTag field layout: " + e.getMessage(), false);
+            return;
+        }
+
+        PhotonPoseEstimator frontPoseEstimator = new PhotonPoseEstimator(
+            // new AprilTagFieldLayout(AprilTagFields.k2023ChargedUp.m_resourceFile),
+            // new AprilTagFieldLayout(Filesystem.getDeployDirectory() + "/2023-chargedup.json"),
+            fieldLayout,
+            PoseStrategy.MULTI_TAG_PNP,
+            FRONT_CAMERA,
+            FRONT_CAMERA_POSE
+        );
+        frontPoseEstimator.setMultiTagFallbackStrategy(PoseStrategy.CLOSEST_TO_REFERENCE_POSE);
+
+        PhotonPoseEstimator backPoseEstimator = new PhotonPoseEstimator(
+            fieldLayout,
+            PoseStrategy.MULTI_TAG_PNP,
+            RIGHT_CAMERA,
+            RIGHT_CAMERA_POSE
+        );
+        backPoseEstimator.setMultiTagFallbackStrategy(PoseStrategy.CLOSEST_TO_REFERENCE_POSE);
+
+        this.frontPoseEstimator = frontPoseEstimator;
+        this.backPoseEstimator = backPoseEstimator;
+    }
+
+    /**
+     * Gets whether the pose estimators are ready, i.e. the field layout has loaded.
+     * @return Whether poses can be estimated.
+     */
+    public boolean isReady() {
+        return frontPoseEstimator != null && backPoseEstimator != null;
     }
 
     /**
@@ -102,9 +127,11 @@ public class PhotonWrapper {
      * estimator in `SwerveSubsystem` with vision data.
      * 
      * @param prevEstimatedRobotPose The last odometry robot pose estimate, for setting the vision reference pose.
-     * @return A list of estimated vision poses.
+     * @return A list of estimated vision poses, empty until the pose estimators are ready.
      */
     public List<EstimatedRobotPose> getRobotPoses(Pose2d prevEstimatedRobotPose) {
+        if (!isReady()) return new ArrayList<EstimatedRobotPose>();
+
         Optional<EstimatedRobotPose> frontEstimate = getRobotPose(prevEstimatedRobotPose, frontPoseEstimator);
         Optional<EstimatedRobotPose> backEstimate = getRobotPose(prevEstimatedRobotPose, backPoseEstimator);
 
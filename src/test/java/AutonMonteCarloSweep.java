@@ -0,0 +1,64 @@
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import frc.robot.simulation.AutonMonteCarlo;
+import frc.robot.simulation.AutonMonteCarlo.RoutineSummary;
+import frc.robot.simulation.SimDisturbances;
+
+/**
+ * Runs a Monte Carlo robustness sweep of every auton routine (see `AutonMonteCarlo`), and writes each routine's
+ * success rate and completion time distribution to `build/auton-monte-carlo/summary.json` and `report.txt`.
+ *
+ * This takes a while, so it only runs from its own task:
+ * `./gradlew autonMonteCarlo -Ptrials=1000 -PdisturbanceScale=1.0 -PvisionInAuton=false -PminSuccessRate=0.0`.
+ * With a minimum success rate, it fails if any routine falls below it.
+ */
+@Tag("sweep")
+public class AutonMonteCarloSweep {
+    private static final File OUTPUT_DIR = new File("build/auton-monte-carlo");
+    private static final long SEED = 1678;
+
+    /**
+     * Sweeps every auton routine.
+     */
+    @Test
+    public void sweep() throws IOException, InterruptedException, ExecutionException {
+        int trials = Integer.getInteger("auton.monteCarlo.trials", 1000);
+        double scale = Double.parseDouble(System.getProperty("auton.monteCarlo.disturbanceScale", "1.0"));
+        boolean visionInAuton = Boolean.getBoolean("auton.monteCarlo.visionInAuton");
+        double minSuccessRate = Double.parseDouble(System.getProperty("auton.monteCarlo.minSuccessRate", "0.0"));
+
+        List<RoutineSummary> summaries = AutonMonteCarlo.sweep(
+            trials, SimDisturbances.TYPICAL.scale(scale), visionInAuton, SEED,
+            Runtime.getRuntime().availableProcessors(), OUTPUT_DIR
+        );
+
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try (Writer writer = new FileWriter(new File(OUTPUT_DIR, "summary.json"))) {
+            gson.toJson(summaries, writer);
+        }
+        try (Writer writer = new FileWriter(new File(OUTPUT_DIR, "report.txt"))) {
+            writer.write(AutonMonteCarlo.getReport(summaries));
+        }
+
+        List<String> failures = new ArrayList<>();
+        for (RoutineSummary summary : summaries) {
+            if (summary.successRate < minSuccessRate) {
+                failures.add(String.format("%s: %.1f%% success", summary.routine, summary.successRate * 100));
+            }
+        }
+        assertTrue(failures.isEmpty(), "Below " + minSuccessRate * 100 + "% success:\n" + String.join("\n", failures));
+    }
+}
@@ -0,0 +1,186 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import frc.robot.simulation.AutonResult;
+import frc.robot.simulation.AutonSimulation;
+
+/**
+ * Runs every auton routine from every place position on both alliances in simulation, and fails if any run
+ * regressed from the baseline in `src/test/resources/auton-baseline.json`. Runs are split across one JVM per core,
+ * each with its own simulation, and all results are written to `build/auton-regression/results.json`.
+ *
+ * After an intended change in auton behavior, update the baseline with `./gradlew test -PupdateAutonBaseline=true`
+ * and commit it. The test fails without a baseline, so that the comparisons can't silently stop running.
+ *
+ * Peak loop times are wall-clock times, which depend on the machine and what else it is running, so they are
+ * only reported (and recorded in the results), never failed on.
+ */
+public class AutonRegressionTest {
+    private static final File OUTPUT_DIR = new File("build/auton-regression");
+    private static final File RESULTS_FILE = new File(OUTPUT_DIR, "results.json");
+    private static final File BASELINE_FILE = new File("src/test/resources/auton-baseline.json");
+
+    private static final long TIMEOUT_MINUTES = 15;
+
+    // Absolute limits
+    private static final double MAX_POSE_ERROR_METERS = 0.1;
+
+    // Peak loop times above this are reported, but don't fail the test
+    private static final double SLOW_LOOP_MILLIS = 20.0;
+
+    // Limits relative to the baseline
+    private static final double MAX_FINAL_TRANSLATION_CHANGE_METERS = 0.15;
+    private static final double MAX_FINAL_HEADING_CHANGE_DEGS = 10.0;
+    private static final double MAX_AUTON_TIME_INCREASE_SECONDS = 0.5;
+
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    /**
+     * Ensures that no auton run regressed from the committed baseline, skipping the comparison if there is none.
+     */
+    @Test
+    public void autonsDoNotRegress() throws IOException, InterruptedException {
+        List<AutonResult> results = runShards(Runtime.getRuntime().availableProcessors());
+        writeResults(results, RESULTS_FILE);
+
+        if (Boolean.getBoolean("auton.updateBaseline")) {
+            writeResults(results, BASELINE_FILE);
+            return;
+        }
+
+        // Until a baseline has been generated on a machine with the native HAL, only the results are written
+        assumeTrue(BASELINE_FILE.exists(), String.format(
+            "No auton baseline at %s; generate it with ./gradlew test -PupdateAutonBaseline=true and commit it",
+            BASELINE_FILE
+        ));
+        Map<String, AutonResult> baseline = new HashMap<>();
+        for (AutonResult result : readResults(BASELINE_FILE)) baseline.put(result.getKey(), result);
+
+        List<String> failures = new ArrayList<>();
+        for (AutonResult result : results) {
+            String key = result.getKey();
+
+            if (result.poseErrorMeters > MAX_POSE_ERROR_METERS) {
+                failures.add(String.format("%s: pose error %.3fm", key, result.poseErrorMeters));
+            }
+            if (result.peakLoopMillis > SLOW_LOOP_MILLIS) {
+                System.out.println(String.format("%s: slow peak loop time %.1fms", key, result.peakLoopMillis));
+            }
+
+            AutonResult expected = baseline.get(key);
+            if (expected == null) {
+                failures.add(key + ": not in the baseline");
+                continue;
+            }
+
+            if (expected.finished && !result.finished) {
+                failures.add(key + ": didn't finish");
+            } else if (result.autonSeconds > expected.autonSeconds + MAX_AUTON_TIME_INCREASE_SECONDS) {
+                failures.add(String.format("%s: took %.2fs, was %.2fs", key, result.autonSeconds, expected.autonSeconds));
+            }
+
+            if (result.piecesPlaced < expected.piecesPlaced) {
+                failures.add(String.format("%s: placed %d pieces, was %d", key, result.piecesPlaced, expected.piecesPlaced));
+            }
+
+            double translationChange = Math.hypot(result.finalX - expected.finalX, result.finalY - expected.finalY);
+            double headingChange = Math.abs(Math.IEEEremainder(result.finalHeadingDegs - expected.finalHeadingDegs, 360));
+            if (translationChange > MAX_FINAL_TRANSLATION_CHANGE_METERS || headingChange > MAX_FINAL_HEADING_CHANGE_DEGS) {
+                failures.add(String.format(
+                    "%s: ended %.3fm and %.1f degrees from the baseline", key, translationChange, headingChange
+                ));
+            }
+        }
+
+        assertTrue(failures.isEmpty(), failures.size() + " regressions:\n" + String.join("\n", failures));
+    }
+
+    /**
+     * Runs every auton in simulation, split across processes.
+     * @param shardCount The number of processes to run.
+     * @return The results of every run.
+     */
+    private static List<AutonResult> runShards(int shardCount) throws IOException, InterruptedException {
+        OUTPUT_DIR.mkdirs();
+
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<Process> processes = new ArrayList<>();
+        List<File> outputs = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            File output = new File(OUTPUT_DIR, "shard-" + i + ".json");
+            output.delete();
+            outputs.add(output);
+
+            // Run from the output directory, so that robot logs and other files the robot writes end up there
+            processes.add(new ProcessBuilder(
+                java,
+                "-Xmx512m",
+                "-cp", System.getProperty("java.class.path"),
+                "-Djava.library.path=" + System.getProperty("java.library.path"),
+                AutonSimulation.class.getName(),
+                Integer.toString(i), Integer.toString(shardCount), output.getAbsolutePath()
+            )
+                .directory(OUTPUT_DIR)
+                .redirectErrorStream(true)
+                .redirectOutput(new File(OUTPUT_DIR, "shard-" + i + ".log"))
+                .start());
+        }
+
+        List<AutonResult> results = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            Process process = processes.get(i);
+            if (!process.waitFor(TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                for (Process shard : processes) shard.destroyForcibly().waitFor();
+                fail(String.format(
+                    "Shard %d timed out after %d minutes; see %s/shard-%d.log", i, TIMEOUT_MINUTES, OUTPUT_DIR, i
+                ));
+            }
+            assertEquals(0, process.exitValue(), "Shard " + i + " failed; see " + OUTPUT_DIR + "/shard-" + i + ".log");
+
+            results.addAll(readResults(outputs.get(i)));
+        }
+        return results;
+    }
+
+    /**
+     * Reads results from a JSON file.
+     * @param file The file.
+     * @return The results.
+     */
+    private static List<AutonResult> readResults(File file) throws IOException {
+        try (Reader reader = new FileReader(file)) {
+            return Arrays.asList(gson.fromJson(reader, AutonResult[].class));
+        }
+    }
+
+    /**
+     * Writes results to a JSON file.
+     * @param results The results.
+     * @param file The file.
+     */
+    private static void writeResults(List<AutonResult> results, File file) throws IOException {
+        file.getParentFile().mkdirs();
+        try (Writer writer = new FileWriter(file)) {
+            gson.toJson(results, writer);
+        }
+    }
+}
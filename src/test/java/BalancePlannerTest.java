@@ -0,0 +1,178 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.TimedRobot;
+
+import frc.robot.Constants.FieldConstants;
+import frc.robot.commands.balancing.BalancePlanner;
+import frc.robot.simulation.ChargingStationSim;
+
+import static frc.robot.Constants.SwerveConstants.TL_POS;
+import static frc.robot.Constants.TipOverConstants.*;
+
+public class BalancePlannerTest {
+    private static final double DT = TimedRobot.kDefaultPeriod;
+    private static final double WHEEL_X_METERS = Math.abs(TL_POS.getX());
+    private static final double WHEEL_LOAD_NEWTONS = (CHASSIS_MASS_KG + CARRIAGE_MASS_KG) * 9.81 / 2.0;
+    private static final double PRIOR_ERROR_DEGS = 3.0;
+
+    /**
+     * Ensures that the planner recovers the simulated station's angle from the robot's pitch, facing either way, from
+     * a prior a few degrees off. Where the pitch shows the angle, the estimate must match it; with the robot across
+     * the edge of the plate, where it barely does, the estimate must be no further off than the prior.
+     */
+    @Test
+    public void estimatesAngleFromPitch() {
+        ChargingStationSim station = new ChargingStationSim(0, 0);
+        for (double angleDegs = -15; angleDegs <= 15; angleDegs += 5) {
+            station.setAngle(angleDegs);
+            for (double position = -0.9; position <= 0.9; position += 0.1) {
+                for (boolean facingPositiveX : new boolean[] { true, false }) {
+                    double estimateDegs = Math.toDegrees(BalancePlanner.estimateAngleRads(
+                        position, getPitchRads(station, position, facingPositiveX), facingPositiveX,
+                        Math.toRadians(angleDegs + PRIOR_ERROR_DEGS)
+                    ));
+                    double tolerance = isAcrossEdge(position) ? PRIOR_ERROR_DEGS + 0.01 : 0.1;
+                    assertEquals(angleDegs, estimateDegs, tolerance, "at " + position + "m");
+                }
+            }
+        }
+    }
+
+    /**
+     * Ensures that a solve never evaluates more than its fixed set of plans.
+     */
+    @Test
+    public void boundsPlansEvaluated() {
+        BalancePlanner planner = new BalancePlanner();
+        planner.solve(-1.0, 1.0, 0, 0);
+
+        assertTrue(planner.getCandidatesEvaluated() >= 1);
+        assertTrue(planner.getCandidatesEvaluated() <= BalancePlanner.CANDIDATES + 1);
+    }
+
+    /**
+     * Drives a robot that follows the plans exactly onto the simulated station from either side, and ensures that it
+     * stops near the hinge with the station level.
+     */
+    @Test
+    public void balancesSimulatedStation() {
+        for (double start : new double[] { -1.7, 1.7 }) {
+            ChargingStationSim station = new ChargingStationSim(0, 0);
+            BalancePlanner planner = new BalancePlanner();
+            boolean facingPositiveX = start > 0;
+
+            double position = start;
+            double velocity = 0;
+            double lastPitch = 0;
+            double angle = 0;
+            double angularVelocity = 0;
+            for (int i = 0; i < Math.round(8.0 / DT); i++) {
+                double pitch = getPitchRads(station, position, facingPositiveX);
+                angle = BalancePlanner.estimateAngleRads(position, pitch, facingPositiveX, angle + angularVelocity * DT);
+                angularVelocity = BalancePlanner.estimateAngularVelocity(
+                    position, velocity, angle, (pitch - lastPitch) / DT, facingPositiveX
+                );
+                lastPitch = pitch;
+
+                double tip = planner.solve(position, velocity, angle, angularVelocity);
+                double nextVelocity = BalancePlanner.getNextVelocity(position, velocity, tip);
+                position += (velocity + nextVelocity) / 2.0 * DT;
+                velocity = nextVelocity;
+
+                station.applyLoad(position + WHEEL_X_METERS, 0, WHEEL_LOAD_NEWTONS);
+                station.applyLoad(position - WHEEL_X_METERS, 0, WHEEL_LOAD_NEWTONS);
+                station.update(DT);
+            }
+
+            String message = String.format("from %.1fm: %.2fm, %.1f degrees", start, position, station.getAngleDegs());
+            assertTrue(station.isLevel(), message);
+            assertEquals(0, velocity, 1e-9, message);
+            assertEquals(0, position, 0.1, message);
+        }
+    }
+
+    /**
+     * Ties the planner's pitch sign to the NavX's, as the field-tested balancers read it: `DefaultBalancerCommand`
+     * drives forward onto the station and sees it at a pitch of at least +10 degrees, and `GoOverCommand` backs onto it
+     * and sees it at -7 degrees or less. The planner must expect those signs, never reject a correctly signed pitch at
+     * any angle of the plate, catch a flipped NavX on the ramp, and drive up the ramp from where the default balancer
+     * reaches the station.
+     */
+    @Test
+    public void pitchSignMatchesNavX() {
+        double reachedPosition = Double.NaN;
+        int forwardRejections = 0;
+        for (double position = -1.5; position <= 0; position += 0.01) {
+            assertAcceptsModelPitch(position);
+
+            double pitch = BalancePlanner.getPitchRads(position, 0, true);
+            if (Double.isNaN(reachedPosition) && Math.toDegrees(pitch) >= 10.0) reachedPosition = position;
+            if (!BalancePlanner.isPitchSignConsistent(position, -pitch, true)) forwardRejections++;
+        }
+        assertFalse(Double.isNaN(reachedPosition), "Driving forward onto the station never pitches up 10 degrees");
+        assertTrue(forwardRejections > 0, "A flipped NavX isn't caught driving forward onto the station");
+
+        // Backing onto the station from the other side, still facing +x
+        boolean backedOnto = false;
+        int backwardRejections = 0;
+        for (double position = 1.5; position >= 0; position -= 0.01) {
+            assertAcceptsModelPitch(position);
+
+            double pitch = BalancePlanner.getPitchRads(position, 0, true);
+            if (Math.toDegrees(pitch) <= -7.0) backedOnto = true;
+            if (!BalancePlanner.isPitchSignConsistent(position, -pitch, true)) backwardRejections++;
+        }
+        assertTrue(backedOnto, "Backing onto the station never pitches down 7 degrees");
+        assertTrue(backwardRejections > 0, "A flipped NavX isn't caught backing onto the station");
+
+        BalancePlanner planner = new BalancePlanner();
+        double angle = BalancePlanner.estimateAngleRads(reachedPosition, Math.toRadians(10.0), true, 0);
+        double tip = planner.solve(reachedPosition, 0, angle, 0);
+        assertTrue(BalancePlanner.getNextVelocity(reachedPosition, 0, tip) > 0, "Drove back down the ramp");
+    }
+
+    /**
+     * Ensures that the pitch sign check accepts the model's own pitch at a position, at every angle of the plate and
+     * facing either way.
+     * @param position The position of the robot's center along x, from the hinge.
+     */
+    private static void assertAcceptsModelPitch(double position) {
+        for (double angleDegs = -15; angleDegs <= 15; angleDegs += 5) {
+            for (boolean facingPositiveX : new boolean[] { true, false }) {
+                double pitch = BalancePlanner.getPitchRads(position, Math.toRadians(angleDegs), facingPositiveX);
+                assertTrue(
+                    BalancePlanner.isPitchSignConsistent(position, pitch, facingPositiveX),
+                    String.format("Rejected %.1f degrees at %.2fm", Math.toDegrees(pitch), position)
+                );
+            }
+        }
+    }
+
+    /**
+     * Gets whether a robot straddles the edge of the simulated station's plate, with one pair of wheels on the plate
+     * and the other on a ramp.
+     * @param position The position of the robot's center along x, from the hinge.
+     * @return Whether the robot is across the edge.
+     */
+    private static boolean isAcrossEdge(double position) {
+        double edge = Units.inchesToMeters(FieldConstants.CHARGING_STATION_TOP_DEPTH_INCHES) / 2.0;
+        return Math.abs(Math.abs(position) - edge) < WHEEL_X_METERS;
+    }
+
+    /**
+     * Gets the pitch of a robot on the simulated station.
+     * @param station The station.
+     * @param position The position of the robot's center along x.
+     * @param facingPositiveX Whether the robot's front faces +x.
+     * @return The pitch, nose up positive, in radians.
+     */
+    private static double getPitchRads(ChargingStationSim station, double position, boolean facingPositiveX) {
+        double rise = station.getSurfaceHeight(position + WHEEL_X_METERS, 0)
+            - station.getSurfaceHeight(position - WHEEL_X_METERS, 0);
+        return Math.atan2(facingPositiveX ? rise : -rise, 2 * WHEEL_X_METERS);
+    }
+}
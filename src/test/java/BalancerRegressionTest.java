@@ -0,0 +1,157 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import frc.robot.simulation.BalancerResult;
+import frc.robot.simulation.BalancerSimulation;
+
+/**
+ * Runs every balancer command onto a simulated charging station (see `BalancerSimulation`), writes the results to
+ * `build/balancer-sim/results.json` and `report.txt`, and fails if any balancer regressed from the baseline in
+ * `src/test/resources/balancer-baseline.json`. The simulation runs in its own JVM, since it needs its own HAL.
+ *
+ * After an intended change in balancer behavior, update the baseline with
+ * `./gradlew test -PupdateBalancerBaseline=true` and commit it. The test fails without a baseline, so that the
+ * comparisons can't silently stop running.
+ */
+public class BalancerRegressionTest {
+    private static final File OUTPUT_DIR = new File("build/balancer-sim");
+    private static final File RESULTS_FILE = new File(OUTPUT_DIR, "results.json");
+    private static final File BASELINE_FILE = new File("src/test/resources/balancer-baseline.json");
+
+    private static final long TIMEOUT_MINUTES = 5;
+
+    // Limits relative to the baseline
+    private static final double MAX_TIME_TO_BALANCE_INCREASE_SECONDS = 1.0;
+    private static final double MAX_OVERSHOOT_INCREASE_DEGS = 3.0;
+
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    /**
+     * Ensures that no balancer regressed from the committed baseline, skipping the comparison if there is none.
+     */
+    @Test
+    public void balancersDoNotRegress() throws IOException, InterruptedException {
+        List<BalancerResult> results = runSimulation();
+        writeResults(results, RESULTS_FILE);
+        try (Writer writer = new FileWriter(new File(OUTPUT_DIR, "report.txt"))) {
+            writer.write(BalancerSimulation.getReport(results));
+        }
+
+        if (Boolean.getBoolean("balancer.updateBaseline")) {
+            writeResults(results, BASELINE_FILE);
+            return;
+        }
+        // Until a baseline has been generated on a machine with the native HAL, only the results are written
+        assumeTrue(BASELINE_FILE.exists(), String.format(
+            "No balancer baseline at %s; generate it with ./gradlew test -PupdateBalancerBaseline=true and commit it",
+            BASELINE_FILE
+        ));
+
+        Map<String, BalancerResult> baseline = new HashMap<>();
+        for (BalancerResult result : readResults(BASELINE_FILE)) baseline.put(result.getKey(), result);
+
+        List<String> failures = new ArrayList<>();
+        for (BalancerResult result : results) {
+            String key = result.getKey();
+            BalancerResult expected = baseline.get(key);
+            if (expected == null) {
+                failures.add(key + ": not in the baseline");
+                continue;
+            }
+
+            if (expected.finished && !result.finished) failures.add(key + ": didn't finish");
+
+            if (expected.balanced && !result.balanced) {
+                failures.add(key + ": didn't balance");
+            } else if (expected.balanced
+                && result.timeToBalanceSeconds > expected.timeToBalanceSeconds + MAX_TIME_TO_BALANCE_INCREASE_SECONDS) {
+                failures.add(String.format(
+                    "%s: balanced in %.2fs, was %.2fs", key, result.timeToBalanceSeconds, expected.timeToBalanceSeconds
+                ));
+            }
+
+            if (result.overshootDegs > expected.overshootDegs + MAX_OVERSHOOT_INCREASE_DEGS) {
+                failures.add(String.format(
+                    "%s: overshot by %.1f degrees, was %.1f", key, result.overshootDegs, expected.overshootDegs
+                ));
+            }
+        }
+
+        assertTrue(failures.isEmpty(), failures.size() + " regressions:\n" + String.join("\n", failures));
+    }
+
+    /**
+     * Runs every balancer in a simulation process.
+     * @return The results of every run.
+     */
+    private static List<BalancerResult> runSimulation() throws IOException, InterruptedException {
+        OUTPUT_DIR.mkdirs();
+        File output = new File(OUTPUT_DIR, "simulation.json");
+        output.delete();
+
+        // Run from the output directory, so that robot logs and other files the robot writes end up there
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process process = new ProcessBuilder(
+            java,
+            "-Xmx512m",
+            "-cp", System.getProperty("java.class.path"),
+            "-Djava.library.path=" + System.getProperty("java.library.path"),
+            BalancerSimulation.class.getName(),
+            output.getAbsolutePath()
+        )
+            .directory(OUTPUT_DIR)
+            .redirectErrorStream(true)
+            .redirectOutput(new File(OUTPUT_DIR, "simulation.log"))
+            .start();
+
+        if (!process.waitFor(TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+            process.destroyForcibly().waitFor();
+            fail("Simulation timed out after " + TIMEOUT_MINUTES + " minutes; see " + OUTPUT_DIR + "/simulation.log");
+        }
+        assertEquals(0, process.exitValue(), "Simulation failed; see " + OUTPUT_DIR + "/simulation.log");
+
+        return readResults(output);
+    }
+
+    /**
+     * Reads results from a JSON file.
+     * @param file The file.
+     * @return The results.
+     */
+    private static List<BalancerResult> readResults(File file) throws IOException {
+        try (Reader reader = new FileReader(file)) {
+            return Arrays.asList(gson.fromJson(reader, BalancerResult[].class));
+        }
+    }
+
+    /**
+     * Writes results to a JSON file.
+     * @param results The results.
+     * @param file The file.
+     */
+    private static void writeResults(List<BalancerResult> results, File file) throws IOException {
+        file.getParentFile().mkdirs();
+        try (Writer writer = new FileWriter(file)) {
+            gson.toJson(results, writer);
+        }
+    }
+}
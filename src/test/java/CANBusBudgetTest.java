@@ -0,0 +1,81 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import frc.robot.util.CANBusBudget;
+import frc.robot.util.MotorRole;
+import frc.robot.util.MotorUtil;
+
+public class CANBusBudgetTest {
+    @AfterEach
+    public void reset() {
+        CANBusBudget.reset();
+    }
+
+    /**
+     * Ensures that every role has a period for each status frame that `MotorUtil` sets, within the limits of
+     * each controller.
+     */
+    @Test
+    public void rolesCoverAllFrames() {
+        for (MotorRole role : MotorRole.values()) {
+            assertEquals(MotorUtil.SPARK_MAX_STATUS_FRAMES.length, role.sparkMaxStatusPeriodsMs.length, role.name());
+            assertEquals(MotorUtil.TALON_STATUS_FRAMES.length, role.talonStatusPeriodsMs.length, role.name());
+
+            for (int period : role.sparkMaxStatusPeriodsMs) assertTrue(period > 0 && period <= 65535, role.name());
+            for (int period : role.talonStatusPeriodsMs) assertTrue(period > 0 && period <= 255, role.name());
+        }
+    }
+
+    /**
+     * Ensures that the frame rate of a SparkMax is its status frames plus one setpoint per loop.
+     */
+    @Test
+    public void countsStatusAndControlFrames() {
+        CANBusBudget.registerSparkMax(1, MotorRole.DEFAULT);
+        double statusFramesPerSecond = 1000.0 / 10 + 1000.0 / 20 + 1000.0 / 20 + 1000.0 / 50
+            + 1000.0 / 20 + 1000.0 / 200 + 1000.0 / 200;
+        assertEquals(statusFramesPerSecond + 50, CANBusBudget.getFramesPerSecond(), 1e-9);
+    }
+
+    /**
+     * Ensures that the current robot's motor controllers, in their roles, use less of the bus than with default
+     * frame rates and stay under the warning threshold.
+     */
+    @Test
+    public void robotFitsBudget() {
+        registerRobot(false);
+        double defaultUtilization = CANBusBudget.getEstimatedUtilization();
+        CANBusBudget.reset();
+
+        registerRobot(true);
+        double roleUtilization = CANBusBudget.getEstimatedUtilization();
+
+        String message = String.format(
+            "%.1f%% with roles, %.1f%% with defaults", roleUtilization * 100, defaultUtilization * 100
+        );
+        assertTrue(roleUtilization < defaultUtilization, message);
+        assertTrue(roleUtilization < 0.5, message);
+    }
+
+    /**
+     * Registers the motor controllers of the current robot: four swerve modules, the tilted elevator and the roller.
+     * @param useRoles Whether to register them in their roles, instead of with default frame rates.
+     */
+    private static void registerRobot(boolean useRoles) {
+        int id = 0;
+        for (int i = 0; i < 4; i++) {
+            CANBusBudget.registerSparkMax(id++, useRoles ? MotorRole.DRIVE : MotorRole.DEFAULT);
+            CANBusBudget.registerSparkMax(id++, useRoles ? MotorRole.STEER : MotorRole.DEFAULT);
+        }
+
+        CANBusBudget.registerSparkMax(id++, useRoles ? MotorRole.LEADER : MotorRole.DEFAULT);
+        CANBusBudget.registerSparkMax(id++, useRoles ? MotorRole.FOLLOWER : MotorRole.DEFAULT);
+        CANBusBudget.registerSparkMax(id++, useRoles ? MotorRole.FOLLOWER : MotorRole.DEFAULT);
+
+        CANBusBudget.registerTalon(id++, useRoles ? MotorRole.LEADER : MotorRole.DEFAULT);
+        CANBusBudget.registerTalon(id++, useRoles ? MotorRole.FOLLOWER : MotorRole.DEFAULT);
+        CANBusBudget.registerTalon(id++, useRoles ? MotorRole.OPEN_LOOP : MotorRole.DEFAULT);
+    }
+}
@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.TimedRobot;
+
+import frc.robot.Constants.FieldConstants;
+import frc.robot.simulation.ChargingStationSim;
+
+public class ChargingStationSimTest {
+    private static final double DT = TimedRobot.kDefaultPeriod;
+    private static final double LOAD_NEWTONS = 500.0;
+
+    /**
+     * Ensures that hinge friction holds the station level under a load just off its center.
+     */
+    @Test
+    public void holdsNearCenterLoad() {
+        ChargingStationSim station = new ChargingStationSim(0, 0);
+        run(station, 0.03, 2.0);
+
+        assertEquals(0, station.getAngleDegs(), 1e-9);
+        assertTrue(station.isLevel());
+    }
+
+    /**
+     * Ensures that a load on the top plate tips the station down on its side, until it stops against the carpet.
+     */
+    @Test
+    public void tipsTowardsTopLoad() {
+        ChargingStationSim station = new ChargingStationSim(0, 0);
+        run(station, 0.4, 2.0);
+
+        assertEquals(-FieldConstants.CHARGING_STATION_MAX_ANGLE_DEGS, station.getAngleDegs(), 1e-9);
+        assertFalse(station.isLevel());
+    }
+
+    /**
+     * Ensures that a load on a ramp tips the station down on the ramp's side, but less quickly than a load on the
+     * plate's edge.
+     */
+    @Test
+    public void tipsTowardsRampLoad() {
+        double edgeMeters = Units.inchesToMeters(FieldConstants.CHARGING_STATION_TOP_DEPTH_INCHES) / 2.0;
+        double rampMeters = Units.inchesToMeters(FieldConstants.CHARGING_STATION_DEPTH_INCHES) / 2.0;
+
+        ChargingStationSim onRamp = new ChargingStationSim(0, 0);
+        ChargingStationSim onEdge = new ChargingStationSim(0, 0);
+        run(onRamp, -(edgeMeters + rampMeters) / 2.0, 0.1);
+        run(onEdge, -edgeMeters, 0.1);
+
+        assertTrue(onRamp.getAngleDegs() > 0, "angle = " + onRamp.getAngleDegs());
+        assertTrue(onRamp.getAngleDegs() < onEdge.getAngleDegs(), "angle = " + onRamp.getAngleDegs());
+    }
+
+    /**
+     * Ensures that the surface of a level station is at the hinge height on top, and meets the carpet at its ends.
+     */
+    @Test
+    public void surfaceMeetsCarpet() {
+        ChargingStationSim station = new ChargingStationSim(0, 0);
+        double halfDepthMeters = Units.inchesToMeters(FieldConstants.CHARGING_STATION_DEPTH_INCHES) / 2.0;
+
+        assertEquals(
+            Units.inchesToMeters(FieldConstants.CHARGING_STATION_HINGE_HEIGHT_INCHES),
+            station.getSurfaceHeight(0.2, 0), 1e-9
+        );
+        assertEquals(0, station.getSurfaceHeight(halfDepthMeters - 1e-6, 0), 1e-4);
+        assertEquals(0, station.getSurfaceHeight(halfDepthMeters + 0.1, 0), 1e-9);
+    }
+
+    /**
+     * Applies a constant load to a station for some time.
+     * @param station The station.
+     * @param x The x coordinate of the load, in meters.
+     * @param seconds The time to run for, in seconds.
+     */
+    private static void run(ChargingStationSim station, double x, double seconds) {
+        for (int i = 0; i < Math.round(seconds / DT); i++) {
+            station.applyLoad(x, 0, LOAD_NEWTONS);
+            station.update(DT);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.ElevatorSim;
+
+import frc.robot.subsystems.tiltedelevator.ElevatorState;
+import frc.robot.subsystems.tiltedelevator.ExtensionProfile;
+import frc.robot.subsystems.tiltedelevator.ElevatorState.OffsetState;
+
+import static frc.robot.Constants.TiltedElevatorConstants.*;
+
+public class ElevatorProfileTest {
+    // Plant: 3 NEOs through the 64:14 reduction onto the winch. The drum radius is the effective radius giving
+    // the subsystem's `EXTENSION_ROTATIONS_TO_METERS`; the carriage mass is an estimate.
+    private static final DCMotor GEARBOX = DCMotor.getNEO(3);
+    private static final double GEARING = 64.0 / 14.0;
+    private static final double DRUM_RADIUS_METERS = Units.inchesToMeters(0.5) * (15.0 / 13.4);
+    private static final double CARRIAGE_MASS_KG = 5.0;
+
+    // SparkMax position loop, shared by both controllers
+    private static final double SPARK_PERIOD_SECONDS = 0.001;
+    private static final double EXTENSION_P = 2.4;
+    // Closed loop ramp rate used before motion profiling
+    private static final double OLD_RAMP_RATE_SECONDS = 0.4;
+
+    private static final double SIM_DURATION_SECONDS = 4.0;
+
+    private enum Controller {
+        POSITION_WITH_RAMP, PROFILED
+    }
+
+    /**
+     * Ensures that, for every transition between `ElevatorState`s, the profiled elevator settles within tolerance
+     * of its target faster than the previous ramped position setpoint did. `HOME` is excluded since it homes on
+     * the limit switch with a fixed power rather than closed loop.
+     */
+    @Test
+    public void profiledReducesTimeToTarget() {
+        for (ElevatorState from : ElevatorState.values()) {
+            for (ElevatorState to : ElevatorState.values()) {
+                if (from == ElevatorState.HOME || to == ElevatorState.HOME) continue;
+
+                double start = getTarget(from);
+                double goal = getTarget(to);
+                if (start == goal) continue;
+
+                double oldTime = timeToTarget(start, goal, Controller.POSITION_WITH_RAMP);
+                double newTime = timeToTarget(start, goal, Controller.PROFILED);
+
+                String transition = from + " -> " + to + String.format(" (old %.3fs, new %.3fs)", oldTime, newTime);
+                assertTrue(newTime < SIM_DURATION_SECONDS, "Profiled elevator never settled: " + transition);
+                assertTrue(newTime < oldTime, "Profiled elevator was not faster: " + transition);
+            }
+        }
+    }
+
+    /**
+     * Ensures that the profile's feedforward holds the carriage against gravity along the tilt.
+     */
+    @Test
+    public void feedforwardHoldsAgainstGravity() {
+        ExtensionProfile profile = new ExtensionProfile();
+        profile.reset(1, 0);
+        profile.setGoal(1);
+        profile.calculate(TimedRobot.kDefaultPeriod);
+
+        assertTrue(profile.isFinished());
+        assertTrue(Math.abs(profile.getFeedforwardVolts() - getGravityVolts()) < 0.05);
+    }
+
+    /**
+     * Simulates moving the elevator from rest and gets the time after which it stays within tolerance of the goal.
+     * @param start The starting extension, in meters.
+     * @param goal The goal extension, in meters.
+     * @param controller The controller to use.
+     * @return The time to settle within tolerance, in seconds.
+     */
+    private static double timeToTarget(double start, double goal, Controller controller) {
+        ElevatorSim sim = new ElevatorSim(
+            GEARBOX, GEARING, CARRIAGE_MASS_KG, DRUM_RADIUS_METERS,
+            0, EXTENSION_LIMIT_METERS + Units.inchesToMeters(6), false
+        );
+        sim.setState(VecBuilder.fill(start, 0));
+
+        ExtensionProfile profile = new ExtensionProfile();
+        profile.reset(start, 0);
+
+        double gravityVolts = getGravityVolts();
+        int sparkTicksPerLoop = (int) Math.round(TimedRobot.kDefaultPeriod / SPARK_PERIOD_SECONDS);
+        double reference = goal;
+        double arbFFVolts = 0;
+        double output = 0;
+
+        double lastOutsideTolerance = 0;
+        int ticks = (int) Math.round(SIM_DURATION_SECONDS / SPARK_PERIOD_SECONDS);
+        for (int tick = 0; tick < ticks; tick++) {
+            double position = sim.getPositionMeters();
+
+            // Robot loop
+            if (controller == Controller.PROFILED && tick % sparkTicksPerLoop == 0) {
+                profile.setGoal(goal);
+                reference = profile.calculate(TimedRobot.kDefaultPeriod).position;
+                arbFFVolts = profile.getFeedforwardVolts();
+            }
+
+            // SparkMax loop
+            double pidOutput = MathUtil.clamp(EXTENSION_P * (reference - position) + arbFFVolts / 12.0, -1, 1);
+            if (controller == Controller.POSITION_WITH_RAMP) {
+                double maxChange = SPARK_PERIOD_SECONDS / OLD_RAMP_RATE_SECONDS;
+                output = MathUtil.clamp(pidOutput, output - maxChange, output + maxChange);
+            } else {
+                output = pidOutput;
+            }
+
+            // Gravity along the tilt acts against the motor voltage
+            sim.setInputVoltage(output * 12.0 - gravityVolts);
+            sim.update(SPARK_PERIOD_SECONDS);
+
+            if (Math.abs(sim.getPositionMeters() - goal) > EXTENSION_TOLERANCE_METERS) {
+                lastOutsideTolerance = (tick + 1) * SPARK_PERIOD_SECONDS;
+            }
+        }
+
+        return lastOutsideTolerance;
+    }
+
+    /**
+     * Gets the target extension of a state with no piece, clamped to the extension limit like the subsystem does.
+     * @param state The elevator state.
+     * @return The target extension, in meters.
+     */
+    private static double getTarget(ElevatorState state) {
+        return MathUtil.clamp(state.getExtension(OffsetState.DEFAULT, false), 0, EXTENSION_LIMIT_METERS);
+    }
+
+    /**
+     * Gets the voltage the plant needs to hold the carriage against gravity along the tilt.
+     * @return The gravity voltage.
+     */
+    private static double getGravityVolts() {
+        double force = CARRIAGE_MASS_KG * 9.81 * Math.sin(EXTENSION_ANGLE_RADIANS);
+        return GEARBOX.getVoltage(force * DRUM_RADIUS_METERS / GEARING, 0);
+    }
+}
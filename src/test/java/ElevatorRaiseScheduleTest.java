@@ -0,0 +1,160 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.constraint.SwerveDriveKinematicsConstraint;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.ElevatorSim;
+
+import frc.robot.Constants.SwerveConstants;
+import frc.robot.commands.auton.ElevatorRaiseSchedule;
+import frc.robot.commands.swerve.FollowPathCommand;
+import frc.robot.positions.PlacePosition;
+import frc.robot.subsystems.drivetrain.SwerveSubsystem;
+import frc.robot.subsystems.tiltedelevator.ElevatorState;
+import frc.robot.subsystems.tiltedelevator.ExtensionProfile;
+
+import static frc.robot.Constants.TiltedElevatorConstants.*;
+
+public class ElevatorRaiseScheduleTest {
+    private static final SwerveDriveKinematics kinematics = new SwerveDriveKinematics(
+        SwerveConstants.TL_POS,
+        SwerveConstants.TR_POS,
+        SwerveConstants.BL_POS,
+        SwerveConstants.BR_POS
+    );
+    private static final TrajectoryConfig config = new TrajectoryConfig(SwerveSubsystem.MAX_VEL, SwerveSubsystem.MAX_ACCEL)
+        .setKinematics(kinematics)
+        .addConstraint(new SwerveDriveKinematicsConstraint(kinematics, SwerveSubsystem.MAX_VEL));
+
+    // Same plant and SparkMax loop as `ElevatorProfileTest`
+    private static final DCMotor GEARBOX = DCMotor.getNEO(3);
+    private static final double GEARING = 64.0 / 14.0;
+    private static final double DRUM_RADIUS_METERS = Units.inchesToMeters(0.5) * (15.0 / 13.4);
+    private static final double CARRIAGE_MASS_KG = 5.0;
+    private static final double SPARK_PERIOD_SECONDS = 0.001;
+    private static final double EXTENSION_P = 2.4;
+
+    private static final double LOOP_SECONDS = TimedRobot.kDefaultPeriod;
+
+    /**
+     * For every place position on both alliances, simulates raising the elevator from fully retracted on the
+     * schedule while the robot follows the path from the align position to the node. Ensures that the carriage is
+     * at height whenever the robot is inside the keep-out envelope, and that the robot is ready to place no later
+     * than with the previous sequencing (raising first for cones, raising alongside the drive otherwise).
+     */
+    @Test
+    public void atHeightInsideKeepOut() {
+        for (PlacePosition placePosition : PlacePosition.values()) {
+            for (boolean isRed : new boolean[] { false, true }) {
+                Pose2d alignPose = placePosition.alignPosition.getPose(isRed);
+                Pose2d placePose = placePosition.placePosition.getPose(isRed);
+                ElevatorState elevatorState = placePosition.elevatorState;
+
+                Trajectory trajectory = FollowPathCommand.createWheelHeadingTrajectory(
+                    alignPose, List.of(), placePose, config
+                );
+                ElevatorRaiseSchedule schedule = new ElevatorRaiseSchedule(trajectory, elevatorState);
+
+                String name = placePosition + (isRed ? " (red)" : " (blue)");
+                double arrivalSeconds = simulate(trajectory, schedule, elevatorState, name);
+
+                boolean isCone = elevatorState == ElevatorState.CONE_MID || elevatorState == ElevatorState.CONE_HIGH;
+                double pathSeconds = trajectory.getTotalTimeSeconds();
+                double oldArrivalSeconds = isCone
+                    ? schedule.getRaiseSeconds() + pathSeconds
+                    : Math.max(schedule.getRaiseSeconds(), pathSeconds);
+
+                if (isCone) {
+                    assertTrue(
+                        arrivalSeconds < oldArrivalSeconds,
+                        String.format("%s: arrived at %.3fs, was %.3fs", name, arrivalSeconds, oldArrivalSeconds)
+                    );
+                } else {
+                    assertTrue(
+                        arrivalSeconds <= oldArrivalSeconds + LOOP_SECONDS,
+                        String.format("%s: arrived at %.3fs, was %.3fs", name, arrivalSeconds, oldArrivalSeconds)
+                    );
+                }
+            }
+        }
+    }
+
+    /**
+     * Simulates following a schedule, with the drive and the raise each starting on the first robot loop after
+     * their delays and the elevator picking up its goal one loop after the raise starts.
+     * @param trajectory The trajectory to the node.
+     * @param schedule The schedule.
+     * @param elevatorState The elevator state to place at.
+     * @param name The name of the case, for assertion messages.
+     * @return The time at which the robot arrives at the node, in seconds.
+     */
+    private static double simulate(
+        Trajectory trajectory, ElevatorRaiseSchedule schedule, ElevatorState elevatorState, String name
+    ) {
+        double target = ElevatorRaiseSchedule.getTargetExtensionMeters(elevatorState);
+        double keepOutMeters = ElevatorRaiseSchedule.getKeepOutMeters(elevatorState);
+        Pose2d placePose = trajectory.sample(trajectory.getTotalTimeSeconds()).poseMeters;
+
+        ElevatorSim sim = new ElevatorSim(
+            GEARBOX, GEARING, CARRIAGE_MASS_KG, DRUM_RADIUS_METERS,
+            0, EXTENSION_LIMIT_METERS + Units.inchesToMeters(6), false
+        );
+        sim.setState(VecBuilder.fill(0, 0));
+
+        ExtensionProfile profile = new ExtensionProfile();
+        profile.reset(0, 0);
+
+        double gravityForce = CARRIAGE_MASS_KG * 9.81 * Math.sin(EXTENSION_ANGLE_RADIANS);
+        double gravityVolts = GEARBOX.getVoltage(gravityForce * DRUM_RADIUS_METERS / GEARING, 0);
+
+        int ticksPerLoop = (int) Math.round(LOOP_SECONDS / SPARK_PERIOD_SECONDS);
+        double driveStart = Math.ceil(schedule.getDriveDelaySeconds() / LOOP_SECONDS - 1e-9) * LOOP_SECONDS;
+        double raiseStart = Math.ceil(schedule.getRaiseDelaySeconds() / LOOP_SECONDS - 1e-9) * LOOP_SECONDS;
+        double arrival = driveStart + trajectory.getTotalTimeSeconds();
+
+        double reference = 0;
+        double arbFFVolts = profile.getFeedforwardVolts();
+
+        for (int tick = 0; tick * SPARK_PERIOD_SECONDS < arrival + SPARK_PERIOD_SECONDS; tick++) {
+            double t = tick * SPARK_PERIOD_SECONDS;
+
+            // Robot loop
+            if (tick % ticksPerLoop == 0) {
+                if (t >= raiseStart + LOOP_SECONDS - 1e-9) profile.setGoal(target);
+                reference = profile.calculate(LOOP_SECONDS).position;
+                arbFFVolts = profile.getFeedforwardVolts();
+            }
+
+            // SparkMax loop
+            double position = sim.getPositionMeters();
+            double output = MathUtil.clamp(EXTENSION_P * (reference - position) + arbFFVolts / 12.0, -1, 1);
+            sim.setInputVoltage(output * 12.0 - gravityVolts);
+            sim.update(SPARK_PERIOD_SECONDS);
+
+            // Assume the drivetrain tracks the trajectory exactly
+            Pose2d robotPose = trajectory.sample(Math.max(t - driveStart, 0)).poseMeters;
+            double distance = robotPose.getTranslation().getDistance(placePose.getTranslation());
+            boolean inside = t >= driveStart && (distance <= keepOutMeters || t >= arrival - 1e-9);
+
+            if (inside) {
+                double error = sim.getPositionMeters() - target;
+                assertTrue(
+                    Math.abs(error) <= EXTENSION_TOLERANCE_METERS,
+                    String.format("%s: carriage %.1fin from target at %.3fm from node", name, Units.metersToInches(error), distance)
+                );
+            }
+        }
+
+        return arrival;
+    }
+}
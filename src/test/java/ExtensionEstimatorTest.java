@@ -0,0 +1,136 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.simulation.DIOSim;
+
+import frc.robot.sensors.HallEffectSensor;
+import frc.robot.subsystems.tiltedelevator.ExtensionEstimator;
+
+public class ExtensionEstimatorTest {
+    private static final double DT = 0.02;
+
+    // A DIO channel not used by the robot, since other tests construct the subsystems
+    private static final int HALL_ID = 9;
+    private static final double DETECTION_HALF_WIDTH_METERS = Units.inchesToMeters(0.25);
+    private static final HallEffectSensor.Magnet[] MAGNETS = {
+        new HallEffectSensor.Magnet(0.5, DETECTION_HALF_WIDTH_METERS),
+        new HallEffectSensor.Magnet(1.0, DETECTION_HALF_WIDTH_METERS),
+        new HallEffectSensor.Magnet(1.5, DETECTION_HALF_WIDTH_METERS)
+    };
+
+    private static final double SPEED_METERS_PER_SEC = 0.5;
+    private static final double SLIP_METERS = 0.03;
+
+    private static HallEffectSensor hallSensor;
+    private static DIOSim hallSim;
+
+    @BeforeAll
+    public static void setup() {
+        HAL.initialize(500, 0);
+        hallSensor = new HallEffectSensor(HALL_ID, MAGNETS, 0);
+        hallSim = new DIOSim(HALL_ID);
+    }
+
+    /**
+     * Simulates the winch slipping near the bottom of a move up to 1.6m and back down to 0.25m. The encoder keeps
+     * the slip as an error for the rest of the run, but the estimate should be corrected at the first magnet and
+     * stay corrected without ever reaching the limit switch. Crossing the magnets in both directions also checks
+     * the magnet tracking and the direction-dependent detection edges.
+     */
+    @Test
+    public void correctsSlipAtMagnets() {
+        ExtensionEstimator estimator = new ExtensionEstimator(0);
+
+        double position = 0;
+        double encoderOffset = 0;
+        double t = 0;
+
+        // Up to 1.6m, wait, then down to 0.25m
+        double[][] segments = {
+            { 1.6 / SPEED_METERS_PER_SEC, SPEED_METERS_PER_SEC },
+            { 0.5, 0 },
+            { 1.35 / SPEED_METERS_PER_SEC, -SPEED_METERS_PER_SEC },
+            { 0.5, 0 }
+        };
+
+        for (double[] segment : segments) {
+            double velocity = segment[1];
+            for (int i = 0; i < Math.round(segment[0] / DT); i++) {
+                t += DT;
+                position += velocity * DT;
+
+                // The winch slips once, before the first magnet
+                if (t > 0.3) encoderOffset = SLIP_METERS;
+
+                step(estimator, position, position + encoderOffset, velocity, false);
+
+                // Between the first and second magnets on the way up
+                if (Math.abs(position - 0.75) < 1e-9 && velocity > 0) {
+                    assertTrue(
+                        Math.abs(estimator.getPositionMeters() - position) < 0.015,
+                        "Slip not corrected at first magnet: error " + (estimator.getPositionMeters() - position)
+                    );
+                }
+            }
+        }
+
+        assertEquals(0.25, position, 1e-9);
+        assertEquals(SLIP_METERS, estimator.getEncoderOffsetMeters(), 0.01);
+        assertEquals(position, estimator.getPositionMeters(), 0.01);
+    }
+
+    /**
+     * Ensures that pressing the zero limit switch corrects the position to zero.
+     */
+    @Test
+    public void correctsSlipAtLimitSwitch() {
+        // Start below the magnets, then slip so the encoder reads 2cm low
+        double position = 0.4;
+        ExtensionEstimator estimator = new ExtensionEstimator(position);
+        double encoderOffset = -0.02;
+        for (int i = 0; i < 50; i++) {
+            step(estimator, position, position + encoderOffset, 0, false);
+        }
+
+        // Drive down until the carriage hits the switch
+        while (position > 0) {
+            position = Math.max(position - SPEED_METERS_PER_SEC * DT, 0);
+            step(estimator, position, position + encoderOffset, -SPEED_METERS_PER_SEC, position <= 0);
+        }
+        for (int i = 0; i < 10; i++) {
+            step(estimator, position, position + encoderOffset, 0, true);
+        }
+
+        assertEquals(0, estimator.getPositionMeters(), 0.005);
+        assertEquals(encoderOffset, estimator.getEncoderOffsetMeters(), 0.005);
+    }
+
+    /**
+     * Runs one loop of the estimator in the same order as `TiltedElevatorSubsystem.periodic()`.
+     * @param estimator The estimator.
+     * @param position The true carriage position.
+     * @param encoderPosition The encoder position.
+     * @param velocity The true carriage velocity.
+     * @param limitSwitchPressed Whether the zero limit switch is pressed.
+     */
+    private static void step(
+        ExtensionEstimator estimator, double position, double encoderPosition,
+        double velocity, boolean limitSwitchPressed
+    ) {
+        boolean detected = false;
+        for (HallEffectSensor.Magnet magnet : MAGNETS) {
+            if (Math.abs(position - magnet.getExtendDistanceMeters()) <= DETECTION_HALF_WIDTH_METERS) detected = true;
+        }
+        // The sensor reads low when a magnet is detected
+        hallSim.setValue(!detected);
+
+        estimator.update(DT, encoderPosition, velocity);
+        estimator.updateLimitSwitch(limitSwitchPressed);
+        hallSensor.getHallEffectState(encoderPosition);
+        estimator.updateHallEffect(hallSensor);
+    }
+}
@@ -0,0 +1,123 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+import frc.robot.subsystems.drivetrain.FourModuleSwerveKinematics;
+
+import static frc.robot.Constants.SwerveConstants.*;
+
+public class FourModuleSwerveKinematicsTest {
+    private static final double TOLERANCE = 1e-9;
+    private static final int SAMPLES = 1000;
+
+    private final SwerveDriveKinematics expected = new SwerveDriveKinematics(TL_POS, TR_POS, BL_POS, BR_POS);
+    private final FourModuleSwerveKinematics actual = new FourModuleSwerveKinematics(TL_POS, TR_POS, BL_POS, BR_POS);
+
+    /**
+     * Ensures that inverse kinematics matches WPILib's for random chassis speeds and centers of rotation, including
+     * keeping the module angles when stopped.
+     */
+    @Test
+    public void inverseMatchesWPILib() {
+        Random random = new Random(1678);
+        for (int i = 0; i < SAMPLES; i++) {
+            ChassisSpeeds speeds = randomSpeeds(random);
+            Translation2d center = i % 2 == 0
+                ? new Translation2d()
+                : new Translation2d(random.nextDouble() - 0.5, random.nextDouble() - 0.5);
+
+            assertStatesEqual(
+                expected.toSwerveModuleStates(speeds, center),
+                actual.toSwerveModuleStates(speeds, center)
+            );
+            if (i % 10 == 0) {
+                assertStatesEqual(
+                    expected.toSwerveModuleStates(new ChassisSpeeds()),
+                    actual.toSwerveModuleStates(new ChassisSpeeds())
+                );
+            }
+        }
+    }
+
+    /**
+     * Ensures that forward kinematics and odometry twists match WPILib's for random module states, which are
+     * generally inconsistent so that the least-squares solution matters.
+     */
+    @Test
+    public void forwardMatchesWPILib() {
+        Random random = new Random(1678);
+        for (int i = 0; i < SAMPLES; i++) {
+            SwerveModuleState[] states = new SwerveModuleState[4];
+            SwerveModulePosition[] deltas = new SwerveModulePosition[4];
+            for (int j = 0; j < 4; j++) {
+                Rotation2d angle = new Rotation2d(random.nextDouble() * 2 * Math.PI - Math.PI);
+                double speed = random.nextDouble() * 10 - 5;
+                states[j] = new SwerveModuleState(speed, angle);
+                deltas[j] = new SwerveModulePosition(speed * 0.02, angle);
+            }
+
+            ChassisSpeeds expectedSpeeds = expected.toChassisSpeeds(states);
+            ChassisSpeeds actualSpeeds = actual.toChassisSpeeds(states);
+            assertEquals(expectedSpeeds.vxMetersPerSecond, actualSpeeds.vxMetersPerSecond, TOLERANCE);
+            assertEquals(expectedSpeeds.vyMetersPerSecond, actualSpeeds.vyMetersPerSecond, TOLERANCE);
+            assertEquals(expectedSpeeds.omegaRadiansPerSecond, actualSpeeds.omegaRadiansPerSecond, TOLERANCE);
+
+            Twist2d expectedTwist = expected.toTwist2d(deltas);
+            Twist2d actualTwist = actual.toTwist2d(deltas);
+            assertEquals(expectedTwist.dx, actualTwist.dx, TOLERANCE);
+            assertEquals(expectedTwist.dy, actualTwist.dy, TOLERANCE);
+            assertEquals(expectedTwist.dtheta, actualTwist.dtheta, TOLERANCE);
+        }
+    }
+
+    /**
+     * Ensures that forward kinematics inverts inverse kinematics.
+     */
+    @Test
+    public void roundTrip() {
+        Random random = new Random(1678);
+        for (int i = 0; i < SAMPLES; i++) {
+            ChassisSpeeds speeds = randomSpeeds(random);
+            ChassisSpeeds result = actual.toChassisSpeeds(actual.toSwerveModuleStates(speeds));
+            assertEquals(speeds.vxMetersPerSecond, result.vxMetersPerSecond, TOLERANCE);
+            assertEquals(speeds.vyMetersPerSecond, result.vyMetersPerSecond, TOLERANCE);
+            assertEquals(speeds.omegaRadiansPerSecond, result.omegaRadiansPerSecond, TOLERANCE);
+        }
+    }
+
+    /**
+     * Gets random chassis speeds, around the limits of the drivetrain.
+     * @param random The random number generator.
+     * @return The chassis speeds.
+     */
+    private static ChassisSpeeds randomSpeeds(Random random) {
+        return new ChassisSpeeds(
+            random.nextDouble() * 10 - 5,
+            random.nextDouble() * 10 - 5,
+            random.nextDouble() * 20 - 10
+        );
+    }
+
+    /**
+     * Asserts that two sets of module states are equal within tolerance.
+     * @param expected The expected module states.
+     * @param actual The actual module states.
+     */
+    private static void assertStatesEqual(SwerveModuleState[] expected, SwerveModuleState[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i].speedMetersPerSecond, actual[i].speedMetersPerSecond, TOLERANCE);
+            assertEquals(expected[i].angle.getCos(), actual[i].angle.getCos(), TOLERANCE);
+            assertEquals(expected[i].angle.getSin(), actual[i].angle.getSin(), TOLERANCE);
+        }
+    }
+}
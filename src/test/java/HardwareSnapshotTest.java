@@ -0,0 +1,71 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import frc.robot.util.HardwareSnapshot;
+import frc.robot.util.HardwareSnapshot.BooleanReading;
+import frc.robot.util.HardwareSnapshot.DoubleReading;
+
+public class HardwareSnapshotTest {
+    @AfterEach
+    public void reset() {
+        HardwareSnapshot.reset();
+    }
+
+    /**
+     * Ensures that a value is read from the hardware once per loop however many times it's used, and that the
+     * loop sees the value from the start of the loop.
+     */
+    @Test
+    public void readsOncePerLoop() {
+        int[] reads = { 0 };
+        double[] hardware = { 1.0 };
+        DoubleReading reading = new DoubleReading("test", () -> {
+            reads[0]++;
+            return hardware[0];
+        });
+        assertEquals(1, reads[0]);
+
+        for (int i = 0; i < 5; i++) {
+            HardwareSnapshot.update();
+            hardware[0] = i;
+
+            assertEquals(i == 0 ? 1.0 : i - 1, reading.get());
+            assertEquals(i == 0 ? 1.0 : i - 1, reading.get());
+            assertEquals(i == 0 ? 1.0 : i - 1, reading.get());
+        }
+        assertEquals(6, reads[0]);
+    }
+
+    /**
+     * Ensures that refreshing a value reads it from the hardware again in the same loop.
+     */
+    @Test
+    public void refreshReadsAgain() {
+        boolean[] hardware = { false };
+        BooleanReading reading = new BooleanReading("test", () -> hardware[0]);
+
+        HardwareSnapshot.update();
+        hardware[0] = true;
+        assertFalse(reading.get());
+
+        reading.refresh();
+        assertTrue(reading.get());
+    }
+
+    /**
+     * Ensures that the report covers every registered value.
+     */
+    @Test
+    public void reportsEveryValue() {
+        new DoubleReading("NavX angle", () -> 0.0).get();
+        new BooleanReading("Zero limit", () -> true).get();
+        HardwareSnapshot.update();
+
+        String report = HardwareSnapshot.getReport();
+        assertTrue(report.contains("NavX angle"), report);
+        assertTrue(report.contains("Zero limit"), report);
+    }
+}
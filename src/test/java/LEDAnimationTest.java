@@ -0,0 +1,196 @@
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.AddressableLEDSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+
+import frc.robot.subsystems.RollerSubsystem.HeldPiece;
+import frc.robot.subsystems.leds.LEDColor;
+import frc.robot.subsystems.leds.LEDSubsystem;
+
+import static frc.robot.Constants.LEDConstants.LED_LENGTH;
+import static frc.robot.Constants.LEDConstants.LED_PWM_PORT;
+
+/**
+ * Golden-frame tests for the LED behaviors, stepping `LEDSubsystem` in 20ms loops with simulated time and reading
+ * back the frames sent to the simulated strip.
+ */
+public class LEDAnimationTest {
+    private static final int CUBE = LEDColor.rgb(48, 2, 63);
+    private static final int CONE = LEDColor.rgb(63, 25, 0);
+    private static final int BLACK = LEDColor.BLACK;
+    private static final int RISING_EDGE = LEDColor.rgb(0, 0, 255);
+    private static final int FALLING_EDGE = LEDColor.rgb(255, 0, 0);
+    private static final int COLOR_SENSOR_OFF = LEDColor.rgb(63, 0, 0);
+    private static final int APRIL = LEDColor.rgb(63, 63, 59);
+    // Joystick pushed left; hue 90 at a quarter brightness
+    private static final int MANUAL_LEFT = LEDColor.rgb(0, 62, 63);
+
+    private static LEDSubsystem ledSubsystem;
+    private static AddressableLEDSim ledSim;
+
+    @BeforeAll
+    public static void setup() {
+        HAL.initialize(500, 0);
+        SimHooks.pauseTiming();
+
+        ledSubsystem = new LEDSubsystem();
+        ledSim = AddressableLEDSim.createForChannel(LED_PWM_PORT);
+    }
+
+    @AfterAll
+    public static void teardown() {
+        SimHooks.resumeTiming();
+    }
+
+    /**
+     * Steps through every LED behavior in sequence, checking the displayed frame at points where the expected
+     * frame is fully determined.
+     */
+    @Test
+    public void goldenFrames() {
+        // Piece color indicated by the mech driver
+        tick(1);
+        assertFrame(solid(CUBE), "initial cube color");
+
+        ledSubsystem.setDriverColors(-1, 0);
+        tick(1);
+        assertFrame(solid(CONE), "cone color");
+
+        // Blinking while a piece is grabbed: 0.5s of the piece color, then 0.5s of black
+        ledSubsystem.pieceGrabbed = true;
+        tick(10);
+        assertFrame(solid(CONE), "piece grabbed, blink on");
+        tick(20);
+        assertFrame(solid(BLACK), "piece grabbed, blink off");
+        tick(25);
+        assertFrame(solid(CONE), "piece grabbed, blink on again");
+
+        ledSubsystem.pieceGrabbed = false;
+        tick(1);
+        assertFrame(solid(CONE), "piece released");
+
+        // Held-piece edges flash for a second
+        ledSubsystem.setHeldPiece(HeldPiece.CONE);
+        tick(1);
+        assertFrame(solid(RISING_EDGE), "rising edge");
+        tick(40);
+        assertFrame(solid(RISING_EDGE), "rising edge held");
+        tick(15);
+        assertFrame(solid(CONE), "rising edge finished");
+
+        ledSubsystem.setHeldPiece(HeldPiece.EMPTY);
+        tick(1);
+        assertFrame(solid(FALLING_EDGE), "falling edge");
+        tick(55);
+        assertFrame(solid(CONE), "falling edge finished");
+
+        // Color sensor fault: groups of 5 fading between red and the piece color with a 0.5s period
+        ledSubsystem.setColorSensorOff(true);
+        tick(1);
+        assertFrame(grouped(COLOR_SENSOR_OFF, CONE), "color sensor off, fully red");
+        tick(12);
+        assertFrame(solid(CONE), "color sensor off, faded out");
+        tick(13);
+        assertFrame(grouped(COLOR_SENSOR_OFF, CONE), "color sensor off, fully red again");
+
+        ledSubsystem.setColorSensorOff(false);
+        tick(1);
+        assertFrame(solid(CONE), "color sensor on");
+
+        // AprilTag detections scroll a 50ms pulse (3 LEDs per loop) onto the end of the strip
+        for (int i = 0; i < 3; i++) {
+            ledSubsystem.displayTagDetected();
+            tick(1);
+        }
+        int[] expected = solid(CONE);
+        Arrays.fill(expected, LED_LENGTH - 9, LED_LENGTH, APRIL);
+        assertFrame(expected, "april tag pulse emitted");
+
+        tick(1);
+        expected = solid(CONE);
+        Arrays.fill(expected, LED_LENGTH - 12, LED_LENGTH - 3, APRIL);
+        assertFrame(expected, "april tag pulse scrolled");
+
+        tick(100);
+        assertFrame(solid(CONE), "april tag pulses scrolled off");
+
+        // Manual color scrolls on and is cleared immediately when manual mode is toggled off
+        ledSubsystem.toggleManual();
+        tick(1);
+        expected = solid(CONE);
+        Arrays.fill(expected, LED_LENGTH - 3, LED_LENGTH, MANUAL_LEFT);
+        assertFrame(expected, "manual color scrolling on");
+        tick(47);
+        assertFrame(solid(MANUAL_LEFT), "manual color filled");
+
+        // The color sensor fault fades into the piece color, not the manual color drawn above it
+        ledSubsystem.setColorSensorOff(true);
+        tick(1);
+        assertFrame(grouped(COLOR_SENSOR_OFF, MANUAL_LEFT), "color sensor off over manual, fully red");
+        tick(12);
+        assertFrame(grouped(CONE, MANUAL_LEFT), "color sensor off over manual, faded out");
+
+        ledSubsystem.setColorSensorOff(false);
+        tick(1);
+        assertFrame(solid(MANUAL_LEFT), "color sensor on over manual");
+
+        ledSubsystem.toggleManual();
+        tick(1);
+        assertFrame(solid(CONE), "manual off");
+    }
+
+    /**
+     * Runs a number of 20ms robot loops.
+     * @param loops The number of loops to run.
+     */
+    private static void tick(int loops) {
+        for (int i = 0; i < loops; i++) {
+            ledSubsystem.periodic();
+            SimHooks.stepTiming(0.02);
+        }
+    }
+
+    /**
+     * Asserts that the simulated strip is displaying a frame.
+     * @param expected The expected packed colors.
+     * @param message The description of the frame.
+     */
+    private static void assertFrame(int[] expected, String message) {
+        // The simulated LED data is 4 bytes per LED: blue, green, red, padding
+        byte[] data = ledSim.getData();
+        assertEquals(LED_LENGTH * 4, data.length, message);
+
+        int[] actual = new int[LED_LENGTH];
+        for (int i = 0; i < LED_LENGTH; i++) {
+            actual[i] = LEDColor.rgb(data[i * 4 + 2] & 0xFF, data[i * 4 + 1] & 0xFF, data[i * 4] & 0xFF);
+        }
+        assertArrayEquals(expected, actual, message);
+    }
+
+    private static int[] solid(int color) {
+        int[] frame = new int[LED_LENGTH];
+        Arrays.fill(frame, color);
+        return frame;
+    }
+
+    /**
+     * Creates a frame of alternating groups of 5 "on" LEDs and 10 "off" LEDs.
+     * @param onColor The color of the "on" LEDs.
+     * @param offColor The color of the "off" LEDs.
+     * @return The frame.
+     */
+    private static int[] grouped(int onColor, int offColor) {
+        int[] frame = new int[LED_LENGTH];
+        for (int i = 0; i < LED_LENGTH; i++) {
+            frame[i] = i % 15 < 5 ? onColor : offColor;
+        }
+        return frame;
+    }
+}
@@ -0,0 +1,135 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import edu.wpi.first.wpilibj.util.Color;
+
+import frc.robot.subsystems.leds.LEDColor;
+import frc.robot.subsystems.leds.LEDCompositor;
+import frc.robot.subsystems.leds.LEDLayer;
+
+public class LEDCompositorTest {
+    private static final int LENGTH = 144;
+
+    /**
+     * Ensures that opaque layers cover the layers below them and transparent LEDs fall through
+     * to the layer below.
+     */
+    @Test
+    public void opaqueCoversAndTransparentFallsThrough() {
+        LEDLayer bottom = new LEDLayer(LENGTH);
+        LEDLayer top = new LEDLayer(LENGTH);
+        LEDCompositor compositor = new LEDCompositor(LENGTH, bottom, top);
+
+        bottom.fillColor(LEDColor.rgb(10, 20, 30));
+        top.fillGrouped(5, 10, LEDColor.rgb(200, 0, 0));
+        compositor.compose();
+
+        assertEquals(LEDColor.rgb(200, 0, 0), compositor.getLED(0));
+        assertEquals(LEDColor.rgb(200, 0, 0), compositor.getLED(4));
+        assertEquals(LEDColor.rgb(10, 20, 30), compositor.getLED(5));
+        assertEquals(LEDColor.rgb(10, 20, 30), compositor.getLED(14));
+        assertEquals(LEDColor.rgb(200, 0, 0), compositor.getLED(15));
+    }
+
+    /**
+     * Ensures that LEDs not covered by any layer are black.
+     */
+    @Test
+    public void uncoveredIsBlack() {
+        LEDLayer layer = new LEDLayer(LENGTH);
+        LEDCompositor compositor = new LEDCompositor(LENGTH, layer);
+        compositor.compose();
+
+        assertEquals(LEDColor.BLACK, compositor.getLED(LENGTH - 1));
+    }
+
+    /**
+     * Ensures that partially transparent layers are alpha-blended with the layer below.
+     * Bottom: (0, 0, 200), top: (200, 100, 0) at alpha 51 (20%)
+     * Expected: (40, 20, 160)
+     */
+    @Test
+    public void partialAlphaBlends() {
+        LEDLayer bottom = new LEDLayer(LENGTH);
+        LEDLayer top = new LEDLayer(LENGTH);
+        LEDCompositor compositor = new LEDCompositor(LENGTH, bottom, top);
+
+        bottom.fillColor(LEDColor.rgb(0, 0, 200));
+        top.fillColor(LEDColor.rgba(200, 100, 0, 51));
+        compositor.compose();
+
+        assertEquals(LEDColor.rgb(40, 20, 160), compositor.getLED(0));
+    }
+
+    /**
+     * Ensures that `compose()` only reports a change when the composed frame actually changes.
+     */
+    @Test
+    public void reportsOnlyChangedFrames() {
+        LEDLayer bottom = new LEDLayer(LENGTH);
+        LEDLayer top = new LEDLayer(LENGTH);
+        LEDCompositor compositor = new LEDCompositor(LENGTH, bottom, top);
+
+        bottom.fillColor(LEDColor.rgb(0, 255, 0));
+        assertTrue(compositor.compose());
+        assertFalse(compositor.compose());
+
+        // A change hidden under an opaque layer doesn't change the frame
+        top.fillColor(LEDColor.rgb(255, 0, 0));
+        assertTrue(compositor.compose());
+        bottom.fillColor(LEDColor.rgb(0, 0, 255));
+        assertFalse(compositor.compose());
+
+        top.setLED(LENGTH - 1, LEDColor.TRANSPARENT);
+        assertTrue(compositor.compose());
+    }
+
+    /**
+     * Ensures that packed HSV colors match `Color.fromHSV()` over the full hue range.
+     */
+    @Test
+    public void hsvMatchesColor() {
+        for (int h = 0; h < 180; h++) {
+            assertEquals(LEDColor.fromColor(Color.fromHSV(h, 255, 63)), LEDColor.fromHSV(h, 255, 63));
+        }
+    }
+
+    /**
+     * Ensures that updating layers and compositing a frame does not allocate once warmed up.
+     */
+    @Test
+    public void composeDoesNotAllocate() {
+        LEDLayer base = new LEDLayer(LENGTH);
+        LEDLayer scrolling = new LEDLayer(LENGTH);
+        LEDLayer grouped = new LEDLayer(LENGTH);
+        LEDCompositor compositor = new LEDCompositor(LENGTH, base, scrolling, grouped);
+
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // Warm up, then measure allocations over many loops
+        runLoops(2000, base, scrolling, grouped, compositor);
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        runLoops(10000, base, scrolling, grouped, compositor);
+        long after = threadBean.getThreadAllocatedBytes(threadId);
+
+        assertEquals(0, after - before);
+    }
+
+    /**
+     * Runs a number of simulated LED loops.
+     * @param loops The number of loops to run.
+     */
+    private static void runLoops(int loops, LEDLayer base, LEDLayer scrolling, LEDLayer grouped, LEDCompositor compositor) {
+        for (int i = 0; i < loops; i++) {
+            base.fillColor(LEDColor.scale(LEDColor.rgb(192, 8, 254), 0.25));
+            scrolling.incrementColors(3, (i & 4) == 0 ? LEDColor.fromHSV(i % 180, 255, 63) : LEDColor.TRANSPARENT);
+            grouped.fillGrouped(5, 10, LEDColor.lerp(LEDColor.rgb(63, 0, 0), LEDColor.rgb(48, 2, 63), i & 0xFF));
+            compositor.compose();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import frc.robot.subsystems.leds.LEDColor;
+import frc.robot.subsystems.leds.LEDCompositor;
+import frc.robot.subsystems.leds.LEDLayer;
+
+public class LEDLayerScrollTest {
+    /**
+     * Applies the same random sequence of operations to a ring-buffer `LEDLayer` and to a reference layer that
+     * shifts its whole array on every scroll (the original `incrementColors()` implementation), and ensures that
+     * every LED, along with the composited frame, matches after each operation.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 2, 7, 144, 1000 })
+    public void matchesShiftingLayer(int length) {
+        Random random = new Random(length);
+
+        LEDLayer base = new LEDLayer(length);
+        LEDLayer layer = new LEDLayer(length);
+        ShiftingLayer reference = new ShiftingLayer(length);
+        LEDCompositor compositor = new LEDCompositor(length, base, layer);
+        base.fillColor(LEDColor.rgb(0, 0, 63));
+
+        for (int step = 0; step < 2000; step++) {
+            int color = randomColor(random);
+            int op = random.nextInt(10);
+
+            // Scrolling is the operation under test, so weight it most heavily
+            if (op < 6) {
+                int inc = random.nextInt(length + 3);
+                layer.incrementColors(inc, color);
+                reference.incrementColors(inc, color);
+            } else if (op == 6) {
+                int i = random.nextInt(length);
+                layer.setLED(i, color);
+                reference.setLED(i, color);
+            } else if (op == 7) {
+                layer.fillColor(color);
+                reference.fillColor(color);
+            } else if (op == 8) {
+                int on = 1 + random.nextInt(10);
+                int off = random.nextInt(10);
+                layer.fillGrouped(on, off, color);
+                reference.fillGrouped(on, off, color);
+            } else {
+                layer.reset();
+                reference.fillColor(LEDColor.TRANSPARENT);
+            }
+
+            compositor.compose();
+            for (int i = 0; i < length; i++) {
+                assertEquals(reference.ledArray[i], layer.getLED(i), "LED " + i + " at step " + step);
+                assertEquals(
+                    LEDColor.blend(LEDColor.rgb(0, 0, 63), reference.ledArray[i]), compositor.getLED(i),
+                    "Composited LED " + i + " at step " + step
+                );
+            }
+        }
+    }
+
+    /**
+     * Generates a random color that is transparent, opaque, or partially transparent.
+     * @param random The random number generator.
+     * @return The packed color.
+     */
+    private static int randomColor(Random random) {
+        return switch (random.nextInt(3)) {
+            case 0 -> LEDColor.TRANSPARENT;
+            case 1 -> LEDColor.rgb(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+            default -> LEDColor.rgba(random.nextInt(256), random.nextInt(256), random.nextInt(256), random.nextInt(256));
+        };
+    }
+
+    /**
+     * The reference layer, which shifts the entire array on every scroll.
+     */
+    private static class ShiftingLayer {
+        private final int[] ledArray;
+
+        public ShiftingLayer(int length) {
+            ledArray = new int[length];
+        }
+
+        public void setLED(int i, int color) {
+            ledArray[i] = color;
+        }
+
+        public void incrementColors(int inc, int color) {
+            inc = Math.min(inc, ledArray.length);
+            for (int i = 0; i < ledArray.length - inc; i++) {
+                ledArray[i] = ledArray[i + inc];
+            }
+            for (int i = ledArray.length - inc; i < ledArray.length; i++) {
+                ledArray[i] = color;
+            }
+        }
+
+        public void fillColor(int color) {
+            for (int i = 0; i < ledArray.length; i++) {
+                ledArray[i] = color;
+            }
+        }
+
+        public void fillGrouped(int onGroupLength, int offGroupLength, int color) {
+            int groupLength = onGroupLength + offGroupLength;
+            for (int i = 0; i < ledArray.length; i++) {
+                ledArray[i] = i % groupLength < onGroupLength ? color : LEDColor.TRANSPARENT;
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.CANSparkMax.IdleMode;
+import com.revrobotics.CANSparkMaxLowLevel.MotorType;
+
+import edu.wpi.first.hal.HAL;
+
+import frc.robot.util.MotorConfigCache;
+import frc.robot.util.SparkMaxConfig;
+import frc.robot.util.SparkMaxConfig.FeedbackSensor;
+
+public class MotorConfigCacheTest {
+    @TempDir
+    File tempDir;
+
+    /**
+     * Ensures that hashes saved to the cache file are matched after reloading it, as on the next boot.
+     */
+    @Test
+    public void persistsAcrossBoots() {
+        File file = new File(tempDir, "cache.properties");
+        int hash = createDriveConfig().getHash();
+
+        MotorConfigCache cache = new MotorConfigCache(file);
+        assertFalse(cache.matches("sparkmax.1", hash));
+        cache.put("sparkmax.1", hash);
+        cache.save();
+
+        MotorConfigCache reloaded = new MotorConfigCache(file);
+        assertTrue(reloaded.matches("sparkmax.1", hash));
+        assertFalse(reloaded.matches("sparkmax.1", hash + 1));
+        assertFalse(reloaded.matches("sparkmax.2", hash));
+
+        reloaded.remove("sparkmax.1");
+        reloaded.save();
+        assertFalse(new MotorConfigCache(file).matches("sparkmax.1", hash));
+    }
+
+    /**
+     * Ensures that identical configurations hash the same, and that changing any setting changes the hash.
+     */
+    @Test
+    public void hashTracksSettings() {
+        int hash = createDriveConfig().getHash();
+        assertEquals(hash, createDriveConfig().getHash());
+
+        assertNotEquals(hash, createDriveConfig().idleMode(IdleMode.kCoast).getHash());
+        assertNotEquals(hash, createDriveConfig().smartCurrentLimit(40).getHash());
+        assertNotEquals(hash, createDriveConfig().encoderConversionFactors(0.05, 0.05 / 60.0).getHash());
+        assertNotEquals(hash, createDriveConfig().pid(FeedbackSensor.PRIMARY_ENCODER, 0.06, 0, 0, 0.19).getHash());
+        assertNotEquals(hash, createDriveConfig().forwardSoftLimit(1.0).getHash());
+    }
+
+    /**
+     * Ensures that the fingerprint read back from a simulated SparkMax only matches once the configuration has been
+     * applied, so that a controller swapped for one at factory defaults is reconfigured, and stops matching once
+     * the gains are retuned at runtime.
+     */
+    @Test
+    public void fingerprintDetectsFactoryDefaults() {
+        HAL.initialize(500, 0);
+        SparkMaxConfig config = createDriveConfig().inverted(true).forwardSoftLimit(1.0);
+
+        CANSparkMax spark = new CANSparkMax(60, MotorType.kBrushless);
+        try {
+            assertFalse(config.matches(spark));
+            assertTrue(config.apply(spark));
+            assertTrue(config.matches(spark));
+            assertFalse(createDriveConfig().matches(spark));
+
+            spark.getPIDController().setP(0.06);
+            assertFalse(config.matches(spark));
+        } finally {
+            spark.close();
+        }
+    }
+
+    /**
+     * Creates a configuration like a swerve drive motor's.
+     * @return The configuration.
+     */
+    private static SparkMaxConfig createDriveConfig() {
+        return new SparkMaxConfig()
+            .smartCurrentLimit(60)
+            .idleMode(IdleMode.kBrake)
+            .encoderConversionFactors(0.04, 0.04 / 60.0)
+            .pid(FeedbackSensor.PRIMARY_ENCODER, 0.05, 0, 0, 0.19);
+    }
+}
@@ -0,0 +1,90 @@
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import frc.robot.sensors.NavXSampler;
+
+public class NavXSamplerTest {
+    private static final double DT = 1.0 / NavXSampler.UPDATE_RATE_HZ;
+    private static final double DELTA = 1e-6;
+
+    /**
+     * Ensures that values between samples are interpolated, and that times outside the buffer get the nearest
+     * sample.
+     */
+    @Test
+    public void interpolatesBetweenSamples() {
+        NavXSampler sampler = new NavXSampler(null);
+        sampler.addSample(1.00, 0, 2.0, -1.0);
+        sampler.addSample(1.01, 0, 4.0, -3.0);
+
+        assertEquals(3.0, sampler.getPitchDegs(1.005), DELTA);
+        assertEquals(-2.5, sampler.getRollDegs(1.0025), DELTA);
+        assertEquals(2.0, sampler.getPitchDegs(0.5), DELTA);
+        assertEquals(4.0, sampler.getPitchDegs(2.0), DELTA);
+        assertEquals(4.0, sampler.getPitchDegs(), DELTA);
+    }
+
+    /**
+     * Ensures that yaw is interpolated the short way across +/-180 degrees.
+     */
+    @Test
+    public void interpolatesYawAcrossWrap() {
+        NavXSampler sampler = new NavXSampler(null);
+        sampler.addSample(0.0, 170.0, 0, 0);
+        sampler.addSample(DT, -170.0, 0, 0);
+
+        assertEquals(180.0, Math.abs(sampler.getYawDegs(DT / 2)), DELTA);
+        assertEquals(20.0 / DT, sampler.getYawRateDegsPerSec(), 1e-3);
+    }
+
+    /**
+     * Ensures that the buffer keeps the latest samples once it wraps around.
+     */
+    @Test
+    public void keepsLatestSamples() {
+        NavXSampler sampler = new NavXSampler(null);
+        for (int i = 0; i < 1000; i++) sampler.addSample(i * DT, 0, i, 0);
+
+        assertEquals(999.0, sampler.getPitchDegs(), DELTA);
+        assertEquals(998.5, sampler.getPitchDegs(998.5 * DT), DELTA);
+    }
+
+    /**
+     * Ensures that the fitted pitch rate of a noisy ramp is much closer to the true rate than differencing two
+     * readings a loop apart.
+     */
+    @Test
+    public void filtersPitchRate() {
+        NavXSampler sampler = new NavXSampler(null);
+        Random random = new Random(0);
+        double rateDegsPerSec = 10.0;
+        double noiseDegs = 0.1;
+
+        double worstFitError = 0;
+        double worstDifferenceError = 0;
+        double lastLoopPitch = 0;
+        for (int i = 0; i < 400; i++) {
+            double t = i * DT;
+            double pitch = rateDegsPerSec * t + random.nextGaussian() * noiseDegs;
+            sampler.addSample(t, 0, pitch, 0);
+
+            // Once per 20ms loop, after the window has filled
+            if (i % 4 == 0) {
+                if (i >= 40) {
+                    double fitError = Math.abs(sampler.getPitchRateDegsPerSec() - rateDegsPerSec);
+                    worstFitError = Math.max(worstFitError, fitError);
+                    worstDifferenceError = Math.max(
+                        worstDifferenceError, Math.abs((pitch - lastLoopPitch) / 0.02 - rateDegsPerSec)
+                    );
+                }
+                lastLoopPitch = pitch;
+            }
+        }
+
+        assertTrue(worstFitError < 4.0, "Fit error: " + worstFitError);
+        assertTrue(worstFitError < worstDifferenceError / 3, worstFitError + " vs " + worstDifferenceError);
+    }
+}
@@ -0,0 +1,91 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import frc.robot.simulation.ScoringCycleResult;
+import frc.robot.simulation.ScoringCycleSimulation;
+
+/**
+ * Runs a scoring cycle at every place position and the motor test on the simulated elevator and roller (see
+ * `ScoringCycleSimulation`), writes the timings to `build/scoring-sim/results.json` and `report.txt`, and fails if
+ * any run didn't finish or didn't place its piece. The simulation runs in its own JVM, since it needs its own HAL.
+ */
+public class ScoringCycleTest {
+    private static final File OUTPUT_DIR = new File("build/scoring-sim");
+
+    private static final long TIMEOUT_MINUTES = 5;
+
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    /**
+     * Ensures that every scoring cycle and the motor test finish, each placing one piece.
+     */
+    @Test
+    public void cyclesFinishAndPlace() throws IOException, InterruptedException {
+        List<ScoringCycleResult> results = runSimulation();
+        try (Writer writer = new FileWriter(new File(OUTPUT_DIR, "results.json"))) {
+            gson.toJson(results, writer);
+        }
+        try (Writer writer = new FileWriter(new File(OUTPUT_DIR, "report.txt"))) {
+            writer.write(ScoringCycleSimulation.getReport(results));
+        }
+
+        List<String> failures = new ArrayList<>();
+        for (ScoringCycleResult result : results) {
+            if (!result.finished) failures.add(result.name + ": didn't finish " + result.phaseSeconds.keySet());
+            if (result.piecesPlaced != 1) failures.add(result.name + ": placed " + result.piecesPlaced + " pieces");
+        }
+
+        assertTrue(failures.isEmpty(), failures.size() + " failures:\n" + String.join("\n", failures));
+    }
+
+    /**
+     * Runs every scoring cycle in a simulation process.
+     * @return The results of every run.
+     */
+    private static List<ScoringCycleResult> runSimulation() throws IOException, InterruptedException {
+        OUTPUT_DIR.mkdirs();
+        File output = new File(OUTPUT_DIR, "simulation.json");
+        output.delete();
+
+        // Run from the output directory, so that robot logs and other files the robot writes end up there
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process process = new ProcessBuilder(
+            java,
+            "-Xmx512m",
+            "-cp", System.getProperty("java.class.path"),
+            "-Djava.library.path=" + System.getProperty("java.library.path"),
+            ScoringCycleSimulation.class.getName(),
+            output.getAbsolutePath()
+        )
+            .directory(OUTPUT_DIR)
+            .redirectErrorStream(true)
+            .redirectOutput(new File(OUTPUT_DIR, "simulation.log"))
+            .start();
+
+        if (!process.waitFor(TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+            process.destroyForcibly().waitFor();
+            fail("Simulation timed out after " + TIMEOUT_MINUTES + " minutes; see " + OUTPUT_DIR + "/simulation.log");
+        }
+        assertEquals(0, process.exitValue(), "Simulation failed; see " + OUTPUT_DIR + "/simulation.log");
+
+        try (Reader reader = new FileReader(output)) {
+            return Arrays.asList(gson.fromJson(reader, ScoringCycleResult[].class));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.revrobotics.CANSparkMax.ControlType;
+
+import frc.robot.util.SetpointCache;
+
+public class SetpointCacheTest {
+    private static final double DT = 0.02;
+
+    @AfterEach
+    public void reset() {
+        SetpointCache.reset();
+    }
+
+    /**
+     * Ensures that a repeated setpoint is suppressed, and that a change in value, feedforward, or mode is sent.
+     */
+    @Test
+    public void suppressesUnchangedSetpoints() {
+        SetpointCache cache = new SetpointCache("test", 1e-4, 1.0);
+
+        assertTrue(cache.update(ControlType.kVelocity, 1.0, 0, 0));
+        assertFalse(cache.update(ControlType.kVelocity, 1.0, 0, DT));
+        assertFalse(cache.update(ControlType.kVelocity, 1.0 + 5e-5, 0, 2 * DT));
+        assertTrue(cache.update(ControlType.kVelocity, 1.1, 0, 3 * DT));
+        assertTrue(cache.update(ControlType.kVelocity, 1.1, 0.5, 4 * DT));
+        assertTrue(cache.update(ControlType.kPosition, 1.1, 0.5, 5 * DT));
+        assertFalse(cache.update(ControlType.kPosition, 1.1, 0.5, 6 * DT));
+
+        assertEquals(4, cache.getSentCount());
+        assertEquals(3, cache.getSuppressedCount());
+    }
+
+    /**
+     * Ensures that small changes that each stay within epsilon still get sent once they add up, since they're
+     * compared to the last sent setpoint rather than the last requested one.
+     */
+    @Test
+    public void sendsAccumulatedDrift() {
+        SetpointCache cache = new SetpointCache("test", 1e-4, 1.0);
+
+        assertTrue(cache.update(ControlType.kPosition, 0, 0, 0));
+        assertFalse(cache.update(ControlType.kPosition, 6e-5, 0, DT));
+        assertTrue(cache.update(ControlType.kPosition, 1.2e-4, 0, 2 * DT));
+    }
+
+    /**
+     * Ensures that an unchanged setpoint is resent once the keep-alive period has passed (every 5 loops here), and
+     * after being invalidated.
+     */
+    @Test
+    public void resendsAfterKeepAlive() {
+        SetpointCache cache = new SetpointCache("test", 1e-4, 0.09);
+
+        int sent = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.update(ControlType.kDutyCycle, 0.5, 0, i * DT)) sent++;
+        }
+        assertEquals(10, sent);
+
+        cache.invalidate();
+        assertTrue(cache.update(ControlType.kDutyCycle, 0.5, 0, 50 * DT));
+    }
+
+    /**
+     * Ensures that the report covers every registered device.
+     */
+    @Test
+    public void reportsEveryDevice() {
+        new SetpointCache("SparkMax 1").update(ControlType.kDutyCycle, 0, 0, 0);
+        new SetpointCache("Talon 2").update(ControlType.kDutyCycle, 0, 0, 0);
+
+        String report = SetpointCache.getReport();
+        assertTrue(report.contains("SparkMax 1"), report);
+        assertTrue(report.contains("Talon 2"), report);
+    }
+}
@@ -0,0 +1,109 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import org.photonvision.common.dataflow.structures.Packet;
+import org.photonvision.targeting.PhotonPipelineResult;
+import org.photonvision.targeting.PhotonTrackedTarget;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.RawSubscriber;
+
+import frc.robot.Constants.VisionConstants;
+import frc.robot.simulation.SimCameraProperties;
+import frc.robot.simulation.SimVisionCamera;
+
+public class SimVisionCameraTest {
+    private static final String CAMERA_NAME = "test";
+
+    // Facing the blue grid, 2 meters out from tag 8
+    private static final Pose2d FACING_GRID = new Pose2d(3.0, 1.07, Rotation2d.fromDegrees(180));
+
+    private NetworkTableInstance instance;
+    private AprilTagFieldLayout fieldLayout;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        instance = NetworkTableInstance.create();
+        fieldLayout = AprilTagFields.k2023ChargedUp.loadAprilTagLayoutField();
+    }
+
+    @AfterEach
+    public void shutdown() {
+        instance.close();
+    }
+
+    /**
+     * Ensures that a tag in front of the camera is detected, with the transform that locates the camera.
+     */
+    @Test
+    public void detectsTagInFront() {
+        SimVisionCamera camera = createCamera(SimCameraProperties.PERFECT);
+        List<PhotonTrackedTarget> targets = camera.detectTags(FACING_GRID);
+
+        PhotonTrackedTarget tag = targets.stream().filter((target) -> target.getFiducialId() == 8).findFirst().get();
+        Pose3d cameraPose = fieldLayout.getTagPose(8).get().transformBy(tag.getBestCameraToTarget().inverse());
+        Pose3d expected = new Pose3d(FACING_GRID).transformBy(VisionConstants.FRONT_CAMERA_POSE);
+
+        assertEquals(0, cameraPose.getTranslation().getDistance(expected.getTranslation()), 1e-6);
+        assertEquals(4, tag.getDetectedCorners().size());
+        assertTrue(tag.getArea() > 0);
+    }
+
+    /**
+     * Ensures that no tags are detected when the camera faces away from every tag in range.
+     */
+    @Test
+    public void ignoresTagsBehind() {
+        SimVisionCamera camera = createCamera(SimCameraProperties.PERFECT);
+        Pose2d facingAway = new Pose2d(FACING_GRID.getTranslation(), new Rotation2d());
+
+        assertTrue(camera.detectTags(facingAway).isEmpty());
+    }
+
+    /**
+     * Ensures that a frame is only published once its latency has passed, and that its reported latency places it
+     * at the time it was captured.
+     */
+    @Test
+    public void publishesAfterLatency() {
+        SimCameraProperties properties = new SimCameraProperties(1280, 800, 70.0, 30.0, 0.05, 0, 0, 0, 10.0, 0);
+        SimVisionCamera camera = createCamera(properties);
+        RawSubscriber subscriber = instance.getTable("photonvision").getSubTable(CAMERA_NAME)
+            .getRawTopic("rawBytes").subscribe("rawBytes", new byte[] {});
+
+        camera.update(1.00, FACING_GRID);
+        camera.update(1.02, FACING_GRID);
+        assertEquals(0, subscriber.get().length);
+
+        camera.update(1.06, FACING_GRID);
+        PhotonPipelineResult result = new PhotonPipelineResult();
+        result.createFromPacket(new Packet(subscriber.get()));
+
+        assertTrue(result.hasTargets());
+        assertEquals(60, result.getLatencyMillis(), 1e-6);
+        assertEquals(1.06e6, subscriber.getLastChange(), 1);
+    }
+
+    /**
+     * Creates a simulated front camera.
+     * @param properties The characteristics of the camera.
+     * @return The camera.
+     */
+    private SimVisionCamera createCamera(SimCameraProperties properties) {
+        return new SimVisionCamera(
+            instance, CAMERA_NAME, VisionConstants.FRONT_CAMERA_POSE, fieldLayout, properties, new Random(0)
+        );
+    }
+}
@@ -0,0 +1,110 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.TimedRobot;
+
+import frc.robot.simulation.PathDriftResult;
+import frc.robot.simulation.PathDriftSimulation;
+import frc.robot.subsystems.drivetrain.BaseSwerveSubsystem;
+import frc.robot.subsystems.drivetrain.SwerveSubsystem;
+
+public class SwerveDiscretizationTest {
+    private static final File OUTPUT_DIR = new File("build/path-drift");
+    private static final long TIMEOUT_MINUTES = 5;
+
+    private static final double DT = TimedRobot.kDefaultPeriod;
+
+    /**
+     * Follows `HighRotationLinePath` and `RotatingSCurveAutonSequence` on the simulated robot (see
+     * `PathDriftSimulation`), through `FollowPathCommand` and `BaseSwerveSubsystem`, with discretization on and off,
+     * and ensures that every run finishes its path. The drift of each run is written to
+     * `build/path-drift/report.txt`; it isn't checked until it has been measured on a real run.
+     */
+    @Test
+    public void reportsPathDrift() throws IOException, InterruptedException {
+        List<PathDriftResult> results = runSimulation();
+        String report = PathDriftSimulation.getReport(results);
+        try (Writer writer = new FileWriter(new File(OUTPUT_DIR, "report.txt"))) {
+            writer.write(report);
+        }
+        System.out.print(report);
+
+        for (PathDriftResult result : results) {
+            assertTrue(result.finished, result.path + " didn't finish");
+        }
+    }
+
+    /**
+     * Ensures that undiscretizing discretized speeds gives back the original speeds, and that speeds without
+     * rotation are unchanged by discretization.
+     */
+    @Test
+    public void undiscretizeInverts() {
+        ChassisSpeeds[] speeds = {
+            new ChassisSpeeds(3, -1, 4),
+            new ChassisSpeeds(-2, 2, -SwerveSubsystem.MAX_OMEGA),
+            new ChassisSpeeds(1, 1, 0)
+        };
+
+        for (ChassisSpeeds original : speeds) {
+            ChassisSpeeds result = BaseSwerveSubsystem.undiscretize(BaseSwerveSubsystem.discretize(original, DT), DT);
+            assertEquals(original.vxMetersPerSecond, result.vxMetersPerSecond, 1e-9);
+            assertEquals(original.vyMetersPerSecond, result.vyMetersPerSecond, 1e-9);
+            assertEquals(original.omegaRadiansPerSecond, result.omegaRadiansPerSecond, 1e-9);
+        }
+
+        ChassisSpeeds translating = BaseSwerveSubsystem.discretize(speeds[2], DT);
+        assertEquals(1, translating.vxMetersPerSecond, 1e-12);
+        assertEquals(1, translating.vyMetersPerSecond, 1e-12);
+    }
+
+    /**
+     * Runs the path drift simulation in its own process, since it needs its own HAL.
+     * @return The results of every run.
+     */
+    private static List<PathDriftResult> runSimulation() throws IOException, InterruptedException {
+        OUTPUT_DIR.mkdirs();
+        File output = new File(OUTPUT_DIR, "simulation.json");
+        output.delete();
+
+        // Run from the output directory, so that robot logs and other files the robot writes end up there
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process process = new ProcessBuilder(
+            java,
+            "-Xmx512m",
+            "-cp", System.getProperty("java.class.path"),
+            "-Djava.library.path=" + System.getProperty("java.library.path"),
+            PathDriftSimulation.class.getName(),
+            output.getAbsolutePath()
+        )
+            .directory(OUTPUT_DIR)
+            .redirectErrorStream(true)
+            .redirectOutput(new File(OUTPUT_DIR, "simulation.log"))
+            .start();
+
+        if (!process.waitFor(TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+            process.destroyForcibly().waitFor();
+            fail("Simulation timed out after " + TIMEOUT_MINUTES + " minutes; see " + OUTPUT_DIR + "/simulation.log");
+        }
+        assertEquals(0, process.exitValue(), "Simulation failed; see " + OUTPUT_DIR + "/simulation.log");
+
+        try (Reader reader = new FileReader(output)) {
+            return Arrays.asList(new Gson().fromJson(reader, PathDriftResult[].class));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.TimedRobot;
+
+import frc.robot.Constants.SwerveConstants;
+import frc.robot.simulation.ChargingStationSim;
+import frc.robot.simulation.SimDisturbances;
+import frc.robot.simulation.SimSwerveModule;
+import frc.robot.simulation.SwerveDriveSim;
+import frc.robot.subsystems.drivetrain.FourModuleSwerveKinematics;
+
+public class SwerveDriveSimTest {
+    private static final SwerveDriveKinematics kinematics = new FourModuleSwerveKinematics(
+        SwerveConstants.TL_POS,
+        SwerveConstants.TR_POS,
+        SwerveConstants.BL_POS,
+        SwerveConstants.BR_POS
+    );
+
+    private static final double DT = TimedRobot.kDefaultPeriod;
+
+    /**
+     * Ensures that a module reaches its commanded velocity and angle.
+     */
+    @Test
+    public void moduleTracksSetpoint() {
+        SimSwerveModule module = new SimSwerveModule();
+        SwerveModuleState target = new SwerveModuleState(2.0, Rotation2d.fromDegrees(60));
+
+        for (int i = 0; i < 50; i++) {
+            module.setDesiredState(target);
+            module.update(DT);
+        }
+
+        SwerveModuleState state = module.getVelocityState();
+        assertEquals(60, state.angle.getDegrees(), 1.0);
+        assertEquals(2.0, state.speedMetersPerSecond, 0.1);
+    }
+
+    /**
+     * Ensures that driving forward moves the robot forward by about the commanded distance, less the distance lost
+     * while accelerating.
+     */
+    @Test
+    public void drivesStraight() {
+        SwerveDriveSim sim = createSim();
+        Pose2d pose = run(sim, new ChassisSpeeds(1.0, 0, 0), 2.0);
+
+        assertTrue(pose.getX() > 1.7 && pose.getX() < 2.0, "x = " + pose.getX());
+        assertEquals(0, pose.getY(), 1e-6);
+        assertEquals(0, pose.getRotation().getRadians(), 1e-6);
+    }
+
+    /**
+     * Ensures that spinning in place turns the robot by about the commanded angle without translating it.
+     */
+    @Test
+    public void spinsInPlace() {
+        SwerveDriveSim sim = createSim();
+        Pose2d pose = run(sim, new ChassisSpeeds(0, 0, 1.0), 1.5);
+
+        assertTrue(pose.getRotation().getRadians() > 1.1, "theta = " + pose.getRotation().getRadians());
+        assertTrue(pose.getRotation().getRadians() < 1.5, "theta = " + pose.getRotation().getRadians());
+        assertEquals(0, pose.getTranslation().getNorm(), 0.01);
+    }
+
+    /**
+     * Ensures that wheel slip moves the robot less than its wheels turn, without changing how far the wheels turn.
+     */
+    @Test
+    public void wheelSlipShortensTravel() {
+        SwerveDriveSim ideal = createSim();
+        SwerveDriveSim slipping = createSim();
+        slipping.setDisturbances(new SimDisturbances(0.1, 0, 0, 0, 0, 0, 0, 0, 0, 0), new Random(1678));
+
+        Pose2d idealPose = run(ideal, new ChassisSpeeds(1.0, 0, 0), 2.0);
+        Pose2d slippingPose = run(slipping, new ChassisSpeeds(1.0, 0, 0), 2.0);
+
+        assertEquals(
+            ideal.getModules()[0].getTruePosition().distanceMeters,
+            slipping.getModules()[0].getTruePosition().distanceMeters,
+            1e-9
+        );
+        assertTrue(slippingPose.getX() < 0.97 * idealPose.getX(), "x = " + slippingPose.getX());
+        assertTrue(slippingPose.getX() > 0.85 * idealPose.getX(), "x = " + slippingPose.getX());
+    }
+
+    /**
+     * Ensures that driving onto a charging station pitches the robot nose up and tips the station towards it.
+     */
+    @Test
+    public void climbsChargingStation() {
+        SwerveDriveSim sim = createSim();
+        ChargingStationSim station = new ChargingStationSim(2.0, 0);
+        sim.addChargingStation(station);
+
+        Pose2d pose = run(sim, new ChassisSpeeds(1.0, 0, 0), 2.0);
+
+        assertTrue(sim.getPitchDegs() > 10.0, "pitch = " + sim.getPitchDegs());
+        assertTrue(station.getAngleDegs() > 10.0, "station angle = " + station.getAngleDegs());
+        assertTrue(pose.getX() < 1.7, "x = " + pose.getX());
+        assertEquals(0, sim.getRollDegs(), 1e-6);
+    }
+
+    /**
+     * Creates a drive simulation without a gyro.
+     * @return The simulation.
+     */
+    private static SwerveDriveSim createSim() {
+        return new SwerveDriveSim(
+            kinematics, null,
+            new SimSwerveModule(), new SimSwerveModule(), new SimSwerveModule(), new SimSwerveModule()
+        );
+    }
+
+    /**
+     * Commands constant chassis speeds to a drive simulation for some time.
+     * @param sim The simulation.
+     * @param speeds The chassis speeds.
+     * @param seconds The time to run for, in seconds.
+     * @return The final pose of the robot.
+     */
+    private static Pose2d run(SwerveDriveSim sim, ChassisSpeeds speeds, double seconds) {
+        SimSwerveModule[] modules = sim.getModules();
+        for (int i = 0; i < Math.round(seconds / DT); i++) {
+            SwerveModuleState[] states = kinematics.toSwerveModuleStates(speeds);
+            for (int j = 0; j < modules.length; j++) modules[j].setDesiredState(states[j]);
+            sim.update(DT);
+        }
+        return sim.getPose();
+    }
+}
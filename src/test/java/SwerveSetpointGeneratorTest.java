@@ -0,0 +1,90 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.TimedRobot;
+
+import frc.robot.subsystems.drivetrain.SwerveSetpointGenerator;
+import frc.robot.subsystems.drivetrain.SwerveSubsystem;
+
+import static frc.robot.Constants.SwerveConstants.*;
+
+public class SwerveSetpointGeneratorTest {
+    private static final double DT = TimedRobot.kDefaultPeriod;
+    private static final double MAX_VEL = SwerveSubsystem.MAX_VEL;
+    private static final double MAX_OMEGA = SwerveSubsystem.MAX_OMEGA;
+
+    private static final SwerveDriveKinematics kinematics = new SwerveDriveKinematics(TL_POS, TR_POS, BL_POS, BR_POS);
+
+    /**
+     * Holds random driver commands (including reversals and sharp direction changes) for random durations, and
+     * ensures that no module ever accelerates or steers faster than its limits between setpoints, and that each
+     * command is eventually reached.
+     */
+    @Test
+    public void respectsModuleLimits() {
+        SwerveSetpointGenerator generator = new SwerveSetpointGenerator(
+            kinematics, MAX_VEL, MAX_OMEGA, MODULE_MAX_DRIVE_ACCEL, MODULE_MAX_STEER_VEL
+        );
+        SwerveModuleState[] prev = kinematics.toSwerveModuleStates(new ChassisSpeeds());
+
+        Random random = new Random(1678);
+        for (int command = 0; command < 200; command++) {
+            ChassisSpeeds desired = new ChassisSpeeds(
+                (random.nextDouble() * 2 - 1) * MAX_VEL,
+                (random.nextDouble() * 2 - 1) * MAX_VEL,
+                random.nextInt(3) == 0 ? (random.nextDouble() * 2 - 1) * MAX_OMEGA : 0
+            );
+
+            // Long enough to reach any command, since every fraction is feasible once the modules are aligned
+            SwerveModuleState[] states = prev;
+            for (int i = 0; i < 150; i++) {
+                states = generator.generate(desired, DT);
+                for (int m = 0; m < states.length; m++) {
+                    double speedChange = Math.abs(states[m].speedMetersPerSecond - prev[m].speedMetersPerSecond);
+                    double angleChange = Math.abs(MathUtil.angleModulus(
+                        states[m].angle.getRadians() - prev[m].angle.getRadians()
+                    ));
+                    assertTrue(speedChange <= MODULE_MAX_DRIVE_ACCEL * DT + 1e-6, "Module " + m + " accelerated by " + speedChange);
+                    assertTrue(angleChange <= MODULE_MAX_STEER_VEL * DT + 1e-6, "Module " + m + " steered by " + angleChange);
+                }
+                prev = states;
+            }
+
+            // The setpoints end at the desaturated desired speeds
+            SwerveModuleState[] expected = kinematics.toSwerveModuleStates(desired);
+            SwerveDriveKinematics.desaturateWheelSpeeds(expected, desired, MAX_VEL, MAX_VEL, MAX_OMEGA);
+            ChassisSpeeds expectedSpeeds = kinematics.toChassisSpeeds(expected);
+            ChassisSpeeds actualSpeeds = kinematics.toChassisSpeeds(states);
+            assertEquals(expectedSpeeds.vxMetersPerSecond, actualSpeeds.vxMetersPerSecond, 1e-6);
+            assertEquals(expectedSpeeds.vyMetersPerSecond, actualSpeeds.vyMetersPerSecond, 1e-6);
+            assertEquals(expectedSpeeds.omegaRadiansPerSecond, actualSpeeds.omegaRadiansPerSecond, 1e-6);
+        }
+    }
+
+    /**
+     * Ensures that the modules slow down while steering through a sharp turn at full speed, rather than steering
+     * at full speed and skidding.
+     */
+    @Test
+    public void slowsDownThroughSharpTurns() {
+        SwerveSetpointGenerator generator = new SwerveSetpointGenerator(
+            kinematics, MAX_VEL, MAX_OMEGA, MODULE_MAX_DRIVE_ACCEL, MODULE_MAX_STEER_VEL
+        );
+        generator.reset(kinematics.toSwerveModuleStates(new ChassisSpeeds(MAX_VEL, 0, 0)));
+
+        double minSpeed = MAX_VEL;
+        for (int i = 0; i < 100; i++) {
+            ChassisSpeeds speeds = kinematics.toChassisSpeeds(generator.generate(new ChassisSpeeds(0, MAX_VEL, 0), DT));
+            minSpeed = Math.min(minSpeed, Math.hypot(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond));
+        }
+
+        assertTrue(minSpeed < MAX_VEL * 0.9, "Turned without slowing down: min speed " + minSpeed);
+    }
+}
@@ -0,0 +1,131 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.TimedRobot;
+
+import frc.robot.subsystems.drivetrain.SwerveSubsystem;
+import frc.robot.subsystems.drivetrain.TipOverLimiter;
+
+import static frc.robot.Constants.SwerveConstants.TL_POS;
+import static frc.robot.Constants.TipOverConstants.*;
+import static frc.robot.Constants.TiltedElevatorConstants.EXTENSION_ANGLE_RADIANS;
+import static frc.robot.Constants.TiltedElevatorConstants.EXTENSION_LIMIT_METERS;
+
+public class TipOverLimiterTest {
+    private static final double DT = TimedRobot.kDefaultPeriod;
+    private static final double GRAVITY = 9.81;
+
+    private static final double MAX_VEL = SwerveSubsystem.MAX_VEL;
+    private static final double MAX_OMEGA = SwerveSubsystem.MAX_OMEGA;
+
+    // Driver inputs, each held for 1.5s: full forward from rest, a full reversal, full left, full diagonal,
+    // then driving forward while spinning, and stopping.
+    private static final ChassisSpeeds[] INPUTS = {
+        new ChassisSpeeds(MAX_VEL, 0, 0),
+        new ChassisSpeeds(-MAX_VEL, 0, 0),
+        new ChassisSpeeds(0, MAX_VEL, 0),
+        new ChassisSpeeds(MAX_VEL / Math.sqrt(2), -MAX_VEL / Math.sqrt(2), 0),
+        new ChassisSpeeds(MAX_VEL / 2, 0, MAX_OMEGA),
+        new ChassisSpeeds()
+    };
+
+    /**
+     * Drives through a set of aggressive driver inputs at extensions across the elevator's travel, and ensures that
+     * the robot never tips: the zero moment point, computed from the moments of the chassis and the elevator
+     * stages, must stay inside the rectangle formed by the modules.
+     */
+    @Test
+    public void neverTips() {
+        for (double extension = 0; extension <= EXTENSION_LIMIT_METERS + 1e-9; extension += EXTENSION_LIMIT_METERS / 10) {
+            TipOverLimiter limiter = new TipOverLimiter();
+            ChassisSpeeds last = new ChassisSpeeds();
+
+            for (ChassisSpeeds input : INPUTS) {
+                for (int i = 0; i < Math.round(1.5 / DT); i++) {
+                    ChassisSpeeds speeds = limiter.calculate(input, extension, DT);
+
+                    // Acceleration in the current robot frame, including the rotation over the loop
+                    double dTheta = last.omegaRadiansPerSecond * DT;
+                    double lastVx = last.vxMetersPerSecond * Math.cos(dTheta) + last.vyMetersPerSecond * Math.sin(dTheta);
+                    double lastVy = -last.vxMetersPerSecond * Math.sin(dTheta) + last.vyMetersPerSecond * Math.cos(dTheta);
+                    double ax = (speeds.vxMetersPerSecond - lastVx) / DT;
+                    double ay = (speeds.vyMetersPerSecond - lastVy) / DT;
+                    last = speeds;
+
+                    double[] zmp = getZeroMomentPoint(extension, ax, ay);
+                    String message = String.format(
+                        "Tipped at %.2fm extension: a = (%.2f, %.2f), ZMP = (%.3f, %.3f)",
+                        extension, ax, ay, zmp[0], zmp[1]
+                    );
+                    assertTrue(Math.abs(zmp[0]) <= Math.abs(TL_POS.getX()), message);
+                    assertTrue(Math.abs(zmp[1]) <= Math.abs(TL_POS.getY()), message);
+                }
+            }
+
+            // Every input is eventually reached, so the limiter doesn't stall
+            assertEquals(0, last.vxMetersPerSecond, 1e-9);
+            assertEquals(0, last.vyMetersPerSecond, 1e-9);
+        }
+    }
+
+    /**
+     * Ensures that the limiter allows full acceleration with the elevator stowed, and still gets to full speed
+     * quickly with the elevator fully extended.
+     */
+    @Test
+    public void fastWhenStowedAndExtended() {
+        double stowedSeconds = timeToFullSpeed(0);
+        double extendedSeconds = timeToFullSpeed(EXTENSION_LIMIT_METERS);
+
+        assertTrue(stowedSeconds <= 0.5, "Stowed took " + stowedSeconds + "s to full speed");
+        assertTrue(extendedSeconds <= 1.0, "Extended took " + extendedSeconds + "s to full speed");
+        assertTrue(stowedSeconds < extendedSeconds);
+    }
+
+    /**
+     * Gets the time for the limiter to reach full forward speed from rest.
+     * @param extension The extension of the elevator, in meters.
+     * @return The time to reach full speed, in seconds.
+     */
+    private static double timeToFullSpeed(double extension) {
+        TipOverLimiter limiter = new TipOverLimiter();
+        ChassisSpeeds input = new ChassisSpeeds(MAX_VEL, 0, 0);
+
+        double t = 0;
+        while (limiter.calculate(input, extension, DT).vxMetersPerSecond < MAX_VEL - 1e-9) {
+            t += DT;
+            assertTrue(t < 5, "Never reached full speed");
+        }
+        return t + DT;
+    }
+
+    /**
+     * Gets the zero moment point of the robot (the point on the ground about which gravity and inertial forces
+     * have no moment) from the chassis and the elevator stages.
+     * @param extension The extension of the elevator, in meters.
+     * @param ax The forward acceleration of the robot, in m/s^2.
+     * @param ay The leftward acceleration of the robot, in m/s^2.
+     * @return The [x, y] of the zero moment point relative to the center of the robot, in meters.
+     */
+    private static double[] getZeroMomentPoint(double extension, double ax, double ay) {
+        double[] masses = { CHASSIS_MASS_KG, CARRIAGE_MASS_KG };
+        double[] xs = { 0, CARRIAGE_STOWED_COG_X_METERS + extension * Math.cos(EXTENSION_ANGLE_RADIANS) };
+        double[] heights = {
+            CHASSIS_COG_HEIGHT_METERS,
+            CARRIAGE_STOWED_COG_HEIGHT_METERS + extension * Math.sin(EXTENSION_ANGLE_RADIANS)
+        };
+
+        double totalMass = 0;
+        double momentX = 0;
+        double momentY = 0;
+        for (int i = 0; i < masses.length; i++) {
+            totalMass += masses[i];
+            momentX += masses[i] * (GRAVITY * xs[i] - ax * heights[i]);
+            momentY += masses[i] * (-ay * heights[i]);
+        }
+
+        return new double[] { momentX / (totalMass * GRAVITY), momentY / (totalMass * GRAVITY) };
+    }
+}